@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.benchmark;
+
+import org.mule.runtime.api.meta.NamedObject;
+import org.mule.runtime.api.store.ObjectStoreException;
+import org.mule.runtime.api.store.TemplateObjectStore;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A named, in memory store, so that the benchmarks measure the operations rather than the backend.
+ */
+public class BenchmarkObjectStore extends TemplateObjectStore<Serializable> implements NamedObject {
+
+  private final Map<String, Serializable> entries = new ConcurrentHashMap<>();
+
+  @Override
+  protected boolean doContains(String key) {
+    return entries.containsKey(key);
+  }
+
+  @Override
+  protected void doStore(String key, Serializable value) {
+    entries.put(key, value);
+  }
+
+  @Override
+  protected Serializable doRetrieve(String key) {
+    return entries.get(key);
+  }
+
+  @Override
+  protected Serializable doRemove(String key) {
+    return entries.remove(key);
+  }
+
+  @Override
+  public boolean isPersistent() {
+    return false;
+  }
+
+  @Override
+  public void clear() {
+    entries.clear();
+  }
+
+  @Override
+  public void open() {}
+
+  @Override
+  public void close() {}
+
+  @Override
+  public List<String> allKeys() {
+    return new ArrayList<>(entries.keySet());
+  }
+
+  @Override
+  public Map<String, Serializable> retrieveAll() throws ObjectStoreException {
+    return new HashMap<>(entries);
+  }
+
+  @Override
+  public String getName() {
+    return "benchmark";
+  }
+}
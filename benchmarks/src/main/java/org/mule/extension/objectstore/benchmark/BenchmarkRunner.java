@@ -0,0 +1,39 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.benchmark;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every benchmark single threaded and with 8 threads, reporting throughput and allocation per operation.
+ * <p>
+ * When arguments are given, they are handed to the regular JMH command line instead.
+ */
+public class BenchmarkRunner {
+
+  private static final int[] THREADS = {1, 8};
+
+  public static void main(String[] args) throws Exception {
+    if (args.length > 0) {
+      Main.main(args);
+      return;
+    }
+
+    for (int threads : THREADS) {
+      Options options = new OptionsBuilder()
+          .include(ObjectStoreOperationsBenchmark.class.getSimpleName())
+          .threads(threads)
+          .addProfiler(GCProfiler.class)
+          .build();
+      new Runner(options).run();
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.benchmark;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mule.extension.objectstore.api.ReadConsistency.LOCKED;
+import org.mule.extension.objectstore.internal.ObjectStoreOperations;
+import org.mule.extension.objectstore.internal.expiry.ExpiredEntryReclaimer;
+import org.mule.extension.objectstore.internal.lock.LockMode;
+import org.mule.extension.objectstore.internal.lock.ObjectStoreLocks;
+import org.mule.extension.objectstore.internal.metrics.ObjectStoreMetrics;
+import org.mule.extension.objectstore.internal.ratelimit.ConcurrencyLimiters;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.core.internal.lock.MuleLockFactory;
+import org.mule.runtime.core.internal.lock.SingleServerLockProvider;
+
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the {@link ObjectStoreOperations} hot paths against an in memory store and the runtime's lock factory.
+ * <p>
+ * With the {@code UNIQUE} key pattern each thread works on its own keys, so threads only compete for the store. With
+ * {@code SHARED}, all threads cycle over a handful of keys and contend for the same key locks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectStoreOperationsBenchmark {
+
+  private static final int KEYS_PER_THREAD = 1024;
+  private static final int SHARED_KEYS = 16;
+  private static final int MAX_THREADS = 64;
+
+  @Param({"16", "16384"})
+  public int valueSize;
+
+  @Param({"UNIQUE", "SHARED"})
+  public String keyPattern;
+
+  @Param({"RUNTIME", "STRIPED"})
+  public LockMode lockMode;
+
+  private ObjectStoreOperations operations;
+  private BenchmarkObjectStore objectStore;
+  private MuleLockFactory lockFactory;
+  private TypedValue<Serializable> value;
+  private String[][] keysByThread;
+  private final AtomicInteger threadIds = new AtomicInteger();
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    lockFactory = new MuleLockFactory();
+    lockFactory.setLockProvider(new SingleServerLockProvider());
+    lockFactory.initialise();
+
+    objectStore = new BenchmarkObjectStore();
+    operations = new ObjectStoreOperations();
+    inject(operations, "lockFactory", lockFactory);
+    inject(operations, "metrics", new ObjectStoreMetrics());
+    inject(operations, "locks", new ObjectStoreLocks(lockMode));
+    inject(operations, "limiters", new ConcurrencyLimiters());
+    inject(operations, "reclaimer", new ExpiredEntryReclaimer());
+
+    byte[] bytes = new byte[valueSize];
+    Arrays.fill(bytes, (byte) 'x');
+    value = TypedValue.of(bytes);
+
+    keysByThread = new String[MAX_THREADS][];
+    for (int thread = 0; thread < MAX_THREADS; thread++) {
+      keysByThread[thread] = "SHARED".equals(keyPattern) ? keys("shared", SHARED_KEYS) : keys("t" + thread, KEYS_PER_THREAD);
+      for (String key : keysByThread[thread]) {
+        objectStore.store(key, bytes.clone());
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    lockFactory.dispose();
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadKeys {
+
+    private String[] keys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(ObjectStoreOperationsBenchmark benchmark) {
+      keys = benchmark.keysByThread[benchmark.threadIds.getAndIncrement() % MAX_THREADS];
+    }
+
+    String next() {
+      String key = keys[next];
+      next = (next + 1) % keys.length;
+      return key;
+    }
+  }
+
+  @Benchmark
+  public void store(ThreadKeys keys) {
+    operations.store(keys.next(), value, false, true, null, SECONDS, objectStore);
+  }
+
+  @Benchmark
+  public Object retrieve(ThreadKeys keys) {
+    return operations.retrieve(keys.next(), null, objectStore, LOCKED).getOutput();
+  }
+
+  @Benchmark
+  public boolean contains(ThreadKeys keys) {
+    return operations.contains(keys.next(), objectStore, LOCKED);
+  }
+
+  private static String[] keys(String prefix, int count) {
+    String[] keys = new String[count];
+    for (int i = 0; i < count; i++) {
+      keys[i] = prefix + "_" + i;
+    }
+    return keys;
+  }
+
+  private static void inject(Object target, String fieldName, Object value) throws ReflectiveOperationException {
+    Field field = target.getClass().getDeclaredField(fieldName);
+    field.setAccessible(true);
+    field.set(target, value);
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.api;
+
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.api.store.ObjectStoreException;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Capability of {@link ObjectStore} implementations which are able to read several keys in a single call.
+ * <p>
+ * When the store used by a multi key operation implements this interface, the operation issues one bulk read instead of
+ * one read per key.
+ *
+ * @since 2.0
+ */
+public interface BulkRetrieveObjectStore {
+
+  /**
+   * Retrieves the values stored for the given {@code keys}.
+   *
+   * @param keys the keys to be retrieved
+   * @return A Map with the values of the keys which exist in the store. Keys without a value are not part of the Map
+   * @throws ObjectStoreException if the store could not be read
+   */
+  Map<String, Serializable> retrieveMany(Collection<String> keys) throws ObjectStoreException;
+}
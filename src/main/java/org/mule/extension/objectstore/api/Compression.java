@@ -0,0 +1,30 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.api;
+
+/**
+ * How values are compressed before being handed to the backing store
+ *
+ * @since 2.0
+ */
+public enum Compression {
+
+  /**
+   * Values are not compressed
+   */
+  NONE,
+
+  /**
+   * Values are compressed with DEFLATE, which is slower but usually yields smaller values
+   */
+  DEFLATE,
+
+  /**
+   * Values are compressed with the LZ4 block format, which is very fast but usually yields larger values than DEFLATE
+   */
+  LZ4
+}
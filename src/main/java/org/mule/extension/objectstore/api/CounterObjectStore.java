@@ -0,0 +1,35 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.api;
+
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.api.store.ObjectStoreException;
+
+/**
+ * Capability of {@link ObjectStore} implementations which are able to atomically add to a numeric value.
+ * <p>
+ * When the store used by the increment operation implements this interface, the counter is updated in a single call
+ * instead of a retrieve followed by a store.
+ *
+ * @since 2.0
+ */
+public interface CounterObjectStore {
+
+  /**
+   * Adds {@code delta} to the counter stored for the given {@code key}. If there is no such counter, it is created with
+   * a value of {@code initialValue + delta}.
+   *
+   * @param key          the key of the counter
+   * @param delta        the amount to add. Use a negative value to decrement the counter
+   * @param initialValue the value the counter starts from when the {@code key} doesn't exist
+   * @param ttlMillis    if not {@code null}, the counter expires this many milliseconds after being created. Updates
+   *                     don't extend that lifespan
+   * @return the value of the counter after adding the {@code delta}
+   * @throws ObjectStoreException if the counter could not be updated or the stored value is not a number
+   */
+  long increment(String key, long delta, long initialValue, Long ttlMillis) throws ObjectStoreException;
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.api;
+
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.api.store.ObjectStoreException;
+
+/**
+ * Capability of {@link ObjectStore} implementations which are able to iterate their contents through a cursor, without
+ * building the whole list of keys in memory.
+ * <p>
+ * Paged operations read one page at a time from the cursor, releasing the store lock between pages.
+ *
+ * @since 2.0
+ */
+public interface CursorObjectStore {
+
+  /**
+   * Opens a cursor over all the keys in the store. The cursor is not required to reflect changes made after it was opened.
+   *
+   * @return a new {@link ObjectStoreCursor}
+   * @throws ObjectStoreException if the cursor could not be opened
+   */
+  ObjectStoreCursor<String> openKeyCursor() throws ObjectStoreException;
+
+  /**
+   * Opens a cursor over the entries in the store whose key starts with the given {@code keyPrefix}. The cursor is not
+   * required to reflect changes made after it was opened.
+   *
+   * @param keyPrefix only entries which keys start with this prefix are returned. If {@code null}, all entries are returned
+   * @return a new {@link ObjectStoreCursor}
+   * @throws ObjectStoreException if the cursor could not be opened
+   */
+  ObjectStoreCursor<ObjectStoreEntry> openEntryCursor(String keyPrefix) throws ObjectStoreException;
+}
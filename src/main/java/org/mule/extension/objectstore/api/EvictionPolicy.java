@@ -0,0 +1,25 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.api;
+
+/**
+ * Which entry is discarded when a bounded cache is full
+ *
+ * @since 2.0
+ */
+public enum EvictionPolicy {
+
+  /**
+   * Discards the least recently used entry
+   */
+  LRU,
+
+  /**
+   * Discards the oldest entry, regardless of how often it's used
+   */
+  FIFO
+}
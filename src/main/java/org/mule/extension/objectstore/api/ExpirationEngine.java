@@ -0,0 +1,27 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.api;
+
+/**
+ * How the entries of a transient store are expired
+ *
+ * @since 2.0
+ */
+public enum ExpirationEngine {
+
+  /**
+   * The store is created by the runtime, which sweeps all of its entries on every expiration interval
+   */
+  SWEEP,
+
+  /**
+   * The store is created by this connector, which expires each entry on its own through a timing wheel. Expiring an entry
+   * costs the same no matter how many entries the store holds, and entries are removed shortly after they expire
+   * rather than on the next sweep
+   */
+  TIMING_WHEEL
+}
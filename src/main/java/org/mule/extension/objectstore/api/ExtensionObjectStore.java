@@ -7,14 +7,35 @@
 package org.mule.extension.objectstore.api;
 
 import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.util.UUID.randomUUID;
 import static org.mule.runtime.api.connection.ConnectionValidationResult.success;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
 import static org.mule.runtime.api.meta.ExpressionSupport.NOT_SUPPORTED;
+import static org.mule.runtime.extension.api.annotation.param.display.Placement.ADVANCED_TAB;
 import static org.mule.runtime.core.api.config.MuleProperties.OBJECT_STORE_MANAGER;
 import static org.mule.runtime.core.api.event.EventContextFactory.create;
 import static org.mule.runtime.dsl.api.component.config.DefaultComponentLocation.fromSingleComponent;
 import static org.slf4j.LoggerFactory.getLogger;
 import org.mule.extension.objectstore.internal.ObjectStoreConnector;
 import org.mule.extension.objectstore.internal.ObjectStoreRegistry;
+import org.mule.extension.objectstore.internal.cache.InJvmInvalidationTransport;
+import org.mule.extension.objectstore.internal.cache.NearCache;
+import org.mule.extension.objectstore.internal.codec.CodecObjectStore;
+import org.mule.extension.objectstore.internal.codec.Compressor;
+import org.mule.extension.objectstore.internal.codec.ValueCodecs;
+import org.mule.extension.objectstore.internal.counter.Counters;
+import org.mule.extension.objectstore.internal.expiry.ExpiredEntryReclaimer;
+import org.mule.extension.objectstore.internal.expiry.TimingWheelExpirationEngine;
+import org.mule.extension.objectstore.internal.expiry.TimingWheelObjectStore;
+import org.mule.extension.objectstore.internal.metrics.ObjectStoreMetrics;
+import org.mule.extension.objectstore.internal.metrics.StoreMetrics;
+import org.mule.extension.objectstore.internal.paging.KeySnapshotEntryCursor;
+import org.mule.extension.objectstore.internal.paging.ListCursor;
+import org.mule.extension.objectstore.internal.retry.RetryPolicy;
+import org.mule.extension.objectstore.internal.shard.ShardedObjectStore;
+import org.mule.extension.objectstore.internal.size.EntrySizeTracker;
+import org.mule.extension.objectstore.internal.version.VersioningObjectStore;
 import org.mule.runtime.api.component.location.ComponentLocation;
 import org.mule.runtime.api.connection.ConnectionException;
 import org.mule.runtime.api.connection.ConnectionProvider;
@@ -24,6 +45,11 @@ import org.mule.runtime.api.lifecycle.Startable;
 import org.mule.runtime.api.lifecycle.Stoppable;
 import org.mule.runtime.api.message.Message;
 import org.mule.runtime.api.meta.NamedObject;
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.api.scheduler.SchedulerService;
+import org.mule.runtime.api.serialization.ObjectSerializer;
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
 import org.mule.runtime.api.store.ObjectStore;
 import org.mule.runtime.api.store.ObjectStoreException;
 import org.mule.runtime.api.store.ObjectStoreManager;
@@ -38,13 +64,18 @@ import org.mule.runtime.extension.api.annotation.dsl.xml.ParameterDsl;
 import org.mule.runtime.extension.api.annotation.param.Optional;
 import org.mule.runtime.extension.api.annotation.param.Parameter;
 import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
 import org.mule.runtime.extension.api.annotation.param.reference.ConfigReference;
 import org.mule.runtime.extension.api.runtime.config.ConfigurationInstance;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -56,9 +87,16 @@ import org.slf4j.Logger;
  *
  * @since 1.0
  */
-public abstract class ExtensionObjectStore implements ObjectStore<Serializable>, Startable, Stoppable, NamedObject {
+public abstract class ExtensionObjectStore
+    implements ObjectStore<Serializable>, BulkRetrieveObjectStore, UpsertObjectStore, CounterObjectStore, VersionedObjectStore,
+    CursorObjectStore, Startable, Stoppable, NamedObject {
 
   private static final Logger LOGGER = getLogger(ExtensionObjectStore.class);
+  private static final String RETRY_TAB = "Retry";
+  private static final String SHARD_SEPARATOR = "#shard-";
+  // kept in a store of its own, so that it never clashes with the keys of the store
+  private static final String SHARD_META_SUFFIX = SHARD_SEPARATOR + "meta";
+  private static final String SHARD_COUNT_KEY = "count";
   private boolean started = false;
 
   @Inject
@@ -67,6 +105,21 @@ public abstract class ExtensionObjectStore implements ObjectStore<Serializable>,
   @Inject
   private ObjectStoreRegistry registry;
 
+  @Inject
+  private ObjectStoreMetrics metrics;
+
+  @Inject
+  private TimingWheelExpirationEngine timingWheelEngine;
+
+  @Inject
+  private ExpiredEntryReclaimer reclaimer;
+
+  @Inject
+  private SchedulerService schedulerService;
+
+  @Inject
+  private ObjectSerializer objectSerializer;
+
   @Inject
   @Named("app.name")
   private java.util.Optional<String> appName = java.util.Optional.empty();
@@ -75,6 +128,10 @@ public abstract class ExtensionObjectStore implements ObjectStore<Serializable>,
   @Named("domain.name")
   private java.util.Optional<String> domainName = java.util.Optional.empty();
 
+  @Inject
+  @Named(InvalidationTransport.REGISTRY_KEY)
+  private java.util.Optional<InvalidationTransport> invalidationTransport = java.util.Optional.empty();
+
   @Inject
   @Named(OBJECT_STORE_MANAGER)
   private ObjectStoreManager runtimeObjectStoreManager;
@@ -96,6 +153,30 @@ public abstract class ExtensionObjectStore implements ObjectStore<Serializable>,
   @Expression(NOT_SUPPORTED)
   private Integer maxEntries;
 
+  /**
+   * The max total size of the entries, in bytes, as estimated from the size of each value once serialized. Once
+   * exceeded, the least recently used entries are removed until the store fits again. If absent, then the described
+   * {@link ObjectStore} will have no memory boundaries.
+   * <p>
+   * Only applies to transient stores, and is ignored with a warning on persistent ones. Only entries written through this
+   * store since the runtime started are accounted. Entries which the store removes on its own, for example because they
+   * expired, keep being accounted until they would be evicted. Evictions don't acquire the lock of the evicted keys, so
+   * a write racing with the eviction of its key may be lost.
+   */
+  @Parameter
+  @Optional
+  @Expression(NOT_SUPPORTED)
+  private Long maxBytes;
+
+  /**
+   * The max size of a single value, in bytes, as estimated from its size once serialized. Larger values are rejected
+   * with a {@code VALUE_TOO_LARGE} error. If absent, values are only limited by {@link #maxBytes}.
+   */
+  @Parameter
+  @Optional
+  @Expression(NOT_SUPPORTED)
+  private Long maxValueSize;
+
   /**
    * The entry timeout. If absent, then the described {@link ObjectStore} will have no time boundaries.
    */
@@ -134,6 +215,188 @@ public abstract class ExtensionObjectStore implements ObjectStore<Serializable>,
   @Expression(NOT_SUPPORTED)
   private TimeUnit expirationIntervalUnit;
 
+  /**
+   * How the entries of a transient store expire. With {@code TIMING_WHEEL}, each entry is removed on its own shortly
+   * after {@link #entryTtl}, and the oldest entries are evicted as soon as {@link #maxEntries} is exceeded, so the cost of
+   * expiring entries doesn't grow with the size of the store. In that case {@link #expirationInterval} has no effect.
+   * <p>
+   * Only applies to transient stores created by the runtime's default {@link ObjectStoreManager}. Persistent stores and
+   * stores declared through {@link #config} are always expired by their own implementation.
+   */
+  @Parameter
+  @Optional(defaultValue = "SWEEP")
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = ADVANCED_TAB)
+  private ExpirationEngine expirationEngine;
+
+  /**
+   * Whether each value should carry a version which changes every time the value is written. Versions allow values to be
+   * read through the retrieve with version operation and updated optimistically through the compare and set operation.
+   * <p>
+   * If the store referenced through {@link #config} supports versioning on its own, then its versions are used and this
+   * parameter has no effect. Otherwise, values are stored along with their version.
+   */
+  @Parameter
+  @Optional(defaultValue = "false")
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = ADVANCED_TAB)
+  private boolean versioned;
+
+  /**
+   * The number of backing stores to spread the keys of this store across, through consistent hashing. Each shard is a
+   * store of its own, obtained from the same {@link ObjectStoreManager}, so the throughput and rate limits of all of them
+   * add up. Retrieving all the keys or entries reads every shard in parallel. {@link #maxEntries} applies to each shard.
+   * <p>
+   * The number of shards is recorded, so that when it changes across a restart, the store moves its keys to the shards
+   * which now own them before it starts, including the keys of the dropped shards and, when first sharded, the ones the
+   * store held before. That is a full scan of the store, which doesn't happen again while the number stays the same. All
+   * the nodes of a cluster must use the same number. Has no effect on stores which use the {@code TIMING_WHEEL}
+   * expiration engine.
+   */
+  @Parameter
+  @Optional(defaultValue = "1")
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = ADVANCED_TAB)
+  private int shards;
+
+  /**
+   * How values are encoded before being handed to the backing store. With {@code JAVA}, values are handed as they are,
+   * and the store serializes them on its own, unless they are {@link #compression compressed}. With {@code COMPACT}, the
+   * media type of each value is written as a short header followed by its payload as raw bytes, so stores which
+   * serialize their values write and read far fewer bytes. Other codecs can be plugged in through the
+   * {@link ValueCodec} SPI, and selected by their name.
+   * <p>
+   * Values are written along with the name of their codec, so that they can still be read after switching to another
+   * codec, as long as it isn't {@code JAVA} without compression. Values written with {@code JAVA} can be read with any
+   * codec. Since the backing store only sees encoded values, its own versioning and counters are not used when a codec
+   * is.
+   */
+  @Parameter
+  @Optional(defaultValue = ValueCodecs.JAVA)
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = ADVANCED_TAB)
+  private String serializer;
+
+  /**
+   * How values are compressed before being handed to the backing store. Values are first encoded through the
+   * {@link #serializer}, with Java serialization if it's {@code JAVA}, and then compressed if they take at least
+   * {@link #compressionThreshold} bytes. Each value is written with a marker byte which tells how it was compressed, so
+   * values written with another algorithm, or before compression was enabled, can still be read.
+   * <p>
+   * Since the backing store only sees compressed values, its own versioning and counters are not used when values are
+   * compressed.
+   */
+  @Parameter
+  @Optional(defaultValue = "NONE")
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = ADVANCED_TAB)
+  private Compression compression;
+
+  /**
+   * The min size of a value once encoded, in bytes, for it to be compressed. Smaller values are stored as they are,
+   * since compressing them saves little and costs time.
+   */
+  @Parameter
+  @Optional(defaultValue = "1024")
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = ADVANCED_TAB)
+  private int compressionThreshold;
+
+  /**
+   * The max number of entries to keep in an in process cache in front of the store. Reads served from that cache don't
+   * reach the store, which is useful when the store is remote or shared across a cluster.
+   * <p>
+   * Writes performed through stores with the same name invalidate the cache. By default, this is only true for stores
+   * in the same JVM and the same application or domain, unless a cluster aware {@link InvalidationTransport} is
+   * registered. Otherwise, entries changed by
+   * other nodes may be served stale for up to {@link #nearCacheEntryTtl}. The same goes for entries evicted from the
+   * store once it holds more than {@link #maxEntries}, unless it uses the {@link ExpirationEngine#TIMING_WHEEL} engine.
+   * If absent or lower or equal to zero, then no cache is used.
+   */
+  @Parameter
+  @Optional
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = ADVANCED_TAB)
+  private Integer nearCacheMaxEntries;
+
+  /**
+   * For how long a cached entry can be served, which is never longer than the {@link #entryTtl} of the store. If both are
+   * absent, entries are only discarded when evicted or invalidated.
+   */
+  @Parameter
+  @Optional
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = ADVANCED_TAB)
+  private Long nearCacheEntryTtl;
+
+  /**
+   * A {@link TimeUnit} which qualifies the {@link #nearCacheEntryTtl}
+   */
+  @Parameter
+  @Optional(defaultValue = "SECONDS")
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = ADVANCED_TAB)
+  private TimeUnit nearCacheEntryTtlUnit;
+
+  /**
+   * Which entry to discard when the cache is full
+   */
+  @Parameter
+  @Optional(defaultValue = "LRU")
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = ADVANCED_TAB)
+  private EvictionPolicy nearCacheEvictionPolicy;
+
+  /**
+   * The max number of times to attempt each call to the store, the first one included, when the store is not
+   * available or rejects the call because of throttling. Retries happen while the operation holds its locks.
+   * If absent, then the retry settings of the referenced {@link #config} apply, if any.
+   * Otherwise, calls are not retried.
+   */
+  @Parameter
+  @Optional
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = RETRY_TAB)
+  private Integer retryMaxAttempts;
+
+  /**
+   * The max wait before the first retry. It doubles on each subsequent retry, up to {@link #retryMaxBackoff}. The
+   * actual wait is picked at random between zero and that value. Defaults to 100 milliseconds.
+   */
+  @Parameter
+  @Optional
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = RETRY_TAB)
+  private Long retryInitialBackoff;
+
+  /**
+   * The max wait between retries. Defaults to 5 seconds.
+   */
+  @Parameter
+  @Optional
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = RETRY_TAB)
+  private Long retryMaxBackoff;
+
+  /**
+   * For how long to keep retrying, counting from the first attempt. If absent, only {@link #retryMaxAttempts} applies.
+   */
+  @Parameter
+  @Optional
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = RETRY_TAB)
+  private Long retryDeadline;
+
+  /**
+   * A {@link TimeUnit} which qualifies the {@link #retryInitialBackoff}, {@link #retryMaxBackoff} and
+   * {@link #retryDeadline}
+   */
+  @Parameter
+  @Optional(defaultValue = "MILLISECONDS")
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = RETRY_TAB)
+  private TimeUnit retryTimeUnit;
+
   /**
    * A reference to an {@code os:config} element which will be used to declare this ObjectStore.
    * <p>
@@ -153,6 +416,15 @@ public abstract class ExtensionObjectStore implements ObjectStore<Serializable>,
   private transient ConnectionProvider<ObjectStoreManager> storeManagerProvider;
   private transient ObjectStoreManager objectStoreManager;
   private transient ObjectStore<Serializable> delegateStore;
+  private transient Scheduler shardScheduler;
+  private transient NearCache nearCache;
+  private transient TimingWheelObjectStore timingWheelStore;
+  private final transient Consumer<String> nearCacheInvalidator = this::applyInvalidation;
+  private transient EntrySizeTracker sizeTracker;
+  private transient InvalidationTransport transport;
+  private transient boolean publishInvalidations;
+  private transient String subscriberId;
+  private transient RetryPolicy retryPolicy = RetryPolicy.NONE;
 
   protected abstract String resolveStoreName();
 
@@ -191,15 +463,190 @@ public abstract class ExtensionObjectStore implements ObjectStore<Serializable>,
       throwStoreAlreadyExists(storeName);
     }
 
-    delegateStore = objectStoreManager.getOrCreateObjectStore(storeName, settings.build());
+    if (usesTimingWheel(storeName)) {
+      timingWheelStore = timingWheelEngine.getOrCreateStore(storeName, maxEntries,
+                                                            entryTtl != null ? entryTtlUnit.toMillis(entryTtl) : null,
+                                                            metrics.forStore(storeName));
+      delegateStore = timingWheelStore;
+    } else {
+      delegateStore = createDelegateStore(storeName, settings.build());
+    }
+    delegateStore = withCodec(storeName, delegateStore);
+    if (versioned && !(delegateStore instanceof VersionedObjectStore)) {
+      delegateStore = new VersioningObjectStore(delegateStore);
+    }
+    nearCache = createNearCache(storeName);
+    if (nearCache != null && timingWheelStore != null) {
+      timingWheelStore.addDropListener(nearCacheInvalidator);
+    }
+    if (maxBytes != null && maxBytes > 0 && persistent) {
+      LOGGER.warn(format("Object Store '%s' is persistent, so its maxBytes parameter is ignored. It only applies to "
+          + "transient stores", storeName));
+    } else if (sizeTracker == null && maxBytes != null && maxBytes > 0) {
+      // kept across restarts, as the entries of the delegate store are
+      sizeTracker = new EntrySizeTracker(maxBytes);
+    }
+    retryPolicy = resolveRetryPolicy();
+    transport = invalidationTransport.orElse(InJvmInvalidationTransport.forContext(getContextId()));
+    // peers can only have near caches of their own if a transport reaches them
+    publishInvalidations = nearCache != null || invalidationTransport.isPresent();
+    subscriberId = randomUUID().toString();
+    if (nearCache != null) {
+      transport.subscribe(storeName, subscriberId, this::applyInvalidation);
+    }
     registry.register(storeName, getContextId(), this);
     started = true;
   }
 
+  private ObjectStore<Serializable> createDelegateStore(String storeName, ObjectStoreSettings settings)
+      throws ObjectStoreException {
+    // neither expires nor evicts, so that the number of shards is never lost
+    String shardMetaName = storeName + SHARD_META_SUFFIX;
+    ObjectStore<Serializable> shardMeta = objectStoreManager
+        .getOrCreateObjectStore(shardMetaName, ObjectStoreSettings.builder().persistent(persistent).build());
+    int previousShards = getPreviousShards(shardMeta);
+
+    if (shards <= 1) {
+      ObjectStore<Serializable> store = objectStoreManager.getOrCreateObjectStore(storeName, settings);
+      if (previousShards > 1) {
+        unshard(storeName, store, previousShards, settings);
+        shardMeta.remove(SHARD_COUNT_KEY);
+      }
+      // unsharded stores keep no record
+      objectStoreManager.disposeStore(shardMetaName);
+      return store;
+    }
+
+    List<String> shardNames = new ArrayList<>();
+    List<ObjectStore<Serializable>> shardStores = new ArrayList<>();
+    for (int i = 0; i < shards; i++) {
+      String shardName = storeName + SHARD_SEPARATOR + i;
+      shardNames.add(shardName);
+      shardStores.add(objectStoreManager.getOrCreateObjectStore(shardName, settings));
+    }
+
+    shardScheduler = schedulerService.ioScheduler();
+    ShardedObjectStore sharded = new ShardedObjectStore(shardNames, shardStores, shardScheduler);
+
+    if (previousShards != shards) {
+      int moved = reshard(storeName, sharded, previousShards, settings);
+      if (shardMeta.contains(SHARD_COUNT_KEY)) {
+        shardMeta.remove(SHARD_COUNT_KEY);
+      }
+      shardMeta.store(SHARD_COUNT_KEY, shards);
+      LOGGER.info(format("Moved %d keys of Object Store '%s' from %d to %d shards", moved, storeName, previousShards,
+                         shards));
+    }
+    return sharded;
+  }
+
+  /**
+   * @return the number of shards recorded in the given store, or 1 if there is no such record
+   */
+  private int getPreviousShards(ObjectStore<Serializable> shardMeta) throws ObjectStoreException {
+    if (!shardMeta.contains(SHARD_COUNT_KEY)) {
+      return 1;
+    }
+
+    Serializable count = shardMeta.retrieve(SHARD_COUNT_KEY);
+    return count instanceof Integer && (Integer) count > 1 ? (Integer) count : 1;
+  }
+
+  private int reshard(String storeName, ShardedObjectStore sharded, int previousShards, ObjectStoreSettings settings)
+      throws ObjectStoreException {
+    ObjectStore<Serializable> unsharded = objectStoreManager.getOrCreateObjectStore(storeName, settings);
+    int moved = sharded.drain(unsharded, unsharded.allKeys());
+
+    for (int i = shards; i < previousShards; i++) {
+      ObjectStore<Serializable> dropped = objectStoreManager.getOrCreateObjectStore(storeName + SHARD_SEPARATOR + i, settings);
+      moved += sharded.drain(dropped, dropped.allKeys());
+    }
+
+    if (previousShards < shards) {
+      moved += sharded.rebalance();
+    }
+    return moved;
+  }
+
+  private void unshard(String storeName, ObjectStore<Serializable> store, int previousShards, ObjectStoreSettings settings)
+      throws ObjectStoreException {
+    int moved = 0;
+    for (int i = 0; i < previousShards; i++) {
+      ObjectStore<Serializable> shard = objectStoreManager.getOrCreateObjectStore(storeName + SHARD_SEPARATOR + i, settings);
+      moved += ShardedObjectStore.drain(shard, shard.allKeys(), store);
+    }
+    LOGGER.info(format("Moved %d keys of Object Store '%s' from %d shards back to a single store", moved, storeName,
+                       previousShards));
+  }
+
+  private ObjectStore<Serializable> withCodec(String storeName, ObjectStore<Serializable> store) {
+    String codecName = serializer != null ? serializer : ValueCodecs.JAVA;
+    Compressor compressor = compression != null ? Compressor.of(compression) : null;
+    if (ValueCodecs.JAVA.equalsIgnoreCase(codecName) && compressor == null) {
+      return store;
+    }
+
+    ValueCodecs codecs = new ValueCodecs(objectSerializer.getInternalProtocol());
+    ValueCodec codec = codecs.get(codecName);
+    if (codec == null) {
+      throw new IllegalArgumentException(format("Object Store '%s' uses serializer '%s', which doesn't exist", storeName,
+                                                codecName));
+    }
+    return new CodecObjectStore(store, codec, codecs, compressor, compressionThreshold, metrics.forStore(storeName));
+  }
+
+  private boolean usesTimingWheel(String storeName) {
+    if (expirationEngine != ExpirationEngine.TIMING_WHEEL) {
+      return false;
+    }
+
+    if (persistent || config != null) {
+      LOGGER.warn(format("Object Store '%s' is persistent or declared through a config, so its own expiration applies "
+          + "instead of the TIMING_WHEEL expiration engine", storeName));
+      return false;
+    }
+
+    return true;
+  }
+
+  private NearCache createNearCache(String storeName) {
+    if (nearCacheMaxEntries == null || nearCacheMaxEntries <= 0) {
+      return null;
+    }
+
+    long ttl = nearCacheEntryTtl != null ? nearCacheEntryTtlUnit.toMillis(nearCacheEntryTtl) : 0;
+    long storeTtl = entryTtl != null ? entryTtlUnit.toMillis(entryTtl) : 0;
+    if (storeTtl > 0 && (ttl <= 0 || storeTtl < ttl)) {
+      // entries must not outlive the ones the store expires on its own
+      ttl = storeTtl;
+    }
+    if (timingWheelStore == null && maxEntries != null && maxEntries >= 0) {
+      LOGGER.warn(format("Object Store '%s' evicts its oldest entries once over its maxEntries. Its near cache may keep "
+          + "serving them until they are evicted from it%s", storeName,
+                         ttl > 0 ? format(" or for up to %d milliseconds", ttl) : ""));
+    }
+    return new NearCache(nearCacheMaxEntries, ttl, nearCacheEvictionPolicy, metrics.forStore(storeName));
+  }
+
+  private RetryPolicy resolveRetryPolicy() {
+    if (retryMaxAttempts != null) {
+      return RetryPolicy.of(retryMaxAttempts, retryInitialBackoff, retryMaxBackoff, retryDeadline, retryTimeUnit);
+    }
+
+    return config != null ? config.getRetryPolicy() : RetryPolicy.NONE;
+  }
+
   private void throwStoreAlreadyExists(String storeName) {
     throw new IllegalArgumentException(format("An Object Store was already defined with the name '%s'", storeName));
   }
 
+  /**
+   * @return whether this store was defined in an application, as opposed to a domain, whose applications share it
+   */
+  public boolean isApplicationScoped() {
+    return appName.isPresent();
+  }
+
   private String getContextId() {
     return appName.orElse(domainName.orElse(null));
   }
@@ -211,6 +658,15 @@ public abstract class ExtensionObjectStore implements ObjectStore<Serializable>,
   @Override
   public void stop() {
     registry.unregister(resolveStoreName(), getContextId());
+    reclaimer.untrackStore(resolveStoreName());
+
+    if (transport != null && nearCache != null) {
+      transport.unsubscribe(resolveStoreName(), subscriberId);
+    }
+
+    if (timingWheelStore != null) {
+      timingWheelStore.removeDropListener(nearCacheInvalidator);
+    }
 
     if (delegateStore != null) {
       try {
@@ -230,34 +686,262 @@ public abstract class ExtensionObjectStore implements ObjectStore<Serializable>,
       }
     }
 
+    if (shardScheduler != null) {
+      shardScheduler.stop();
+    }
+
     storeManagerProvider = null;
     objectStoreManager = null;
     delegateStore = null;
+    shardScheduler = null;
+    nearCache = null;
+    timingWheelStore = null;
+    transport = null;
+    publishInvalidations = false;
+    subscriberId = null;
     started = false;
   }
 
   @Override
   public boolean contains(String key) throws ObjectStoreException {
     checkDelegatedStoreInitialized();
+    if (nearCache != null && nearCache.get(key) != null) {
+      return true;
+    }
     return delegateStore.contains(key);
   }
 
   @Override
   public void store(String key, Serializable value) throws ObjectStoreException {
     checkDelegatedStoreInitialized();
-    delegateStore.store(key, value);
+    long size = checkValueSize(key, value);
+    try {
+      delegateStore.store(key, value);
+      trackWrite(key, size);
+    } finally {
+      invalidate(key);
+    }
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * If the delegate store is an {@link UpsertObjectStore}, then this is a single call. Otherwise, an existing value is
+   * overwritten by removing it and storing the new one, which is recorded in the store's metrics.
+   */
+  @Override
+  public void upsert(String key, Serializable value) throws ObjectStoreException {
+    checkDelegatedStoreInitialized();
+    long size = checkValueSize(key, value);
+    try {
+      doUpsert(key, value);
+      trackWrite(key, size);
+    } finally {
+      invalidate(key);
+    }
+  }
+
+  private void doUpsert(String key, Serializable value) throws ObjectStoreException {
+    if (delegateStore instanceof UpsertObjectStore) {
+      ((UpsertObjectStore) delegateStore).upsert(key, value);
+      return;
+    }
+
+    try {
+      delegateStore.store(key, value);
+    } catch (ObjectAlreadyExistsException e) {
+      metrics.forStore(resolveStoreName()).recordUpsertFallback();
+      try {
+        delegateStore.remove(key);
+      } catch (ObjectDoesNotExistException notFound) {
+        // already gone, nothing to overwrite
+      }
+      delegateStore.store(key, value);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * If the delegate store is a {@link CounterObjectStore}, then this is a single call. Otherwise, the current value is
+   * retrieved and the updated one stored, which is only atomic if the caller holds the key lock.
+   */
+  @Override
+  public long increment(String key, long delta, long initialValue, Long ttlMillis) throws ObjectStoreException {
+    checkDelegatedStoreInitialized();
+    try {
+      if (delegateStore instanceof CounterObjectStore) {
+        long updated = ((CounterObjectStore) delegateStore).increment(key, delta, initialValue, ttlMillis);
+        trackWrite(key, Long.BYTES);
+        return updated;
+      }
+
+      Serializable current;
+      try {
+        current = delegateStore.retrieve(key);
+      } catch (ObjectDoesNotExistException e) {
+        current = null;
+      }
+
+      Serializable next = Counters.next(key, current, delta, initialValue, ttlMillis, currentTimeMillis());
+      doUpsert(key, next);
+      trackWrite(key, Long.BYTES);
+      return Counters.valueOf(next);
+    } finally {
+      invalidate(key);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws ObjectStoreException if this store is not versioned
+   */
+  @Override
+  public VersionedValue retrieveWithVersion(String key) throws ObjectStoreException {
+    checkDelegatedStoreInitialized();
+    return asVersioned().retrieveWithVersion(key);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws ObjectStoreException if this store is not versioned
+   */
+  @Override
+  public boolean compareAndSet(String key, Serializable value, Long expectedVersion) throws ObjectStoreException {
+    checkDelegatedStoreInitialized();
+    VersionedObjectStore versionedStore = asVersioned();
+    long size = checkValueSize(key, value);
+    try {
+      boolean set = versionedStore.compareAndSet(key, value, expectedVersion);
+      if (set) {
+        trackWrite(key, size);
+      }
+      return set;
+    } finally {
+      invalidate(key);
+    }
+  }
+
+  /**
+   * @return whether values of this store have a version, either because the delegate store supports it or because the
+   *         {@link #versioned} parameter is set
+   */
+  public boolean isVersioningSupported() {
+    checkDelegatedStoreInitialized();
+    return delegateStore instanceof VersionedObjectStore;
+  }
+
+  /**
+   * @return whether {@link #compareAndSet(String, Serializable, Long)} is atomic on its own. Otherwise, callers need
+   *         to hold the key lock, both to compare and set and to retrieve a value with its version
+   */
+  public boolean isCompareAndSetAtomic() {
+    checkDelegatedStoreInitialized();
+    return delegateStore instanceof VersionedObjectStore && !(delegateStore instanceof VersioningObjectStore);
+  }
+
+  private VersionedObjectStore asVersioned() throws ObjectStoreException {
+    if (!(delegateStore instanceof VersionedObjectStore)) {
+      throw new ObjectStoreException(createStaticMessage(format(
+                                                                "ObjectStore '%s' is not versioned. Set its 'versioned' parameter to 'true' to enable versioning",
+                                                                resolveStoreName())));
+    }
+
+    return (VersionedObjectStore) delegateStore;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * If a near cache is configured, then it's looked up first and the value read from the delegate store is cached.
+   */
   @Override
   public Serializable retrieve(String key) throws ObjectStoreException {
     checkDelegatedStoreInitialized();
-    return delegateStore.retrieve(key);
+    if (sizeTracker != null) {
+      sizeTracker.accessed(key);
+    }
+    if (nearCache == null) {
+      return delegateStore.retrieve(key);
+    }
+
+    Serializable value = nearCache.get(key);
+    if (value == null) {
+      long generation = nearCache.generation();
+      value = delegateStore.retrieve(key);
+      nearCache.put(key, value, generation);
+    }
+
+    return value;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * If the delegate store is a {@link BulkRetrieveObjectStore}, then all the keys are read in one call. Otherwise, they are
+   * read one by one.
+   */
+  @Override
+  public Map<String, Serializable> retrieveMany(Collection<String> keys) throws ObjectStoreException {
+    checkDelegatedStoreInitialized();
+    if (sizeTracker != null) {
+      keys.forEach(sizeTracker::accessed);
+    }
+    if (nearCache == null) {
+      return doRetrieveMany(keys);
+    }
+
+    Map<String, Serializable> values = new HashMap<>();
+    List<String> missing = new ArrayList<>();
+    for (String key : keys) {
+      Serializable value = nearCache.get(key);
+      if (value != null) {
+        values.put(key, value);
+      } else {
+        missing.add(key);
+      }
+    }
+
+    if (!missing.isEmpty()) {
+      long generation = nearCache.generation();
+      Map<String, Serializable> loaded = doRetrieveMany(missing);
+      loaded.forEach((key, value) -> nearCache.put(key, value, generation));
+      values.putAll(loaded);
+    }
+
+    return values;
+  }
+
+  private Map<String, Serializable> doRetrieveMany(Collection<String> keys) throws ObjectStoreException {
+    if (delegateStore instanceof BulkRetrieveObjectStore) {
+      return ((BulkRetrieveObjectStore) delegateStore).retrieveMany(keys);
+    }
+
+    Map<String, Serializable> values = new HashMap<>();
+    for (String key : keys) {
+      try {
+        values.put(key, delegateStore.retrieve(key));
+      } catch (ObjectDoesNotExistException e) {
+        // missing keys are not part of the result
+      }
+    }
+
+    return values;
   }
 
   @Override
   public Serializable remove(String key) throws ObjectStoreException {
     checkDelegatedStoreInitialized();
-    return delegateStore.remove(key);
+    try {
+      return delegateStore.remove(key);
+    } finally {
+      if (sizeTracker != null) {
+        sizeTracker.removed(key);
+      }
+      invalidate(key);
+    }
   }
 
   @Override
@@ -269,7 +953,14 @@ public abstract class ExtensionObjectStore implements ObjectStore<Serializable>,
   @Override
   public void clear() throws ObjectStoreException {
     checkDelegatedStoreInitialized();
-    delegateStore.clear();
+    try {
+      delegateStore.clear();
+    } finally {
+      if (sizeTracker != null) {
+        sizeTracker.cleared();
+      }
+      invalidate(null);
+    }
   }
 
   @Override
@@ -290,12 +981,130 @@ public abstract class ExtensionObjectStore implements ObjectStore<Serializable>,
     return delegateStore.allKeys();
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * If the delegate store is a {@link CursorObjectStore}, then its own cursor is used. Otherwise, all the keys are read
+   * at once and served from memory.
+   */
+  @Override
+  public ObjectStoreCursor<String> openKeyCursor() throws ObjectStoreException {
+    checkDelegatedStoreInitialized();
+    if (delegateStore instanceof CursorObjectStore) {
+      return ((CursorObjectStore) delegateStore).openKeyCursor();
+    }
+
+    return new ListCursor<>(delegateStore.allKeys());
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * If the delegate store is a {@link CursorObjectStore}, then its own cursor is used. Otherwise, all the keys are read
+   * at once, and values are fetched as each page is requested.
+   */
+  @Override
+  public ObjectStoreCursor<ObjectStoreEntry> openEntryCursor(String keyPrefix) throws ObjectStoreException {
+    checkDelegatedStoreInitialized();
+    if (delegateStore instanceof CursorObjectStore) {
+      return ((CursorObjectStore) delegateStore).openEntryCursor(keyPrefix);
+    }
+
+    return new KeySnapshotEntryCursor(delegateStore, delegateStore.allKeys(), keyPrefix);
+  }
+
   @Override
   public Map<String, Serializable> retrieveAll() throws ObjectStoreException {
     checkDelegatedStoreInitialized();
     return delegateStore.retrieveAll();
   }
 
+  /**
+   * @return the estimated size of the given {@code value}, or {@code -1} if sizes are not tracked nor limited
+   * @throws ValueTooLargeException if the value exceeds {@link #maxValueSize} or {@link #maxBytes}
+   */
+  private long checkValueSize(String key, Serializable value) throws ValueTooLargeException {
+    if (sizeTracker == null && maxValueSize == null) {
+      return -1;
+    }
+
+    long size = EntrySizeTracker.estimate(value);
+    long limit = Math.min(maxValueSize != null ? maxValueSize : Long.MAX_VALUE,
+                          sizeTracker != null ? sizeTracker.getMaxBytes() : Long.MAX_VALUE);
+    if (size > limit) {
+      throw new ValueTooLargeException(createStaticMessage(format(
+                                                                  "The value for key '%s' takes about %d bytes, which exceeds the %d bytes allowed by ObjectStore '%s'",
+                                                                  key, size, limit, resolveStoreName())));
+    }
+
+    return size;
+  }
+
+  /**
+   * Accounts the size of a written entry and removes the least recently used ones if the store exceeds
+   * {@link #maxBytes}
+   */
+  private void trackWrite(String key, long size) {
+    if (sizeTracker == null || size < 0) {
+      return;
+    }
+
+    StoreMetrics storeMetrics = metrics.forStore(resolveStoreName());
+    for (String evicted : sizeTracker.written(key, size)) {
+      try {
+        delegateStore.remove(evicted);
+      } catch (ObjectDoesNotExistException e) {
+        // already removed by the store itself
+      } catch (ObjectStoreException e) {
+        LOGGER.warn(format("Could not evict key '%s' from Object Store '%s'", evicted, resolveStoreName()), e);
+      }
+      invalidate(evicted);
+      storeMetrics.recordSizeEviction();
+    }
+    storeMetrics.setEstimatedBytes(sizeTracker.getTotalBytes());
+  }
+
+  /**
+   * Discards the given {@code key} from the near cache and from the ones of other stores with the same name. A
+   * {@code null} key discards every entry.
+   */
+  private void invalidate(String key) {
+    applyInvalidation(key);
+    if (!publishInvalidations) {
+      return;
+    }
+
+    try {
+      transport.publish(new InvalidationEvent(resolveStoreName(), key, subscriberId));
+    } catch (Exception e) {
+      LOGGER.warn(format("Could not publish invalidation of Object Store '%s'", resolveStoreName()), e);
+    }
+  }
+
+  private void applyInvalidation(InvalidationEvent event) {
+    applyInvalidation(event.getKey());
+  }
+
+  private void applyInvalidation(String key) {
+    NearCache cache = nearCache;
+    if (cache == null) {
+      return;
+    }
+
+    if (key == null) {
+      cache.invalidateAll();
+    } else {
+      cache.invalidate(key);
+    }
+  }
+
+  /**
+   * @return how the operations should retry calls to this store. Never {@code null}
+   */
+  public RetryPolicy getRetryPolicy() {
+    return retryPolicy;
+  }
+
   @Override
   public String getName() {
     return resolveStoreName();
@@ -361,6 +1170,14 @@ public abstract class ExtensionObjectStore implements ObjectStore<Serializable>,
     return maxEntries;
   }
 
+  public Long getMaxBytes() {
+    return maxBytes;
+  }
+
+  public Long getMaxValueSize() {
+    return maxValueSize;
+  }
+
   public Long getEntryTtl() {
     return entryTtl;
   }
@@ -369,6 +1186,66 @@ public abstract class ExtensionObjectStore implements ObjectStore<Serializable>,
     return entryTtlUnit;
   }
 
+  public ExpirationEngine getExpirationEngine() {
+    return expirationEngine;
+  }
+
+  public boolean isVersioned() {
+    return versioned;
+  }
+
+  public int getShards() {
+    return shards;
+  }
+
+  public String getSerializer() {
+    return serializer;
+  }
+
+  public Compression getCompression() {
+    return compression;
+  }
+
+  public int getCompressionThreshold() {
+    return compressionThreshold;
+  }
+
+  public Integer getNearCacheMaxEntries() {
+    return nearCacheMaxEntries;
+  }
+
+  public Long getNearCacheEntryTtl() {
+    return nearCacheEntryTtl;
+  }
+
+  public TimeUnit getNearCacheEntryTtlUnit() {
+    return nearCacheEntryTtlUnit;
+  }
+
+  public EvictionPolicy getNearCacheEvictionPolicy() {
+    return nearCacheEvictionPolicy;
+  }
+
+  public Integer getRetryMaxAttempts() {
+    return retryMaxAttempts;
+  }
+
+  public Long getRetryInitialBackoff() {
+    return retryInitialBackoff;
+  }
+
+  public Long getRetryMaxBackoff() {
+    return retryMaxBackoff;
+  }
+
+  public Long getRetryDeadline() {
+    return retryDeadline;
+  }
+
+  public TimeUnit getRetryTimeUnit() {
+    return retryTimeUnit;
+  }
+
   public ComponentLocation getLocation() {
     return location;
   }
@@ -389,6 +1266,14 @@ public abstract class ExtensionObjectStore implements ObjectStore<Serializable>,
     this.maxEntries = maxEntries;
   }
 
+  public void setMaxBytes(Long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  public void setMaxValueSize(Long maxValueSize) {
+    this.maxValueSize = maxValueSize;
+  }
+
   public void setEntryTtl(Long entryTtl) {
     this.entryTtl = entryTtl;
   }
@@ -397,6 +1282,66 @@ public abstract class ExtensionObjectStore implements ObjectStore<Serializable>,
     this.entryTtlUnit = entryTtlUnit;
   }
 
+  public void setExpirationEngine(ExpirationEngine expirationEngine) {
+    this.expirationEngine = expirationEngine;
+  }
+
+  public void setVersioned(boolean versioned) {
+    this.versioned = versioned;
+  }
+
+  public void setShards(int shards) {
+    this.shards = shards;
+  }
+
+  public void setSerializer(String serializer) {
+    this.serializer = serializer;
+  }
+
+  public void setCompression(Compression compression) {
+    this.compression = compression;
+  }
+
+  public void setCompressionThreshold(int compressionThreshold) {
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  public void setNearCacheMaxEntries(Integer nearCacheMaxEntries) {
+    this.nearCacheMaxEntries = nearCacheMaxEntries;
+  }
+
+  public void setNearCacheEntryTtl(Long nearCacheEntryTtl) {
+    this.nearCacheEntryTtl = nearCacheEntryTtl;
+  }
+
+  public void setNearCacheEntryTtlUnit(TimeUnit nearCacheEntryTtlUnit) {
+    this.nearCacheEntryTtlUnit = nearCacheEntryTtlUnit;
+  }
+
+  public void setNearCacheEvictionPolicy(EvictionPolicy nearCacheEvictionPolicy) {
+    this.nearCacheEvictionPolicy = nearCacheEvictionPolicy;
+  }
+
+  public void setRetryMaxAttempts(Integer retryMaxAttempts) {
+    this.retryMaxAttempts = retryMaxAttempts;
+  }
+
+  public void setRetryInitialBackoff(Long retryInitialBackoff) {
+    this.retryInitialBackoff = retryInitialBackoff;
+  }
+
+  public void setRetryMaxBackoff(Long retryMaxBackoff) {
+    this.retryMaxBackoff = retryMaxBackoff;
+  }
+
+  public void setRetryDeadline(Long retryDeadline) {
+    this.retryDeadline = retryDeadline;
+  }
+
+  public void setRetryTimeUnit(TimeUnit retryTimeUnit) {
+    this.retryTimeUnit = retryTimeUnit;
+  }
+
   public void setLocation(ComponentLocation location) {
     this.location = location;
   }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.api;
+
+import java.io.Serializable;
+
+/**
+ * Signals that an entry of a store was written, so that near caches holding it on other nodes discard it.
+ *
+ * @since 2.0
+ */
+public final class InvalidationEvent implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String storeName;
+  private final String key;
+  private final String origin;
+
+  /**
+   * Creates a new instance
+   *
+   * @param storeName the name of the store which was written
+   * @param key       the key which was written, or {@code null} if the whole store was cleared
+   * @param origin    the id of the subscriber which performed the write
+   */
+  public InvalidationEvent(String storeName, String key, String origin) {
+    this.storeName = storeName;
+    this.key = key;
+    this.origin = origin;
+  }
+
+  public String getStoreName() {
+    return storeName;
+  }
+
+  /**
+   * @return the key which was written, or {@code null} if the whole store was cleared
+   */
+  public String getKey() {
+    return key;
+  }
+
+  public String getOrigin() {
+    return origin;
+  }
+
+  public boolean isClear() {
+    return key == null;
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.api;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link InvalidationEvent invalidations} between the near caches of stores sharing the same name.
+ * <p>
+ * By default, events are only delivered within the same JVM. A cluster aware implementation can be provided by
+ * registering it in the registry under the {@link #REGISTRY_KEY} key.
+ *
+ * @since 2.0
+ */
+public interface InvalidationTransport {
+
+  /**
+   * The registry key under which a custom transport is looked up
+   */
+  String REGISTRY_KEY = "_objectStoreInvalidationTransport";
+
+  /**
+   * Delivers the {@code event} to every subscriber of its store, except the one which originated it. Implementations
+   * should not propagate delivery failures, since the write has already been performed.
+   */
+  void publish(InvalidationEvent event);
+
+  /**
+   * Starts delivering the events of the given {@code storeName} to the {@code listener}
+   *
+   * @param storeName    the name of the store to listen to
+   * @param subscriberId an id unique to the subscriber, used as origin of the events it publishes
+   * @param listener     the listener which applies the events
+   */
+  void subscribe(String storeName, String subscriberId, Consumer<InvalidationEvent> listener);
+
+  /**
+   * Stops delivering events to the subscriber with the given {@code subscriberId}
+   */
+  void unsubscribe(String storeName, String subscriberId);
+}
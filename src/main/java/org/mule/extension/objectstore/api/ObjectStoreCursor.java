@@ -0,0 +1,36 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.api;
+
+import org.mule.runtime.api.store.ObjectStoreException;
+
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * A forward only cursor over the contents of a store, which allows reading them in bounded chunks.
+ *
+ * @param <T> the type of the items being read
+ * @since 2.0
+ */
+public interface ObjectStoreCursor<T> extends Closeable {
+
+  /**
+   * Reads the next items.
+   *
+   * @param maxItems the max number of items to be returned
+   * @return the next items, or an empty list if the cursor is exhausted
+   * @throws ObjectStoreException if the store could not be read
+   */
+  List<T> next(int maxItems) throws ObjectStoreException;
+
+  /**
+   * Releases any resource held by this cursor
+   */
+  @Override
+  void close();
+}
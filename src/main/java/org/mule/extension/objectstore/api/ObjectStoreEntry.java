@@ -0,0 +1,41 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.api;
+
+import java.io.Serializable;
+
+/**
+ * A key value pair read from a store
+ *
+ * @since 2.0
+ */
+public class ObjectStoreEntry implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String key;
+  private final Serializable value;
+
+  public ObjectStoreEntry(String key, Serializable value) {
+    this.key = key;
+    this.value = value;
+  }
+
+  /**
+   * @return the entry's key
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * @return the entry's value
+   */
+  public Serializable getValue() {
+    return value;
+  }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.api;
+
+import org.mule.runtime.api.i18n.I18nMessage;
+import org.mule.runtime.api.store.ObjectStoreNotAvailableException;
+
+/**
+ * Thrown by stores which reject a request because too many were issued. Stores which don't throw this exception are
+ * still recognised as throttling when their error messages report a 429 status code.
+ *
+ * @since 2.0
+ */
+public class RateLimitExceededException extends ObjectStoreNotAvailableException {
+
+  private static final long serialVersionUID = 1L;
+
+  public RateLimitExceededException(I18nMessage message) {
+    super(message);
+  }
+
+  public RateLimitExceededException(I18nMessage message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.api;
+
+/**
+ * How read operations synchronize with other operations on the same key.
+ *
+ * @since 2.0
+ */
+public enum ReadConsistency {
+
+  /**
+   * The key lock is acquired before reading, so the read never overlaps with another operation on the same key. If the
+   * runtime is running on cluster mode, this synchronization is also guaranteed across nodes.
+   */
+  LOCKED,
+
+  /**
+   * The value is read straight from the store without acquiring the key lock. Reads are still atomic, but they may
+   * observe the state prior to an operation which is running concurrently on the same key.
+   */
+  UNLOCKED
+}
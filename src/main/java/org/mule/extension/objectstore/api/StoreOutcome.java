@@ -0,0 +1,55 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.api;
+
+/**
+ * The outcome of storing a single entry as part of a batch operation.
+ *
+ * @since 2.0
+ */
+public enum StoreOutcome {
+
+  /**
+   * The value was stored
+   */
+  STORED,
+
+  /**
+   * The value was {@code null} and null values were configured to be skipped. Nothing was stored
+   */
+  SKIPPED,
+
+  /**
+   * The key was null or blank. Nothing was stored
+   */
+  INVALID_KEY,
+
+  /**
+   * The value was {@code null} and null values were configured to fail. Nothing was stored
+   */
+  NULL_VALUE,
+
+  /**
+   * The store already had a value for the key and overwriting was not allowed. The existing value was left untouched
+   */
+  KEY_ALREADY_EXISTS,
+
+  /**
+   * The store could not be accessed at the time of writing this entry
+   */
+  STORE_NOT_AVAILABLE,
+
+  /**
+   * The value was larger than what the store allows for a single value. Nothing was stored
+   */
+  VALUE_TOO_LARGE,
+
+  /**
+   * Any other error found while writing this entry
+   */
+  FAILED
+}
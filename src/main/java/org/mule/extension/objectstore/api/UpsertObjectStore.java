@@ -0,0 +1,32 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.api;
+
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.api.store.ObjectStoreException;
+
+import java.io.Serializable;
+
+/**
+ * Capability of {@link ObjectStore} implementations which are able to insert or overwrite a value in a single call.
+ * <p>
+ * When the store used by the store operation implements this interface, overwriting an existing key costs one call
+ * instead of a failed store, a remove and a second store.
+ *
+ * @since 2.0
+ */
+public interface UpsertObjectStore {
+
+  /**
+   * Stores the given {@code value}, overwriting any value previously associated to the {@code key}.
+   *
+   * @param key   the key of the {@code value} to be stored
+   * @param value the value to be stored
+   * @throws ObjectStoreException if the value could not be stored
+   */
+  void upsert(String key, Serializable value) throws ObjectStoreException;
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.api;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * Turns the values of an {@link ExtensionObjectStore} into the bytes handed to its backing store, and back.
+ * <p>
+ * Codecs are selected by name through the {@code serializer} parameter of the store. Besides the ones shipped with this
+ * connector, codecs can be plugged in by listing their implementation in a
+ * {@code META-INF/services/org.mule.extension.objectstore.api.ValueCodec} file, as per {@link java.util.ServiceLoader}.
+ * Such implementations need a public no arguments constructor and must be thread safe.
+ * <p>
+ * Values are usually {@link org.mule.runtime.api.metadata.TypedValue typed values}, but a codec must be able to handle
+ * any {@link Serializable}, since stores also hold counters and the wrappers used to expire and version values.
+ *
+ * @since 2.0
+ */
+public interface ValueCodec {
+
+  /**
+   * @return the name through which this codec is selected. It's also written along with each encoded value, so that it can
+   *         be read back after the store switches to another codec. Must not exceed 255 bytes once encoded in UTF-8
+   */
+  String getName();
+
+  /**
+   * @param value the value to encode. May be {@code null}
+   * @return the encoded value
+   * @throws IOException if the value can't be encoded
+   */
+  byte[] encode(Serializable value) throws IOException;
+
+  /**
+   * @param encoded bytes obtained through {@link #encode(Serializable)}
+   * @return the decoded value
+   * @throws IOException if the bytes can't be decoded
+   */
+  Serializable decode(byte[] encoded) throws IOException;
+}
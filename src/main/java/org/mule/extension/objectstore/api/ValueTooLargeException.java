@@ -0,0 +1,24 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.api;
+
+import org.mule.runtime.api.i18n.I18nMessage;
+import org.mule.runtime.api.store.ObjectStoreException;
+
+/**
+ * Thrown by stores which reject a value because its estimated size exceeds what they allow for a single value.
+ *
+ * @since 2.0
+ */
+public class ValueTooLargeException extends ObjectStoreException {
+
+  private static final long serialVersionUID = 1L;
+
+  public ValueTooLargeException(I18nMessage message) {
+    super(message);
+  }
+}
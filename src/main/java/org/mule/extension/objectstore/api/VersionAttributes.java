@@ -0,0 +1,33 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.api;
+
+import java.io.Serializable;
+
+/**
+ * The attributes of a value read along with its version
+ *
+ * @since 2.0
+ */
+public class VersionAttributes implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final long version;
+
+  public VersionAttributes(long version) {
+    this.version = version;
+  }
+
+  /**
+   * @return the version of the value. Pass it as the expected version of a compare and set to update the value only if
+   *         nobody else did in the meantime
+   */
+  public long getVersion() {
+    return version;
+  }
+}
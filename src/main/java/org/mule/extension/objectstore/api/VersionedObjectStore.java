@@ -0,0 +1,42 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.api;
+
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.api.store.ObjectStoreException;
+
+import java.io.Serializable;
+
+/**
+ * Capability of {@link ObjectStore} implementations which keep a version for each value, so that values can be updated
+ * optimistically through {@link #compareAndSet(String, Serializable, Long)} instead of holding a lock.
+ *
+ * @since 2.0
+ */
+public interface VersionedObjectStore {
+
+  /**
+   * @param key the key of the value to be retrieved
+   * @return the value stored for the given {@code key}, along with its current version
+   * @throws ObjectDoesNotExistException if there is no value for the {@code key}
+   * @throws ObjectStoreException        if the value could not be retrieved
+   */
+  VersionedValue retrieveWithVersion(String key) throws ObjectStoreException;
+
+  /**
+   * Stores the given {@code value}, only if the current version of the {@code key} is {@code expectedVersion}.
+   *
+   * @param key             the key of the {@code value} to be stored
+   * @param value           the value to be stored
+   * @param expectedVersion the version the {@code key} should currently have. If {@code null}, the value is only stored
+   *                        if there is no value for the {@code key}
+   * @return whether the value was stored
+   * @throws ObjectStoreException if the value could not be stored
+   */
+  boolean compareAndSet(String key, Serializable value, Long expectedVersion) throws ObjectStoreException;
+}
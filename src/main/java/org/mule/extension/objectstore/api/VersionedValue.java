@@ -0,0 +1,41 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.api;
+
+import java.io.Serializable;
+
+/**
+ * A value read from a {@link VersionedObjectStore}, along with its version
+ *
+ * @since 2.0
+ */
+public class VersionedValue implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Serializable value;
+  private final long version;
+
+  public VersionedValue(Serializable value, long version) {
+    this.value = value;
+    this.version = version;
+  }
+
+  /**
+   * @return the stored value
+   */
+  public Serializable getValue() {
+    return value;
+  }
+
+  /**
+   * @return the version of the value. It changes every time the value is written
+   */
+  public long getVersion() {
+    return version;
+  }
+}
@@ -6,20 +6,32 @@
  */
 package org.mule.extension.objectstore.internal;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.mule.runtime.api.meta.ExpressionSupport.NOT_SUPPORTED;
 import org.mule.extension.objectstore.api.PrivateObjectStore;
 import org.mule.extension.objectstore.api.TopLevelObjectStore;
 import org.mule.extension.objectstore.internal.error.ObjectStoreErrors;
+import org.mule.extension.objectstore.internal.journal.JournalObjectStoreManagerProvider;
+import org.mule.extension.objectstore.internal.offheap.OffHeapObjectStoreManagerProvider;
+import org.mule.extension.objectstore.internal.retry.RetryPolicy;
+import org.mule.extension.objectstore.internal.tiered.TieredObjectStoreManagerProvider;
 import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.extension.api.annotation.Expression;
 import org.mule.runtime.extension.api.annotation.Extension;
 import org.mule.runtime.extension.api.annotation.Operations;
 import org.mule.runtime.extension.api.annotation.SubTypeMapping;
 import org.mule.runtime.extension.api.annotation.connectivity.ConnectionProviders;
 import org.mule.runtime.extension.api.annotation.dsl.xml.Xml;
 import org.mule.runtime.extension.api.annotation.error.ErrorTypes;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
 import org.mule.runtime.extension.api.annotation.param.RefName;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
 import org.mule.sdk.api.annotation.JavaVersionSupport;
 import org.mule.sdk.api.meta.JavaVersion;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Connector that provides functionality to access and create {@link ObjectStore} instances.
  *
@@ -27,17 +39,84 @@ import org.mule.sdk.api.meta.JavaVersion;
  */
 @Extension(name = "ObjectStore")
 @Operations(ObjectStoreOperations.class)
-@ConnectionProviders(MuleObjectStoreManagerProvider.class)
+@ConnectionProviders({MuleObjectStoreManagerProvider.class, OffHeapObjectStoreManagerProvider.class,
+    JournalObjectStoreManagerProvider.class, TieredObjectStoreManagerProvider.class})
 @ErrorTypes(ObjectStoreErrors.class)
 @SubTypeMapping(baseType = ObjectStore.class, subTypes = {TopLevelObjectStore.class, PrivateObjectStore.class})
 @Xml(prefix = "os")
 @JavaVersionSupport({JavaVersion.JAVA_8, JavaVersion.JAVA_11, JavaVersion.JAVA_17})
 public class ObjectStoreConnector {
 
+  private static final String RETRY_TAB = "Retry";
+
   @RefName
   private String name;
 
+  /**
+   * The max number of times to attempt each call to the store, the first one included, when the store is not
+   * available or rejects the call because of throttling. Retries happen while the operation holds its locks.
+   * Applies to every store which references this config, unless the store sets its own.
+   */
+  @Parameter
+  @Optional
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = RETRY_TAB)
+  private Integer retryMaxAttempts;
+
+  /**
+   * The max wait before the first retry. It doubles on each subsequent retry, up to {@link #retryMaxBackoff}. The
+   * actual wait is picked at random between zero and that value. Defaults to 100 milliseconds.
+   */
+  @Parameter
+  @Optional
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = RETRY_TAB)
+  private Long retryInitialBackoff;
+
+  /**
+   * The max wait between retries. Defaults to 5 seconds.
+   */
+  @Parameter
+  @Optional
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = RETRY_TAB)
+  private Long retryMaxBackoff;
+
+  /**
+   * For how long to keep retrying, counting from the first attempt. If absent, only {@link #retryMaxAttempts} applies.
+   */
+  @Parameter
+  @Optional
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = RETRY_TAB)
+  private Long retryDeadline;
+
+  /**
+   * A {@link TimeUnit} which qualifies the {@link #retryInitialBackoff}, {@link #retryMaxBackoff} and
+   * {@link #retryDeadline}
+   */
+  @Parameter
+  @Optional(defaultValue = "MILLISECONDS")
+  @Expression(NOT_SUPPORTED)
+  @Placement(tab = RETRY_TAB)
+  private TimeUnit retryTimeUnit;
+
+  private transient volatile RetryPolicy retryPolicy;
+
   public String getConfigName() {
     return name;
   }
+
+  /**
+   * @return how calls to the stores which reference this config should be retried. Never {@code null}
+   */
+  public RetryPolicy getRetryPolicy() {
+    RetryPolicy policy = retryPolicy;
+    if (policy == null) {
+      policy = RetryPolicy.of(retryMaxAttempts, retryInitialBackoff, retryMaxBackoff, retryDeadline,
+                              retryTimeUnit != null ? retryTimeUnit : MILLISECONDS);
+      retryPolicy = policy;
+    }
+    return policy;
+  }
 }
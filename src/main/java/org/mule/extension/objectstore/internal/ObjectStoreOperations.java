@@ -6,11 +6,40 @@
  */
 package org.mule.extension.objectstore.internal;
 
+import org.mule.extension.objectstore.api.BulkRetrieveObjectStore;
+import org.mule.extension.objectstore.api.CounterObjectStore;
+import org.mule.extension.objectstore.api.CursorObjectStore;
+import org.mule.extension.objectstore.api.ExtensionObjectStore;
+import org.mule.extension.objectstore.api.ObjectStoreCursor;
+import org.mule.extension.objectstore.api.ObjectStoreEntry;
+import org.mule.extension.objectstore.api.ReadConsistency;
+import org.mule.extension.objectstore.api.StoreOutcome;
+import org.mule.extension.objectstore.api.UpsertObjectStore;
+import org.mule.extension.objectstore.api.ValueTooLargeException;
+import org.mule.extension.objectstore.api.VersionAttributes;
+import org.mule.extension.objectstore.api.VersionedObjectStore;
+import org.mule.extension.objectstore.api.VersionedValue;
+import org.mule.extension.objectstore.internal.async.ObjectStoreAsyncExecutor;
+import org.mule.extension.objectstore.internal.counter.Counters;
+import org.mule.extension.objectstore.internal.expiry.ExpiredEntryReclaimer;
+import org.mule.extension.objectstore.internal.expiry.ExpiringValue;
 import org.mule.extension.objectstore.internal.error.AvailabilityErrorTypeProvider;
+import org.mule.extension.objectstore.internal.error.CompareAndSetErrorTypeProvider;
 import org.mule.extension.objectstore.internal.error.ContainsErrorTypeProvider;
+import org.mule.extension.objectstore.internal.error.IncrementErrorTypeProvider;
 import org.mule.extension.objectstore.internal.error.RemoveErrorTypeProvider;
 import org.mule.extension.objectstore.internal.error.RetrieveErrorTypeProvider;
+import org.mule.extension.objectstore.internal.error.RetrieveManyErrorTypeProvider;
 import org.mule.extension.objectstore.internal.error.StoreErrorTypeProvider;
+import org.mule.extension.objectstore.internal.lock.ObjectStoreLocks;
+import org.mule.extension.objectstore.internal.ratelimit.AdaptiveConcurrencyLimiter;
+import org.mule.extension.objectstore.internal.ratelimit.ConcurrencyLimiters;
+import org.mule.extension.objectstore.internal.metrics.ObjectStoreMetrics;
+import org.mule.extension.objectstore.internal.metrics.OperationType;
+import org.mule.extension.objectstore.internal.metrics.StoreMetrics;
+import org.mule.extension.objectstore.internal.paging.KeySnapshotEntryCursor;
+import org.mule.extension.objectstore.internal.paging.ListCursor;
+import org.mule.extension.objectstore.internal.retry.RetryPolicy;
 import org.mule.runtime.api.lock.LockFactory;
 import org.mule.runtime.api.meta.NamedObject;
 import org.mule.runtime.api.metadata.DataType;
@@ -27,27 +56,63 @@ import org.mule.runtime.extension.api.annotation.error.Throws;
 import org.mule.runtime.extension.api.annotation.execution.Execution;
 import org.mule.runtime.extension.api.annotation.param.Content;
 import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
 import org.mule.runtime.extension.api.annotation.param.display.Summary;
 import org.mule.runtime.extension.api.exception.ModuleException;
 import org.mule.runtime.extension.api.runtime.operation.Result;
+import org.mule.runtime.extension.api.runtime.process.CompletionCallback;
+import org.mule.runtime.extension.api.runtime.streaming.PagingProvider;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.concurrent.locks.Lock;
 
 import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.mule.extension.objectstore.api.ReadConsistency.LOCKED;
+import static org.mule.extension.objectstore.api.ReadConsistency.UNLOCKED;
 import static org.mule.extension.objectstore.internal.error.ObjectStoreErrors.INVALID_KEY;
+import static org.mule.extension.objectstore.internal.error.ObjectStoreExceptionTranslator.isRateLimitExceeded;
+import static org.mule.extension.objectstore.internal.error.ObjectStoreExceptionTranslator.translate;
 import static org.mule.extension.objectstore.internal.error.ObjectStoreErrors.KEY_ALREADY_EXISTS;
 import static org.mule.extension.objectstore.internal.error.ObjectStoreErrors.KEY_NOT_FOUND;
 import static org.mule.extension.objectstore.internal.error.ObjectStoreErrors.NULL_VALUE;
 import static org.mule.extension.objectstore.internal.error.ObjectStoreErrors.STORE_NOT_AVAILABLE;
+import static org.mule.extension.objectstore.internal.metrics.OperationType.CLEAR;
+import static org.mule.extension.objectstore.internal.metrics.OperationType.COMPARE_AND_SET;
+import static org.mule.extension.objectstore.internal.metrics.OperationType.CONTAINS;
+import static org.mule.extension.objectstore.internal.metrics.OperationType.INCREMENT;
+import static org.mule.extension.objectstore.internal.metrics.OperationType.RECLAIM;
+import static org.mule.extension.objectstore.internal.metrics.OperationType.REMOVE;
+import static org.mule.extension.objectstore.internal.metrics.OperationType.RETRIEVE;
+import static org.mule.extension.objectstore.internal.metrics.OperationType.RETRIEVE_ALL;
+import static org.mule.extension.objectstore.internal.metrics.OperationType.RETRIEVE_ALL_KEYS;
+import static org.mule.extension.objectstore.internal.metrics.OperationType.RETRIEVE_ALL_KEYS_PAGE;
+import static org.mule.extension.objectstore.internal.metrics.OperationType.RETRIEVE_ALL_PAGE;
+import static org.mule.extension.objectstore.internal.metrics.OperationType.RETRIEVE_MANY;
+import static org.mule.extension.objectstore.internal.metrics.OperationType.RETRIEVE_WITH_VERSION;
+import static org.mule.extension.objectstore.internal.metrics.OperationType.STORE;
+import static org.mule.extension.objectstore.internal.metrics.OperationType.STORE_ALL;
 import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
 import static org.mule.runtime.api.meta.ExpressionSupport.NOT_SUPPORTED;
 import static org.mule.runtime.api.meta.model.operation.ExecutionType.BLOCKING;
 import static org.mule.runtime.core.api.config.MuleProperties.OBJECT_STORE_MANAGER;
+import static org.mule.runtime.extension.api.annotation.param.display.Placement.ADVANCED_TAB;
 import static org.mule.runtime.extension.api.error.MuleErrors.ANY;
 
 /**
@@ -64,7 +129,20 @@ public class ObjectStoreOperations {
   @Named(OBJECT_STORE_MANAGER)
   private ObjectStoreManager runtimeObjectStoreManager;
 
-  private final String RATE_LIMIT_EXCEEDED_PATTERN = "status code was 429";
+  @Inject
+  private ObjectStoreMetrics metrics;
+
+  @Inject
+  private ObjectStoreLocks locks;
+
+  @Inject
+  private ConcurrencyLimiters limiters;
+
+  @Inject
+  private ObjectStoreAsyncExecutor asyncExecutor;
+
+  @Inject
+  private ExpiredEntryReclaimer reclaimer;
 
   /**
    * Stores the given {@code value} using the given {@code key}.
@@ -81,6 +159,12 @@ public class ObjectStoreOperations {
    * However, when set to {@code false}, a {@code null} value will cause this operation to do nothing, no error will be raised
    * but no value will be altered either.
    * <p>
+   * When overwriting, stores which support upserts are updated in a single call. Other stores need the existing value to
+   * be removed before storing the new one.
+   * <p>
+   * If a {@code ttl} is set, the value is stored along with its expiration time, regardless of the expiration settings of
+   * the store. Once expired, the value is no longer returned nor reported as present, and it's removed in the background.
+   * <p>
    * Finally, this operation is synchronized on the key level. No other operation will be able to access the same key
    * on the same object store while this operation is running. If the runtime is running on cluster mode, this synchronization is
    * also guaranteed across nodes.
@@ -89,6 +173,8 @@ public class ObjectStoreOperations {
    * @param value           the value to be stored. Should not be {@code null} if {@code failOnNullValue} is set to {@code true}
    * @param failIfPresent   Whether to fail or update the pre existing value if the {@code key} already exists on the store
    * @param failOnNullValue Whether to fail or skip the operation if the {@code value} is {@code null}
+   * @param ttl             how long the value lives. If not set, only the expiration settings of the store apply
+   * @param ttlUnit         A {@link TimeUnit} which qualifies the {@code ttl}
    * @param objectStore     A reference to the ObjectStore to be used. If not defined, the runtime's default partition will be used
    */
   @Throws(StoreErrorTypeProvider.class)
@@ -98,6 +184,8 @@ public class ObjectStoreOperations {
                     @Content TypedValue<Serializable> value,
                     @Optional(defaultValue = "false") boolean failIfPresent,
                     @Optional(defaultValue = "true") boolean failOnNullValue,
+                    @Optional Long ttl,
+                    @Optional(defaultValue = "SECONDS") @Expression(NOT_SUPPORTED) TimeUnit ttlUnit,
                     @Optional @ParameterDsl(allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore objectStore) {
 
     if (!validateValue(value, failOnNullValue)) {
@@ -105,29 +193,112 @@ public class ObjectStoreOperations {
     }
 
     validateKey(key);
+    Long ttlMillis = toTtlMillis(ttl, ttlUnit);
+
+    withLockedKey(STORE, objectStore, key, os -> {
+      Serializable toStore = value;
+      long expiresAt = 0;
+      if (ttlMillis != null) {
+        expiresAt = currentTimeMillis() + ttlMillis;
+        toStore = new ExpiringValue(value, expiresAt);
+      }
 
-    withLockedKey(objectStore, key, os -> {
       try {
-        os.store(key, value);
+        if (!failIfPresent && os instanceof UpsertObjectStore) {
+          ((UpsertObjectStore) os).upsert(key, toStore);
+        } else {
+          os.store(key, toStore);
+        }
       } catch (ObjectAlreadyExistsException e) {
         if (failIfPresent) {
-          throw new ModuleException(KEY_ALREADY_EXISTS, new ObjectAlreadyExistsException(
-                                                                                         createStaticMessage("ObjectStore already contains an object for key '"
-                                                                                             + key + "'")));
+          if (retrieveTask(os, key) != null) {
+            throw new ModuleException(KEY_ALREADY_EXISTS, new ObjectAlreadyExistsException(
+                                                                                           createStaticMessage("ObjectStore already contains an object for key '"
+                                                                                               + key + "'")));
+          }
         } else {
-          removeTask(os, key);
-          os.store(key, value);
-        }
-      } catch (ObjectStoreException e) {
-        if (e.getMessage().contains(RATE_LIMIT_EXCEEDED_PATTERN)) {
-          throw new ModuleException(STORE_NOT_AVAILABLE, new ObjectStoreException(createStaticMessage("Rate Limit exceeded"), e));
+          metrics.forStore(getStoreName(os)).recordUpsertFallback();
         }
-        throw e;
+        // either an expired entry or a store which doesn't support upserts
+        removeTask(os, key);
+        os.store(key, toStore);
+      }
+
+      if (ttlMillis != null) {
+        trackExpiration(os, key, expiresAt);
+      } else {
+        reclaimer.untrack(getStoreName(os), key);
       }
       return null;
     });
   }
 
+  /**
+   * Stores all the given {@code entries} in one pass.
+   * <p>
+   * Every key and value is validated before anything is written. Entries with a null or blank key, or with a {@code null}
+   * value, are never written and get an {@code INVALID_KEY}, {@code NULL_VALUE} or {@code SKIPPED} outcome depending on the
+   * {@code failOnNullValue} parameter. The {@code failIfPresent} parameter has the same meaning as in the store operation.
+   * <p>
+   * Unlike the store operation, a failure to write one entry doesn't fail the whole batch. Instead, the outcome of every
+   * supplied key is returned, so that the remaining entries can still be stored. Entries which can't be written because
+   * the store is not available are retried one by one, as configured on the store, before being reported as
+   * {@code STORE_NOT_AVAILABLE}.
+   * <p>
+   * This operation is synchronized on the key level. The locks for all the valid keys are acquired once per batch and in
+   * natural key order, so that concurrent batches which share keys cannot deadlock each other. If the runtime is running on
+   * cluster mode, this synchronization is also guaranteed across nodes.
+   *
+   * @param entries         the key value pairs to be stored
+   * @param failIfPresent   Whether to fail or update the pre existing value if a key already exists on the store
+   * @param failOnNullValue Whether a {@code null} value should be reported as {@code NULL_VALUE} or {@code SKIPPED}
+   * @param objectStore     A reference to the ObjectStore to be used. If not defined, the runtime's default partition will be used
+   * @return A Map with the {@link StoreOutcome} of each supplied key
+   */
+  @Throws(AvailabilityErrorTypeProvider.class)
+  @Summary("Stores all the given key value pairs")
+  @Execution(BLOCKING)
+  public Map<String, StoreOutcome> storeAll(@Content Map<String, Serializable> entries,
+                                            @Optional(defaultValue = "false") boolean failIfPresent,
+                                            @Optional(defaultValue = "true") boolean failOnNullValue,
+                                            @Optional @ParameterDsl(
+                                                allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore objectStore) {
+
+    Map<String, StoreOutcome> outcomes = new LinkedHashMap<>();
+    Map<String, Serializable> validEntries = new TreeMap<>();
+
+    if (entries != null) {
+      entries.forEach((key, value) -> {
+        if (key == null || key.trim().length() == 0) {
+          outcomes.put(key, StoreOutcome.INVALID_KEY);
+        } else if (value == null) {
+          outcomes.put(key, failOnNullValue ? StoreOutcome.NULL_VALUE : StoreOutcome.SKIPPED);
+        } else {
+          outcomes.put(key, null);
+          validEntries.put(key, value);
+        }
+      });
+    }
+
+    if (validEntries.isEmpty()) {
+      return outcomes;
+    }
+
+    withKeys(STORE_ALL, objectStore, validEntries.keySet(), LOCKED, os -> {
+      StoreMetrics storeMetrics = metrics.forStore(getStoreName(os));
+      validEntries.forEach((key, value) -> {
+        StoreOutcome outcome = storeEntry(storeMetrics, os, key, asTypedValue(value), failIfPresent);
+        if (outcome == StoreOutcome.STORED) {
+          reclaimer.untrack(getStoreName(os), key);
+        }
+        outcomes.put(key, outcome);
+      });
+      return null;
+    });
+
+    return outcomes;
+  }
+
   /**
    * Retrieves the value stored for the given {@code key}.
    * <p>
@@ -138,11 +309,13 @@ public class ObjectStoreOperations {
    * <p>
    * Finally, this operation is synchronized on the key level. No other operation will be able to access the same key
    * on the same object store while this operation is running. If the runtime is running on cluster mode, this synchronization is
-   * also guaranteed across nodes.
+   * also guaranteed across nodes. Setting {@code readConsistency} to {@link ReadConsistency#UNLOCKED} skips that
+   * synchronization, which is cheaper but may return the value prior to a concurrent update.
    *
-   * @param key          the key of the {@code value} to be retrieved
-   * @param defaultValue value to be returned if the {@code key} doesn't exist in the store
-   * @param objectStore  A reference to the ObjectStore to be used. If not defined, the runtime's default partition will be used
+   * @param key             the key of the {@code value} to be retrieved
+   * @param defaultValue    value to be returned if the {@code key} doesn't exist in the store
+   * @param objectStore     A reference to the ObjectStore to be used. If not defined, the runtime's default partition will be used
+   * @param readConsistency Whether the key lock should be acquired before reading
    * @return The stored value or the {@code defaultValue}
    */
   @Throws(RetrieveErrorTypeProvider.class)
@@ -151,27 +324,25 @@ public class ObjectStoreOperations {
   public Result<Serializable, Void> retrieve(String key,
                                              @Content @Optional TypedValue<Serializable> defaultValue,
                                              @Optional @ParameterDsl(
-                                                 allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore objectStore) {
+                                                 allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore objectStore,
+                                             @Optional(defaultValue = "LOCKED") @Expression(NOT_SUPPORTED) @Placement(
+                                                 tab = ADVANCED_TAB) ReadConsistency readConsistency) {
 
     validateKey(key);
 
-    Object value = withLockedKey(objectStore, key, os -> {
-      try {
-        return os.retrieve(key);
-      } catch (ObjectDoesNotExistException e) {
-        if (defaultValue != null && defaultValue.getValue() != null) {
-          return defaultValue;
-        } else {
-          throw new ModuleException(KEY_NOT_FOUND, new ObjectDoesNotExistException(createStaticMessage(format(
-                                                                                                              "ObjectStore '%s' doesn't contain any value for key '%s' and default value was not provided or "
-                                                                                                                  + "resolved to a null value.",
-                                                                                                              os, key))));
-        }
-      } catch (ObjectStoreException e) {
-        if (e.getMessage().contains(RATE_LIMIT_EXCEEDED_PATTERN)) {
-          throw new ModuleException(STORE_NOT_AVAILABLE, new ObjectStoreException(createStaticMessage("Rate Limit exceeded"), e));
-        }
-        throw e;
+    Object value = withKey(RETRIEVE, objectStore, key, readConsistency, os -> {
+      Serializable stored = retrieveTask(os, key);
+      if (stored != null) {
+        return stored;
+      }
+
+      if (defaultValue != null && defaultValue.getValue() != null) {
+        return defaultValue;
+      } else {
+        throw new ModuleException(KEY_NOT_FOUND, new ObjectDoesNotExistException(createStaticMessage(format(
+                                                                                                            "ObjectStore '%s' doesn't contain any value for key '%s' and default value was not provided or "
+                                                                                                                + "resolved to a null value.",
+                                                                                                            os, key))));
       }
     });
 
@@ -185,6 +356,177 @@ public class ObjectStoreOperations {
         .build();
   }
 
+  /**
+   * Retrieves the value stored for the given {@code key}, along with its version. The version is part of the attributes
+   * of the resulting message, and can be passed to the compare and set operation to update the value only if nobody
+   * else did in the meantime.
+   * <p>
+   * The store must be versioned, either because its {@code versioned} parameter is set or because it supports versioning
+   * on its own. In the latter case, no lock is acquired at all. Otherwise, the key lock is held while reading, since
+   * emulated versioning overwrites values by removing and storing them again. If no value exists for the {@code key},
+   * then a {@code OS:KEY_NOT_FOUND} error will be thrown.
+   *
+   * @param key         the key of the {@code value} to be retrieved
+   * @param objectStore A reference to the ObjectStore to be used. If not defined, the runtime's default partition will be used
+   * @return The stored value, with its version as attributes
+   */
+  @Throws(RetrieveErrorTypeProvider.class)
+  @Summary("Retrieves the value stored for the given key, along with its version")
+  @Execution(BLOCKING)
+  public Result<Serializable, VersionAttributes> retrieveWithVersion(String key,
+                                                                     @Optional @ParameterDsl(
+                                                                         allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore<Serializable> objectStore) {
+    validateKey(key);
+
+    ObjectStore<Serializable> resolvedStore = nullSafe(objectStore);
+    boolean atomic = isCompareAndSetAtomic(resolvedStore);
+    VersionedValue versionedValue = withKey(RETRIEVE_WITH_VERSION, resolvedStore, key, atomic ? UNLOCKED : LOCKED, os -> {
+      VersionedValue stored;
+      try {
+        stored = asVersioned(os).retrieveWithVersion(key);
+      } catch (ObjectDoesNotExistException e) {
+        stored = null;
+      }
+
+      if (stored == null || ExpiringValue.unwrap(stored.getValue(), currentTimeMillis()) == null) {
+        throw new ModuleException(KEY_NOT_FOUND, new ObjectDoesNotExistException(createStaticMessage(format(
+                                                                                                            "ObjectStore '%s' doesn't contain any value for key '%s'",
+                                                                                                            os, key))));
+      }
+      return stored;
+    });
+
+    Serializable value = ExpiringValue.unwrap(versionedValue.getValue(), currentTimeMillis());
+    TypedValue<Serializable> typedValue = value instanceof TypedValue
+        ? (TypedValue<Serializable>) value
+        : new TypedValue<>(value, DataType.fromType(value.getClass()));
+
+    return Result.<Serializable, VersionAttributes>builder()
+        .output(typedValue.getValue())
+        .mediaType(typedValue.getDataType().getMediaType())
+        .attributes(new VersionAttributes(versionedValue.getVersion()))
+        .build();
+  }
+
+  /**
+   * Stores the given {@code value} only if the current version of the {@code key} is {@code expectedVersion}, and
+   * returns whether the value was stored. If {@code expectedVersion} is not set, the value is only stored if there is no
+   * value for the {@code key}.
+   * <p>
+   * Together with the retrieve with version operation, this allows read-modify-write flows to update a value without
+   * holding a lock while the new value is computed: if someone else updated the value in the meantime, this operation
+   * returns {@code false} and the flow can read the value again and retry.
+   * <p>
+   * The store must be versioned, either because its {@code versioned} parameter is set or because it supports versioning
+   * on its own. In the latter case, no lock is acquired at all. Otherwise, the key lock is only held while the versions
+   * are compared and the value written.
+   *
+   * @param key             the key of the {@code value} to be stored
+   * @param value           the value to be stored. Cannot be {@code null}
+   * @param expectedVersion the version the {@code key} should currently have, as returned by the retrieve with version
+   *                        operation. If not set, the value is only stored if the {@code key} doesn't exist yet
+   * @param objectStore     A reference to the ObjectStore to be used. If not defined, the runtime's default partition will be used
+   * @return Whether the value was stored
+   */
+  @Throws(CompareAndSetErrorTypeProvider.class)
+  @Summary("Stores the given value only if the key is still on the expected version")
+  @Execution(BLOCKING)
+  public boolean compareAndSet(String key,
+                               @Content TypedValue<Serializable> value,
+                               @Optional Long expectedVersion,
+                               @Optional @ParameterDsl(
+                                   allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore<Serializable> objectStore) {
+    validateValue(value, true);
+    validateKey(key);
+
+    ObjectStore<Serializable> resolvedStore = nullSafe(objectStore);
+    boolean atomic = isCompareAndSetAtomic(resolvedStore);
+    boolean stored = withKey(COMPARE_AND_SET, resolvedStore, key, atomic ? UNLOCKED : LOCKED,
+                             os -> asVersioned(os).compareAndSet(key, value, expectedVersion));
+    if (!stored) {
+      metrics.forStore(getStoreName(resolvedStore)).recordCompareAndSetConflict();
+    }
+
+    return stored;
+  }
+
+  /**
+   * Retrieves the values stored for the given {@code keys}.
+   * <p>
+   * The returned Map only contains the keys which have a value in the store. Keys without a value are left out, unless
+   * an entry for them is present in {@code defaultValues}, in which case that default is returned <b>BUT</b> keep in mind
+   * that such value <b>WILL NOT</b> be stored.
+   * <p>
+   * If the store is able to read several keys at once, then all the keys are read in a single call. Otherwise, they are
+   * read one by one.
+   * <p>
+   * Finally, this operation is synchronized on the key level. The locks for all the keys are acquired once and in natural
+   * key order. If the runtime is running on cluster mode, this synchronization is also guaranteed across nodes. Setting
+   * {@code readConsistency} to {@link ReadConsistency#UNLOCKED} skips that synchronization.
+   *
+   * @param keys            the keys of the values to be retrieved
+   * @param defaultValues   values to be returned for the {@code keys} which don't exist in the store
+   * @param objectStore     A reference to the ObjectStore to be used. If not defined, the runtime's default partition will be used
+   * @param readConsistency Whether the key locks should be acquired before reading
+   * @return A Map with the stored values or their defaults
+   */
+  @Throws(RetrieveManyErrorTypeProvider.class)
+  @Summary("Retrieves the values stored for the given keys")
+  @Execution(BLOCKING)
+  public Map<String, Serializable> retrieveMany(List<String> keys,
+                                                @Content @Optional Map<String, Serializable> defaultValues,
+                                                @Optional @ParameterDsl(
+                                                    allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore<Serializable> objectStore,
+                                                @Optional(defaultValue = "LOCKED") @Expression(NOT_SUPPORTED) @Placement(
+                                                    tab = ADVANCED_TAB) ReadConsistency readConsistency) {
+
+    Set<String> sortedKeys = new TreeSet<>();
+    if (keys != null) {
+      keys.forEach(key -> {
+        validateKey(key);
+        sortedKeys.add(key);
+      });
+    }
+
+    Map<String, Serializable> values = new LinkedHashMap<>();
+    if (sortedKeys.isEmpty()) {
+      return values;
+    }
+
+    Map<String, Serializable> found = withKeys(RETRIEVE_MANY, objectStore, sortedKeys, readConsistency, os -> {
+      if (os instanceof BulkRetrieveObjectStore) {
+        return ((BulkRetrieveObjectStore) os).retrieveMany(sortedKeys);
+      }
+
+      Map<String, Serializable> stored = new HashMap<>();
+      for (String key : sortedKeys) {
+        Serializable value = retrieveTask(os, key);
+        if (value != null) {
+          stored.put(key, value);
+        }
+      }
+      return stored;
+    });
+
+    for (String key : keys) {
+      Serializable value = found.get(key);
+      if (value != null) {
+        value = unwrap(value);
+      }
+      if (value == null && defaultValues != null) {
+        value = defaultValues.get(key);
+        if (value != null) {
+          value = unwrap(value);
+        }
+      }
+      if (value != null) {
+        values.put(key, value);
+      }
+    }
+
+    return values;
+  }
+
   /**
    * Removes the value associated to the given {@code key}. If no value exist for the key, then a {@code OS:KEY_NOT_FOUND}
    * error will be thrown.
@@ -203,7 +545,11 @@ public class ObjectStoreOperations {
                      @Optional @ParameterDsl(allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore objectStore) {
     validateKey(key);
 
-    withLockedKey(objectStore, key, os -> removeTask(os, key));
+    withLockedKey(REMOVE, objectStore, key, os -> {
+      Serializable removed = removeTask(os, key);
+      reclaimer.untrack(getStoreName(os), key);
+      return removed;
+    });
   }
 
   /**
@@ -211,19 +557,106 @@ public class ObjectStoreOperations {
    * <p>
    * This operation is synchronized on the key level. No other operation will be able to access the same key
    * on the same object store while this operation is running. If the runtime is running on cluster mode, this synchronization is
-   * also guaranteed across nodes.
+   * also guaranteed across nodes. Setting {@code readConsistency} to {@link ReadConsistency#UNLOCKED} skips that
+   * synchronization, which is cheaper but may not reflect an operation running concurrently on the same key.
+   * <p>
+   * Values stored with their own TTL are not reported as present once expired. That check requires reading the value.
+   * It is only skipped for in-memory stores which no other application or node can access, and which hold no value
+   * with a TTL pending reclaim. Persistent and shared stores are always read, since their values may have been
+   * written by a previous run or by another node.
    *
-   * @param key         the key of the object from which to verify its existence
-   * @param objectStore A reference to the ObjectStore to be used. If not defined, the runtime's default partition will be used
+   * @param key             the key of the object from which to verify its existence
+   * @param objectStore     A reference to the ObjectStore to be used. If not defined, the runtime's default partition will be used
+   * @param readConsistency Whether the key lock should be acquired before reading
    */
   @Summary("Returns whether the key is present or not")
   @Throws(ContainsErrorTypeProvider.class)
   @Execution(BLOCKING)
   public boolean contains(String key,
                           @Optional @ParameterDsl(
-                              allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore<Serializable> objectStore) {
+                              allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore<Serializable> objectStore,
+                          @Optional(defaultValue = "LOCKED") @Expression(NOT_SUPPORTED) @Placement(
+                              tab = ADVANCED_TAB) ReadConsistency readConsistency) {
     validateKey(key);
-    return withLockedKey(objectStore, key, os -> os.contains(key));
+    return withKey(CONTAINS, objectStore, key, readConsistency, os -> {
+      if (!os.contains(key)) {
+        return false;
+      }
+
+      if (isPrivateInMemoryStore(os) && !reclaimer.hasExpiringEntries(getStoreName(os))) {
+        return true;
+      }
+
+      return retrieveTask(os, key) != null;
+    });
+  }
+
+  /**
+   * Adds {@code delta} to the numeric value stored for the given {@code key} and returns the result. If no value exists
+   * for the key, a counter is created with a value of {@code initialValue + delta}. Use a negative {@code delta} to
+   * decrement the counter.
+   * <p>
+   * If a {@code ttl} is set, a newly created counter expires once that time has passed. Updating the counter doesn't
+   * extend its lifespan, which makes it suitable for counting events on fixed time windows.
+   * <p>
+   * When the store supports atomic counters, the value is updated in a single call. Otherwise, the current value is
+   * retrieved and the new one stored. Either way, this operation is synchronized on the key level through a single lock
+   * acquisition. If the runtime is running on cluster mode, this synchronization is also guaranteed across nodes.
+   * <p>
+   * If the stored value is not a number, then an error is raised and the value is left untouched.
+   *
+   * @param key          the key of the counter
+   * @param delta        the amount to add to the counter
+   * @param initialValue the value a new counter starts from
+   * @param ttl          how long a new counter lives. If not set, the counter doesn't expire on its own
+   * @param ttlUnit      A {@link TimeUnit} which qualifies the {@code ttl}
+   * @param objectStore  A reference to the ObjectStore to be used. If not defined, the runtime's default partition will be used
+   * @return the value of the counter after adding the {@code delta}
+   */
+  @Throws(IncrementErrorTypeProvider.class)
+  @Summary("Atomically adds the given delta to the number stored for the given key")
+  @Execution(BLOCKING)
+  public long increment(String key,
+                        @Optional(defaultValue = "1") long delta,
+                        @Optional(defaultValue = "0") long initialValue,
+                        @Optional Long ttl,
+                        @Optional(defaultValue = "SECONDS") @Expression(NOT_SUPPORTED) TimeUnit ttlUnit,
+                        @Optional @ParameterDsl(
+                            allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore<Serializable> objectStore) {
+    validateKey(key);
+    Long ttlMillis = toTtlMillis(ttl, ttlUnit);
+
+    return withLockedKey(INCREMENT, objectStore, key, os -> {
+      if (os instanceof CounterObjectStore) {
+        long updated = ((CounterObjectStore) os).increment(key, delta, initialValue, ttlMillis);
+        if (ttlMillis != null) {
+          trackStoredExpiration(os, key);
+        }
+        return updated;
+      }
+
+      Serializable current;
+      try {
+        current = os.retrieve(key);
+      } catch (ObjectDoesNotExistException e) {
+        current = null;
+      }
+
+      long now = currentTimeMillis();
+      Serializable next = Counters.next(key, current, delta, initialValue, ttlMillis, now);
+      if (os instanceof UpsertObjectStore) {
+        ((UpsertObjectStore) os).upsert(key, next);
+      } else {
+        if (current != null) {
+          os.remove(key);
+        }
+        os.store(key, next);
+      }
+      if (next instanceof ExpiringValue && ExpiringValue.unwrap(current, now) == null) {
+        trackExpiration(os, key, ((ExpiringValue) next).getExpiresAt());
+      }
+      return Counters.valueOf(next);
+    });
   }
 
   /**
@@ -235,15 +668,9 @@ public class ObjectStoreOperations {
   @Execution(BLOCKING)
   public void clear(@Optional @ParameterDsl(
       allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore<Serializable> objectStore) {
-    withLockedStore(objectStore, os -> {
-      try {
-        os.clear();
-      } catch (ObjectStoreException e) {
-        if (e.getMessage().contains(RATE_LIMIT_EXCEEDED_PATTERN)) {
-          throw new ModuleException(STORE_NOT_AVAILABLE, new ObjectStoreException(createStaticMessage("Rate Limit exceeded"), e));
-        }
-        throw e;
-      }
+    withLockedStore(CLEAR, objectStore, os -> {
+      os.clear();
+      reclaimer.untrackStore(getStoreName(os));
       return null;
     });
   }
@@ -259,7 +686,32 @@ public class ObjectStoreOperations {
   public List<String> retrieveAllKeys(
                                       @Optional @ParameterDsl(
                                           allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore<Serializable> objectStore) {
-    return withLockedStore(objectStore, ObjectStore::allKeys);
+    return withLockedStore(RETRIEVE_ALL_KEYS, objectStore, ObjectStore::allKeys);
+  }
+
+  /**
+   * Streams all the keys that the {@code objectStore} currently holds values for, {@code pageSize} keys at a time.
+   * <p>
+   * Unlike the retrieve all keys operation, the store level lock is only held while each page is being read, so other
+   * store level operations can run in between pages. Stores which are able to iterate their keys through a cursor are
+   * read incrementally, keeping memory usage bounded. Other stores are read once, when the first page is requested.
+   * <p>
+   * Keys which are added or removed while the keys are being streamed may or may not be part of the result.
+   *
+   * @param pageSize    the max number of keys to read from the store at a time
+   * @param objectStore A reference to the ObjectStore to be used. If not defined, the runtime's default partition will be used
+   * @return All the keys, or none if the object store is empty
+   */
+  @Throws(AvailabilityErrorTypeProvider.class)
+  @Summary("Streams all the keys in the store, one page at a time")
+  public PagingProvider<ObjectStoreManager, String> retrieveAllKeysPaged(@Optional(defaultValue = "100") int pageSize,
+                                                                         @Optional @ParameterDsl(
+                                                                             allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore<Serializable> objectStore) {
+    validatePageSize(pageSize);
+
+    return new CursorPagingProvider<>(RETRIEVE_ALL_KEYS_PAGE, objectStore, pageSize, os -> os instanceof CursorObjectStore
+        ? ((CursorObjectStore) os).openKeyCursor()
+        : new ListCursor<>(os.allKeys()));
   }
 
   /**
@@ -273,19 +725,259 @@ public class ObjectStoreOperations {
   public Map<String, Serializable> retrieveAll(
                                                @Optional @ParameterDsl(
                                                    allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore<Serializable> objectStore) {
-    return withLockedStore(objectStore, os -> {
-      Map<String, Serializable> all = os.retrieveAll();
-      all.entrySet().forEach(entry -> {
-        Object value = entry.getValue();
-        if (value instanceof TypedValue) {
-          entry.setValue((Serializable) ((TypedValue) value).getValue());
-        }
+    return withLockedStore(RETRIEVE_ALL, objectStore, os -> {
+      Map<String, Serializable> all = new HashMap<>(os.retrieveAll());
+      all.entrySet().removeIf(entry -> {
+        Serializable value = unwrap(entry.getValue());
+        entry.setValue(value);
+        return value == null;
       });
 
       return all;
     });
   }
 
+  /**
+   * Streams all the key value pairs in the object store, {@code pageSize} entries at a time.
+   * <p>
+   * Unlike the retrieve all operation, the store level lock is only held while each page is being read, so other
+   * store level operations can run in between pages, and only one page of values is held in memory at a time.
+   * <p>
+   * Setting a {@code keyPrefix} streams only the entries which keys start with it.
+   * <p>
+   * Entries which are added, updated or removed while the entries are being streamed may or may not be reflected on
+   * the result.
+   *
+   * @param pageSize    the max number of entries to read from the store at a time
+   * @param keyPrefix   if set, only entries which keys start with this prefix are returned
+   * @param objectStore A reference to the ObjectStore to be used. If not defined, the runtime's default partition will be used
+   * @return All the matching entries, or none if the object store is empty
+   */
+  @Throws(AvailabilityErrorTypeProvider.class)
+  @Summary("Streams all the key value pairs in the store, one page at a time")
+  public PagingProvider<ObjectStoreManager, ObjectStoreEntry> retrieveAllPaged(@Optional(defaultValue = "100") int pageSize,
+                                                                               @Optional String keyPrefix,
+                                                                               @Optional @ParameterDsl(
+                                                                                   allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore<Serializable> objectStore) {
+    validatePageSize(pageSize);
+
+    return new CursorPagingProvider<>(RETRIEVE_ALL_PAGE, objectStore, pageSize, os -> {
+      ObjectStoreCursor<ObjectStoreEntry> cursor = os instanceof CursorObjectStore
+          ? ((CursorObjectStore) os).openEntryCursor(keyPrefix)
+          : new KeySnapshotEntryCursor(os, os.allKeys(), keyPrefix);
+
+      return new UnwrappingEntryCursor(cursor);
+    });
+  }
+
+  /**
+   * Non blocking version of the store operation. The flow thread is released while the value is being stored, and the
+   * flow resumes once the store completes.
+   * <p>
+   * Behaves exactly like the store operation, including the key level synchronization. The backend call runs on a
+   * bounded executor shared by all the non blocking operations. If too many of them are already pending, a
+   * {@code OS:STORE_NOT_AVAILABLE} error is raised without calling the store.
+   *
+   * @param key             the key of the {@code value} to be stored
+   * @param value           the value to be stored. Should not be {@code null} if {@code failOnNullValue} is set to {@code true}
+   * @param failIfPresent   Whether to fail or update the pre existing value if the {@code key} already exists on the store
+   * @param failOnNullValue Whether to fail or skip the operation if the {@code value} is {@code null}
+   * @param ttl             how long the value lives. If not set, only the expiration settings of the store apply
+   * @param ttlUnit         A {@link TimeUnit} which qualifies the {@code ttl}
+   * @param objectStore     A reference to the ObjectStore to be used. If not defined, the runtime's default partition will be used
+   */
+  @Throws(StoreErrorTypeProvider.class)
+  @Summary("Stores the given value using the given key, without blocking the flow thread")
+  public void storeAsync(String key,
+                         @Content TypedValue<Serializable> value,
+                         @Optional(defaultValue = "false") boolean failIfPresent,
+                         @Optional(defaultValue = "true") boolean failOnNullValue,
+                         @Optional Long ttl,
+                         @Optional(defaultValue = "SECONDS") @Expression(NOT_SUPPORTED) TimeUnit ttlUnit,
+                         @Optional @ParameterDsl(allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore objectStore,
+                         CompletionCallback<Void, Void> callback) {
+    runAsync(callback, () -> {
+      store(key, value, failIfPresent, failOnNullValue, ttl, ttlUnit, objectStore);
+      return Result.<Void, Void>builder().build();
+    });
+  }
+
+  /**
+   * Non blocking version of the retrieve operation. The flow thread is released while the value is being read.
+   * <p>
+   * Behaves exactly like the retrieve operation. The backend call runs on a bounded executor shared by all the non
+   * blocking operations. If too many of them are already pending, a {@code OS:STORE_NOT_AVAILABLE} error is raised
+   * without calling the store.
+   *
+   * @param key             the key of the {@code value} to be retrieved
+   * @param defaultValue    value to be returned if the {@code key} doesn't exist in the store
+   * @param objectStore     A reference to the ObjectStore to be used. If not defined, the runtime's default partition will be used
+   * @param readConsistency Whether the key lock should be acquired before reading
+   */
+  @Throws(RetrieveErrorTypeProvider.class)
+  @Summary("Retrieves the value stored for the given key, without blocking the flow thread")
+  public void retrieveAsync(String key,
+                            @Content @Optional TypedValue<Serializable> defaultValue,
+                            @Optional @ParameterDsl(
+                                allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore objectStore,
+                            @Optional(defaultValue = "LOCKED") @Expression(NOT_SUPPORTED) @Placement(
+                                tab = ADVANCED_TAB) ReadConsistency readConsistency,
+                            CompletionCallback<Serializable, Void> callback) {
+    runAsync(callback, () -> retrieve(key, defaultValue, objectStore, readConsistency));
+  }
+
+  /**
+   * Non blocking version of the remove operation. The flow thread is released while the value is being removed.
+   * <p>
+   * Behaves exactly like the remove operation, including the key level synchronization. If too many non blocking
+   * operations are already pending, a {@code OS:STORE_NOT_AVAILABLE} error is raised without calling the store.
+   *
+   * @param key         the key of the object to be removed
+   * @param objectStore A reference to the ObjectStore to be used. If not defined, the runtime's default partition will be used
+   */
+  @Throws(RemoveErrorTypeProvider.class)
+  @Summary("Removes the value associated to the given key, without blocking the flow thread")
+  public void removeAsync(String key,
+                          @Optional @ParameterDsl(allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore objectStore,
+                          CompletionCallback<Void, Void> callback) {
+    runAsync(callback, () -> {
+      remove(key, objectStore);
+      return Result.<Void, Void>builder().build();
+    });
+  }
+
+  /**
+   * Non blocking version of the contains operation. The flow thread is released while the store is being checked.
+   * <p>
+   * Behaves exactly like the contains operation. If too many non blocking operations are already pending, a
+   * {@code OS:STORE_NOT_AVAILABLE} error is raised without calling the store.
+   *
+   * @param key             the key of the object from which to verify its existence
+   * @param objectStore     A reference to the ObjectStore to be used. If not defined, the runtime's default partition will be used
+   * @param readConsistency Whether the key lock should be acquired before reading
+   */
+  @Summary("Returns whether the key is present or not, without blocking the flow thread")
+  @Throws(ContainsErrorTypeProvider.class)
+  public void containsAsync(String key,
+                            @Optional @ParameterDsl(
+                                allowInlineDefinition = false) @Expression(NOT_SUPPORTED) ObjectStore<Serializable> objectStore,
+                            @Optional(defaultValue = "LOCKED") @Expression(NOT_SUPPORTED) @Placement(
+                                tab = ADVANCED_TAB) ReadConsistency readConsistency,
+                            CompletionCallback<Boolean, Void> callback) {
+    runAsync(callback, () -> Result.<Boolean, Void>builder()
+        .output(contains(key, objectStore, readConsistency))
+        .build());
+  }
+
+  /**
+   * Runs the {@code operation} on the async executor and completes the {@code callback} with its outcome. Submissions
+   * rejected because the executor is saturated fail the callback with a {@code OS:STORE_NOT_AVAILABLE} error.
+   */
+  private <T, A> void runAsync(CompletionCallback<T, A> callback, Supplier<Result<T, A>> operation) {
+    try {
+      asyncExecutor.execute(() -> {
+        Result<T, A> result;
+        try {
+          result = operation.get();
+        } catch (Throwable t) {
+          callback.error(t);
+          return;
+        }
+        callback.success(result);
+      });
+    } catch (RejectedExecutionException e) {
+      callback.error(new ModuleException(STORE_NOT_AVAILABLE, new ObjectStoreNotAvailableException(
+                                                                                                    createStaticMessage(e
+                                                                                                        .getMessage()),
+                                                                                                    e)));
+    }
+  }
+
+  private Long toTtlMillis(Long ttl, TimeUnit ttlUnit) {
+    if (ttl == null) {
+      return null;
+    }
+
+    if (ttl <= 0) {
+      throw new ModuleException(ANY, new IllegalArgumentException(format("TTL must be greater than zero, but %d was given",
+                                                                         ttl)));
+    }
+
+    return ttlUnit.toMillis(ttl);
+  }
+
+  private void trackExpiration(ObjectStore<Serializable> os, String key, long expiresAt) {
+    reclaimer.track(getStoreName(os), key, expiresAt, () -> reclaim(os, key));
+  }
+
+  /**
+   * Removes the value of the given {@code key} if it's still an expired one.
+   */
+  /**
+   * Counter stores don't tell whether they created the counter, so its lifespan is read back from the stored value.
+   * Counters kept without an {@link ExpiringValue} expire on their own and need no reclaim
+   */
+  private void trackStoredExpiration(ObjectStore<Serializable> os, String key) throws ObjectStoreException {
+    Serializable stored;
+    try {
+      stored = os.retrieve(key);
+    } catch (ObjectDoesNotExistException e) {
+      return;
+    }
+
+    if (stored instanceof ExpiringValue) {
+      trackExpiration(os, key, ((ExpiringValue) stored).getExpiresAt());
+    }
+  }
+
+  private void reclaim(ObjectStore<Serializable> objectStore, String key) {
+    withLockedKey(RECLAIM, objectStore, key, os -> {
+      Serializable current;
+      try {
+        current = os.retrieve(key);
+      } catch (ObjectDoesNotExistException e) {
+        return null;
+      }
+
+      if (current instanceof ExpiringValue && ((ExpiringValue) current).isExpired(currentTimeMillis())) {
+        try {
+          os.remove(key);
+          metrics.forStore(getStoreName(os)).recordExpiredEntryReclaimed();
+        } catch (ObjectDoesNotExistException e) {
+          // removed concurrently
+        }
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Retrieves the value of the given {@code key}, translating rate limit errors.
+   *
+   * @return the stored value or {@code null} if the key doesn't exist
+   */
+  private Serializable retrieveTask(ObjectStore<Serializable> os, String key) throws ObjectStoreException {
+    try {
+      return ExpiringValue.unwrap(os.retrieve(key), currentTimeMillis());
+    } catch (ObjectDoesNotExistException e) {
+      return null;
+    }
+  }
+
+  private VersionedObjectStore asVersioned(ObjectStore<Serializable> os) {
+    if (!(os instanceof VersionedObjectStore)) {
+      throw new ModuleException(ANY, new IllegalArgumentException(format("ObjectStore '%s' doesn't support versioning",
+                                                                         getStoreName(os))));
+    }
+
+    return (VersionedObjectStore) os;
+  }
+
+  private Serializable unwrap(Serializable value) {
+    value = ExpiringValue.unwrap(value, currentTimeMillis());
+    return value instanceof TypedValue ? (Serializable) ((TypedValue) value).getValue() : value;
+  }
+
   private Serializable removeTask(ObjectStore<Serializable> os, String key) throws ObjectStoreException {
     try {
       return os.remove(key);
@@ -293,11 +985,95 @@ public class ObjectStoreOperations {
       throw new ModuleException(KEY_NOT_FOUND, new ObjectDoesNotExistException(createStaticMessage(format(
                                                                                                           "ObjectStore doesn't contain any value for key '%s'",
                                                                                                           key))));
-    } catch (ObjectStoreException e) {
-      if (e.getMessage().contains(RATE_LIMIT_EXCEEDED_PATTERN)) {
-        throw new ModuleException(STORE_NOT_AVAILABLE, new ObjectStoreException(createStaticMessage("Rate Limit exceeded"), e));
+    }
+  }
+
+  /**
+   * Stores a single entry of a batch, retrying it as configured on the store while it's not available. Retries happen
+   * within the key locks held for the whole batch, and only the entries which still can't be stored afterwards are
+   * reported as {@link StoreOutcome#STORE_NOT_AVAILABLE}.
+   */
+  private StoreOutcome storeEntry(StoreMetrics storeMetrics, ObjectStore<Serializable> os, String key,
+                                  TypedValue<Serializable> value, boolean failIfPresent) {
+    RetryPolicy retryPolicy = getRetryPolicy(os);
+    final long startedAt = nanoTime();
+    for (int attempt = 1;; attempt++) {
+      try {
+        return storeEntry(os, key, value, failIfPresent);
+      } catch (ObjectStoreException e) {
+        if (isRateLimitExceeded(e)) {
+          storeMetrics.recordRateLimited();
+        }
+        long backoff = retryPolicy.nextBackoff(attempt, startedAt, nanoTime());
+        if (backoff >= 0 && pause(backoff)) {
+          storeMetrics.recordRetry();
+          continue;
+        }
+        if (attempt > 1) {
+          storeMetrics.recordRetriesExhausted();
+        }
+        return StoreOutcome.STORE_NOT_AVAILABLE;
+      }
+    }
+  }
+
+  /**
+   * @throws ObjectStoreException only if the store is not available or rate limited, so that the entry can be retried
+   */
+  private StoreOutcome storeEntry(ObjectStore<Serializable> os, String key, TypedValue<Serializable> value,
+                                  boolean failIfPresent)
+      throws ObjectStoreException {
+    try {
+      if (!failIfPresent && os instanceof UpsertObjectStore) {
+        ((UpsertObjectStore) os).upsert(key, value);
+        return StoreOutcome.STORED;
       }
+
+      try {
+        os.store(key, value);
+      } catch (ObjectAlreadyExistsException e) {
+        if (failIfPresent) {
+          if (retrieveTask(os, key) != null) {
+            return StoreOutcome.KEY_ALREADY_EXISTS;
+          }
+        } else {
+          metrics.forStore(getStoreName(os)).recordUpsertFallback();
+        }
+        // either an expired entry or a store which doesn't support upserts
+        try {
+          os.remove(key);
+        } catch (ObjectDoesNotExistException notFound) {
+          // removed concurrently by someone who doesn't honour the key lock. Nothing left to overwrite.
+        }
+        os.store(key, value);
+      }
+      return StoreOutcome.STORED;
+    } catch (ObjectAlreadyExistsException e) {
+      return StoreOutcome.KEY_ALREADY_EXISTS;
+    } catch (ObjectStoreNotAvailableException e) {
       throw e;
+    } catch (ValueTooLargeException e) {
+      return StoreOutcome.VALUE_TOO_LARGE;
+    } catch (ObjectStoreException e) {
+      if (isRateLimitExceeded(e)) {
+        throw e;
+      }
+      return StoreOutcome.FAILED;
+    }
+  }
+
+  private TypedValue<Serializable> asTypedValue(Serializable value) {
+    if (value instanceof TypedValue) {
+      return (TypedValue<Serializable>) value;
+    }
+
+    return new TypedValue<>(value, DataType.fromObject(value));
+  }
+
+  private void validatePageSize(int pageSize) {
+    if (pageSize <= 0) {
+      throw new ModuleException(ANY, new IllegalArgumentException(format("Page size must be greater than zero, but %d was given",
+                                                                         pageSize)));
     }
   }
 
@@ -320,63 +1096,246 @@ public class ObjectStoreOperations {
     }
   }
 
-  private <T> T withLockedKey(ObjectStore<Serializable> objectStore, String key, ObjectStoreTask<T> task) {
+  private <T> T withLockedKey(OperationType operation, ObjectStore<Serializable> objectStore, String key,
+                              ObjectStoreTask<T> task) {
+    return withKey(operation, objectStore, key, LOCKED, task);
+  }
+
+  /**
+   * Runs the {@code task} for the given {@code key}, holding the key lock unless the {@code readConsistency} is
+   * {@link ReadConsistency#UNLOCKED}. Lock wait, time spent on the store, errors and the overall latency are recorded
+   * in the store metrics under the given {@code operation}.
+   */
+  private <T> T withKey(OperationType operation, ObjectStore<Serializable> objectStore, String key,
+                        ReadConsistency readConsistency, ObjectStoreTask<T> task) {
     objectStore = nullSafe(objectStore);
-    Lock lock = getKeyLock(key, objectStore);
-    lock.lock();
+    StoreMetrics storeMetrics = metrics.forStore(getStoreName(objectStore));
+    final long start = nanoTime();
+    Lock lock = readConsistency == UNLOCKED ? null : getKeyLock(key, objectStore);
+    if (lock != null) {
+      lock.lock();
+    }
+    final long acquired = nanoTime();
     try {
-      return task.run(objectStore);
-    } catch (ObjectAlreadyExistsException e) {
-      throw new ModuleException(createStaticMessage(format("Key '%s' is already present on object store", key)),
-                                KEY_ALREADY_EXISTS, e);
-    } catch (ObjectStoreNotAvailableException e) {
-      throw new ModuleException(createStaticMessage(format("ObjectStore is not available at the moment")),
-                                STORE_NOT_AVAILABLE, e);
-    } catch (ObjectDoesNotExistException e) {
-      throw new ModuleException(createStaticMessage(format("Key '%s' does not exists on object store", key)),
-                                KEY_NOT_FOUND, e);
-    } catch (ObjectStoreException e) {
-      if (e.getMessage().contains(RATE_LIMIT_EXCEEDED_PATTERN)) {
-        throw new ModuleException(STORE_NOT_AVAILABLE, new ObjectStoreException(createStaticMessage("Rate Limit exceeded"), e));
+      if (lock != null) {
+        storeMetrics.recordLockWait(acquired - start);
       }
-      throw new ModuleException(createStaticMessage("Found error trying to access ObjectStore"), ANY, e);
+      return runTask(storeMetrics, objectStore, key, task);
+    } catch (ModuleException e) {
+      storeMetrics.recordError(e.getType());
+      throw e;
     } finally {
-      lock.unlock();
+      recordCompletion(storeMetrics, operation, start, acquired);
+      if (lock != null) {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Runs the {@code task} holding the locks of all the given {@code keys}, unless the {@code readConsistency} is
+   * {@link ReadConsistency#UNLOCKED}. Callers are expected to supply the keys in a consistent order (e.g: natural order),
+   * so that two batches sharing keys never acquire them in opposite directions.
+   */
+  private <T> T withKeys(OperationType operation, ObjectStore<Serializable> objectStore, Collection<String> keys,
+                         ReadConsistency readConsistency, ObjectStoreTask<T> task) {
+    objectStore = nullSafe(objectStore);
+    StoreMetrics storeMetrics = metrics.forStore(getStoreName(objectStore));
+    final long start = nanoTime();
+    long acquiredAt = start;
+    List<Lock> acquired = new ArrayList<>();
+    try {
+      if (readConsistency != UNLOCKED) {
+        for (Lock lock : getKeyLocks(keys, objectStore)) {
+          lock.lock();
+          acquired.add(lock);
+        }
+        acquiredAt = nanoTime();
+        storeMetrics.recordLockWait(acquiredAt - start);
+      }
+      return runTask(storeMetrics, objectStore, null, task);
+    } catch (ModuleException e) {
+      storeMetrics.recordError(e.getType());
+      throw e;
+    } finally {
+      recordCompletion(storeMetrics, operation, start, acquiredAt);
+      for (int i = acquired.size() - 1; i >= 0; i--) {
+        acquired.get(i).unlock();
+      }
     }
   }
 
-  private <T> T withLockedStore(ObjectStore<Serializable> objectStore, ObjectStoreTask<T> task) {
+  private <T> T withLockedStore(OperationType operation, ObjectStore<Serializable> objectStore, ObjectStoreTask<T> task) {
     objectStore = nullSafe(objectStore);
+    StoreMetrics storeMetrics = metrics.forStore(getStoreName(objectStore));
+    final long start = nanoTime();
     Lock lock = getStoreLock(objectStore);
     lock.lock();
+    final long acquired = nanoTime();
+    try {
+      storeMetrics.recordLockWait(acquired - start);
+      return runTask(storeMetrics, objectStore, null, task);
+    } catch (ModuleException e) {
+      storeMetrics.recordError(e.getType());
+      throw e;
+    } finally {
+      recordCompletion(storeMetrics, operation, start, acquired);
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Runs the {@code task}, retrying it as configured on the store while it's not available, and translates its
+   * exceptions. Retries happen within the locks already held by the caller.
+   */
+  private <T> T runTask(StoreMetrics storeMetrics, ObjectStore<Serializable> objectStore, String key,
+                        ObjectStoreTask<T> task) {
+    RetryPolicy retryPolicy = getRetryPolicy(objectStore);
+    final long startedAt = nanoTime();
+    for (int attempt = 1;; attempt++) {
+      try {
+        return runAttempt(storeMetrics, objectStore, task);
+      } catch (ObjectStoreException e) {
+        if (e instanceof ObjectStoreNotAvailableException || isRateLimitExceeded(e)) {
+          long backoff = retryPolicy.nextBackoff(attempt, startedAt, nanoTime());
+          if (backoff >= 0 && pause(backoff)) {
+            storeMetrics.recordRetry();
+            continue;
+          }
+          if (attempt > 1) {
+            storeMetrics.recordRetriesExhausted();
+          }
+        }
+        throw translate(e, key);
+      }
+    }
+  }
+
+  /**
+   * Runs the {@code task} once, within the store's adaptive concurrency limit if any.
+   */
+  private <T> T runAttempt(StoreMetrics storeMetrics, ObjectStore<Serializable> objectStore, ObjectStoreTask<T> task)
+      throws ObjectStoreException {
+    AdaptiveConcurrencyLimiter limiter = limiters.forStore(storeMetrics.getStoreName());
+    if (limiter != null && !limiter.acquire()) {
+      throw new ObjectStoreNotAvailableException(createStaticMessage(format("Too many concurrent calls to ObjectStore '%s'",
+                                                                            storeMetrics.getStoreName())));
+    }
+
+    boolean rateLimited = false;
     try {
       return task.run(objectStore);
-    } catch (ObjectStoreNotAvailableException e) {
-      throw new ModuleException(createStaticMessage("ObjectStore '%s' is not available at the moment"), STORE_NOT_AVAILABLE, e);
     } catch (ObjectStoreException e) {
-      if (e.getMessage().contains(RATE_LIMIT_EXCEEDED_PATTERN)) {
-        throw new ModuleException(STORE_NOT_AVAILABLE, new ObjectStoreException(createStaticMessage("Rate Limit exceeded"), e));
+      rateLimited = isRateLimitExceeded(e);
+      if (rateLimited) {
+        storeMetrics.recordRateLimited();
       }
-      throw new ModuleException(createStaticMessage("Found error trying to access ObjectStore"), ANY, e);
+      throw e;
     } finally {
-      lock.unlock();
+      if (limiter != null) {
+        limiter.release(rateLimited);
+      }
     }
   }
 
+  private RetryPolicy getRetryPolicy(ObjectStore<Serializable> objectStore) {
+    return objectStore instanceof ExtensionObjectStore
+        ? ((ExtensionObjectStore) objectStore).getRetryPolicy()
+        : RetryPolicy.NONE;
+  }
 
+  /**
+   * @return {@code false} if the thread was interrupted while waiting
+   */
+  private boolean pause(long nanos) {
+    if (nanos <= 0) {
+      return true;
+    }
+
+    try {
+      NANOSECONDS.sleep(nanos);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private void recordCompletion(StoreMetrics storeMetrics, OperationType operation, long start, long acquired) {
+    long end = nanoTime();
+    storeMetrics.recordBackendTime(end - acquired);
+    storeMetrics.recordOperation(operation, end - start);
+  }
 
   private Lock getKeyLock(String key, ObjectStore<Serializable> objectStore) {
+    if (isStriped(objectStore)) {
+      return locks.getKeyLock(getStoreName(objectStore), key);
+    }
 
     return lockFactory.createLock(getStoreLockKey(objectStore) + "_" + key);
   }
 
+  /**
+   * @return the locks guarding all the given {@code keys}, in the order in which they have to be acquired
+   */
+  private List<Lock> getKeyLocks(Collection<String> keys, ObjectStore<Serializable> objectStore) {
+    if (isStriped(objectStore)) {
+      return locks.getKeyLocks(getStoreName(objectStore), keys);
+    }
+
+    List<Lock> keyLocks = new ArrayList<>(keys.size());
+    for (String key : keys) {
+      keyLocks.add(lockFactory.createLock(getStoreLockKey(objectStore) + "_" + key));
+    }
+    return keyLocks;
+  }
+
+  private boolean isStriped(ObjectStore<Serializable> objectStore) {
+    return locks.isStriped(getStoreName(objectStore), () -> isApplicationPrivate(objectStore));
+  }
+
+  /**
+   * Stores defined in a domain are shared by its applications, which don't share their striped locks
+   */
+  private boolean isApplicationPrivate(ObjectStore<Serializable> objectStore) {
+    if (objectStore instanceof ExtensionObjectStore) {
+      return ((ExtensionObjectStore) objectStore).isApplicationScoped();
+    }
+
+    return objectStore == runtimeObjectStoreManager.getDefaultPartition();
+  }
+
+  /**
+   * Values in stores which outlive this run or are reachable by other applications or nodes may have a TTL the
+   * reclaimer of this JVM doesn't know about
+   */
+  private boolean isPrivateInMemoryStore(ObjectStore<Serializable> objectStore) {
+    return !objectStore.isPersistent() && isApplicationPrivate(objectStore) && !locks.isClustered();
+  }
+
+  /**
+   * Stores which emulate versioning overwrite values by removing and storing them again, so their versioned operations
+   * must hold the key lock
+   */
+  private boolean isCompareAndSetAtomic(ObjectStore<Serializable> objectStore) {
+    return !(objectStore instanceof ExtensionObjectStore) || ((ExtensionObjectStore) objectStore).isCompareAndSetAtomic();
+  }
+
   private String getStoreLockKey(ObjectStore<Serializable> objectStore) {
-    return "_objectStoreConnector_" + (objectStore instanceof NamedObject
+    return "_objectStoreConnector_" + getStoreName(objectStore);
+  }
+
+  private String getStoreName(ObjectStore<Serializable> objectStore) {
+    return objectStore instanceof NamedObject
         ? ((NamedObject) objectStore).getName()
-        : objectStore.toString());
+        : objectStore.toString();
   }
 
   private Lock getStoreLock(ObjectStore<Serializable> objectStore) {
+    if (isStriped(objectStore)) {
+      return locks.getStoreLock(getStoreName(objectStore));
+    }
+
     return lockFactory.createLock(getStoreLockKey(objectStore));
   }
 
@@ -389,4 +1348,83 @@ public class ObjectStoreOperations {
 
     T run(ObjectStore<Serializable> objectStore) throws ObjectStoreException;
   }
+
+  /**
+   * Unwraps the {@link TypedValue} of each entry as its page is read, leaving out the entries which have expired.
+   */
+  private class UnwrappingEntryCursor implements ObjectStoreCursor<ObjectStoreEntry> {
+
+    private final ObjectStoreCursor<ObjectStoreEntry> delegate;
+
+    private UnwrappingEntryCursor(ObjectStoreCursor<ObjectStoreEntry> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public List<ObjectStoreEntry> next(int maxItems) throws ObjectStoreException {
+      List<ObjectStoreEntry> unwrapped = new ArrayList<>();
+      List<ObjectStoreEntry> page;
+      // an empty page ends the stream, so keep reading while whole pages turn out to be expired
+      do {
+        page = delegate.next(maxItems);
+        for (ObjectStoreEntry entry : page) {
+          Serializable value = unwrap(entry.getValue());
+          if (value != null) {
+            unwrapped.add(value == entry.getValue() ? entry : new ObjectStoreEntry(entry.getKey(), value));
+          }
+        }
+      } while (unwrapped.isEmpty() && !page.isEmpty());
+
+      return unwrapped;
+    }
+
+    @Override
+    public void close() {
+      delegate.close();
+    }
+  }
+
+  /**
+   * Reads pages out of a cursor, holding the store lock only while each page is read. The cursor is lazily opened when
+   * the first page is requested.
+   */
+  private class CursorPagingProvider<T> implements PagingProvider<ObjectStoreManager, T> {
+
+    private final OperationType operation;
+    private final ObjectStore<Serializable> objectStore;
+    private final int pageSize;
+    private final ObjectStoreTask<ObjectStoreCursor<T>> cursorFactory;
+    private ObjectStoreCursor<T> cursor;
+
+    private CursorPagingProvider(OperationType operation, ObjectStore<Serializable> objectStore, int pageSize,
+                                 ObjectStoreTask<ObjectStoreCursor<T>> cursorFactory) {
+      this.operation = operation;
+      this.objectStore = objectStore;
+      this.pageSize = pageSize;
+      this.cursorFactory = cursorFactory;
+    }
+
+    @Override
+    public List<T> getPage(ObjectStoreManager connection) {
+      return withLockedStore(operation, objectStore, os -> {
+        if (cursor == null) {
+          cursor = cursorFactory.run(os);
+        }
+        return cursor.next(pageSize);
+      });
+    }
+
+    @Override
+    public java.util.Optional<Integer> getTotalResults(ObjectStoreManager connection) {
+      return java.util.Optional.empty();
+    }
+
+    @Override
+    public void close(ObjectStoreManager connection) {
+      if (cursor != null) {
+        cursor.close();
+        cursor = null;
+      }
+    }
+  }
 }
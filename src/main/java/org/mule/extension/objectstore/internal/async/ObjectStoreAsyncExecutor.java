@@ -0,0 +1,166 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.async;
+
+import static org.mule.runtime.api.scheduler.SchedulerConfig.config;
+import static org.slf4j.LoggerFactory.getLogger;
+import org.mule.runtime.api.lifecycle.Disposable;
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.api.scheduler.SchedulerService;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+
+/**
+ * Runs the backend calls of the non blocking operations, so that the flow thread is released while the store is
+ * accessed.
+ * <p>
+ * At most {@link #MAX_CONCURRENCY_PROPERTY} calls run at a time and at most {@link #QUEUE_SIZE_PROPERTY} more wait for
+ * their turn. Further submissions are rejected until some of the pending ones complete. The calls run on a dedicated
+ * scheduler created on first use, or on virtual threads when the {@link #VIRTUAL_THREADS_PROPERTY} system property is
+ * set to {@code true} and the JVM supports them (Java 21+).
+ *
+ * @since 2.0
+ */
+public class ObjectStoreAsyncExecutor implements Disposable {
+
+  public static final String MAX_CONCURRENCY_PROPERTY = "mule.objectstore.async.maxConcurrency";
+  public static final String QUEUE_SIZE_PROPERTY = "mule.objectstore.async.queueSize";
+  public static final String VIRTUAL_THREADS_PROPERTY = "mule.objectstore.async.virtualThreads";
+
+  private static final Logger LOGGER = getLogger(ObjectStoreAsyncExecutor.class);
+  private static final String SCHEDULER_NAME = "objectStoreConnector.async";
+  private static final int DEFAULT_MAX_CONCURRENCY = 16;
+  private static final int DEFAULT_QUEUE_SIZE = 1024;
+
+  @Inject
+  private SchedulerService schedulerService;
+
+  private final int maxConcurrency;
+  private final int queueSize;
+  private final boolean virtualThreads;
+  private final Semaphore pending;
+  private final Semaphore running;
+  private volatile ExecutorService executor;
+  private volatile boolean onVirtualThreads;
+
+  public ObjectStoreAsyncExecutor() {
+    this(Integer.getInteger(MAX_CONCURRENCY_PROPERTY, DEFAULT_MAX_CONCURRENCY),
+         Integer.getInteger(QUEUE_SIZE_PROPERTY, DEFAULT_QUEUE_SIZE),
+         Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY));
+  }
+
+  private ObjectStoreAsyncExecutor(int maxConcurrency, int queueSize, boolean virtualThreads) {
+    this.maxConcurrency = maxConcurrency;
+    this.queueSize = queueSize;
+    this.virtualThreads = virtualThreads;
+    this.pending = new Semaphore(maxConcurrency + queueSize);
+    this.running = new Semaphore(maxConcurrency);
+  }
+
+  /**
+   * Creates an instance which runs the calls on the given {@code executor}, allowing at most {@code maxPending} of them
+   * to be running or waiting at a time.
+   */
+  public ObjectStoreAsyncExecutor(ExecutorService executor, int maxPending) {
+    this(maxPending, 0, false);
+    this.executor = executor;
+  }
+
+  /**
+   * Runs the given {@code task} asynchronously.
+   *
+   * @throws RejectedExecutionException if too many tasks are already running or waiting
+   */
+  public void execute(Runnable task) {
+    if (!pending.tryAcquire()) {
+      throw new RejectedExecutionException("Too many pending asynchronous ObjectStore operations");
+    }
+
+    try {
+      ExecutorService current = getExecutor();
+      if (onVirtualThreads) {
+        // virtual threads are not pooled, so the ones over the concurrency limit park until a running call completes
+        current.execute(() -> {
+          running.acquireUninterruptibly();
+          try {
+            task.run();
+          } finally {
+            running.release();
+            pending.release();
+          }
+        });
+      } else {
+        current.execute(() -> {
+          try {
+            task.run();
+          } finally {
+            pending.release();
+          }
+        });
+      }
+    } catch (RuntimeException e) {
+      pending.release();
+      throw e;
+    }
+  }
+
+  /**
+   * @return the number of tasks which are either running or waiting to run
+   */
+  public int getPendingCount() {
+    return maxConcurrency + queueSize - pending.availablePermits();
+  }
+
+  private ExecutorService getExecutor() {
+    ExecutorService current = executor;
+    if (current == null) {
+      synchronized (this) {
+        current = executor;
+        if (current == null) {
+          current = executor = createExecutor();
+        }
+      }
+    }
+    return current;
+  }
+
+  private ExecutorService createExecutor() {
+    if (virtualThreads) {
+      try {
+        ExecutorService virtualThreadExecutor =
+            (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        onVirtualThreads = true;
+        return virtualThreadExecutor;
+      } catch (ReflectiveOperationException e) {
+        LOGGER.warn("Virtual threads are not supported by this JVM. Asynchronous ObjectStore operations will run on a "
+            + "dedicated scheduler instead");
+      }
+    }
+
+    return schedulerService.customScheduler(config()
+        .withName(SCHEDULER_NAME)
+        .withMaxConcurrentTasks(maxConcurrency), queueSize);
+  }
+
+  @Override
+  public synchronized void dispose() {
+    if (executor instanceof Scheduler) {
+      ((Scheduler) executor).stop();
+    } else if (executor != null) {
+      executor.shutdown();
+    }
+    executor = null;
+    onVirtualThreads = false;
+  }
+}
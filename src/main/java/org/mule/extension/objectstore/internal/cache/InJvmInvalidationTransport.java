@@ -0,0 +1,76 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.cache;
+
+import static java.lang.String.format;
+import static org.slf4j.LoggerFactory.getLogger;
+import org.mule.extension.objectstore.api.InvalidationEvent;
+import org.mule.extension.objectstore.api.InvalidationTransport;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+
+/**
+ * Default {@link InvalidationTransport} which delivers events synchronously to the subscribers living in the same JVM
+ * and belonging to the same application or domain. There is one instance per application or domain, since the stores
+ * of different ones don't share their entries.
+ *
+ * @since 2.0
+ */
+public final class InJvmInvalidationTransport implements InvalidationTransport {
+
+  private static final Logger LOGGER = getLogger(InJvmInvalidationTransport.class);
+  private static final Map<String, InJvmInvalidationTransport> BY_CONTEXT = new ConcurrentHashMap<>();
+
+  private final Map<String, Map<String, Consumer<InvalidationEvent>>> subscribers = new ConcurrentHashMap<>();
+
+  /**
+   * @param contextId the name of the application or domain which defines the stores
+   * @return the transport shared by the stores of the given application or domain
+   */
+  public static InJvmInvalidationTransport forContext(String contextId) {
+    return BY_CONTEXT.computeIfAbsent(contextId != null ? contextId : "", context -> new InJvmInvalidationTransport());
+  }
+
+  private InJvmInvalidationTransport() {}
+
+  @Override
+  public void publish(InvalidationEvent event) {
+    Map<String, Consumer<InvalidationEvent>> storeSubscribers = subscribers.get(event.getStoreName());
+    if (storeSubscribers == null) {
+      return;
+    }
+
+    storeSubscribers.forEach((subscriberId, listener) -> {
+      if (!subscriberId.equals(event.getOrigin())) {
+        try {
+          listener.accept(event);
+        } catch (Exception e) {
+          LOGGER.warn(format("Could not deliver invalidation of store '%s' to subscriber '%s'", event.getStoreName(),
+                             subscriberId),
+                      e);
+        }
+      }
+    });
+  }
+
+  @Override
+  public void subscribe(String storeName, String subscriberId, Consumer<InvalidationEvent> listener) {
+    subscribers.computeIfAbsent(storeName, name -> new ConcurrentHashMap<>()).put(subscriberId, listener);
+  }
+
+  @Override
+  public void unsubscribe(String storeName, String subscriberId) {
+    subscribers.computeIfPresent(storeName, (name, storeSubscribers) -> {
+      storeSubscribers.remove(subscriberId);
+      return storeSubscribers.isEmpty() ? null : storeSubscribers;
+    });
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.cache;
+
+import static org.mule.extension.objectstore.api.EvictionPolicy.LRU;
+
+import org.mule.extension.objectstore.api.EvictionPolicy;
+import org.mule.extension.objectstore.internal.metrics.StoreMetrics;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, in process cache which sits in front of a store's delegate.
+ * <p>
+ * Values are only cached on reads. Every write must {@link #invalidate(String) invalidate} the affected key. To avoid
+ * caching a value which was read before a concurrent write but loaded after it, loads are tagged with the
+ * {@link #generation()} observed before reading from the delegate, and discarded if any invalidation happened since.
+ *
+ * @since 2.0
+ */
+public class NearCache {
+
+  private final int maxEntries;
+  private final long ttlNanos;
+  private final StoreMetrics metrics;
+  private final Map<String, CachedValue> entries;
+  private long generation = 0;
+
+  /**
+   * Creates a new instance
+   *
+   * @param maxEntries     the max number of entries to be cached
+   * @param ttlMillis      how long an entry can be served from the cache. If lower or equal to zero, entries don't expire
+   * @param evictionPolicy which entry to discard when the cache is full
+   * @param metrics        where to record hits, misses and evictions
+   */
+  public NearCache(int maxEntries, long ttlMillis, EvictionPolicy evictionPolicy, StoreMetrics metrics) {
+    this.maxEntries = maxEntries;
+    this.ttlNanos = ttlMillis > 0 ? ttlMillis * 1000000 : 0;
+    this.metrics = metrics;
+    this.entries = new LinkedHashMap<String, CachedValue>(16, 0.75f, evictionPolicy == LRU) {
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedValue> eldest) {
+        if (size() > NearCache.this.maxEntries) {
+          NearCache.this.metrics.recordNearCacheEviction();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * @param key the key to look for
+   * @return the cached value, or {@code null} if the key is not cached or its entry has expired
+   */
+  public synchronized Serializable get(String key) {
+    CachedValue cached = entries.get(key);
+    if (cached != null && ttlNanos > 0 && System.nanoTime() - cached.loadedAt > ttlNanos) {
+      entries.remove(key);
+      cached = null;
+    }
+
+    if (cached == null) {
+      metrics.recordNearCacheMiss();
+      return null;
+    }
+
+    metrics.recordNearCacheHit();
+    return cached.value;
+  }
+
+  /**
+   * @return a token to be passed to {@link #put(String, Serializable, long)} once the value has been read
+   */
+  public synchronized long generation() {
+    return generation;
+  }
+
+  /**
+   * Caches the given {@code value}, unless the cache was invalidated after the given {@code generation} was obtained.
+   */
+  public synchronized void put(String key, Serializable value, long generation) {
+    if (value != null && generation == this.generation) {
+      entries.put(key, new CachedValue(value, System.nanoTime()));
+    }
+  }
+
+  /**
+   * Discards the given {@code key}
+   */
+  public synchronized void invalidate(String key) {
+    generation++;
+    entries.remove(key);
+  }
+
+  /**
+   * Discards all the entries
+   */
+  public synchronized void invalidateAll() {
+    generation++;
+    entries.clear();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private static final class CachedValue {
+
+    private final Serializable value;
+    private final long loadedAt;
+
+    private CachedValue(Serializable value, long loadedAt) {
+      this.value = value;
+      this.loadedAt = loadedAt;
+    }
+  }
+}
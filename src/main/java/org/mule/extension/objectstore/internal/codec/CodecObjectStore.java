@@ -0,0 +1,320 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.codec;
+
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import org.mule.extension.objectstore.api.BulkRetrieveObjectStore;
+import org.mule.extension.objectstore.api.UpsertObjectStore;
+import org.mule.extension.objectstore.api.ValueCodec;
+import org.mule.extension.objectstore.internal.metrics.StoreMetrics;
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.api.store.ObjectStoreException;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes values through a {@link ValueCodec} before handing them to the delegate store, so that the store only ever
+ * holds byte arrays, and decodes them as they are read.
+ * <p>
+ * Encoded values start with a magic number, a marker byte which tells how they were compressed, if at all, and the
+ * name of their codec. Hence, they are decoded with the codec and decompressed with the algorithm which wrote them,
+ * even if the store was switched to other ones since. Values written before markers were introduced are read as
+ * uncompressed, and values which don't start with the magic number, such as the ones written before a codec was
+ * configured, are returned as they are.
+ * <p>
+ * Values which take less than the compression threshold once encoded are not compressed, and neither are the ones
+ * which don't shrink.
+ *
+ * @since 2.0
+ */
+public class CodecObjectStore implements ObjectStore<Serializable>, UpsertObjectStore, BulkRetrieveObjectStore {
+
+  private static final byte[] MAGIC = {(byte) 0xC0, 'O', 'S'};
+  // version 1 values have no compression marker
+  private static final byte VERSION_1 = 1;
+  private static final byte VERSION = 2;
+
+  private final ObjectStore<Serializable> delegate;
+  private final ValueCodec codec;
+  private final ValueCodecs codecs;
+  private final Compressor compressor;
+  private final int compressionThreshold;
+  private final StoreMetrics metrics;
+  private final byte[] name;
+
+  /**
+   * Creates a store which doesn't compress values
+   *
+   * @param delegate the store which holds the encoded values
+   * @param codec    the codec which encodes written values
+   * @param codecs   where to look up the codecs of the values read
+   */
+  public CodecObjectStore(ObjectStore<Serializable> delegate, ValueCodec codec, ValueCodecs codecs) {
+    this(delegate, codec, codecs, null, Integer.MAX_VALUE, null);
+  }
+
+  /**
+   * @param delegate             the store which holds the encoded values
+   * @param codec                the codec which encodes written values
+   * @param codecs               where to look up the codecs of the values read
+   * @param compressor           how to compress written values, or {@code null} to leave them uncompressed
+   * @param compressionThreshold the min size of an encoded value, in bytes, for it to be compressed
+   * @param metrics              where to record compression ratios and times, or {@code null} to not record them
+   */
+  public CodecObjectStore(ObjectStore<Serializable> delegate, ValueCodec codec, ValueCodecs codecs, Compressor compressor,
+                          int compressionThreshold, StoreMetrics metrics) {
+    this.delegate = delegate;
+    this.codec = codec;
+    this.codecs = codecs;
+    this.compressor = compressor;
+    this.compressionThreshold = compressionThreshold;
+    this.metrics = metrics;
+
+    name = codec.getName().getBytes(UTF_8);
+    if (name.length == 0 || name.length > 255) {
+      throw new IllegalArgumentException(format("The name of codec '%s' must take between 1 and 255 bytes", codec.getName()));
+    }
+  }
+
+  @Override
+  public boolean contains(String key) throws ObjectStoreException {
+    return delegate.contains(key);
+  }
+
+  @Override
+  public void store(String key, Serializable value) throws ObjectStoreException {
+    delegate.store(key, encode(key, value));
+  }
+
+  @Override
+  public void upsert(String key, Serializable value) throws ObjectStoreException {
+    byte[] encoded = encode(key, value);
+    if (delegate instanceof UpsertObjectStore) {
+      ((UpsertObjectStore) delegate).upsert(key, encoded);
+      return;
+    }
+
+    try {
+      delegate.store(key, encoded);
+    } catch (ObjectAlreadyExistsException e) {
+      try {
+        delegate.remove(key);
+      } catch (ObjectDoesNotExistException notFound) {
+        // already gone, nothing to overwrite
+      }
+      delegate.store(key, encoded);
+    }
+  }
+
+  @Override
+  public Serializable retrieve(String key) throws ObjectStoreException {
+    return decode(key, delegate.retrieve(key));
+  }
+
+  @Override
+  public Map<String, Serializable> retrieveMany(Collection<String> keys) throws ObjectStoreException {
+    Map<String, Serializable> stored;
+    if (delegate instanceof BulkRetrieveObjectStore) {
+      stored = ((BulkRetrieveObjectStore) delegate).retrieveMany(keys);
+    } else {
+      stored = new HashMap<>();
+      for (String key : keys) {
+        try {
+          stored.put(key, delegate.retrieve(key));
+        } catch (ObjectDoesNotExistException e) {
+          // missing keys are not part of the result
+        }
+      }
+    }
+    return decodeAll(stored);
+  }
+
+  @Override
+  public Serializable remove(String key) throws ObjectStoreException {
+    return decode(key, delegate.remove(key));
+  }
+
+  @Override
+  public boolean isPersistent() {
+    return delegate.isPersistent();
+  }
+
+  @Override
+  public void clear() throws ObjectStoreException {
+    delegate.clear();
+  }
+
+  @Override
+  public void open() throws ObjectStoreException {
+    delegate.open();
+  }
+
+  @Override
+  public void close() throws ObjectStoreException {
+    delegate.close();
+  }
+
+  @Override
+  public List<String> allKeys() throws ObjectStoreException {
+    return delegate.allKeys();
+  }
+
+  @Override
+  public Map<String, Serializable> retrieveAll() throws ObjectStoreException {
+    return decodeAll(delegate.retrieveAll());
+  }
+
+  public ValueCodec getCodec() {
+    return codec;
+  }
+
+  private byte[] encode(String key, Serializable value) throws ObjectStoreException {
+    byte[] encoded;
+    try {
+      encoded = codec.encode(value);
+    } catch (IOException | RuntimeException e) {
+      throw new ObjectStoreException(createStaticMessage(format("Could not encode the value for key '%s' with codec '%s'",
+                                                                key, codec.getName())),
+                                     e);
+    }
+
+    byte marker = Compressor.UNCOMPRESSED;
+    byte[] compressed = null;
+    if (compressor != null) {
+      if (encoded.length >= compressionThreshold) {
+        long start = nanoTime();
+        compressed = compress(key, encoded);
+        long elapsed = nanoTime() - start;
+        if (compressed.length + Integer.BYTES < encoded.length) {
+          marker = compressor.getMarker();
+        } else {
+          compressed = null;
+        }
+        if (metrics != null) {
+          metrics.recordCompression(encoded.length, compressed != null ? compressed.length + Integer.BYTES : encoded.length,
+                                    elapsed);
+        }
+      } else if (metrics != null) {
+        metrics.recordUncompressedValue();
+      }
+    }
+
+    int payloadOffset = MAGIC.length + 3 + name.length;
+    ByteBuffer framed = ByteBuffer.allocate(payloadOffset + (compressed != null ? Integer.BYTES + compressed.length
+        : encoded.length));
+    framed.put(MAGIC).put(VERSION).put(marker).put((byte) name.length).put(name);
+    if (compressed != null) {
+      framed.putInt(encoded.length).put(compressed);
+    } else {
+      framed.put(encoded);
+    }
+    return framed.array();
+  }
+
+  private byte[] compress(String key, byte[] encoded) throws ObjectStoreException {
+    try {
+      return compressor.compress(encoded);
+    } catch (IOException | RuntimeException e) {
+      throw new ObjectStoreException(createStaticMessage(format("Could not compress the value for key '%s'", key)), e);
+    }
+  }
+
+  private Serializable decode(String key, Serializable stored) throws ObjectStoreException {
+    if (!isEncoded(stored)) {
+      return stored;
+    }
+
+    byte[] framed = (byte[]) stored;
+    byte version = framed[MAGIC.length];
+    int markerOffset = MAGIC.length + 1;
+    byte marker = version == VERSION_1 ? Compressor.UNCOMPRESSED : framed[markerOffset];
+    int nameOffset = version == VERSION_1 ? markerOffset : markerOffset + 1;
+    int nameLength = nameOffset < framed.length ? framed[nameOffset] & 0xFF : 0;
+    int payloadOffset = nameOffset + 1 + nameLength;
+    if (nameLength == 0 || payloadOffset > framed.length) {
+      throw new ObjectStoreException(createStaticMessage(format("The value for key '%s' is corrupt", key)));
+    }
+
+    String codecName = new String(framed, nameOffset + 1, nameLength, UTF_8);
+    ValueCodec valueCodec = codecName.equals(codec.getName()) ? codec : codecs.get(codecName);
+    if (valueCodec == null) {
+      throw new ObjectStoreException(createStaticMessage(format("The value for key '%s' was written with codec '%s', which is not available",
+                                                                key, codecName)));
+    }
+
+    try {
+      byte[] encoded = marker == Compressor.UNCOMPRESSED
+          ? Arrays.copyOfRange(framed, payloadOffset, framed.length)
+          : decompress(marker, framed, payloadOffset);
+      return valueCodec.decode(encoded);
+    } catch (IOException | RuntimeException e) {
+      throw new ObjectStoreException(createStaticMessage(format("Could not decode the value for key '%s' with codec '%s'",
+                                                                key, codecName)),
+                                     e);
+    }
+  }
+
+  private byte[] decompress(byte marker, byte[] framed, int payloadOffset) throws IOException {
+    if (framed.length - payloadOffset < Integer.BYTES) {
+      throw new IOException("Missing the length of the decompressed value");
+    }
+
+    int originalLength = ByteBuffer.wrap(framed, payloadOffset, Integer.BYTES).getInt();
+    if (originalLength < 0) {
+      throw new IOException(format("Invalid decompressed length %d", originalLength));
+    }
+    int dataOffset = payloadOffset + Integer.BYTES;
+    long start = nanoTime();
+    byte[] decompressed = Compressor.forMarker(marker).decompress(framed, dataOffset, framed.length - dataOffset,
+                                                                  originalLength);
+    if (metrics != null) {
+      metrics.recordDecompression(nanoTime() - start);
+    }
+    return decompressed;
+  }
+
+  private Map<String, Serializable> decodeAll(Map<String, Serializable> stored) throws ObjectStoreException {
+    Map<String, Serializable> values = new HashMap<>(stored.size() * 2);
+    for (Map.Entry<String, Serializable> entry : stored.entrySet()) {
+      values.put(entry.getKey(), decode(entry.getKey(), entry.getValue()));
+    }
+    return values;
+  }
+
+  /**
+   * @return whether the given stored value was written by a {@link CodecObjectStore}
+   */
+  static boolean isEncoded(Serializable stored) {
+    if (!(stored instanceof byte[])) {
+      return false;
+    }
+
+    byte[] bytes = (byte[]) stored;
+    if (bytes.length <= MAGIC.length + 1) {
+      return false;
+    }
+    for (int i = 0; i < MAGIC.length; i++) {
+      if (bytes[i] != MAGIC[i]) {
+        return false;
+      }
+    }
+    byte version = bytes[MAGIC.length];
+    return version == VERSION_1 || version == VERSION;
+  }
+}
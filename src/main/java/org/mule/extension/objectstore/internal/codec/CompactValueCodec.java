@@ -0,0 +1,225 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.codec;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import org.mule.extension.objectstore.api.ValueCodec;
+import org.mule.extension.objectstore.api.VersionedValue;
+import org.mule.extension.objectstore.internal.expiry.ExpiringValue;
+import org.mule.runtime.api.metadata.DataType;
+import org.mule.runtime.api.metadata.MediaType;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.api.serialization.SerializationException;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link ValueCodec} which writes the values this connector usually stores with a tag byte followed by their raw
+ * content, instead of a Java serialization stream.
+ * <p>
+ * The media type of a {@link TypedValue} is written as a short string header, and its payload as raw bytes when it is a
+ * byte array or a string. {@link ExpiringValue expiring} and {@link VersionedValue versioned} values are written as
+ * their expiration or version followed by the value they wrap. Any other value is written through the given
+ * {@link SerializationProtocol}.
+ * <p>
+ * The {@link DataType} of a decoded {@link TypedValue} is rebuilt from the class of its payload and its media type.
+ *
+ * @since 2.0
+ */
+public class CompactValueCodec implements ValueCodec {
+
+  public static final String NAME = "COMPACT";
+
+  private static final byte NULL = 0;
+  private static final byte TYPED_VALUE = 1;
+  private static final byte BYTES = 2;
+  private static final byte STRING = 3;
+  private static final byte LONG = 4;
+  private static final byte INTEGER = 5;
+  private static final byte DOUBLE = 6;
+  private static final byte BOOLEAN = 7;
+  private static final byte EXPIRING = 8;
+  private static final byte VERSIONED = 9;
+  private static final byte SERIALIZED = 10;
+
+  private static final int MAX_CACHED_MEDIA_TYPES = 256;
+
+  private final SerializationProtocol serializer;
+  private final Map<String, MediaType> mediaTypes = new ConcurrentHashMap<>();
+
+  /**
+   * @param serializer how to write the values which have no compact form
+   */
+  public CompactValueCodec(SerializationProtocol serializer) {
+    this.serializer = serializer;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public byte[] encode(Serializable value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(initialCapacity(value));
+    DataOutputStream out = new DataOutputStream(bytes);
+    write(value, out);
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public Serializable decode(byte[] encoded) throws IOException {
+    return read(new DataInputStream(new ByteArrayInputStream(encoded)));
+  }
+
+  private void write(Serializable value, DataOutputStream out) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+    } else if (value instanceof TypedValue) {
+      TypedValue<?> typedValue = (TypedValue<?>) value;
+      MediaType mediaType = typedValue.getDataType() != null ? typedValue.getDataType().getMediaType() : null;
+      out.writeByte(TYPED_VALUE);
+      out.writeUTF(mediaType != null ? mediaType.toRfcString() : "");
+      write(asSerializable(typedValue.getValue()), out);
+    } else if (value instanceof byte[]) {
+      byte[] raw = (byte[]) value;
+      out.writeByte(BYTES);
+      out.writeInt(raw.length);
+      out.write(raw);
+    } else if (value instanceof String) {
+      byte[] raw = ((String) value).getBytes(UTF_8);
+      out.writeByte(STRING);
+      out.writeInt(raw.length);
+      out.write(raw);
+    } else if (value instanceof Long) {
+      out.writeByte(LONG);
+      out.writeLong((Long) value);
+    } else if (value instanceof Integer) {
+      out.writeByte(INTEGER);
+      out.writeInt((Integer) value);
+    } else if (value instanceof Double) {
+      out.writeByte(DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (value instanceof Boolean) {
+      out.writeByte(BOOLEAN);
+      out.writeBoolean((Boolean) value);
+    } else if (value instanceof ExpiringValue) {
+      out.writeByte(EXPIRING);
+      out.writeLong(((ExpiringValue) value).getExpiresAt());
+      write(((ExpiringValue) value).getValue(), out);
+    } else if (value instanceof VersionedValue) {
+      out.writeByte(VERSIONED);
+      out.writeLong(((VersionedValue) value).getVersion());
+      write(((VersionedValue) value).getValue(), out);
+    } else {
+      byte[] serialized;
+      try {
+        serialized = serializer.serialize(value);
+      } catch (SerializationException e) {
+        throw new IOException(format("Could not serialize value of type %s", value.getClass().getName()), e);
+      }
+      out.writeByte(SERIALIZED);
+      out.writeInt(serialized.length);
+      out.write(serialized);
+    }
+  }
+
+  private Serializable read(DataInputStream in) throws IOException {
+    byte tag = in.readByte();
+    switch (tag) {
+      case NULL:
+        return null;
+      case TYPED_VALUE:
+        String mediaType = in.readUTF();
+        Serializable payload = read(in);
+        return new TypedValue<>(payload, dataType(payload, mediaType));
+      case BYTES:
+        return readBytes(in);
+      case STRING:
+        return new String(readBytes(in), UTF_8);
+      case LONG:
+        return in.readLong();
+      case INTEGER:
+        return in.readInt();
+      case DOUBLE:
+        return in.readDouble();
+      case BOOLEAN:
+        return in.readBoolean();
+      case EXPIRING:
+        long expiresAt = in.readLong();
+        return new ExpiringValue(read(in), expiresAt);
+      case VERSIONED:
+        long version = in.readLong();
+        return new VersionedValue(read(in), version);
+      case SERIALIZED:
+        try {
+          return serializer.deserialize(readBytes(in));
+        } catch (SerializationException e) {
+          throw new IOException("Could not deserialize value", e);
+        }
+      default:
+        throw new IOException(format("Unknown value tag %d", tag));
+    }
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > in.available()) {
+      throw new IOException(format("Invalid length %d, only %d bytes left", length, in.available()));
+    }
+    byte[] raw = new byte[length];
+    in.readFully(raw);
+    return raw;
+  }
+
+  private DataType dataType(Serializable payload, String mediaType) {
+    Class<?> type = payload != null ? payload.getClass() : Object.class;
+    if (mediaType.isEmpty()) {
+      return DataType.fromType(type);
+    }
+    return DataType.builder().type(type).mediaType(parse(mediaType)).build();
+  }
+
+  private MediaType parse(String mediaType) {
+    MediaType parsed = mediaTypes.get(mediaType);
+    if (parsed == null) {
+      parsed = MediaType.parse(mediaType);
+      // a handful of media types is used in practice. Don't let unusual ones grow the cache unbounded
+      if (mediaTypes.size() < MAX_CACHED_MEDIA_TYPES) {
+        mediaTypes.put(mediaType, parsed);
+      }
+    }
+    return parsed;
+  }
+
+  private static Serializable asSerializable(Object value) throws IOException {
+    if (value == null || value instanceof Serializable) {
+      return (Serializable) value;
+    }
+    throw new IOException(format("Value of type %s is not serializable", value.getClass().getName()));
+  }
+
+  private static int initialCapacity(Serializable value) {
+    Object payload = value instanceof TypedValue ? ((TypedValue<?>) value).getValue() : value;
+    if (payload instanceof byte[]) {
+      return ((byte[]) payload).length + 64;
+    } else if (payload instanceof String) {
+      return ((String) payload).length() + 64;
+    }
+    return 64;
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.codec;
+
+import static java.lang.String.format;
+import org.mule.extension.objectstore.api.Compression;
+
+import java.io.IOException;
+
+/**
+ * Compresses encoded values. Each implementation is identified by the marker byte written along with the values it
+ * compresses, so that they are decompressed with the same algorithm no matter which one the store is configured with.
+ * <p>
+ * Implementations are thread safe.
+ *
+ * @since 2.0
+ */
+public interface Compressor {
+
+  /**
+   * The marker of values which are not compressed
+   */
+  byte UNCOMPRESSED = 0;
+
+  /**
+   * @return the marker written along with the values compressed by this compressor. Never {@link #UNCOMPRESSED}
+   */
+  byte getMarker();
+
+  /**
+   * @return the given {@code data}, compressed
+   */
+  byte[] compress(byte[] data) throws IOException;
+
+  /**
+   * @param compressed     the bytes holding the compressed data
+   * @param offset         where the compressed data starts
+   * @param length         the length of the compressed data
+   * @param originalLength the length of the data before it was compressed
+   * @return the decompressed data
+   * @throws IOException if the data is corrupt
+   */
+  byte[] decompress(byte[] compressed, int offset, int length, int originalLength) throws IOException;
+
+  /**
+   * @return the compressor for the given {@code compression}, or {@code null} for {@link Compression#NONE}
+   */
+  static Compressor of(Compression compression) {
+    switch (compression) {
+      case DEFLATE:
+        return DeflateCompressor.INSTANCE;
+      case LZ4:
+        return Lz4Compressor.INSTANCE;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * @return the compressor which writes the given {@code marker}
+   * @throws IOException if there is none
+   */
+  static Compressor forMarker(byte marker) throws IOException {
+    if (marker == DeflateCompressor.INSTANCE.getMarker()) {
+      return DeflateCompressor.INSTANCE;
+    } else if (marker == Lz4Compressor.INSTANCE.getMarker()) {
+      return Lz4Compressor.INSTANCE;
+    }
+    throw new IOException(format("Unknown compression marker %d", marker));
+  }
+}
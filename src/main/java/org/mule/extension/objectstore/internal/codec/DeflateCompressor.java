@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.codec;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A {@link Compressor} which writes raw DEFLATE streams, without the zlib header and checksum.
+ *
+ * @since 2.0
+ */
+public class DeflateCompressor implements Compressor {
+
+  public static final DeflateCompressor INSTANCE = new DeflateCompressor();
+
+  private DeflateCompressor() {}
+
+  @Override
+  public byte getMarker() {
+    return 1;
+  }
+
+  @Override
+  public byte[] compress(byte[] data) {
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      byte[] compressed = new byte[Math.max(64, data.length / 2)];
+      int length = 0;
+      while (!deflater.finished()) {
+        if (length == compressed.length) {
+          compressed = Arrays.copyOf(compressed, compressed.length * 2);
+        }
+        length += deflater.deflate(compressed, length, compressed.length - length);
+      }
+      return Arrays.copyOf(compressed, length);
+    } finally {
+      deflater.end();
+    }
+  }
+
+  @Override
+  public byte[] decompress(byte[] compressed, int offset, int length, int originalLength) throws IOException {
+    Inflater inflater = new Inflater(true);
+    try {
+      inflater.setInput(compressed, offset, length);
+      byte[] data = new byte[originalLength];
+      int read = 0;
+      while (read < originalLength && !inflater.finished()) {
+        int inflated = inflater.inflate(data, read, originalLength - read);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        read += inflated;
+      }
+      if (read != originalLength) {
+        throw new IOException(format("Expected %d bytes once decompressed but got %d", originalLength, read));
+      }
+      return data;
+    } catch (DataFormatException e) {
+      throw new IOException("Corrupt DEFLATE stream", e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.codec;
+
+import org.mule.extension.objectstore.api.ValueCodec;
+import org.mule.runtime.api.serialization.SerializationException;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * A {@link ValueCodec} which writes values through a {@link SerializationProtocol}, as the runtime's stores do. Used when
+ * values are compressed but no other codec is configured.
+ *
+ * @since 2.0
+ */
+public class JavaValueCodec implements ValueCodec {
+
+  private final SerializationProtocol serializer;
+
+  public JavaValueCodec(SerializationProtocol serializer) {
+    this.serializer = serializer;
+  }
+
+  @Override
+  public String getName() {
+    return ValueCodecs.JAVA;
+  }
+
+  @Override
+  public byte[] encode(Serializable value) throws IOException {
+    try {
+      return serializer.serialize(value);
+    } catch (SerializationException e) {
+      throw new IOException("Could not serialize value", e);
+    }
+  }
+
+  @Override
+  public Serializable decode(byte[] encoded) throws IOException {
+    try {
+      return serializer.deserialize(encoded);
+    } catch (SerializationException e) {
+      throw new IOException("Could not deserialize value", e);
+    }
+  }
+}
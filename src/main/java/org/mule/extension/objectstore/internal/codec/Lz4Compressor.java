@@ -0,0 +1,190 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.codec;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A {@link Compressor} which writes the LZ4 block format, so values can be read by any LZ4 implementation given their
+ * original length.
+ * <p>
+ * Matches are found through a single entry hash table of 4 byte sequences, and the search speeds up as it goes through
+ * data which doesn't compress, as the reference LZ4 implementation does in its fast mode.
+ *
+ * @since 2.0
+ */
+public class Lz4Compressor implements Compressor {
+
+  public static final Lz4Compressor INSTANCE = new Lz4Compressor();
+
+  private static final int MIN_MATCH = 4;
+  private static final int LAST_LITERALS = 5;
+  // the last match must start at least this many bytes before the end of the block
+  private static final int MF_LIMIT = 12;
+  private static final int MAX_OFFSET = 65535;
+  private static final int HASH_LOG = 12;
+  private static final int SKIP_TRIGGER = 6;
+  private static final int RUN_MASK = 15;
+
+  private Lz4Compressor() {}
+
+  @Override
+  public byte getMarker() {
+    return 2;
+  }
+
+  @Override
+  public byte[] compress(byte[] data) {
+    int length = data.length;
+    byte[] compressed = new byte[length + length / 255 + 16];
+    int[] table = new int[1 << HASH_LOG];
+    int anchor = 0;
+    int position = 0;
+    int written = 0;
+    int misses = 0;
+
+    while (position < length - MF_LIMIT) {
+      int sequence = readInt(data, position);
+      int hash = hash(sequence);
+      // positions are stored plus one, so that zero means empty
+      int candidate = table[hash] - 1;
+      table[hash] = position + 1;
+
+      if (candidate < 0 || position - candidate > MAX_OFFSET || readInt(data, candidate) != sequence) {
+        position += 1 + (misses++ >>> SKIP_TRIGGER);
+        continue;
+      }
+
+      int matchLength = MIN_MATCH;
+      int matchLimit = length - LAST_LITERALS;
+      while (position + matchLength < matchLimit && data[candidate + matchLength] == data[position + matchLength]) {
+        matchLength++;
+      }
+
+      written = writeSequence(data, anchor, position - anchor, position - candidate, matchLength, compressed, written);
+      position += matchLength;
+      anchor = position;
+      misses = 0;
+    }
+
+    written = writeLastLiterals(data, anchor, length - anchor, compressed, written);
+    return Arrays.copyOf(compressed, written);
+  }
+
+  @Override
+  public byte[] decompress(byte[] compressed, int offset, int length, int originalLength) throws IOException {
+    byte[] data = new byte[originalLength];
+    int position = offset;
+    int end = offset + length;
+    int written = 0;
+
+    try {
+      while (position < end) {
+        int token = compressed[position++] & 0xFF;
+
+        int literals = token >>> 4;
+        if (literals == RUN_MASK) {
+          int next;
+          do {
+            next = compressed[position++] & 0xFF;
+            literals += next;
+          } while (next == 255);
+        }
+        if (literals > end - position || literals > originalLength - written) {
+          throw corrupt();
+        }
+        System.arraycopy(compressed, position, data, written, literals);
+        position += literals;
+        written += literals;
+
+        if (position == end) {
+          // the last sequence only holds literals
+          break;
+        }
+
+        int matchOffset = (compressed[position] & 0xFF) | (compressed[position + 1] & 0xFF) << 8;
+        position += 2;
+        int matchLength = token & RUN_MASK;
+        if (matchLength == RUN_MASK) {
+          int next;
+          do {
+            next = compressed[position++] & 0xFF;
+            matchLength += next;
+          } while (next == 255);
+        }
+        matchLength += MIN_MATCH;
+
+        if (matchOffset == 0 || matchOffset > written || matchLength > originalLength - written) {
+          throw corrupt();
+        }
+        // byte by byte, as the match may overlap the bytes it produces
+        for (int from = written - matchOffset, to = from + matchLength; from < to; from++) {
+          data[written++] = data[from];
+        }
+      }
+    } catch (ArrayIndexOutOfBoundsException e) {
+      throw new IOException("Truncated LZ4 block", e);
+    }
+
+    if (written != originalLength) {
+      throw new IOException(format("Expected %d bytes once decompressed but got %d", originalLength, written));
+    }
+    return data;
+  }
+
+  private static int writeSequence(byte[] data, int literalsStart, int literals, int matchOffset, int matchLength,
+                                   byte[] compressed, int written) {
+    int extraMatch = matchLength - MIN_MATCH;
+    compressed[written++] = (byte) (Math.min(literals, RUN_MASK) << 4 | Math.min(extraMatch, RUN_MASK));
+    written = writeLength(literals, compressed, written);
+    System.arraycopy(data, literalsStart, compressed, written, literals);
+    written += literals;
+    compressed[written++] = (byte) matchOffset;
+    compressed[written++] = (byte) (matchOffset >>> 8);
+    return writeLength(extraMatch, compressed, written);
+  }
+
+  private static int writeLastLiterals(byte[] data, int literalsStart, int literals, byte[] compressed, int written) {
+    compressed[written++] = (byte) (Math.min(literals, RUN_MASK) << 4);
+    written = writeLength(literals, compressed, written);
+    System.arraycopy(data, literalsStart, compressed, written, literals);
+    return written + literals;
+  }
+
+  /**
+   * Writes the part of a length which doesn't fit in its token, if any
+   */
+  private static int writeLength(int length, byte[] compressed, int written) {
+    if (length < RUN_MASK) {
+      return written;
+    }
+
+    int remaining = length - RUN_MASK;
+    while (remaining >= 255) {
+      compressed[written++] = (byte) 255;
+      remaining -= 255;
+    }
+    compressed[written++] = (byte) remaining;
+    return written;
+  }
+
+  private static int readInt(byte[] data, int position) {
+    return (data[position] & 0xFF) | (data[position + 1] & 0xFF) << 8 | (data[position + 2] & 0xFF) << 16
+        | (data[position + 3] & 0xFF) << 24;
+  }
+
+  private static int hash(int sequence) {
+    return (sequence * -1640531535) >>> (32 - HASH_LOG);
+  }
+
+  private static IOException corrupt() {
+    return new IOException("Corrupt LZ4 block");
+  }
+}
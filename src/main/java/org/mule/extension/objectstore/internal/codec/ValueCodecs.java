@@ -0,0 +1,74 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.codec;
+
+import static java.util.Locale.ROOT;
+import org.mule.extension.objectstore.api.ValueCodec;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Looks up {@link ValueCodec codecs} by name, case insensitively. The codecs shipped with this connector are always
+ * available. Other ones are discovered through {@link ServiceLoader}, from the thread context class loader first and
+ * then from the one of this connector.
+ *
+ * @since 2.0
+ */
+public class ValueCodecs {
+
+  /**
+   * The name through which values are handed to the backing store as they are, so that the store serializes them, unless
+   * they are compressed, in which case they are serialized through {@link JavaValueCodec}
+   */
+  public static final String JAVA = "JAVA";
+
+  private final Map<String, ValueCodec> codecs = new ConcurrentHashMap<>();
+
+  /**
+   * @param serializer how the shipped codecs write the values which have no compact form
+   */
+  public ValueCodecs(SerializationProtocol serializer) {
+    register(new JavaValueCodec(serializer));
+    register(new CompactValueCodec(serializer));
+  }
+
+  /**
+   * @return the codec with the given {@code name}, or {@code null} if there is none
+   */
+  public ValueCodec get(String name) {
+    String key = name.toUpperCase(ROOT);
+    ValueCodec codec = codecs.get(key);
+    if (codec == null) {
+      codec = discover(key, Thread.currentThread().getContextClassLoader());
+    }
+    if (codec == null) {
+      codec = discover(key, ValueCodecs.class.getClassLoader());
+    }
+    return codec;
+  }
+
+  private ValueCodec discover(String key, ClassLoader classLoader) {
+    if (classLoader == null) {
+      return null;
+    }
+
+    for (ValueCodec candidate : ServiceLoader.load(ValueCodec.class, classLoader)) {
+      if (candidate.getName().toUpperCase(ROOT).equals(key)) {
+        ValueCodec previous = codecs.putIfAbsent(key, candidate);
+        return previous != null ? previous : candidate;
+      }
+    }
+    return null;
+  }
+
+  private void register(ValueCodec codec) {
+    codecs.put(codec.getName().toUpperCase(ROOT), codec);
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.counter;
+
+import static java.lang.String.format;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import org.mule.extension.objectstore.api.CounterObjectStore;
+import org.mule.extension.objectstore.internal.expiry.ExpiringValue;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.api.store.ObjectStoreException;
+
+import java.io.Serializable;
+
+/**
+ * Computes counter updates for stores which are not a {@link CounterObjectStore}. Callers are expected to hold the
+ * key lock between reading the current value and storing the next one.
+ *
+ * @since 2.0
+ */
+public final class Counters {
+
+  private Counters() {}
+
+  /**
+   * @param key          the key of the counter
+   * @param current      the value currently stored for the {@code key}, or {@code null} if there is none
+   * @param delta        the amount to add
+   * @param initialValue the value the counter starts from when there is no current value, or it has expired
+   * @param ttlMillis    the lifespan of a new counter, or {@code null} if it never expires
+   * @param now          the current epoch millis
+   * @return the value to be stored. Either a {@link Long} or an {@link ExpiringValue} holding one
+   * @throws ObjectStoreException if the current value is not a number
+   */
+  public static Serializable next(String key, Serializable current, long delta, long initialValue, Long ttlMillis, long now)
+      throws ObjectStoreException {
+    Serializable value = ExpiringValue.unwrap(current, now);
+    if (value == null) {
+      long created = initialValue + delta;
+      return ttlMillis != null ? new ExpiringValue(created, now + ttlMillis) : created;
+    }
+
+    long updated = toLong(key, value) + delta;
+    return current instanceof ExpiringValue
+        ? new ExpiringValue(updated, ((ExpiringValue) current).getExpiresAt())
+        : updated;
+  }
+
+  /**
+   * @return the counter value held by a value returned by {@link #next}
+   */
+  public static long valueOf(Serializable next) {
+    return (Long) (next instanceof ExpiringValue ? ((ExpiringValue) next).getValue() : next);
+  }
+
+  private static long toLong(String key, Serializable value) throws ObjectStoreException {
+    Object raw = value instanceof TypedValue ? ((TypedValue) value).getValue() : value;
+    if (raw instanceof Number) {
+      return ((Number) raw).longValue();
+    }
+
+    if (raw instanceof String) {
+      try {
+        return Long.parseLong(((String) raw).trim());
+      } catch (NumberFormatException e) {
+        // reported below
+      }
+    }
+
+    throw new ObjectStoreException(createStaticMessage(format("The value stored for key '%s' is not a number", key)));
+  }
+}
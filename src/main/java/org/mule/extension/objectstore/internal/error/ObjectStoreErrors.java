@@ -41,5 +41,10 @@ public enum ObjectStoreErrors implements ErrorTypeDefinition<ObjectStoreErrors>
    */
   STORE_NOT_AVAILABLE,
 
+  /**
+   * The value to be stored is larger than what the ObjectStore allows for a single value
+   */
+  VALUE_TOO_LARGE,
+
   ANY
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.error;
+
+import static java.lang.String.format;
+import static org.mule.extension.objectstore.internal.error.ObjectStoreErrors.KEY_ALREADY_EXISTS;
+import static org.mule.extension.objectstore.internal.error.ObjectStoreErrors.KEY_NOT_FOUND;
+import static org.mule.extension.objectstore.internal.error.ObjectStoreErrors.STORE_NOT_AVAILABLE;
+import static org.mule.extension.objectstore.internal.error.ObjectStoreErrors.VALUE_TOO_LARGE;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.mule.runtime.extension.api.error.MuleErrors.ANY;
+import org.mule.extension.objectstore.api.RateLimitExceededException;
+import org.mule.extension.objectstore.api.ValueTooLargeException;
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStoreException;
+import org.mule.runtime.api.store.ObjectStoreNotAvailableException;
+import org.mule.runtime.extension.api.exception.ModuleException;
+
+/**
+ * Translates the exceptions thrown by stores into the errors of this connector. This is the only place which decides
+ * whether a store is throttling requests.
+ *
+ * @since 2.0
+ */
+public final class ObjectStoreExceptionTranslator {
+
+  private static final String RATE_LIMIT_EXCEEDED_PATTERN = "status code was 429";
+  private static final int MAX_CAUSE_DEPTH = 16;
+
+  private ObjectStoreExceptionTranslator() {}
+
+  /**
+   * @return whether the given exception, or any of its causes, reports that the store is throttling requests
+   */
+  public static boolean isRateLimitExceeded(Throwable exception) {
+    Throwable cause = exception;
+    for (int depth = 0; cause != null && depth < MAX_CAUSE_DEPTH; depth++, cause = cause.getCause()) {
+      if (cause instanceof RateLimitExceededException) {
+        return true;
+      }
+      String message = cause.getMessage();
+      if (message != null && message.contains(RATE_LIMIT_EXCEEDED_PATTERN)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @param exception the exception thrown by the store
+   * @param key       the key being accessed, or {@code null} if the whole store was
+   * @return the {@link ModuleException} to be thrown by the operation
+   */
+  public static ModuleException translate(ObjectStoreException exception, String key) {
+    if (isRateLimitExceeded(exception)) {
+      return new ModuleException(STORE_NOT_AVAILABLE,
+                                 new ObjectStoreException(createStaticMessage("Rate Limit exceeded"), exception));
+    }
+    if (exception instanceof ObjectStoreNotAvailableException) {
+      return new ModuleException(createStaticMessage("ObjectStore is not available at the moment"), STORE_NOT_AVAILABLE,
+                                 exception);
+    }
+    if (exception instanceof ValueTooLargeException) {
+      return new ModuleException(VALUE_TOO_LARGE, exception);
+    }
+    if (key != null && exception instanceof ObjectAlreadyExistsException) {
+      return new ModuleException(createStaticMessage(format("Key '%s' is already present on object store", key)),
+                                 KEY_ALREADY_EXISTS, exception);
+    }
+    if (key != null && exception instanceof ObjectDoesNotExistException) {
+      return new ModuleException(createStaticMessage(format("Key '%s' does not exists on object store", key)),
+                                 KEY_NOT_FOUND, exception);
+    }
+
+    return new ModuleException(createStaticMessage("Found error trying to access ObjectStore"), ANY, exception);
+  }
+}
@@ -10,6 +10,7 @@ import static org.mule.extension.objectstore.internal.error.ObjectStoreErrors.IN
 import static org.mule.extension.objectstore.internal.error.ObjectStoreErrors.KEY_ALREADY_EXISTS;
 import static org.mule.extension.objectstore.internal.error.ObjectStoreErrors.NULL_VALUE;
 import static org.mule.extension.objectstore.internal.error.ObjectStoreErrors.STORE_NOT_AVAILABLE;
+import static org.mule.extension.objectstore.internal.error.ObjectStoreErrors.VALUE_TOO_LARGE;
 import static org.mule.runtime.extension.api.error.MuleErrors.ANY;
 
 import org.mule.runtime.extension.api.annotation.error.ErrorTypeProvider;
@@ -36,6 +37,7 @@ public class StoreErrorTypeProvider implements ErrorTypeProvider {
     errors.add(NULL_VALUE);
     errors.add(KEY_ALREADY_EXISTS);
     errors.add(STORE_NOT_AVAILABLE);
+    errors.add(VALUE_TOO_LARGE);
     errors.add(ANY);
 
     return errors;
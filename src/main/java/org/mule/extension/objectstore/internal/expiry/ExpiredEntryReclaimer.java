@@ -0,0 +1,242 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.expiry;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+import org.mule.runtime.api.lifecycle.Disposable;
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.api.scheduler.SchedulerService;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+
+/**
+ * Removes entries stored with their own TTL once they expire, so that they don't keep using space until they are
+ * read again.
+ * <p>
+ * Only entries stored through this JVM are tracked, and only the latest expiration of each key is kept, so that
+ * rewriting a key doesn't pile up reclaim tasks. Due entries are reclaimed every {@link #RECLAIM_INTERVAL_PROPERTY}
+ * milliseconds, on a task which is scheduled when the first entry is tracked.
+ *
+ * @since 2.0
+ */
+public class ExpiredEntryReclaimer implements Disposable {
+
+  public static final String RECLAIM_INTERVAL_PROPERTY = "mule.objectstore.reclaimIntervalMillis";
+
+  private static final Logger LOGGER = getLogger(ExpiredEntryReclaimer.class);
+  private static final long DEFAULT_RECLAIM_INTERVAL = 1000;
+
+  @Inject
+  private SchedulerService schedulerService;
+
+  private final long reclaimInterval;
+  private final ConcurrentSkipListSet<Expiration> expirations = new ConcurrentSkipListSet<>();
+  private final Map<String, Map<String, Expiration>> pendingByStore = new ConcurrentHashMap<>();
+  private final AtomicLong sequence = new AtomicLong();
+  private ScheduledExecutorService scheduler;
+  private ScheduledFuture<?> reclaimTask;
+  private volatile boolean scheduled;
+
+  public ExpiredEntryReclaimer() {
+    this(Long.getLong(RECLAIM_INTERVAL_PROPERTY, DEFAULT_RECLAIM_INTERVAL));
+  }
+
+  public ExpiredEntryReclaimer(long reclaimInterval) {
+    this.reclaimInterval = reclaimInterval;
+  }
+
+  /**
+   * Creates an instance which reclaims entries on the given {@code scheduler}
+   */
+  public ExpiredEntryReclaimer(ScheduledExecutorService scheduler, long reclaimInterval) {
+    this(reclaimInterval);
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Schedules the given {@code reclaim} task to run once {@code expiresAt} is reached, replacing the one pending for the
+   * same key, if any. The task is expected to check that the entry actually expired before removing it, since it may have
+   * been overwritten in the meantime.
+   *
+   * @param storeName the name of the store holding the entry
+   * @param key       the key of the entry
+   * @param expiresAt the epoch millis from which the entry is expired
+   * @param reclaim   removes the entry
+   */
+  public void track(String storeName, String key, long expiresAt, Runnable reclaim) {
+    Expiration expiration = new Expiration(storeName, key, expiresAt, sequence.incrementAndGet(), reclaim);
+    pendingByStore.compute(storeName, (name, pending) -> {
+      if (pending == null) {
+        pending = new ConcurrentHashMap<>();
+      }
+      Expiration previous = pending.put(key, expiration);
+      if (previous != null) {
+        expirations.remove(previous);
+      }
+      expirations.add(expiration);
+      return pending;
+    });
+
+    if (!scheduled) {
+      ensureScheduled();
+    }
+  }
+
+  /**
+   * Drops the expiration pending for the given key, if any, because it was removed or overwritten without a TTL
+   */
+  public void untrack(String storeName, String key) {
+    pendingByStore.computeIfPresent(storeName, (name, pending) -> {
+      Expiration previous = pending.remove(key);
+      if (previous != null) {
+        expirations.remove(previous);
+      }
+      return pending.isEmpty() ? null : pending;
+    });
+  }
+
+  /**
+   * Drops all the expirations pending for the given store, because it was cleared or stopped
+   */
+  public void untrackStore(String storeName) {
+    Map<String, Expiration> pending = pendingByStore.remove(storeName);
+    if (pending != null) {
+      expirations.removeAll(pending.values());
+    }
+  }
+
+  /**
+   * @return whether entries with their own TTL stored through this JVM on the given store are still pending reclaim
+   */
+  public boolean hasExpiringEntries(String storeName) {
+    return pendingByStore.containsKey(storeName);
+  }
+
+  /**
+   * @return the number of tracked entries which have not been reclaimed yet
+   */
+  public int getPendingCount() {
+    return expirations.size();
+  }
+
+  /**
+   * Runs the reclaim task of every entry expired by {@code now}. Entries which fail to be reclaimed are retried on the
+   * next run.
+   *
+   * @return the number of reclaim tasks which were run
+   */
+  public int reclaimExpired(long now) {
+    int reclaimed = 0;
+    for (Expiration next : expirations) {
+      if (next.expiresAt > now) {
+        break;
+      }
+      if (!expirations.remove(next)) {
+        // reclaimed or untracked concurrently
+        continue;
+      }
+
+      try {
+        next.reclaim.run();
+        reclaimed++;
+      } catch (Exception e) {
+        LOGGER.warn("Could not reclaim expired ObjectStore entry", e);
+        if (retry(next, now + reclaimInterval)) {
+          continue;
+        }
+      }
+      // only dropped once reclaimed, so that the store is known to have expiring entries until then
+      forget(next);
+    }
+
+    return reclaimed;
+  }
+
+  private boolean retry(Expiration failed, long retryAt) {
+    Expiration retry = new Expiration(failed.storeName, failed.key, retryAt, sequence.incrementAndGet(), failed.reclaim);
+    boolean[] retried = {false};
+    pendingByStore.computeIfPresent(failed.storeName, (name, pending) -> {
+      if (pending.replace(failed.key, failed, retry)) {
+        expirations.add(retry);
+        retried[0] = true;
+      }
+      return pending;
+    });
+    return retried[0];
+  }
+
+  private void forget(Expiration expiration) {
+    pendingByStore.computeIfPresent(expiration.storeName, (name, pending) -> {
+      pending.remove(expiration.key, expiration);
+      return pending.isEmpty() ? null : pending;
+    });
+  }
+
+  private synchronized void ensureScheduled() {
+    if (scheduled) {
+      return;
+    }
+
+    if (scheduler == null) {
+      scheduler = schedulerService.ioScheduler();
+    }
+
+    reclaimTask = scheduler.scheduleWithFixedDelay(() -> reclaimExpired(currentTimeMillis()), reclaimInterval,
+                                                   reclaimInterval, MILLISECONDS);
+    scheduled = true;
+  }
+
+  @Override
+  public synchronized void dispose() {
+    if (reclaimTask != null) {
+      reclaimTask.cancel(false);
+      reclaimTask = null;
+    }
+    scheduled = false;
+
+    if (scheduler instanceof Scheduler) {
+      ((Scheduler) scheduler).stop();
+      scheduler = null;
+    }
+    expirations.clear();
+    pendingByStore.clear();
+  }
+
+  private static class Expiration implements Comparable<Expiration> {
+
+    private final String storeName;
+    private final String key;
+    private final long expiresAt;
+    private final long sequence;
+    private final Runnable reclaim;
+
+    private Expiration(String storeName, String key, long expiresAt, long sequence, Runnable reclaim) {
+      this.storeName = storeName;
+      this.key = key;
+      this.expiresAt = expiresAt;
+      this.sequence = sequence;
+      this.reclaim = reclaim;
+    }
+
+    @Override
+    public int compareTo(Expiration other) {
+      int byExpiration = Long.compare(expiresAt, other.expiresAt);
+      return byExpiration != 0 ? byExpiration : Long.compare(sequence, other.sequence);
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.expiry;
+
+import java.io.Serializable;
+
+/**
+ * A value stored along with the moment in which it expires, for stores which don't support per entry expiration.
+ *
+ * @since 2.0
+ */
+public final class ExpiringValue implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Serializable value;
+  private final long expiresAt;
+
+  /**
+   * @param value     the actual value
+   * @param expiresAt the epoch millis from which the value is no longer visible
+   */
+  public ExpiringValue(Serializable value, long expiresAt) {
+    this.value = value;
+    this.expiresAt = expiresAt;
+  }
+
+  public Serializable getValue() {
+    return value;
+  }
+
+  public long getExpiresAt() {
+    return expiresAt;
+  }
+
+  public boolean isExpired(long now) {
+    return now >= expiresAt;
+  }
+
+  /**
+   * @return the given {@code stored} value without its expiration, or {@code null} if it has already expired
+   */
+  public static Serializable unwrap(Serializable stored, long now) {
+    if (stored instanceof ExpiringValue) {
+      ExpiringValue expiring = (ExpiringValue) stored;
+      return expiring.isExpired(now) ? null : expiring.value;
+    }
+
+    return stored;
+  }
+}
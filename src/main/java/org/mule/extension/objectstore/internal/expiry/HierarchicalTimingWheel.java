@@ -0,0 +1,208 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.expiry;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel which fires timeouts with a resolution of one tick.
+ * <p>
+ * Each level has {@code wheelSize} buckets, and each bucket of a level spans as much time as a whole rotation of the
+ * level below. Timeouts are placed on the lowest level able to hold their deadline, and move down one level each time
+ * the bucket holding them comes due, until they fire on the lowest one. Hence, scheduling, cancelling and firing a
+ * timeout is O(1), no matter how many timeouts are pending. Deadlines beyond the span of the highest level are held
+ * there until they get within range.
+ * <p>
+ * Cancelled timeouts are not removed from their bucket, they are discarded once the bucket comes due. Their task is
+ * released right away though, so that whatever it references can be collected.
+ * <p>
+ * Instances are thread safe.
+ *
+ * @since 2.0
+ */
+public class HierarchicalTimingWheel {
+
+  private final long tickMillis;
+  private final int wheelSize;
+  private final long[] spans;
+  private final List<ArrayDeque<Timeout>[]> levels = new ArrayList<>();
+  private long currentTick;
+  private int pending;
+
+  /**
+   * @param tickMillis the resolution of the wheel
+   * @param wheelSize  the number of buckets on each level
+   * @param levels     the number of levels
+   * @param now        the current epoch millis
+   */
+  public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levels, long now) {
+    if (tickMillis <= 0 || wheelSize < 2 || levels < 1) {
+      throw new IllegalArgumentException("tickMillis must be positive, wheelSize greater than one and levels positive");
+    }
+
+    this.tickMillis = tickMillis;
+    this.wheelSize = wheelSize;
+    this.spans = new long[levels];
+    long span = 1;
+    for (int i = 0; i < levels; i++) {
+      spans[i] = span;
+      span = span > Long.MAX_VALUE / wheelSize ? Long.MAX_VALUE : span * wheelSize;
+      ArrayDeque<Timeout>[] buckets = new ArrayDeque[wheelSize];
+      for (int j = 0; j < wheelSize; j++) {
+        buckets[j] = new ArrayDeque<>();
+      }
+      this.levels.add(buckets);
+    }
+    this.currentTick = now / tickMillis;
+  }
+
+  /**
+   * Schedules the given {@code task} to run once {@code deadline} is reached, on the thread which advances the wheel.
+   *
+   * @param deadline the epoch millis at which the task should run
+   * @param task     the task to run. Receives the epoch millis at which the wheel fired it
+   * @return a handle to cancel the task
+   */
+  public synchronized Timeout schedule(long deadline, ExpirationTask task) {
+    Timeout timeout = new Timeout(deadline, task);
+    place(timeout);
+    pending++;
+    return timeout;
+  }
+
+  /**
+   * Moves the wheel forward up to {@code now}, running every task which deadline was reached. Tasks run outside of the
+   * wheel's lock, so they may schedule new timeouts.
+   *
+   * @param now the current epoch millis
+   * @return the number of tasks which were run
+   */
+  public int advance(long now) {
+    List<Timeout> due = new ArrayList<>();
+    synchronized (this) {
+      long targetTick = now / tickMillis;
+      while (currentTick < targetTick) {
+        currentTick++;
+        cascade(due);
+        ArrayDeque<Timeout> bucket = levels.get(0)[(int) (currentTick % wheelSize)];
+        Timeout timeout;
+        while ((timeout = bucket.poll()) != null) {
+          pending--;
+          if (timeout.task != null) {
+            due.add(timeout);
+          }
+        }
+      }
+    }
+
+    int fired = 0;
+    for (Timeout timeout : due) {
+      ExpirationTask task = timeout.task;
+      if (task != null) {
+        task.expire(timeout.deadline, now);
+        fired++;
+      }
+    }
+
+    return fired;
+  }
+
+  /**
+   * @return the number of scheduled timeouts which have not fired yet, cancelled ones included
+   */
+  public synchronized int getPendingCount() {
+    return pending;
+  }
+
+  public long getTickMillis() {
+    return tickMillis;
+  }
+
+  /**
+   * Moves the timeouts of the higher level buckets which came due on the current tick one level down, or to
+   * {@code due} if their deadline is the current tick.
+   */
+  private void cascade(List<Timeout> due) {
+    for (int level = 1; level < levels.size() && currentTick % spans[level] == 0; level++) {
+      ArrayDeque<Timeout> bucket = levels.get(level)[(int) ((currentTick / spans[level]) % wheelSize)];
+      int size = bucket.size();
+      for (int i = 0; i < size; i++) {
+        Timeout timeout = bucket.poll();
+        if (timeout.task == null) {
+          pending--;
+        } else if (ceilDiv(timeout.deadline, tickMillis) <= currentTick) {
+          pending--;
+          due.add(timeout);
+        } else {
+          place(timeout);
+        }
+      }
+    }
+  }
+
+  private void place(Timeout timeout) {
+    long deadlineTick = Math.max(ceilDiv(timeout.deadline, tickMillis), currentTick + 1);
+    long ticks = deadlineTick - currentTick;
+
+    int top = levels.size() - 1;
+    int level = 0;
+    while (level < top && ticks >= spans[level] * wheelSize) {
+      level++;
+    }
+
+    if (level == top && ticks >= spans[top] * wheelSize) {
+      // beyond the span of the wheel. Park it on the farthest bucket and place it again once that one comes due
+      deadlineTick = currentTick + spans[top] * (wheelSize - 1);
+    }
+
+    levels.get(level)[(int) ((deadlineTick / spans[level]) % wheelSize)].add(timeout);
+  }
+
+  private static long ceilDiv(long dividend, long divisor) {
+    return -Math.floorDiv(-dividend, divisor);
+  }
+
+  /**
+   * A task to run once its deadline is reached
+   */
+  @FunctionalInterface
+  public interface ExpirationTask {
+
+    /**
+     * @param deadline the epoch millis at which the task was due
+     * @param firedAt  the epoch millis at which the task actually ran
+     */
+    void expire(long deadline, long firedAt);
+  }
+
+  /**
+   * A handle to a scheduled task
+   */
+  public static final class Timeout {
+
+    private final long deadline;
+    private volatile ExpirationTask task;
+
+    private Timeout(long deadline, ExpirationTask task) {
+      this.deadline = deadline;
+      this.task = task;
+    }
+
+    public long getDeadline() {
+      return deadline;
+    }
+
+    /**
+     * Prevents the task from running, if it didn't already
+     */
+    public void cancel() {
+      task = null;
+    }
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.expiry;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+import org.mule.extension.objectstore.internal.expiry.HierarchicalTimingWheel.ExpirationTask;
+import org.mule.extension.objectstore.internal.expiry.HierarchicalTimingWheel.Timeout;
+import org.mule.extension.objectstore.internal.metrics.StoreMetrics;
+import org.mule.runtime.api.lifecycle.Disposable;
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.api.scheduler.SchedulerService;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+
+/**
+ * Creates the {@link TimingWheelObjectStore transient stores} which expire their entries through a shared
+ * {@link HierarchicalTimingWheel}, and moves that wheel forward.
+ * <p>
+ * The wheel ticks every {@link #TICK_PROPERTY} milliseconds, so entries are removed at most one tick after they expire,
+ * as long as the ticking task keeps up. The task is scheduled when the first timeout is.
+ *
+ * @since 2.0
+ */
+public class TimingWheelExpirationEngine implements Disposable {
+
+  public static final String TICK_PROPERTY = "mule.objectstore.timingWheel.tickMillis";
+
+  private static final Logger LOGGER = getLogger(TimingWheelExpirationEngine.class);
+  private static final long DEFAULT_TICK = 100;
+  private static final int WHEEL_SIZE = 256;
+  private static final int LEVELS = 4;
+
+  @Inject
+  private SchedulerService schedulerService;
+
+  private final HierarchicalTimingWheel wheel;
+  private final Map<String, TimingWheelObjectStore> stores = new ConcurrentHashMap<>();
+  private ScheduledExecutorService scheduler;
+  private ScheduledFuture<?> tickTask;
+  private volatile boolean scheduled;
+
+  public TimingWheelExpirationEngine() {
+    this(Long.getLong(TICK_PROPERTY, DEFAULT_TICK));
+  }
+
+  public TimingWheelExpirationEngine(long tickMillis) {
+    this.wheel = new HierarchicalTimingWheel(tickMillis, WHEEL_SIZE, LEVELS, currentTimeMillis());
+  }
+
+  /**
+   * Creates an instance which moves the wheel forward on the given {@code scheduler}
+   */
+  public TimingWheelExpirationEngine(ScheduledExecutorService scheduler, long tickMillis) {
+    this(tickMillis);
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Returns the store with the given {@code name}, creating it if it doesn't exist yet. Stores are kept until this
+   * engine is disposed, so their entries survive the owning component being restarted.
+   *
+   * @param name       the name of the store
+   * @param maxEntries the max number of entries to keep, or {@code null} for no bounds
+   * @param entryTtl   for how long each entry is kept, in milliseconds, or {@code null} for no time bounds
+   * @param metrics    where to record expirations
+   * @return the store
+   */
+  public TimingWheelObjectStore getOrCreateStore(String name, Integer maxEntries, Long entryTtl, StoreMetrics metrics) {
+    return stores.computeIfAbsent(name, key -> new TimingWheelObjectStore(key, maxEntries, entryTtl, this, metrics));
+  }
+
+  /**
+   * Schedules the given {@code task} to run once {@code deadline} is reached
+   *
+   * @param deadline the epoch millis at which the task should run
+   * @param task     the task to run
+   * @return a handle to cancel the task
+   */
+  public Timeout schedule(long deadline, ExpirationTask task) {
+    Timeout timeout = wheel.schedule(deadline, (due, firedAt) -> {
+      try {
+        task.expire(due, firedAt);
+      } catch (Exception e) {
+        LOGGER.warn("Could not expire ObjectStore entry", e);
+      }
+    });
+    if (!scheduled) {
+      ensureScheduled();
+    }
+    return timeout;
+  }
+
+  /**
+   * Moves the wheel forward up to {@code now}, expiring every entry due by then
+   *
+   * @return the number of expiration tasks which were run
+   */
+  public int advance(long now) {
+    return wheel.advance(now);
+  }
+
+  /**
+   * @return the number of timeouts which have not fired yet, cancelled ones included
+   */
+  public int getPendingCount() {
+    return wheel.getPendingCount();
+  }
+
+  private synchronized void ensureScheduled() {
+    if (scheduled) {
+      return;
+    }
+
+    if (scheduler == null) {
+      scheduler = schedulerService.ioScheduler();
+    }
+
+    long tick = wheel.getTickMillis();
+    tickTask = scheduler.scheduleAtFixedRate(this::tick, tick, tick, MILLISECONDS);
+    scheduled = true;
+  }
+
+  private void tick() {
+    try {
+      advance(currentTimeMillis());
+    } catch (Exception e) {
+      LOGGER.warn("Could not expire ObjectStore entries", e);
+    }
+  }
+
+  @Override
+  public synchronized void dispose() {
+    if (tickTask != null) {
+      tickTask.cancel(false);
+      tickTask = null;
+    }
+    scheduled = false;
+
+    if (scheduler instanceof Scheduler) {
+      ((Scheduler) scheduler).stop();
+      scheduler = null;
+    }
+    stores.clear();
+  }
+}
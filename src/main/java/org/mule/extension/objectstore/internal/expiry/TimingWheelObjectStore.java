@@ -0,0 +1,250 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.expiry;
+
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import org.mule.extension.objectstore.api.UpsertObjectStore;
+import org.mule.extension.objectstore.internal.expiry.HierarchicalTimingWheel.Timeout;
+import org.mule.extension.objectstore.internal.metrics.StoreMetrics;
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.api.store.ObjectStoreException;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A transient store which expires each entry on its own, through a {@link HierarchicalTimingWheel}, instead of sweeping
+ * all of them periodically. Expiring an entry costs the same no matter how many entries the store holds.
+ * <p>
+ * When bounded, the oldest entries are evicted as soon as the store grows over its max number of entries, rather than
+ * on the next sweep. Entries which are expired or evicted are reported to the {@link #addDropListener(Consumer) drop
+ * listeners}, so that whatever caches them can discard them too.
+ *
+ * @since 2.0
+ */
+public class TimingWheelObjectStore implements ObjectStore<Serializable>, UpsertObjectStore {
+
+  private final String name;
+  private final Integer maxEntries;
+  private final Long entryTtl;
+  private final TimingWheelExpirationEngine engine;
+  private final StoreMetrics metrics;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final ConcurrentLinkedQueue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger staleInsertions = new AtomicInteger();
+  private final List<Consumer<String>> dropListeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * @param name       the name of the store
+   * @param maxEntries the max number of entries to keep, or {@code null} for no bounds
+   * @param entryTtl   for how long each entry is kept, in milliseconds, or {@code null} for no time bounds
+   * @param engine     the engine which expires the entries
+   * @param metrics    where to record expirations
+   */
+  public TimingWheelObjectStore(String name, Integer maxEntries, Long entryTtl, TimingWheelExpirationEngine engine,
+                                StoreMetrics metrics) {
+    this.name = name;
+    this.maxEntries = maxEntries != null && maxEntries >= 0 ? maxEntries : null;
+    this.entryTtl = entryTtl != null && entryTtl > 0 ? entryTtl : null;
+    this.engine = engine;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public boolean contains(String key) throws ObjectStoreException {
+    return entries.containsKey(key);
+  }
+
+  @Override
+  public void store(String key, Serializable value) throws ObjectStoreException {
+    Entry entry = newEntry(key, value);
+    if (entries.putIfAbsent(key, entry) != null) {
+      entry.cancel();
+      throw new ObjectAlreadyExistsException(createStaticMessage(format("ObjectStore '%s' already contains an entry for key '%s'",
+                                                                        name, key)));
+    }
+    added(entry);
+  }
+
+  @Override
+  public void upsert(String key, Serializable value) throws ObjectStoreException {
+    Entry entry = newEntry(key, value);
+    discarded(entries.put(key, entry));
+    added(entry);
+  }
+
+  @Override
+  public Serializable retrieve(String key) throws ObjectStoreException {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      throw doesNotExist(key);
+    }
+    return entry.value;
+  }
+
+  @Override
+  public Serializable remove(String key) throws ObjectStoreException {
+    Entry entry = entries.remove(key);
+    if (entry == null) {
+      throw doesNotExist(key);
+    }
+    discarded(entry);
+    return entry.value;
+  }
+
+  @Override
+  public boolean isPersistent() {
+    return false;
+  }
+
+  @Override
+  public void clear() throws ObjectStoreException {
+    for (String key : entries.keySet()) {
+      discarded(entries.remove(key));
+    }
+  }
+
+  @Override
+  public void open() throws ObjectStoreException {
+    // nothing to open
+  }
+
+  @Override
+  public void close() throws ObjectStoreException {
+    // entries are kept until the application is disposed, as the runtime does with its transient stores
+  }
+
+  @Override
+  public List<String> allKeys() throws ObjectStoreException {
+    return new ArrayList<>(entries.keySet());
+  }
+
+  @Override
+  public Map<String, Serializable> retrieveAll() throws ObjectStoreException {
+    Map<String, Serializable> values = new HashMap<>();
+    entries.forEach((key, entry) -> values.put(key, entry.value));
+    return values;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @param listener called with the key of each entry which is expired or evicted, as opposed to removed
+   */
+  public void addDropListener(Consumer<String> listener) {
+    dropListeners.add(listener);
+  }
+
+  /**
+   * @param listener a listener previously passed to {@link #addDropListener(Consumer)}
+   */
+  public void removeDropListener(Consumer<String> listener) {
+    dropListeners.remove(listener);
+  }
+
+  /**
+   * @return the number of entries currently in the store
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  private Entry newEntry(String key, Serializable value) {
+    Entry entry = new Entry(key, value);
+    if (entryTtl != null) {
+      entry.timeout = engine.schedule(currentTimeMillis() + entryTtl, (deadline, firedAt) -> expire(entry, deadline, firedAt));
+    }
+    return entry;
+  }
+
+  private void expire(Entry entry, long deadline, long firedAt) {
+    if (entries.remove(entry.key, entry)) {
+      discarded(entry);
+      metrics.recordExpiredEntry(MILLISECONDS.toNanos(Math.max(0, firedAt - deadline)));
+      dropped(entry.key);
+    }
+  }
+
+  private void added(Entry entry) {
+    if (maxEntries == null) {
+      return;
+    }
+
+    insertionOrder.add(entry);
+    while (entries.size() > maxEntries) {
+      Entry oldest = insertionOrder.poll();
+      if (oldest == null) {
+        break;
+      }
+      if (entries.remove(oldest.key, oldest)) {
+        oldest.cancel();
+        dropped(oldest.key);
+      } else {
+        // already removed, overwritten or expired
+        staleInsertions.updateAndGet(stale -> Math.max(0, stale - 1));
+      }
+    }
+  }
+
+  private void discarded(Entry entry) {
+    if (entry == null) {
+      return;
+    }
+
+    entry.cancel();
+    if (maxEntries != null && staleInsertions.incrementAndGet() > Math.max(entries.size(), 64)) {
+      // discarded entries are only dropped from the insertion order once polled. Purge them before they pile up
+      staleInsertions.set(0);
+      insertionOrder.removeIf(candidate -> entries.get(candidate.key) != candidate);
+    }
+  }
+
+  private void dropped(String key) {
+    for (Consumer<String> listener : dropListeners) {
+      listener.accept(key);
+    }
+  }
+
+  private ObjectDoesNotExistException doesNotExist(String key) {
+    return new ObjectDoesNotExistException(createStaticMessage(format("ObjectStore '%s' doesn't contain any value for key '%s'",
+                                                                      name, key)));
+  }
+
+  private static class Entry {
+
+    private final String key;
+    private final Serializable value;
+    private volatile Timeout timeout;
+
+    private Entry(String key, Serializable value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    private void cancel() {
+      Timeout current = timeout;
+      if (current != null) {
+        current.cancel();
+      }
+    }
+  }
+}
@@ -0,0 +1,503 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.journal;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Comparator.comparingInt;
+import static java.util.stream.Collectors.toList;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.slf4j.LoggerFactory.getLogger;
+import org.mule.extension.objectstore.api.ValueTooLargeException;
+import org.mule.runtime.api.store.ObjectStoreException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+
+/**
+ * An append-only log of key value records, split into {@link JournalSegment memory-mapped segments}, together with an
+ * in-memory index of where the latest record of each key is.
+ * <p>
+ * Writing a key costs a single sequential append, and the write doesn't return until the record was synced to disk.
+ * Concurrent writers share syncs: the first one to wait syncs every record appended so far, for itself and for everyone
+ * who appended meanwhile, while the rest wait for it. The group commit delay makes that writer wait a little longer
+ * before syncing, trading latency for fewer syncs.
+ * <p>
+ * Overwritten and removed records are left behind as garbage. Once most of the bytes of the segments which are no
+ * longer appended to are garbage, {@link #compact()} copies their live records to the end of the log and deletes them.
+ * <p>
+ * On start up, the index is rebuilt by replaying the segments in order, up to the first record which doesn't pass its
+ * checksum.
+ * <p>
+ * A journal locks its directory while open, so that no other journal, from this process or any other one, appends to
+ * the same segments.
+ *
+ * @since 2.0
+ */
+public class Journal {
+
+  private static final Logger LOGGER = getLogger(Journal.class);
+  private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.log");
+  private static final String LOCK_FILE = "journal.lock";
+  private static final double COMPACTION_RATIO = 0.5;
+
+  private final File directory;
+  private final int segmentSize;
+  private final long groupCommitDelay;
+  private final FileChannel lockChannel;
+  private final Map<String, Long> index = new ConcurrentHashMap<>();
+  private final Map<Integer, JournalSegment> segments = new ConcurrentHashMap<>();
+  private JournalSegment active;
+  private long appendedSequence = 0;
+
+  private final Object commitLock = new Object();
+  private long durableSequence = 0;
+  private boolean committing = false;
+
+  /**
+   * Opens the journal kept in the given {@code directory}, creating it if it doesn't exist
+   *
+   * @param directory        where the segments are kept
+   * @param segmentSize      the size of each segment, which is also the max size of a record
+   * @param groupCommitDelay for how long to wait for other writes before syncing, in milliseconds
+   * @throws IOException if the directory can't be read or created, or another journal holds it
+   */
+  public Journal(File directory, int segmentSize, long groupCommitDelay) throws IOException {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.groupCommitDelay = groupCommitDelay;
+
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException(format("Could not create directory '%s'", directory));
+    }
+    lockChannel = lock(directory);
+    try {
+      recover();
+    } catch (IOException | RuntimeException e) {
+      unlock();
+      throw e;
+    }
+  }
+
+  private static FileChannel lock(File directory) throws IOException {
+    FileChannel channel = FileChannel.open(new File(directory, LOCK_FILE).toPath(), CREATE, WRITE);
+    FileLock lock;
+    try {
+      lock = channel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      // held by another journal of this process
+      lock = null;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+
+    if (lock == null) {
+      channel.close();
+      throw new IOException(format("The journal in '%s' is already open, either in this process or in another one. Each "
+          + "store needs a directory of its own", directory));
+    }
+    return channel;
+  }
+
+  private void recover() throws IOException {
+    List<JournalSegment> recovered = new ArrayList<>();
+    File[] files = directory.listFiles();
+    for (File file : files != null ? files : new File[0]) {
+      Matcher matcher = SEGMENT_NAME.matcher(file.getName());
+      if (matcher.matches()) {
+        recovered.add(JournalSegment.open(Integer.parseInt(matcher.group(1)), file, segmentSize));
+      }
+    }
+
+    recovered.sort(comparingInt(JournalSegment::getId));
+    for (JournalSegment segment : recovered) {
+      segments.put(segment.getId(), segment);
+      segment.recover((offset, key, tombstone) -> replay(segment, offset, key, tombstone));
+    }
+
+    active = recovered.isEmpty() ? newSegment(0) : recovered.get(recovered.size() - 1);
+  }
+
+  private void replay(JournalSegment segment, int offset, String key, boolean tombstone) {
+    long location = location(segment.getId(), offset);
+    if (tombstone) {
+      release(index.remove(key));
+    } else {
+      index(key, location);
+    }
+  }
+
+  /**
+   * @return the latest record of the given {@code key}, or {@code null} if there is none
+   */
+  public Entry get(String key) {
+    while (true) {
+      Long location = index.get(key);
+      if (location == null) {
+        return null;
+      }
+
+      JournalSegment segment = segments.get(segmentId(location));
+      if (segment != null) {
+        return new Entry(key, location, segment);
+      }
+      // the segment was compacted or cleared since the index was read. Read it again
+    }
+  }
+
+  /**
+   * @return whether there is a record for the given {@code key}
+   */
+  public boolean contains(String key) {
+    return index.containsKey(key);
+  }
+
+  /**
+   * Appends a record for the given {@code key}, replacing any previous one
+   */
+  public void put(String key, byte[] value, long storedAt) throws ObjectStoreException {
+    long sequence;
+    synchronized (this) {
+      index(key, append(JournalSegment.encode(key.getBytes(UTF_8), value, storedAt)));
+      sequence = appendedSequence;
+    }
+    awaitDurable(sequence);
+  }
+
+  /**
+   * Appends a record for the given {@code key}, unless there already is one
+   *
+   * @return whether the record was appended
+   */
+  public boolean putIfAbsent(String key, byte[] value, long storedAt) throws ObjectStoreException {
+    long sequence;
+    synchronized (this) {
+      if (index.containsKey(key)) {
+        return false;
+      }
+      index(key, append(JournalSegment.encode(key.getBytes(UTF_8), value, storedAt)));
+      sequence = appendedSequence;
+    }
+    awaitDurable(sequence);
+    return true;
+  }
+
+  /**
+   * Removes the given {@code key}, appending a tombstone for it
+   *
+   * @return the removed record, or {@code null} if there was none
+   */
+  public Entry remove(String key) throws ObjectStoreException {
+    Entry removed;
+    long sequence;
+    synchronized (this) {
+      removed = get(key);
+      if (removed == null) {
+        return null;
+      }
+      tombstone(key);
+      sequence = appendedSequence;
+    }
+    awaitDurable(sequence);
+    return removed;
+  }
+
+  /**
+   * Removes the given {@code key}, as long as its latest record is still the given {@code entry}
+   *
+   * @return whether the key was removed
+   */
+  public boolean remove(Entry entry) throws ObjectStoreException {
+    long sequence;
+    synchronized (this) {
+      Long location = index.get(entry.key);
+      if (location == null || location != entry.location) {
+        return false;
+      }
+      tombstone(entry.key);
+      sequence = appendedSequence;
+    }
+    awaitDurable(sequence);
+    return true;
+  }
+
+  private void tombstone(String key) throws ObjectStoreException {
+    // the tombstone itself is garbage right away, all it does is mask the previous records on recovery
+    append(JournalSegment.encode(key.getBytes(UTF_8), null, System.currentTimeMillis()));
+    release(index.remove(key));
+  }
+
+  /**
+   * @return a snapshot of the keys which have a record
+   */
+  public Set<String> keys() {
+    return new HashSet<>(index.keySet());
+  }
+
+  public int size() {
+    return index.size();
+  }
+
+  /**
+   * Removes every record, deleting all the segments
+   */
+  public void clear() throws ObjectStoreException {
+    List<JournalSegment> dropped;
+    synchronized (this) {
+      index.clear();
+      dropped = new ArrayList<>(segments.values());
+      segments.clear();
+      int nextId = active.getId() + 1;
+      delete(dropped);
+      active = createSegment(nextId);
+    }
+  }
+
+  /**
+   * Copies the live records of the segments which are no longer appended to, to the end of the log, and deletes them.
+   * Does nothing unless most of the bytes of those segments are garbage.
+   *
+   * @return the number of records which were copied
+   */
+  public int compact() throws ObjectStoreException {
+    List<JournalSegment> sealed;
+    synchronized (this) {
+      sealed = segments.values().stream().filter(segment -> segment != active).collect(toList());
+      long total = sealed.stream().mapToLong(JournalSegment::getPosition).sum();
+      long live = sealed.stream().mapToLong(JournalSegment::getLiveBytes).sum();
+      if (total == 0 || total - live < total * COMPACTION_RATIO) {
+        return 0;
+      }
+    }
+
+    Set<Integer> sealedIds = new HashSet<>();
+    sealed.forEach(segment -> sealedIds.add(segment.getId()));
+
+    // segments being sealed means no writes go to them anymore, so every key which still needs copying is in the index
+    // the whole time, and the iteration is bound to visit it
+    int copied = 0;
+    long sequence;
+    for (Map.Entry<String, Long> entry : index.entrySet()) {
+      if (!sealedIds.contains(segmentId(entry.getValue()))) {
+        continue;
+      }
+
+      synchronized (this) {
+        Long location = index.get(entry.getKey());
+        if (location != null && sealedIds.contains(segmentId(location))) {
+          byte[] record = segments.get(segmentId(location)).readRecord(offset(location));
+          index(entry.getKey(), append(record));
+          copied++;
+        }
+      }
+    }
+
+    synchronized (this) {
+      sequence = appendedSequence;
+    }
+    awaitDurable(sequence);
+
+    synchronized (this) {
+      sealedIds.forEach(segments::remove);
+      delete(sealed);
+    }
+    return copied;
+  }
+
+  /**
+   * Syncs every appended record and unlocks the directory. The journal must not be used afterwards.
+   */
+  public void close() {
+    synchronized (this) {
+      active.force();
+    }
+    unlock();
+  }
+
+  private void unlock() {
+    try {
+      // releases the lock too
+      lockChannel.close();
+    } catch (IOException e) {
+      LOGGER.warn(format("Could not unlock journal directory '%s'", directory), e);
+    }
+  }
+
+  /**
+   * @return the number of bytes taken by the segments, garbage included
+   */
+  public synchronized long getUsedBytes() {
+    return segments.values().stream().mapToLong(JournalSegment::getPosition).sum();
+  }
+
+  /**
+   * @return the number of bytes taken by the records which the index references
+   */
+  public synchronized long getLiveBytes() {
+    return segments.values().stream().mapToLong(JournalSegment::getLiveBytes).sum();
+  }
+
+  private long append(byte[] record) throws ObjectStoreException {
+    if (record.length > segmentSize) {
+      throw new ValueTooLargeException(createStaticMessage(format("A record of %d bytes exceeds the segment size of %d bytes",
+                                                                  record.length, segmentSize)));
+    }
+
+    int offset = active.append(record);
+    if (offset < 0) {
+      // records are synced in order, so the full segment must be on disk before any record goes to the next one
+      active.force();
+      active = createSegment(active.getId() + 1);
+      offset = active.append(record);
+    }
+
+    appendedSequence++;
+    return location(active.getId(), offset);
+  }
+
+  private void index(String key, long location) {
+    JournalSegment segment = segments.get(segmentId(location));
+    segment.addLiveBytes(segment.recordSize(offset(location)));
+    release(index.put(key, location));
+  }
+
+  private void release(Long location) {
+    if (location != null) {
+      JournalSegment segment = segments.get(segmentId(location));
+      segment.addLiveBytes(-segment.recordSize(offset(location)));
+    }
+  }
+
+  private JournalSegment createSegment(int id) throws ObjectStoreException {
+    try {
+      return newSegment(id);
+    } catch (IOException e) {
+      throw new ObjectStoreException(createStaticMessage(format("Could not create a new segment in '%s'", directory)), e);
+    }
+  }
+
+  private JournalSegment newSegment(int id) throws IOException {
+    JournalSegment segment = JournalSegment.open(id, new File(directory, "segment-" + id + ".log"), segmentSize);
+    segments.put(id, segment);
+    return segment;
+  }
+
+  private void delete(List<JournalSegment> dropped) {
+    // oldest first, so that a crash midway never leaves a record behind without the newer ones which mask it
+    dropped.sort(comparingInt(JournalSegment::getId));
+    for (JournalSegment segment : dropped) {
+      if (!deleteFile(segment.getFile())) {
+        LOGGER.warn(format("Could not delete journal segment '%s'", segment.getFile()));
+      }
+    }
+  }
+
+  boolean deleteFile(File file) {
+    return file.delete();
+  }
+
+  private void awaitDurable(long sequence) throws ObjectStoreException {
+    synchronized (commitLock) {
+      while (committing && durableSequence < sequence) {
+        try {
+          commitLock.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new ObjectStoreException(createStaticMessage("Interrupted while waiting for the journal to be synced"), e);
+        }
+      }
+      if (durableSequence >= sequence) {
+        return;
+      }
+      committing = true;
+    }
+
+    // sync every record appended so far, on behalf of every writer waiting for it
+    long target = 0;
+    boolean synced = false;
+    try {
+      if (groupCommitDelay > 0) {
+        Thread.sleep(groupCommitDelay);
+      }
+
+      JournalSegment segment;
+      synchronized (this) {
+        target = appendedSequence;
+        segment = active;
+      }
+      segment.force();
+      synced = true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ObjectStoreException(createStaticMessage("Interrupted while syncing the journal"), e);
+    } finally {
+      synchronized (commitLock) {
+        if (synced) {
+          durableSequence = Math.max(durableSequence, target);
+        }
+        committing = false;
+        commitLock.notifyAll();
+      }
+    }
+  }
+
+  private static long location(int segmentId, int offset) {
+    return ((long) segmentId << 32) | (offset & 0xFFFFFFFFL);
+  }
+
+  private static int segmentId(long location) {
+    return (int) (location >>> 32);
+  }
+
+  private static int offset(long location) {
+    return (int) location;
+  }
+
+  /**
+   * The latest record of a key. Its value can still be read after the key is overwritten, removed or compacted.
+   */
+  public static final class Entry {
+
+    private final String key;
+    private final long location;
+    private final JournalSegment segment;
+
+    private Entry(String key, long location, JournalSegment segment) {
+      this.key = key;
+      this.location = location;
+      this.segment = segment;
+    }
+
+    public String getKey() {
+      return key;
+    }
+
+    public byte[] getValue() {
+      return segment.readValue(offset(location));
+    }
+
+    public long getStoredAt() {
+      return segment.readStoredAt(offset(location));
+    }
+  }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.journal;
+
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Comparator.comparingLong;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import org.mule.extension.objectstore.api.UpsertObjectStore;
+import org.mule.extension.objectstore.internal.journal.Journal.Entry;
+import org.mule.runtime.api.serialization.SerializationException;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.api.store.ObjectStoreException;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A persistent store which keeps its entries in a {@link Journal}, so that writing an entry costs a single sequential
+ * append rather than a file per entry.
+ * <p>
+ * Entries expire lazily: expired entries are treated as missing, and only removed once {@link #expire(long)} runs.
+ *
+ * @since 2.0
+ */
+public class JournalObjectStore implements ObjectStore<Serializable>, UpsertObjectStore {
+
+  private final String name;
+  private final Journal journal;
+  private final SerializationProtocol serializer;
+  private final Integer maxEntries;
+  private final Long entryTtl;
+
+  /**
+   * @param name       the name of the store
+   * @param journal    where to keep the entries
+   * @param serializer serializes the values
+   * @param maxEntries the max number of entries kept after each {@link #expire(long)}, or {@code null} for no bounds
+   * @param entryTtl   for how long each entry is kept, in milliseconds, or {@code null} for no time bounds
+   */
+  public JournalObjectStore(String name, Journal journal, SerializationProtocol serializer, Integer maxEntries,
+                            Long entryTtl) {
+    this.name = name;
+    this.journal = journal;
+    this.serializer = serializer;
+    this.maxEntries = maxEntries != null && maxEntries >= 0 ? maxEntries : null;
+    this.entryTtl = entryTtl != null && entryTtl > 0 ? entryTtl : null;
+  }
+
+  @Override
+  public boolean contains(String key) throws ObjectStoreException {
+    return isLive(journal.get(key), currentTimeMillis());
+  }
+
+  @Override
+  public void store(String key, Serializable value) throws ObjectStoreException {
+    byte[] serialized = serialize(key, value);
+    while (!journal.putIfAbsent(key, serialized, currentTimeMillis())) {
+      Entry existing = journal.get(key);
+      if (isLive(existing, currentTimeMillis())) {
+        throw new ObjectAlreadyExistsException(createStaticMessage(format("ObjectStore '%s' already contains an entry for key '%s'",
+                                                                          name, key)));
+      }
+      if (existing != null) {
+        journal.remove(existing);
+      }
+    }
+  }
+
+  @Override
+  public void upsert(String key, Serializable value) throws ObjectStoreException {
+    journal.put(key, serialize(key, value), currentTimeMillis());
+  }
+
+  @Override
+  public Serializable retrieve(String key) throws ObjectStoreException {
+    Entry entry = journal.get(key);
+    if (!isLive(entry, currentTimeMillis())) {
+      throw doesNotExist(key);
+    }
+    return deserialize(key, entry.getValue());
+  }
+
+  @Override
+  public Serializable remove(String key) throws ObjectStoreException {
+    Entry entry = journal.remove(key);
+    if (!isLive(entry, currentTimeMillis())) {
+      throw doesNotExist(key);
+    }
+    return deserialize(key, entry.getValue());
+  }
+
+  @Override
+  public boolean isPersistent() {
+    return true;
+  }
+
+  @Override
+  public void clear() throws ObjectStoreException {
+    journal.clear();
+  }
+
+  @Override
+  public void open() throws ObjectStoreException {
+    // the journal is opened by the manager
+  }
+
+  @Override
+  public void close() throws ObjectStoreException {
+    // entries are kept until the store is disposed through its manager
+  }
+
+  @Override
+  public List<String> allKeys() throws ObjectStoreException {
+    List<String> keys = new ArrayList<>();
+    long now = currentTimeMillis();
+    for (String key : journal.keys()) {
+      if (entryTtl == null || isLive(journal.get(key), now)) {
+        keys.add(key);
+      }
+    }
+    return keys;
+  }
+
+  @Override
+  public Map<String, Serializable> retrieveAll() throws ObjectStoreException {
+    Map<String, Serializable> values = new HashMap<>();
+    long now = currentTimeMillis();
+    for (String key : journal.keys()) {
+      Entry entry = journal.get(key);
+      if (isLive(entry, now)) {
+        values.put(key, deserialize(key, entry.getValue()));
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Removes the entries expired by {@code now}, and then the oldest ones if the store holds more than its max number of
+   * entries.
+   *
+   * @return the number of removed entries
+   */
+  public int expire(long now) throws ObjectStoreException {
+    int removed = 0;
+    List<Entry> survivors = new ArrayList<>();
+    for (String key : journal.keys()) {
+      Entry entry = journal.get(key);
+      if (entry == null) {
+        continue;
+      }
+      if (!isLive(entry, now)) {
+        removed += journal.remove(entry) ? 1 : 0;
+      } else if (maxEntries != null) {
+        survivors.add(entry);
+      }
+    }
+
+    if (maxEntries != null && survivors.size() > maxEntries) {
+      survivors.sort(comparingLong(Entry::getStoredAt));
+      for (Entry entry : survivors.subList(0, survivors.size() - maxEntries)) {
+        removed += journal.remove(entry) ? 1 : 0;
+      }
+    }
+
+    return removed;
+  }
+
+  /**
+   * Reclaims the space taken by overwritten and removed entries, if enough of it piled up
+   *
+   * @return the number of entries which were moved
+   */
+  public int compact() throws ObjectStoreException {
+    return journal.compact();
+  }
+
+  /**
+   * @return the epoch millis at which the entry for the given {@code key} was written, or -1 if there is none
+   */
+  public long getStoredAt(String key) {
+    Entry entry = journal.get(key);
+    return entry != null ? entry.getStoredAt() : -1;
+  }
+
+  /**
+   * @return the number of bytes taken by the entries, excluding overwritten and removed ones which were not compacted yet
+   */
+  public long getLiveBytes() {
+    return journal.getLiveBytes();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  Journal getJournal() {
+    return journal;
+  }
+
+  private boolean isLive(Entry entry, long now) {
+    return entry != null && (entryTtl == null || now - entry.getStoredAt() < entryTtl);
+  }
+
+  private byte[] serialize(String key, Serializable value) throws ObjectStoreException {
+    try {
+      return serializer.serialize(value);
+    } catch (SerializationException e) {
+      throw new ObjectStoreException(createStaticMessage(format("Could not serialize the value for key '%s'", key)), e);
+    }
+  }
+
+  private Serializable deserialize(String key, byte[] value) throws ObjectStoreException {
+    try {
+      return serializer.deserialize(value);
+    } catch (SerializationException e) {
+      throw new ObjectStoreException(createStaticMessage(format("Could not deserialize the value for key '%s'", key)), e);
+    }
+  }
+
+  private ObjectDoesNotExistException doesNotExist(String key) {
+    return new ObjectDoesNotExistException(createStaticMessage(format("ObjectStore '%s' doesn't contain any value for key '%s'",
+                                                                      name, key)));
+  }
+}
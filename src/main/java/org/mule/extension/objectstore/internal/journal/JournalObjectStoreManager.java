@@ -0,0 +1,184 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.journal;
+
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.slf4j.LoggerFactory.getLogger;
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.api.store.ObjectStoreException;
+import org.mule.runtime.api.store.ObjectStoreManager;
+import org.mule.runtime.api.store.ObjectStoreSettings;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import org.slf4j.Logger;
+
+/**
+ * An {@link ObjectStoreManager} which creates {@link JournalObjectStore journal backed stores}, each one in its own
+ * directory under a common one.
+ * <p>
+ * Stores requested as transient are cleared when created, so their entries don't survive a restart. Stores with a max
+ * number of entries or an entry TTL are expired on the given scheduler, every expiration interval, and all of them are
+ * compacted every compaction interval.
+ *
+ * @since 2.0
+ */
+public class JournalObjectStoreManager implements ObjectStoreManager {
+
+  private static final Logger LOGGER = getLogger(JournalObjectStoreManager.class);
+
+  private final File directory;
+  private final int segmentSize;
+  private final long groupCommitDelay;
+  private final SerializationProtocol serializer;
+  private final ScheduledExecutorService scheduler;
+  private final Map<String, JournalObjectStore> stores = new ConcurrentHashMap<>();
+  private final Map<String, ScheduledFuture<?>> expirationTasks = new ConcurrentHashMap<>();
+  private final ScheduledFuture<?> compactionTask;
+
+  /**
+   * @param directory          where to keep the journals of the stores
+   * @param segmentSize        the size of each journal segment, in bytes
+   * @param groupCommitDelay   for how long a write waits for others to share its sync, in milliseconds
+   * @param compactionInterval how often to compact the journals, in milliseconds, or 0 to never compact them
+   * @param serializer         serializes the values
+   * @param scheduler          where to expire and compact the entries
+   */
+  public JournalObjectStoreManager(File directory, int segmentSize, long groupCommitDelay, long compactionInterval,
+                                   SerializationProtocol serializer, ScheduledExecutorService scheduler) {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.groupCommitDelay = groupCommitDelay;
+    this.serializer = serializer;
+    this.scheduler = scheduler;
+    this.compactionTask = compactionInterval > 0
+        ? scheduler.scheduleWithFixedDelay(this::compact, compactionInterval, compactionInterval, MILLISECONDS)
+        : null;
+  }
+
+  @Override
+  public <T extends ObjectStore<? extends Serializable>> T getObjectStore(String name) {
+    JournalObjectStore store = stores.get(name);
+    if (store == null) {
+      throw new NoSuchElementException(format("ObjectStore '%s' doesn't exist", name));
+    }
+    return (T) store;
+  }
+
+  @Override
+  public <T extends ObjectStore<? extends Serializable>> T createObjectStore(String name, ObjectStoreSettings settings) {
+    if (stores.containsKey(name)) {
+      throw new IllegalArgumentException(format("ObjectStore '%s' already exists", name));
+    }
+    return getOrCreateObjectStore(name, settings);
+  }
+
+  @Override
+  public <T extends ObjectStore<? extends Serializable>> T getOrCreateObjectStore(String name, ObjectStoreSettings settings) {
+    return (T) stores.computeIfAbsent(name, key -> create(key, settings));
+  }
+
+  private JournalObjectStore create(String name, ObjectStoreSettings settings) {
+    Integer maxEntries = settings.getMaxEntries().orElse(null);
+    Long entryTtl = settings.getEntryTTL().orElse(null);
+    Journal journal;
+    try {
+      journal = new Journal(storeDirectory(name), segmentSize, groupCommitDelay);
+    } catch (IOException e) {
+      throw new MuleRuntimeException(createStaticMessage(format("Could not open the journal of ObjectStore '%s': %s", name,
+                                                                e.getMessage())),
+                                     e);
+    }
+
+    if (!settings.isPersistent()) {
+      try {
+        journal.clear();
+      } catch (ObjectStoreException e) {
+        journal.close();
+        throw new MuleRuntimeException(createStaticMessage(format("Could not clear the journal of ObjectStore '%s'", name)), e);
+      }
+    }
+    JournalObjectStore store = new JournalObjectStore(name, journal, serializer, maxEntries, entryTtl);
+
+    long interval = settings.getExpirationInterval();
+    if ((maxEntries != null || entryTtl != null) && interval > 0) {
+      expirationTasks.put(name, scheduler.scheduleWithFixedDelay(() -> expire(store), interval, interval, MILLISECONDS));
+    }
+    return store;
+  }
+
+  private File storeDirectory(String name) {
+    try {
+      return new File(directory, URLEncoder.encode(name, UTF_8.name()));
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void expire(JournalObjectStore store) {
+    try {
+      store.expire(currentTimeMillis());
+    } catch (Exception e) {
+      LOGGER.warn(format("Could not expire the entries of ObjectStore '%s'", store.getName()), e);
+    }
+  }
+
+  private void compact() {
+    for (JournalObjectStore store : stores.values()) {
+      try {
+        store.compact();
+      } catch (Exception e) {
+        LOGGER.warn(format("Could not compact the journal of ObjectStore '%s'", store.getName()), e);
+      }
+    }
+  }
+
+  @Override
+  public void disposeStore(String name) throws ObjectStoreException {
+    ScheduledFuture<?> expirationTask = expirationTasks.remove(name);
+    if (expirationTask != null) {
+      expirationTask.cancel(false);
+    }
+
+    JournalObjectStore store = stores.remove(name);
+    if (store != null) {
+      try {
+        store.clear();
+      } finally {
+        store.getJournal().close();
+      }
+    }
+  }
+
+  /**
+   * Stops expiring and compacting the stores, and closes their journals. Their entries are kept.
+   */
+  public void dispose() {
+    if (compactionTask != null) {
+      compactionTask.cancel(false);
+    }
+    expirationTasks.values().forEach(task -> task.cancel(false));
+    expirationTasks.clear();
+    stores.values().forEach(store -> store.getJournal().close());
+    stores.clear();
+  }
+}
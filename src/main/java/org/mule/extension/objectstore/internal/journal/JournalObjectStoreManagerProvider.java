@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.journal;
+
+import static org.mule.runtime.api.connection.ConnectionValidationResult.success;
+import static org.mule.runtime.api.meta.ExpressionSupport.NOT_SUPPORTED;
+import org.mule.runtime.api.connection.ConnectionException;
+import org.mule.runtime.api.connection.ConnectionProvider;
+import org.mule.runtime.api.connection.ConnectionValidationResult;
+import org.mule.runtime.api.lifecycle.Disposable;
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.api.scheduler.SchedulerService;
+import org.mule.runtime.api.serialization.ObjectSerializer;
+import org.mule.runtime.api.store.ObjectStoreManager;
+import org.mule.runtime.extension.api.annotation.Alias;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+
+import java.io.File;
+
+import javax.inject.Inject;
+
+/**
+ * A {@link ConnectionProvider} which returns an {@link ObjectStoreManager} of {@link JournalObjectStore stores} backed by
+ * memory-mapped, append-only journals. Writing an entry costs a single sequential append, and concurrent writes share
+ * the same sync to disk.
+ *
+ * @since 2.0
+ */
+@Alias("journal")
+public class JournalObjectStoreManagerProvider implements ConnectionProvider<ObjectStoreManager>, Disposable {
+
+  private static final long MEGABYTE = 1024 * 1024;
+
+  @Inject
+  private ObjectSerializer objectSerializer;
+
+  @Inject
+  private SchedulerService schedulerService;
+
+  /**
+   * The directory in which to keep the journals. Each store gets its own subdirectory.
+   */
+  @Parameter
+  @Expression(NOT_SUPPORTED)
+  private String directory;
+
+  /**
+   * The size of each journal file, in megabytes. No single entry can be larger than a file.
+   */
+  @Parameter
+  @Optional(defaultValue = "64")
+  @Expression(NOT_SUPPORTED)
+  private int segmentSize;
+
+  /**
+   * For how long, in milliseconds, a write waits for other writes to share its sync to disk. Raising it reduces the
+   * number of syncs under load, at the cost of latency for every write.
+   */
+  @Parameter
+  @Optional(defaultValue = "0")
+  @Expression(NOT_SUPPORTED)
+  private long groupCommitDelay;
+
+  /**
+   * How often, in seconds, to reclaim the space taken by overwritten and removed entries. 0 disables compaction.
+   */
+  @Parameter
+  @Optional(defaultValue = "60")
+  @Expression(NOT_SUPPORTED)
+  private long compactionInterval;
+
+  private JournalObjectStoreManager manager;
+  private Scheduler scheduler;
+
+  @Override
+  public synchronized ObjectStoreManager connect() throws ConnectionException {
+    if (manager == null) {
+      if (segmentSize <= 0 || segmentSize * MEGABYTE > Integer.MAX_VALUE) {
+        throw new ConnectionException("The segment size must be between 1 and 2047 megabytes");
+      }
+      scheduler = schedulerService.ioScheduler();
+      manager = new JournalObjectStoreManager(new File(directory), (int) (segmentSize * MEGABYTE), groupCommitDelay,
+                                              compactionInterval * 1000, objectSerializer.getInternalProtocol(), scheduler);
+    }
+    return manager;
+  }
+
+  @Override
+  public void disconnect(ObjectStoreManager connection) {
+    // stores outlive each connection, until the application stops
+  }
+
+  @Override
+  public ConnectionValidationResult validate(ObjectStoreManager connection) {
+    return success();
+  }
+
+  @Override
+  public synchronized void dispose() {
+    if (manager != null) {
+      manager.dispose();
+      manager = null;
+    }
+    if (scheduler != null) {
+      scheduler.stop();
+      scheduler = null;
+    }
+  }
+}
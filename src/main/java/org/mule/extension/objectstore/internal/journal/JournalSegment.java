@@ -0,0 +1,223 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.journal;
+
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * A file of a {@link Journal}, mapped into memory, to which records are appended one after the other.
+ * <p>
+ * Each record is laid out as {@code [int crc][int keyLength][int valueLength][long storedAt][key][value]}, where the
+ * checksum covers everything after it and a value length of {@link #TOMBSTONE} marks the removal of the key. The
+ * unused tail of the file is left zeroed, so the first record which doesn't pass its checksum marks the end of the
+ * segment, whether it was never written or torn by a crash.
+ * <p>
+ * Appending is not synchronized, the owning journal serializes it. Records are never modified once appended, so they
+ * can be read concurrently.
+ *
+ * @since 2.0
+ */
+public class JournalSegment {
+
+  static final int HEADER_SIZE = 20;
+  static final int TOMBSTONE = -1;
+
+  private final int id;
+  private final File file;
+  private final MappedByteBuffer buffer;
+  private int position = 0;
+  private long liveBytes = 0;
+
+  private JournalSegment(int id, File file, MappedByteBuffer buffer) {
+    this.id = id;
+    this.file = file;
+    this.buffer = buffer;
+  }
+
+  /**
+   * Maps the given {@code file}, creating it if it doesn't exist
+   *
+   * @param id   the position of the segment within its journal
+   * @param file the file to map
+   * @param size the size of the file, if it has to be created or grown
+   * @return the segment
+   */
+  public static JournalSegment open(int id, File file, int size) throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      if (raf.length() < size) {
+        raf.setLength(size);
+      }
+      // the mapping stays valid once the file is closed
+      return new JournalSegment(id, file, raf.getChannel().map(READ_WRITE, 0, raf.length()));
+    }
+  }
+
+  /**
+   * Encodes a record
+   *
+   * @param key      the key of the record
+   * @param value    the value of the record, or {@code null} for a tombstone
+   * @param storedAt the epoch millis at which the record was written
+   * @return the record, checksum included
+   */
+  public static byte[] encode(byte[] key, byte[] value, long storedAt) {
+    int valueLength = value != null ? value.length : TOMBSTONE;
+    ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + key.length + Math.max(valueLength, 0));
+    record.putInt(0);
+    record.putInt(key.length);
+    record.putInt(valueLength);
+    record.putLong(storedAt);
+    record.put(key);
+    if (value != null) {
+      record.put(value);
+    }
+
+    CRC32 crc = new CRC32();
+    crc.update(record.array(), 4, record.capacity() - 4);
+    record.putInt(0, (int) crc.getValue());
+    return record.array();
+  }
+
+  /**
+   * Appends the given {@link #encode(byte[], byte[], long) encoded} {@code record}
+   *
+   * @return the offset of the record, or {@code -1} if it doesn't fit in what's left of the segment
+   */
+  public int append(byte[] record) {
+    if (record.length > buffer.capacity() - position) {
+      return -1;
+    }
+
+    int offset = position;
+    ByteBuffer view = buffer.duplicate();
+    view.position(offset);
+    view.put(record);
+    position += record.length;
+    return offset;
+  }
+
+  /**
+   * Scans the records from the start of the segment, and makes the next append go right after the last valid one.
+   *
+   * @param visitor receives each valid record
+   */
+  public void recover(RecordVisitor visitor) {
+    int offset = 0;
+    int size;
+    while ((size = validRecordSize(offset)) > 0) {
+      visitor.visit(offset, readKey(offset), buffer.getInt(offset + 8) == TOMBSTONE);
+      offset += size;
+    }
+    position = offset;
+  }
+
+  private int validRecordSize(int offset) {
+    if ((long) offset + HEADER_SIZE > buffer.capacity()) {
+      return -1;
+    }
+
+    int keyLength = buffer.getInt(offset + 4);
+    int valueLength = buffer.getInt(offset + 8);
+    long size = (long) HEADER_SIZE + keyLength + Math.max(valueLength, 0);
+    if (keyLength < 0 || valueLength < TOMBSTONE || offset + size > buffer.capacity()) {
+      return -1;
+    }
+
+    CRC32 crc = new CRC32();
+    crc.update(read(offset + 4, (int) size - 4));
+    return (int) crc.getValue() == buffer.getInt(offset) ? (int) size : -1;
+  }
+
+  /**
+   * @return the size of the record at the given {@code offset}
+   */
+  public int recordSize(int offset) {
+    return HEADER_SIZE + buffer.getInt(offset + 4) + Math.max(buffer.getInt(offset + 8), 0);
+  }
+
+  /**
+   * @return the whole record at the given {@code offset}, as it was appended
+   */
+  public byte[] readRecord(int offset) {
+    return read(offset, recordSize(offset));
+  }
+
+  public String readKey(int offset) {
+    return new String(read(offset + HEADER_SIZE, buffer.getInt(offset + 4)), UTF_8);
+  }
+
+  public byte[] readValue(int offset) {
+    return read(offset + HEADER_SIZE + buffer.getInt(offset + 4), buffer.getInt(offset + 8));
+  }
+
+  public long readStoredAt(int offset) {
+    return buffer.getLong(offset + 12);
+  }
+
+  private byte[] read(int offset, int length) {
+    byte[] bytes = new byte[length];
+    ByteBuffer view = buffer.duplicate();
+    view.position(offset);
+    view.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Writes the appended records through to the disk
+   */
+  public void force() {
+    buffer.force();
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * @return the number of bytes taken by the appended records
+   */
+  public int getPosition() {
+    return position;
+  }
+
+  /**
+   * @return the number of bytes taken by the records which the index still references
+   */
+  public long getLiveBytes() {
+    return liveBytes;
+  }
+
+  void addLiveBytes(long bytes) {
+    liveBytes += bytes;
+  }
+
+  /**
+   * Receives the records of a segment being recovered
+   */
+  @FunctionalInterface
+  public interface RecordVisitor {
+
+    /**
+     * @param offset    the offset of the record
+     * @param key       the key of the record
+     * @param tombstone whether the record marks the removal of the key
+     */
+    void visit(int offset, String key, boolean tombstone);
+  }
+}
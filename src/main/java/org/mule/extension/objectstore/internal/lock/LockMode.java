@@ -0,0 +1,32 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.lock;
+
+/**
+ * How the operations obtain the locks which guard each key and store
+ *
+ * @since 2.0
+ */
+public enum LockMode {
+
+  /**
+   * Use {@link #STRIPED} locks for the stores which only the application that owns them can access, unless the runtime is
+   * part of a cluster. Stores defined in a domain, which its applications share, and stores whose scope is unknown use
+   * {@link #RUNTIME} locks
+   */
+  AUTO,
+
+  /**
+   * Use a fixed table of local locks. Only safe when no other node, nor application, accesses the same stores
+   */
+  STRIPED,
+
+  /**
+   * Use the runtime's lock factory, which is cluster aware when the runtime is clustered
+   */
+  RUNTIME
+}
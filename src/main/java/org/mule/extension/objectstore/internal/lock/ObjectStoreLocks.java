@@ -0,0 +1,140 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.lock;
+
+import static java.lang.String.format;
+import static org.mule.extension.objectstore.internal.lock.LockMode.AUTO;
+import static org.mule.extension.objectstore.internal.lock.LockMode.RUNTIME;
+import static org.mule.extension.objectstore.internal.lock.LockMode.STRIPED;
+import static org.mule.runtime.core.api.config.MuleProperties.OBJECT_CLUSTER_CONFIGURATION;
+import static org.slf4j.LoggerFactory.getLogger;
+import org.mule.runtime.core.api.config.ClusterConfiguration;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BooleanSupplier;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.slf4j.Logger;
+
+/**
+ * Decides, for each store, whether the operations should lock through the runtime's lock factory or through local
+ * {@link StripedLockTable striped locks}, and holds those tables. The decision is logged the first time each store is
+ * locked.
+ * <p>
+ * The mode is taken from the {@link #LOCK_MODE_PROPERTY} system property, {@link LockMode#RUNTIME} by default. The
+ * number of key stripes can be tuned through the {@link #LOCK_STRIPES_PROPERTY} system property.
+ *
+ * @since 2.0
+ */
+public class ObjectStoreLocks {
+
+  public static final String LOCK_MODE_PROPERTY = "mule.objectstore.lockMode";
+  public static final String LOCK_STRIPES_PROPERTY = "mule.objectstore.lockStripes";
+
+  private static final Logger LOGGER = getLogger(ObjectStoreLocks.class);
+  private static final int DEFAULT_KEY_STRIPES = 1024;
+  private static final int STORE_STRIPES = 64;
+
+  @Inject
+  @Named(OBJECT_CLUSTER_CONFIGURATION)
+  private java.util.Optional<ClusterConfiguration> clusterConfiguration = java.util.Optional.empty();
+
+  private final LockMode mode;
+  private final Map<String, Boolean> stripedByStore = new ConcurrentHashMap<>();
+  private volatile StripedLockTable keyLocks;
+  private volatile StripedLockTable storeLocks;
+
+  public ObjectStoreLocks() {
+    this(parseMode(System.getProperty(LOCK_MODE_PROPERTY)));
+  }
+
+  public ObjectStoreLocks(LockMode mode) {
+    this.mode = mode;
+  }
+
+  /**
+   * @param storeName          the name of the store to lock
+   * @param applicationPrivate whether only the application which owns the store can access it. Only evaluated the
+   *                           first time the store is locked, and only on {@link LockMode#AUTO} mode
+   * @return whether the striped locks should be used for the given store instead of the runtime's lock factory
+   */
+  public boolean isStriped(String storeName, BooleanSupplier applicationPrivate) {
+    Boolean striped = stripedByStore.get(storeName);
+    if (striped == null) {
+      striped = stripedByStore.computeIfAbsent(storeName, name -> {
+        boolean isStriped = mode == STRIPED || (mode == AUTO && !isClustered() && applicationPrivate.getAsBoolean());
+        LOGGER.info(format("Object Store '%s' uses %s locks (lock mode %s)", name, isStriped ? STRIPED : RUNTIME, mode));
+        return isStriped;
+      });
+      if (striped) {
+        initStripes();
+      }
+    }
+
+    return striped;
+  }
+
+  /**
+   * @return the striped lock which guards the given {@code key}. Only valid if the store {@link #isStriped striped}
+   */
+  public Lock getKeyLock(String storeName, String key) {
+    return keyLocks.get(storeName, key);
+  }
+
+  /**
+   * @return the striped locks which guard all the given {@code keys}, in the order they should be acquired. Only valid
+   *         if the store {@link #isStriped striped}
+   */
+  public List<Lock> getKeyLocks(String storeName, Collection<String> keys) {
+    return keyLocks.getAll(storeName, keys);
+  }
+
+  /**
+   * @return the striped lock which guards the given store as a whole. Only valid if the store
+   *         {@link #isStriped striped}
+   */
+  public Lock getStoreLock(String storeName) {
+    return storeLocks.get(storeName);
+  }
+
+  private synchronized void initStripes() {
+    if (keyLocks == null) {
+      storeLocks = new StripedLockTable(STORE_STRIPES);
+      keyLocks = new StripedLockTable(Integer.getInteger(LOCK_STRIPES_PROPERTY, DEFAULT_KEY_STRIPES));
+    }
+  }
+
+  /**
+   * @return whether the runtime is part of a cluster, in which case its stores may be shared with the other nodes
+   */
+  public boolean isClustered() {
+    return clusterConfiguration
+        .map(ClusterConfiguration::getClusterId)
+        .map(id -> !id.trim().isEmpty())
+        .orElse(false);
+  }
+
+  private static LockMode parseMode(String value) {
+    if (value == null) {
+      return RUNTIME;
+    }
+
+    try {
+      return LockMode.valueOf(value.trim().toUpperCase());
+    } catch (IllegalArgumentException e) {
+      LOGGER.warn(format("Invalid value '%s' for system property '%s'. Falling back to %s", value, LOCK_MODE_PROPERTY,
+                         RUNTIME));
+      return RUNTIME;
+    }
+  }
+}
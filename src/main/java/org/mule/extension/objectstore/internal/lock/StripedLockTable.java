@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.lock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed size table of {@link ReentrantLock locks}, all allocated upfront. Each store name and key pair maps to one of
+ * them, so that obtaining a lock neither allocates nor grows with the number of keys. The price is that unrelated keys
+ * may share a lock.
+ *
+ * @since 2.0
+ */
+public class StripedLockTable {
+
+  private final Lock[] stripes;
+  private final int mask;
+
+  /**
+   * Creates a new instance
+   *
+   * @param stripes the number of locks. Rounded up to the next power of two
+   */
+  public StripedLockTable(int stripes) {
+    int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+    this.stripes = new Lock[size];
+    for (int i = 0; i < size; i++) {
+      this.stripes[i] = new ReentrantLock();
+    }
+    mask = size - 1;
+  }
+
+  /**
+   * @return the lock which guards the given {@code key} of the given store
+   */
+  public Lock get(String storeName, String key) {
+    return stripes[stripeFor(storeName, key)];
+  }
+
+  /**
+   * @return the lock which guards the given store as a whole
+   */
+  public Lock get(String storeName) {
+    return stripes[spread(storeName.hashCode()) & mask];
+  }
+
+  /**
+   * Returns the locks guarding all the given {@code keys}, without duplicates and in stripe order. Acquiring them in the
+   * returned order prevents two threads sharing stripes from deadlocking, even if their keys hash in opposite orders.
+   */
+  public List<Lock> getAll(String storeName, Collection<String> keys) {
+    int[] indexes = new int[keys.size()];
+    int i = 0;
+    for (String key : keys) {
+      indexes[i++] = stripeFor(storeName, key);
+    }
+    Arrays.sort(indexes);
+
+    List<Lock> locks = new ArrayList<>(indexes.length);
+    for (int j = 0; j < indexes.length; j++) {
+      if (j == 0 || indexes[j] != indexes[j - 1]) {
+        locks.add(stripes[indexes[j]]);
+      }
+    }
+
+    return locks;
+  }
+
+  public int size() {
+    return stripes.length;
+  }
+
+  int stripeFor(String storeName, String key) {
+    return spread(31 * storeName.hashCode() + key.hashCode()) & mask;
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations, in nanoseconds, with one bucket per power of two.
+ * <p>
+ * Recording a value doesn't allocate nor lock, at the expense of precision: percentiles are reported as the upper
+ * bound of the bucket they fall into, so they may overestimate the real value by up to two times.
+ *
+ * @since 2.0
+ */
+public class LatencyHistogram {
+
+  private static final int BUCKETS = 64;
+
+  private final LongAdder[] buckets = new LongAdder[BUCKETS];
+  private final LongAdder count = new LongAdder();
+  private final LongAdder total = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  public LatencyHistogram() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * @param nanos the duration to record. Negative values are recorded as zero
+   */
+  public void record(long nanos) {
+    if (nanos < 0) {
+      nanos = 0;
+    }
+    buckets[nanos == 0 ? 0 : BUCKETS - 1 - Long.numberOfLeadingZeros(nanos)].increment();
+    count.increment();
+    total.add(nanos);
+    max.accumulate(nanos);
+  }
+
+  /**
+   * @return the current state of this histogram. Values recorded concurrently may or may not be part of it
+   */
+  public LatencySnapshot snapshot() {
+    long[] counts = new long[BUCKETS];
+    long snapshotCount = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets[i].sum();
+      snapshotCount += counts[i];
+    }
+
+    return new LatencySnapshot(snapshotCount,
+                               snapshotCount > 0 ? total.sum() / snapshotCount : 0,
+                               percentile(counts, snapshotCount, 0.5),
+                               percentile(counts, snapshotCount, 0.99),
+                               max.get());
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  private static long percentile(long[] counts, long total, double percentile) {
+    if (total == 0) {
+      return 0;
+    }
+
+    long target = (long) Math.ceil(total * percentile);
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= target) {
+        return i >= BUCKETS - 2 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+}
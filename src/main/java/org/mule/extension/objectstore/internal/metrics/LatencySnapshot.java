@@ -0,0 +1,52 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * A point in time view of a {@link LatencyHistogram}. All durations are in nanoseconds.
+ *
+ * @since 2.0
+ */
+public class LatencySnapshot {
+
+  private final long count;
+  private final long mean;
+  private final long p50;
+  private final long p99;
+  private final long max;
+
+  @ConstructorProperties({"count", "mean", "p50", "p99", "max"})
+  public LatencySnapshot(long count, long mean, long p50, long p99, long max) {
+    this.count = count;
+    this.mean = mean;
+    this.p50 = p50;
+    this.p99 = p99;
+    this.max = max;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getMean() {
+    return mean;
+  }
+
+  public long getP50() {
+    return p50;
+  }
+
+  public long getP99() {
+    return p99;
+  }
+
+  public long getMax() {
+    return max;
+  }
+}
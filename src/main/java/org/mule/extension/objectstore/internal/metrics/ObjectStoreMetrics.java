@@ -0,0 +1,114 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.metrics;
+
+import static java.lang.String.format;
+import static java.lang.management.ManagementFactory.getPlatformMBeanServer;
+import static javax.management.ObjectName.quote;
+import static org.slf4j.LoggerFactory.getLogger;
+import org.mule.runtime.api.lifecycle.Disposable;
+import org.mule.runtime.api.lifecycle.Initialisable;
+import org.mule.runtime.api.store.ObjectStore;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+
+/**
+ * Keeps the {@link StoreMetrics} of every {@link ObjectStore} accessed through this connector, indexed by store name.
+ * <p>
+ * Once initialised, the metrics of each store are published as an MXBean named
+ * {@code org.mule.extension.objectstore:type=ObjectStore,app=<app name>,name=<store name>} on the platform MBean
+ * server, until this instance is disposed.
+ *
+ * @since 2.0
+ */
+public class ObjectStoreMetrics implements Initialisable, Disposable {
+
+  private static final Logger LOGGER = getLogger(ObjectStoreMetrics.class);
+  private static final String JMX_DOMAIN = "org.mule.extension.objectstore";
+
+  private final Map<String, StoreMetrics> stores = new ConcurrentHashMap<>();
+  private final Map<String, ObjectName> registeredNames = new ConcurrentHashMap<>();
+
+  @Inject
+  @Named("app.name")
+  private java.util.Optional<String> appName = java.util.Optional.empty();
+
+  private volatile MBeanServer mBeanServer;
+
+  /**
+   * @param storeName the name of a store
+   * @return the metrics of the given store. Never {@code null}
+   */
+  public StoreMetrics forStore(String storeName) {
+    StoreMetrics storeMetrics = stores.get(storeName);
+    if (storeMetrics != null) {
+      return storeMetrics;
+    }
+
+    return stores.computeIfAbsent(storeName, name -> {
+      StoreMetrics created = new StoreMetrics(name);
+      register(created);
+      return created;
+    });
+  }
+
+  /**
+   * @return the metrics of all the stores which have been accessed so far
+   */
+  public Map<String, StoreMetrics> getStores() {
+    return stores;
+  }
+
+  @Override
+  public void initialise() {
+    mBeanServer = getPlatformMBeanServer();
+    stores.values().forEach(this::register);
+  }
+
+  @Override
+  public void dispose() {
+    MBeanServer server = mBeanServer;
+    mBeanServer = null;
+    if (server == null) {
+      return;
+    }
+
+    registeredNames.values().forEach(name -> {
+      try {
+        server.unregisterMBean(name);
+      } catch (JMException e) {
+        LOGGER.debug(format("Could not unregister MBean '%s'", name), e);
+      }
+    });
+    registeredNames.clear();
+  }
+
+  private void register(StoreMetrics storeMetrics) {
+    MBeanServer server = mBeanServer;
+    if (server == null || registeredNames.containsKey(storeMetrics.getStoreName())) {
+      return;
+    }
+
+    try {
+      ObjectName name = new ObjectName(format("%s:type=ObjectStore,app=%s,name=%s", JMX_DOMAIN,
+                                              quote(appName.orElse("default")), quote(storeMetrics.getStoreName())));
+      server.registerMBean(storeMetrics, name);
+      registeredNames.put(storeMetrics.getStoreName(), name);
+    } catch (JMException e) {
+      LOGGER.warn(format("Could not publish the metrics of Object Store '%s' through JMX", storeMetrics.getStoreName()), e);
+    }
+  }
+}
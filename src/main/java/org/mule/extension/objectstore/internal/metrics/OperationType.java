@@ -0,0 +1,33 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.metrics;
+
+/**
+ * The operations for which metrics are recorded
+ *
+ * @since 2.0
+ */
+public enum OperationType {
+
+  STORE, STORE_ALL, RETRIEVE, RETRIEVE_MANY, REMOVE, CONTAINS, CLEAR, RETRIEVE_ALL_KEYS, RETRIEVE_ALL, INCREMENT,
+  RETRIEVE_WITH_VERSION, COMPARE_AND_SET,
+
+  /**
+   * Each page read by the paged retrieve all keys operation
+   */
+  RETRIEVE_ALL_KEYS_PAGE,
+
+  /**
+   * Each page read by the paged retrieve all operation
+   */
+  RETRIEVE_ALL_PAGE,
+
+  /**
+   * Each expired entry removed in the background
+   */
+  RECLAIM
+}
@@ -0,0 +1,400 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.metrics;
+
+import static java.lang.System.nanoTime;
+import static org.mule.extension.objectstore.internal.error.ObjectStoreErrors.ANY;
+import org.mule.extension.objectstore.internal.error.ObjectStoreErrors;
+import org.mule.runtime.extension.api.error.ErrorTypeDefinition;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for a single store. All of them are cheap to update from many threads at once.
+ *
+ * @since 2.0
+ */
+public class StoreMetrics implements StoreMetricsMXBean {
+
+  private static final OperationType[] OPERATIONS = OperationType.values();
+  private static final ObjectStoreErrors[] ERRORS = ObjectStoreErrors.values();
+
+  private final String storeName;
+  private final LongAdder upsertFallbacks = new LongAdder();
+  private final LongAdder compareAndSetConflicts = new LongAdder();
+  private final LongAdder reclaimedEntries = new LongAdder();
+  private final LongAdder expiredEntries = new LongAdder();
+  private final LatencyHistogram expirationLag = new LatencyHistogram();
+  private final LongAdder sizeEvictions = new LongAdder();
+  private volatile long estimatedBytes = -1;
+  private final LongAdder nearCacheHits = new LongAdder();
+  private final LongAdder nearCacheMisses = new LongAdder();
+  private final LongAdder nearCacheEvictions = new LongAdder();
+  private final LongAdder memoryTierHits = new LongAdder();
+  private final LongAdder diskTierHits = new LongAdder();
+  private final LongAdder diskTierMisses = new LongAdder();
+  private final LongAdder uncompressedValues = new LongAdder();
+  private final LongAdder originalBytes = new LongAdder();
+  private final LongAdder compressedBytes = new LongAdder();
+  private final LatencyHistogram compressionTime = new LatencyHistogram();
+  private final LatencyHistogram decompressionTime = new LatencyHistogram();
+  private final LatencyHistogram lockWait = new LatencyHistogram();
+  private final LatencyHistogram backendTime = new LatencyHistogram();
+  private final LatencyHistogram[] operationLatencies = new LatencyHistogram[OPERATIONS.length];
+  private final LongAdder[] errors = new LongAdder[ERRORS.length];
+  private final LongAdder rateLimited = new LongAdder();
+  private final LongAdder clientThrottled = new LongAdder();
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder retriesExhausted = new LongAdder();
+  private volatile int concurrencyLimit = -1;
+  private final long createdAt = nanoTime();
+
+  StoreMetrics(String storeName) {
+    this.storeName = storeName;
+    for (int i = 0; i < operationLatencies.length; i++) {
+      operationLatencies[i] = new LatencyHistogram();
+    }
+    for (int i = 0; i < errors.length; i++) {
+      errors[i] = new LongAdder();
+    }
+  }
+
+  @Override
+  public String getStoreName() {
+    return storeName;
+  }
+
+  /**
+   * Records that an overwrite had to be performed as a store, a remove and a second store because the store doesn't
+   * support upserts.
+   */
+  public void recordUpsertFallback() {
+    upsertFallbacks.increment();
+  }
+
+  /**
+   * Records that a compare and set didn't store its value because of a version mismatch
+   */
+  public void recordCompareAndSetConflict() {
+    compareAndSetConflicts.increment();
+  }
+
+  /**
+   * Records that an expired entry was removed in the background
+   */
+  public void recordExpiredEntryReclaimed() {
+    reclaimedEntries.increment();
+  }
+
+  /**
+   * Records that an entry was removed by the expiration engine, the given time after it expired
+   */
+  public void recordExpiredEntry(long lagNanos) {
+    expiredEntries.increment();
+    expirationLag.record(lagNanos);
+  }
+
+  /**
+   * Records that an entry was evicted to keep the store within its max size in bytes
+   */
+  public void recordSizeEviction() {
+    sizeEvictions.increment();
+  }
+
+  public void setEstimatedBytes(long estimatedBytes) {
+    this.estimatedBytes = estimatedBytes;
+  }
+
+  /**
+   * Records how long an operation waited to acquire its locks
+   */
+  public void recordLockWait(long nanos) {
+    lockWait.record(nanos);
+  }
+
+  /**
+   * Records how long an operation spent on the store while holding its locks
+   */
+  public void recordBackendTime(long nanos) {
+    backendTime.record(nanos);
+  }
+
+  /**
+   * Records that an operation completed, successfully or not, after the given time
+   */
+  public void recordOperation(OperationType operation, long nanos) {
+    operationLatencies[operation.ordinal()].record(nanos);
+  }
+
+  /**
+   * Records a failed operation. Errors not defined by this connector are recorded as {@link ObjectStoreErrors#ANY}
+   */
+  public void recordError(ErrorTypeDefinition<?> errorType) {
+    ObjectStoreErrors error = errorType instanceof ObjectStoreErrors ? (ObjectStoreErrors) errorType : ANY;
+    errors[error.ordinal()].increment();
+  }
+
+  /**
+   * Records that the store rejected a call because of throttling
+   */
+  public void recordRateLimited() {
+    rateLimited.increment();
+  }
+
+  /**
+   * Records that a call was not performed because the adaptive concurrency limit was reached
+   */
+  public void recordClientThrottled() {
+    clientThrottled.increment();
+  }
+
+  /**
+   * Records that a call to the store is about to be retried
+   */
+  public void recordRetry() {
+    retries.increment();
+  }
+
+  /**
+   * Records that a call failed after having been retried as many times as allowed
+   */
+  public void recordRetriesExhausted() {
+    retriesExhausted.increment();
+  }
+
+  @Override
+  public long getRetryCount() {
+    return retries.sum();
+  }
+
+  @Override
+  public long getRetriesExhaustedCount() {
+    return retriesExhausted.sum();
+  }
+
+  public void setConcurrencyLimit(int concurrencyLimit) {
+    this.concurrencyLimit = concurrencyLimit;
+  }
+
+  @Override
+  public long getRateLimitedCount() {
+    return rateLimited.sum();
+  }
+
+  @Override
+  public long getClientThrottledCount() {
+    return clientThrottled.sum();
+  }
+
+  @Override
+  public int getConcurrencyLimit() {
+    return concurrencyLimit;
+  }
+
+  public long getErrorCount(ObjectStoreErrors error) {
+    return errors[error.ordinal()].sum();
+  }
+
+  public long getOperationCount(OperationType operation) {
+    return operationLatencies[operation.ordinal()].getCount();
+  }
+
+  @Override
+  public LatencySnapshot getLockWait() {
+    return lockWait.snapshot();
+  }
+
+  @Override
+  public LatencySnapshot getBackendTime() {
+    return backendTime.snapshot();
+  }
+
+  @Override
+  public Map<String, LatencySnapshot> getOperationLatencies() {
+    Map<String, LatencySnapshot> latencies = new LinkedHashMap<>();
+    for (OperationType operation : OPERATIONS) {
+      latencies.put(operation.name(), operationLatencies[operation.ordinal()].snapshot());
+    }
+    return latencies;
+  }
+
+  @Override
+  public Map<String, Double> getOperationThroughput() {
+    double seconds = Math.max(1, nanoTime() - createdAt) / 1_000_000_000d;
+    Map<String, Double> throughput = new LinkedHashMap<>();
+    for (OperationType operation : OPERATIONS) {
+      throughput.put(operation.name(), operationLatencies[operation.ordinal()].getCount() / seconds);
+    }
+    return throughput;
+  }
+
+  @Override
+  public Map<String, Long> getErrorCounts() {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    for (ObjectStoreErrors error : ERRORS) {
+      counts.put(error.name(), errors[error.ordinal()].sum());
+    }
+    return counts;
+  }
+
+  @Override
+  public long getUpsertFallbackCount() {
+    return upsertFallbacks.sum();
+  }
+
+  @Override
+  public long getCompareAndSetConflictCount() {
+    return compareAndSetConflicts.sum();
+  }
+
+  @Override
+  public long getReclaimedEntryCount() {
+    return reclaimedEntries.sum();
+  }
+
+  @Override
+  public long getExpiredEntryCount() {
+    return expiredEntries.sum();
+  }
+
+  @Override
+  public LatencySnapshot getExpirationLag() {
+    return expirationLag.snapshot();
+  }
+
+  @Override
+  public long getSizeEvictionCount() {
+    return sizeEvictions.sum();
+  }
+
+  @Override
+  public long getEstimatedBytes() {
+    return estimatedBytes;
+  }
+
+  public void recordNearCacheHit() {
+    nearCacheHits.increment();
+  }
+
+  public void recordNearCacheMiss() {
+    nearCacheMisses.increment();
+  }
+
+  public void recordNearCacheEviction() {
+    nearCacheEvictions.increment();
+  }
+
+  @Override
+  public long getNearCacheHitCount() {
+    return nearCacheHits.sum();
+  }
+
+  @Override
+  public long getNearCacheMissCount() {
+    return nearCacheMisses.sum();
+  }
+
+  @Override
+  public long getNearCacheEvictionCount() {
+    return nearCacheEvictions.sum();
+  }
+
+  public void recordMemoryTierHit() {
+    memoryTierHits.increment();
+  }
+
+  public void recordDiskTierHit() {
+    diskTierHits.increment();
+  }
+
+  public void recordDiskTierMiss() {
+    diskTierMisses.increment();
+  }
+
+  @Override
+  public long getMemoryTierHitCount() {
+    return memoryTierHits.sum();
+  }
+
+  @Override
+  public long getDiskTierHitCount() {
+    return diskTierHits.sum();
+  }
+
+  @Override
+  public long getDiskTierMissCount() {
+    return diskTierMisses.sum();
+  }
+
+  @Override
+  public double getMemoryTierHitRate() {
+    long hits = memoryTierHits.sum();
+    return ratio(hits, hits + diskTierHits.sum() + diskTierMisses.sum());
+  }
+
+  @Override
+  public double getDiskTierHitRate() {
+    long hits = diskTierHits.sum();
+    return ratio(hits, hits + diskTierMisses.sum());
+  }
+
+  /**
+   * Records that a value of {@code originalBytes} was compressed in the given time, and took {@code compressedBytes} once
+   * stored. Values which don't shrink are stored as they are
+   */
+  public void recordCompression(int originalBytes, int compressedBytes, long nanos) {
+    this.originalBytes.add(originalBytes);
+    this.compressedBytes.add(compressedBytes);
+    compressionTime.record(nanos);
+  }
+
+  /**
+   * Records that a value was stored uncompressed because it was below the compression threshold
+   */
+  public void recordUncompressedValue() {
+    uncompressedValues.increment();
+  }
+
+  /**
+   * Records that a compressed value was decompressed in the given time
+   */
+  public void recordDecompression(long nanos) {
+    decompressionTime.record(nanos);
+  }
+
+  @Override
+  public long getCompressedValueCount() {
+    return compressionTime.getCount();
+  }
+
+  @Override
+  public long getUncompressedValueCount() {
+    return uncompressedValues.sum();
+  }
+
+  @Override
+  public double getCompressionRatio() {
+    long compressed = compressedBytes.sum();
+    return compressed > 0 ? (double) originalBytes.sum() / compressed : 0;
+  }
+
+  @Override
+  public LatencySnapshot getCompressionTime() {
+    return compressionTime.snapshot();
+  }
+
+  @Override
+  public LatencySnapshot getDecompressionTime() {
+    return decompressionTime.snapshot();
+  }
+
+  private static double ratio(long count, long total) {
+    return total > 0 ? (double) count / total : 0;
+  }
+}
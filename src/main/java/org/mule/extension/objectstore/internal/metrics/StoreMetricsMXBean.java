@@ -0,0 +1,173 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the {@link StoreMetrics} of a single store. All durations are in nanoseconds.
+ *
+ * @since 2.0
+ */
+public interface StoreMetricsMXBean {
+
+  String getStoreName();
+
+  /**
+   * @return how long operations waited to acquire key or store locks
+   */
+  LatencySnapshot getLockWait();
+
+  /**
+   * @return how long operations spent on the store while holding their locks
+   */
+  LatencySnapshot getBackendTime();
+
+  /**
+   * @return the latency of each operation, lock wait included, indexed by operation name
+   */
+  Map<String, LatencySnapshot> getOperationLatencies();
+
+  /**
+   * @return the mean number of operations per second since the metrics were created, indexed by operation name
+   */
+  Map<String, Double> getOperationThroughput();
+
+  /**
+   * @return the number of failed operations, indexed by error type
+   */
+  Map<String, Long> getErrorCounts();
+
+  /**
+   * @return the number of calls rejected by the store because of throttling
+   */
+  long getRateLimitedCount();
+
+  /**
+   * @return the number of calls which were not performed because the adaptive concurrency limit was reached
+   */
+  long getClientThrottledCount();
+
+  /**
+   * @return the current adaptive concurrency limit, or -1 if adaptive concurrency is disabled
+   */
+  int getConcurrencyLimit();
+
+  /**
+   * @return the number of retried calls to the store
+   */
+  long getRetryCount();
+
+  /**
+   * @return the number of calls which failed after being retried as many times as allowed
+   */
+  long getRetriesExhaustedCount();
+
+  /**
+   * @return the number of overwrites performed as a remove and a store because the store doesn't support upserts
+   */
+  long getUpsertFallbackCount();
+
+  /**
+   * @return the number of compare and set calls which didn't store their value because the version didn't match
+   */
+  long getCompareAndSetConflictCount();
+
+  /**
+   * @return the number of entries stored with their own TTL which were removed in the background once expired
+   */
+  long getReclaimedEntryCount();
+
+  /**
+   * @return the number of entries removed by the timing wheel expiration engine
+   */
+  long getExpiredEntryCount();
+
+  /**
+   * @return how long after expiring entries were removed by the timing wheel expiration engine
+   */
+  LatencySnapshot getExpirationLag();
+
+  /**
+   * @return the number of entries evicted to keep the store within its max size in bytes
+   */
+  long getSizeEvictionCount();
+
+  /**
+   * @return the estimated total size in bytes of the entries written to the store, or -1 if its size is not bounded
+   */
+  long getEstimatedBytes();
+
+  /**
+   * @return the number of reads served from the near cache
+   */
+  long getNearCacheHitCount();
+
+  /**
+   * @return the number of reads which didn't find the key in the near cache, or found its entry expired
+   */
+  long getNearCacheMissCount();
+
+  /**
+   * @return the number of entries discarded to keep the near cache within its max entries
+   */
+  long getNearCacheEvictionCount();
+
+  /**
+   * @return the number of reads of a tiered store served from its memory tier
+   */
+  long getMemoryTierHitCount();
+
+  /**
+   * @return the number of reads of a tiered store which missed its memory tier and were served from its disk tier
+   */
+  long getDiskTierHitCount();
+
+  /**
+   * @return the number of reads of a tiered store which found the key in neither tier
+   */
+  long getDiskTierMissCount();
+
+  /**
+   * @return the fraction of reads of a tiered store served from its memory tier, or 0 if there were none
+   */
+  double getMemoryTierHitRate();
+
+  /**
+   * @return the fraction of reads of a tiered store which reached its disk tier and were served from it, or 0 if there
+   *         were none
+   */
+  double getDiskTierHitRate();
+
+  /**
+   * @return the number of values compressed before being stored. Values which didn't shrink are included, although they
+   *         are stored uncompressed
+   */
+  long getCompressedValueCount();
+
+  /**
+   * @return the number of values stored uncompressed by a store which compresses values, because they were below its
+   *         compression threshold
+   */
+  long getUncompressedValueCount();
+
+  /**
+   * @return the total size of the compressed values before compression divided by their size once stored, or 0 if no
+   *         value was compressed
+   */
+  double getCompressionRatio();
+
+  /**
+   * @return how long compressing each value took
+   */
+  LatencySnapshot getCompressionTime();
+
+  /**
+   * @return how long decompressing each value took
+   */
+  LatencySnapshot getDecompressionTime();
+}
@@ -0,0 +1,579 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.offheap;
+
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparingLong;
+import static org.mule.extension.objectstore.internal.offheap.SlabAllocator.offset;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import org.mule.extension.objectstore.api.UpsertObjectStore;
+import org.mule.extension.objectstore.api.ValueTooLargeException;
+import org.mule.runtime.api.serialization.SerializationException;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.api.store.ObjectStoreException;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+/**
+ * A transient store which keeps its entries out of the Java heap.
+ * <p>
+ * Each entry is serialized, along with its key, into a chunk obtained from a {@link SlabAllocator}. Chunks are located
+ * through an open addressing hash index which is also kept in direct memory, and which only holds the hash of each key
+ * and the address of its chunk. The index is split in segments, each one guarded by its own read write lock, so that
+ * reads don't block each other and writes only block the keys of the same segment. Values are serialized and
+ * deserialized outside of those locks.
+ * <p>
+ * Entries expire lazily: expired entries are treated as missing, and only removed once {@link #expire(long)} runs.
+ *
+ * @since 2.0
+ */
+public class OffHeapObjectStore implements ObjectStore<Serializable>, UpsertObjectStore {
+
+  // keyLength (int), valueLength (int), storedAt (long)
+  private static final int HEADER_SIZE = 16;
+  private static final int SEGMENTS = 16;
+  private static final int INITIAL_SEGMENT_CAPACITY = 64;
+
+  private final String name;
+  private final SlabAllocator allocator;
+  private final SerializationProtocol serializer;
+  private final Integer maxEntries;
+  private final Long entryTtl;
+  private final Segment[] segments = new Segment[SEGMENTS];
+
+  /**
+   * @param name       the name of the store
+   * @param allocator  where to allocate the entries
+   * @param serializer serializes the values
+   * @param maxEntries the max number of entries kept after each {@link #expire(long)}, or {@code null} for no bounds
+   * @param entryTtl   for how long each entry is kept, in milliseconds, or {@code null} for no time bounds
+   */
+  public OffHeapObjectStore(String name, SlabAllocator allocator, SerializationProtocol serializer, Integer maxEntries,
+                            Long entryTtl) {
+    this.name = name;
+    this.allocator = allocator;
+    this.serializer = serializer;
+    this.maxEntries = maxEntries != null && maxEntries >= 0 ? maxEntries : null;
+    this.entryTtl = entryTtl != null && entryTtl > 0 ? entryTtl : null;
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = new Segment();
+    }
+  }
+
+  @Override
+  public boolean contains(String key) throws ObjectStoreException {
+    byte[] keyBytes = key.getBytes(UTF_8);
+    int hash = hash(keyBytes);
+    Segment segment = segmentFor(hash);
+    Lock lock = segment.lock.readLock();
+    lock.lock();
+    try {
+      return segment.find(hash, keyBytes, currentTimeMillis()) >= 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void store(String key, Serializable value) throws ObjectStoreException {
+    put(key, value, false);
+  }
+
+  @Override
+  public void upsert(String key, Serializable value) throws ObjectStoreException {
+    put(key, value, true);
+  }
+
+  private void put(String key, Serializable value, boolean overwrite) throws ObjectStoreException {
+    byte[] keyBytes = key.getBytes(UTF_8);
+    byte[] valueBytes = serialize(key, value);
+    int hash = hash(keyBytes);
+    long address = writeChunk(key, keyBytes, valueBytes);
+
+    Segment segment = segmentFor(hash);
+    long previous = SlabAllocator.NO_ADDRESS;
+    Lock lock = segment.lock.writeLock();
+    lock.lock();
+    try {
+      int slot = segment.findAny(hash, keyBytes);
+      if (slot >= 0) {
+        previous = segment.addressAt(slot);
+        if (!overwrite && !isExpired(previous, currentTimeMillis())) {
+          previous = address;
+          throw new ObjectAlreadyExistsException(createStaticMessage(format("ObjectStore '%s' already contains an entry for key '%s'",
+                                                                            name, key)));
+        }
+        segment.replace(slot, address);
+      } else {
+        segment.insert(hash, address);
+      }
+    } finally {
+      lock.unlock();
+      if (previous != SlabAllocator.NO_ADDRESS) {
+        // either the overwritten chunk, or the one just written if it was rejected
+        freeChunk(previous);
+      }
+    }
+  }
+
+  @Override
+  public Serializable retrieve(String key) throws ObjectStoreException {
+    byte[] keyBytes = key.getBytes(UTF_8);
+    int hash = hash(keyBytes);
+    Segment segment = segmentFor(hash);
+    byte[] valueBytes;
+    Lock lock = segment.lock.readLock();
+    lock.lock();
+    try {
+      int slot = segment.find(hash, keyBytes, currentTimeMillis());
+      if (slot < 0) {
+        throw doesNotExist(key);
+      }
+      valueBytes = readValue(segment.addressAt(slot));
+    } finally {
+      lock.unlock();
+    }
+
+    return deserialize(key, valueBytes);
+  }
+
+  @Override
+  public Serializable remove(String key) throws ObjectStoreException {
+    byte[] keyBytes = key.getBytes(UTF_8);
+    int hash = hash(keyBytes);
+    Segment segment = segmentFor(hash);
+    long address;
+    byte[] valueBytes;
+    Lock lock = segment.lock.writeLock();
+    lock.lock();
+    try {
+      int slot = segment.findAny(hash, keyBytes);
+      if (slot < 0) {
+        throw doesNotExist(key);
+      }
+      address = segment.addressAt(slot);
+      valueBytes = isExpired(address, currentTimeMillis()) ? null : readValue(address);
+      segment.remove(slot);
+    } finally {
+      lock.unlock();
+    }
+
+    freeChunk(address);
+    if (valueBytes == null) {
+      throw doesNotExist(key);
+    }
+    return deserialize(key, valueBytes);
+  }
+
+  @Override
+  public boolean isPersistent() {
+    return false;
+  }
+
+  @Override
+  public void clear() throws ObjectStoreException {
+    for (Segment segment : segments) {
+      List<Long> addresses = new ArrayList<>();
+      Lock lock = segment.lock.writeLock();
+      lock.lock();
+      try {
+        segment.forEachAddress(addresses::add);
+        segment.reset(INITIAL_SEGMENT_CAPACITY);
+      } finally {
+        lock.unlock();
+      }
+      addresses.forEach(this::freeChunk);
+    }
+  }
+
+  @Override
+  public void open() throws ObjectStoreException {
+    // nothing to open
+  }
+
+  @Override
+  public void close() throws ObjectStoreException {
+    // entries are kept until the store is disposed through its manager
+  }
+
+  @Override
+  public List<String> allKeys() throws ObjectStoreException {
+    List<String> keys = new ArrayList<>();
+    long now = currentTimeMillis();
+    for (Segment segment : segments) {
+      Lock lock = segment.lock.readLock();
+      lock.lock();
+      try {
+        segment.forEachAddress(address -> {
+          if (!isExpired(address, now)) {
+            keys.add(readKey(address));
+          }
+        });
+      } finally {
+        lock.unlock();
+      }
+    }
+    return keys;
+  }
+
+  @Override
+  public Map<String, Serializable> retrieveAll() throws ObjectStoreException {
+    Map<String, byte[]> serialized = new HashMap<>();
+    long now = currentTimeMillis();
+    for (Segment segment : segments) {
+      Lock lock = segment.lock.readLock();
+      lock.lock();
+      try {
+        segment.forEachAddress(address -> {
+          if (!isExpired(address, now)) {
+            serialized.put(readKey(address), readValue(address));
+          }
+        });
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    Map<String, Serializable> values = new HashMap<>();
+    for (Map.Entry<String, byte[]> entry : serialized.entrySet()) {
+      values.put(entry.getKey(), deserialize(entry.getKey(), entry.getValue()));
+    }
+    return values;
+  }
+
+  /**
+   * Removes the entries expired by {@code now}, and then the oldest ones if the store holds more than its max number of
+   * entries.
+   *
+   * @return the number of removed entries
+   */
+  public int expire(long now) {
+    int removed = 0;
+    List<Survivor> survivors = maxEntries != null ? new ArrayList<>() : null;
+    for (Segment segment : segments) {
+      List<Long> expired = new ArrayList<>();
+      Lock lock = segment.lock.writeLock();
+      lock.lock();
+      try {
+        for (int slot = 0; slot < segment.capacity; slot++) {
+          long address = segment.addressAt(slot);
+          if (address == SlabAllocator.NO_ADDRESS) {
+            continue;
+          }
+          if (isExpired(address, now)) {
+            segment.remove(slot);
+            expired.add(address);
+          } else if (survivors != null) {
+            survivors.add(new Survivor(address, storedAt(address)));
+          }
+        }
+      } finally {
+        lock.unlock();
+      }
+      expired.forEach(this::freeChunk);
+      removed += expired.size();
+    }
+
+    if (survivors != null && survivors.size() > maxEntries) {
+      // entries stored within the same millisecond tie, so the oldest ones are picked one by one
+      survivors.sort(comparingLong(survivor -> survivor.storedAt));
+      removed += evict(survivors.subList(0, survivors.size() - maxEntries));
+    }
+
+    return removed;
+  }
+
+  private int evict(List<Survivor> oldest) {
+    Map<Long, Long> storedAtByAddress = new HashMap<>();
+    oldest.forEach(survivor -> storedAtByAddress.put(survivor.address, survivor.storedAt));
+
+    int evicted = 0;
+    for (Segment segment : segments) {
+      List<Long> addresses = new ArrayList<>();
+      Lock lock = segment.lock.writeLock();
+      lock.lock();
+      try {
+        for (int slot = 0; slot < segment.capacity; slot++) {
+          long address = segment.addressAt(slot);
+          // skips the entries removed since, whose chunk may hold another entry by now
+          Long storedAt = storedAtByAddress.get(address);
+          if (storedAt != null && storedAt(address) == storedAt) {
+            segment.remove(slot);
+            addresses.add(address);
+          }
+        }
+      } finally {
+        lock.unlock();
+      }
+      addresses.forEach(this::freeChunk);
+      evicted += addresses.size();
+    }
+    return evicted;
+  }
+
+  /**
+   * @return the number of entries, expired ones included
+   */
+  public int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      Lock lock = segment.lock.readLock();
+      lock.lock();
+      try {
+        size += segment.size;
+      } finally {
+        lock.unlock();
+      }
+    }
+    return size;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  private long writeChunk(String key, byte[] keyBytes, byte[] valueBytes) throws ObjectStoreException {
+    long chunkSize = (long) HEADER_SIZE + keyBytes.length + valueBytes.length;
+    if (chunkSize > allocator.getSlabSize()) {
+      throw new ValueTooLargeException(createStaticMessage(format(
+                                                                  "The entry for key '%s' takes %d bytes, which exceeds the slab size of %d bytes of ObjectStore '%s'",
+                                                                  key, chunkSize, allocator.getSlabSize(), name)));
+    }
+
+    long address = allocator.allocate((int) chunkSize);
+    ByteBuffer slab = allocator.slab(address);
+    slab.position(offset(address));
+    slab.putInt(keyBytes.length);
+    slab.putInt(valueBytes.length);
+    slab.putLong(currentTimeMillis());
+    slab.put(keyBytes);
+    slab.put(valueBytes);
+    return address;
+  }
+
+  private void freeChunk(long address) {
+    ByteBuffer slab = allocator.slab(address);
+    int offset = offset(address);
+    allocator.free(address, HEADER_SIZE + slab.getInt(offset) + slab.getInt(offset + 4));
+  }
+
+  private byte[] readValue(long address) {
+    ByteBuffer slab = allocator.slab(address);
+    int offset = offset(address);
+    byte[] value = new byte[slab.getInt(offset + 4)];
+    slab.position(offset + HEADER_SIZE + slab.getInt(offset));
+    slab.get(value);
+    return value;
+  }
+
+  private String readKey(long address) {
+    ByteBuffer slab = allocator.slab(address);
+    int offset = offset(address);
+    byte[] key = new byte[slab.getInt(offset)];
+    slab.position(offset + HEADER_SIZE);
+    slab.get(key);
+    return new String(key, UTF_8);
+  }
+
+  private boolean keyEquals(long address, byte[] key) {
+    ByteBuffer slab = allocator.slab(address);
+    int offset = offset(address);
+    if (slab.getInt(offset) != key.length) {
+      return false;
+    }
+
+    int keyOffset = offset + HEADER_SIZE;
+    for (int i = 0; i < key.length; i++) {
+      if (slab.get(keyOffset + i) != key[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private long storedAt(long address) {
+    return allocator.slab(address).getLong(offset(address) + 8);
+  }
+
+  private boolean isExpired(long address, long now) {
+    return entryTtl != null && now - storedAt(address) >= entryTtl;
+  }
+
+  private byte[] serialize(String key, Serializable value) throws ObjectStoreException {
+    try {
+      return serializer.serialize(value);
+    } catch (SerializationException e) {
+      throw new ObjectStoreException(createStaticMessage(format("Could not serialize the value for key '%s'", key)), e);
+    }
+  }
+
+  private Serializable deserialize(String key, byte[] value) throws ObjectStoreException {
+    try {
+      return serializer.deserialize(value);
+    } catch (SerializationException e) {
+      throw new ObjectStoreException(createStaticMessage(format("Could not deserialize the value for key '%s'", key)), e);
+    }
+  }
+
+  private ObjectDoesNotExistException doesNotExist(String key) {
+    return new ObjectDoesNotExistException(createStaticMessage(format("ObjectStore '%s' doesn't contain any value for key '%s'",
+                                                                      name, key)));
+  }
+
+  private static int hash(byte[] key) {
+    int hash = 1;
+    for (byte b : key) {
+      hash = 31 * hash + b;
+    }
+    // spreads the bits, since the high ones pick the segment and the low ones the slot
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    return hash ^ (hash >>> 16);
+  }
+
+  private Segment segmentFor(int hash) {
+    return segments[(hash >>> 28) & (SEGMENTS - 1)];
+  }
+
+  private static final class Survivor {
+
+    private final long address;
+    private final long storedAt;
+
+    private Survivor(long address, long storedAt) {
+      this.address = address;
+      this.storedAt = storedAt;
+    }
+  }
+
+  /**
+   * An open addressing, linear probing hash index kept in direct memory. Each slot holds the hash of a key and the
+   * address of its chunk plus one, so that a zeroed slot is empty. Removed slots are marked so that probing goes on past
+   * them, and are reused by later insertions or dropped when the index is rebuilt. Callers must hold the lock.
+   */
+  private final class Segment {
+
+    private static final int SLOT_SIZE = 12;
+    private static final long EMPTY = 0;
+    private static final long REMOVED = -1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private ByteBuffer slots;
+    private int capacity;
+    private int size;
+    private int removed;
+
+    private Segment() {
+      reset(INITIAL_SEGMENT_CAPACITY);
+    }
+
+    private void reset(int capacity) {
+      this.slots = ByteBuffer.allocateDirect(capacity * SLOT_SIZE);
+      this.capacity = capacity;
+      this.size = 0;
+      this.removed = 0;
+    }
+
+    /**
+     * @return the slot of the given key, or {@code -1} if it's missing or expired by {@code now}
+     */
+    private int find(int hash, byte[] key, long now) {
+      int slot = findAny(hash, key);
+      return slot >= 0 && !isExpired(addressAt(slot), now) ? slot : -1;
+    }
+
+    /**
+     * @return the slot of the given key, or {@code -1} if it's missing
+     */
+    private int findAny(int hash, byte[] key) {
+      int mask = capacity - 1;
+      for (int slot = hash & mask, probes = 0; probes < capacity; slot = (slot + 1) & mask, probes++) {
+        long stored = slots.getLong(slot * SLOT_SIZE + 4);
+        if (stored == EMPTY) {
+          return -1;
+        }
+        if (stored != REMOVED && slots.getInt(slot * SLOT_SIZE) == hash && keyEquals(stored - 1, key)) {
+          return slot;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * @return the address held by the given slot, or {@link SlabAllocator#NO_ADDRESS} if it holds none
+     */
+    private long addressAt(int slot) {
+      long stored = slots.getLong(slot * SLOT_SIZE + 4);
+      return stored == EMPTY || stored == REMOVED ? SlabAllocator.NO_ADDRESS : stored - 1;
+    }
+
+    private void insert(int hash, long address) {
+      if ((size + removed + 1) * 4L > capacity * 3L) {
+        rebuild(size * 2 >= capacity ? capacity * 2 : capacity);
+      }
+
+      int mask = capacity - 1;
+      int slot = hash & mask;
+      long stored;
+      while ((stored = slots.getLong(slot * SLOT_SIZE + 4)) != EMPTY && stored != REMOVED) {
+        slot = (slot + 1) & mask;
+      }
+      if (stored == REMOVED) {
+        removed--;
+      }
+      slots.putInt(slot * SLOT_SIZE, hash);
+      slots.putLong(slot * SLOT_SIZE + 4, address + 1);
+      size++;
+    }
+
+    private void replace(int slot, long address) {
+      slots.putLong(slot * SLOT_SIZE + 4, address + 1);
+    }
+
+    private void remove(int slot) {
+      slots.putLong(slot * SLOT_SIZE + 4, REMOVED);
+      size--;
+      removed++;
+    }
+
+    private void forEachAddress(LongConsumer consumer) {
+      for (int slot = 0; slot < capacity; slot++) {
+        long address = addressAt(slot);
+        if (address != SlabAllocator.NO_ADDRESS) {
+          consumer.accept(address);
+        }
+      }
+    }
+
+    private void rebuild(int newCapacity) {
+      ByteBuffer previous = slots;
+      int previousCapacity = capacity;
+      reset(newCapacity);
+      for (int slot = 0; slot < previousCapacity; slot++) {
+        long stored = previous.getLong(slot * SLOT_SIZE + 4);
+        if (stored != EMPTY && stored != REMOVED) {
+          insert(previous.getInt(slot * SLOT_SIZE), stored - 1);
+        }
+      }
+    }
+  }
+}
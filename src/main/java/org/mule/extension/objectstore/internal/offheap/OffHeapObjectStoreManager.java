@@ -0,0 +1,138 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.offheap;
+
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.api.store.ObjectStoreException;
+import org.mule.runtime.api.store.ObjectStoreManager;
+import org.mule.runtime.api.store.ObjectStoreSettings;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import org.slf4j.Logger;
+
+/**
+ * An {@link ObjectStoreManager} which creates {@link OffHeapObjectStore off-heap stores}, all of them sharing the
+ * memory of a single {@link SlabAllocator}.
+ * <p>
+ * Off-heap stores are always transient. Stores with a max number of entries or an entry TTL are expired on the given
+ * scheduler, every expiration interval.
+ *
+ * @since 2.0
+ */
+public class OffHeapObjectStoreManager implements ObjectStoreManager {
+
+  private static final Logger LOGGER = getLogger(OffHeapObjectStoreManager.class);
+
+  private final SlabAllocator allocator;
+  private final SerializationProtocol serializer;
+  private final ScheduledExecutorService scheduler;
+  private final Map<String, OffHeapObjectStore> stores = new ConcurrentHashMap<>();
+  private final Map<String, ScheduledFuture<?>> expirationTasks = new ConcurrentHashMap<>();
+
+  /**
+   * @param allocator  where to allocate the entries of all the stores
+   * @param serializer serializes the values
+   * @param scheduler  where to expire the entries
+   */
+  public OffHeapObjectStoreManager(SlabAllocator allocator, SerializationProtocol serializer,
+                                   ScheduledExecutorService scheduler) {
+    this.allocator = allocator;
+    this.serializer = serializer;
+    this.scheduler = scheduler;
+  }
+
+  @Override
+  public <T extends ObjectStore<? extends Serializable>> T getObjectStore(String name) {
+    OffHeapObjectStore store = stores.get(name);
+    if (store == null) {
+      throw new NoSuchElementException(format("ObjectStore '%s' doesn't exist", name));
+    }
+    return (T) store;
+  }
+
+  @Override
+  public <T extends ObjectStore<? extends Serializable>> T createObjectStore(String name, ObjectStoreSettings settings) {
+    if (stores.containsKey(name)) {
+      throw new IllegalArgumentException(format("ObjectStore '%s' already exists", name));
+    }
+    return getOrCreateObjectStore(name, settings);
+  }
+
+  @Override
+  public <T extends ObjectStore<? extends Serializable>> T getOrCreateObjectStore(String name, ObjectStoreSettings settings) {
+    return (T) stores.computeIfAbsent(name, key -> create(key, settings));
+  }
+
+  private OffHeapObjectStore create(String name, ObjectStoreSettings settings) {
+    if (settings.isPersistent()) {
+      LOGGER.warn(format("ObjectStore '%s' was requested as persistent, but off-heap stores are transient. "
+          + "Its entries will be lost when the application stops", name));
+    }
+
+    Integer maxEntries = settings.getMaxEntries().orElse(null);
+    Long entryTtl = settings.getEntryTTL().orElse(null);
+    OffHeapObjectStore store = new OffHeapObjectStore(name, allocator, serializer, maxEntries, entryTtl);
+
+    long interval = settings.getExpirationInterval();
+    if ((maxEntries != null || entryTtl != null) && interval > 0) {
+      expirationTasks.put(name, scheduler.scheduleWithFixedDelay(() -> expire(store), interval, interval, MILLISECONDS));
+    }
+    return store;
+  }
+
+  private void expire(OffHeapObjectStore store) {
+    try {
+      store.expire(currentTimeMillis());
+    } catch (Exception e) {
+      LOGGER.warn(format("Could not expire the entries of ObjectStore '%s'", store.getName()), e);
+    }
+  }
+
+  @Override
+  public void disposeStore(String name) throws ObjectStoreException {
+    ScheduledFuture<?> expirationTask = expirationTasks.remove(name);
+    if (expirationTask != null) {
+      expirationTask.cancel(false);
+    }
+
+    OffHeapObjectStore store = stores.remove(name);
+    if (store != null) {
+      store.clear();
+    }
+  }
+
+  /**
+   * Disposes all the stores, releasing their memory
+   */
+  public void dispose() {
+    for (String name : stores.keySet()) {
+      try {
+        disposeStore(name);
+      } catch (ObjectStoreException e) {
+        LOGGER.warn(format("Could not dispose ObjectStore '%s'", name), e);
+      }
+    }
+  }
+
+  /**
+   * @return the number of bytes taken by the entries of all the stores
+   */
+  public long getUsedBytes() {
+    return allocator.getUsedBytes();
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.offheap;
+
+import static org.mule.runtime.api.connection.ConnectionValidationResult.success;
+import static org.mule.runtime.api.meta.ExpressionSupport.NOT_SUPPORTED;
+import org.mule.runtime.api.connection.ConnectionException;
+import org.mule.runtime.api.connection.ConnectionProvider;
+import org.mule.runtime.api.connection.ConnectionValidationResult;
+import org.mule.runtime.api.lifecycle.Disposable;
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.api.scheduler.SchedulerService;
+import org.mule.runtime.api.serialization.ObjectSerializer;
+import org.mule.runtime.api.store.ObjectStoreManager;
+import org.mule.runtime.extension.api.annotation.Alias;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+
+import javax.inject.Inject;
+
+/**
+ * A {@link ConnectionProvider} which returns an {@link ObjectStoreManager} of {@link OffHeapObjectStore off-heap
+ * stores}. Their entries are kept in direct memory, so they don't add to the garbage collector's work no matter how
+ * large they grow.
+ * <p>
+ * All the stores which reference the same config share its memory. Their entries live until the application stops.
+ *
+ * @since 2.0
+ */
+@Alias("off-heap")
+public class OffHeapObjectStoreManagerProvider implements ConnectionProvider<ObjectStoreManager>, Disposable {
+
+  private static final long MEGABYTE = 1024 * 1024;
+
+  @Inject
+  private ObjectSerializer objectSerializer;
+
+  @Inject
+  private SchedulerService schedulerService;
+
+  /**
+   * The max amount of direct memory, in megabytes, to be taken by the entries of all the stores which reference this
+   * config. Once reached, storing new values fails.
+   */
+  @Parameter
+  @Optional(defaultValue = "256")
+  @Expression(NOT_SUPPORTED)
+  private long maxMemory;
+
+  /**
+   * The size of each block of direct memory, in megabytes. Memory is allocated one slab at a time, and no single entry
+   * can be larger than a slab.
+   */
+  @Parameter
+  @Optional(defaultValue = "1")
+  @Expression(NOT_SUPPORTED)
+  private int slabSize;
+
+  private OffHeapObjectStoreManager manager;
+  private Scheduler scheduler;
+
+  @Override
+  public synchronized ObjectStoreManager connect() throws ConnectionException {
+    if (manager == null) {
+      try {
+        SlabAllocator allocator = new SlabAllocator(maxMemory * MEGABYTE, (int) Math.min(Integer.MAX_VALUE, slabSize * MEGABYTE));
+        scheduler = schedulerService.ioScheduler();
+        manager = new OffHeapObjectStoreManager(allocator, objectSerializer.getInternalProtocol(), scheduler);
+      } catch (IllegalArgumentException e) {
+        throw new ConnectionException("Invalid off-heap ObjectStore settings", e);
+      }
+    }
+    return manager;
+  }
+
+  @Override
+  public void disconnect(ObjectStoreManager connection) {
+    // stores outlive each connection, until the application stops
+  }
+
+  @Override
+  public ConnectionValidationResult validate(ObjectStoreManager connection) {
+    return success();
+  }
+
+  @Override
+  public synchronized void dispose() {
+    if (manager != null) {
+      manager.dispose();
+      manager = null;
+    }
+    if (scheduler != null) {
+      scheduler.stop();
+      scheduler = null;
+    }
+  }
+}
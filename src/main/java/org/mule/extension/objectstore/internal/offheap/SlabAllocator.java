@@ -0,0 +1,175 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.offheap;
+
+import static java.lang.String.format;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import org.mule.runtime.api.store.ObjectStoreFullException;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hands out chunks of memory carved from direct {@link ByteBuffer} slabs, so that the data written to them is kept out
+ * of the Java heap.
+ * <p>
+ * Chunks come in size classes, each one about 25% larger than the previous, and a request is served from the smallest
+ * class which fits it. Slabs are allocated on demand, up to the configured max memory, and each slab is split into
+ * chunks of a single class the first time that class runs out of free chunks. Freed chunks are linked into a per class
+ * free list which is kept in the chunks themselves, so it takes no heap. Slabs are never returned to another class.
+ * <p>
+ * A chunk is referenced by its address, which combines the index of its slab and its offset within it. Allocating and
+ * freeing chunks is thread safe. Reading and writing them is not synchronized, callers are expected to coordinate
+ * access to each chunk.
+ *
+ * @since 2.0
+ */
+public class SlabAllocator {
+
+  /**
+   * The address which doesn't reference any chunk
+   */
+  public static final long NO_ADDRESS = -1;
+
+  private static final int MIN_CHUNK_SIZE = 64;
+  private static final double GROWTH_FACTOR = 1.25;
+
+  private final int slabSize;
+  private final int maxSlabs;
+  private final int[] chunkSizes;
+  private final long[] freeLists;
+  private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+  private long usedBytes = 0;
+
+  /**
+   * @param maxMemory the max number of bytes to allocate, in slabs
+   * @param slabSize  the size of each slab, which is also the max size of a chunk
+   */
+  public SlabAllocator(long maxMemory, int slabSize) {
+    if (slabSize < MIN_CHUNK_SIZE || maxMemory < slabSize) {
+      throw new IllegalArgumentException(format("The slab size must be at least %d bytes and no larger than the max memory",
+                                                MIN_CHUNK_SIZE));
+    }
+
+    this.slabSize = slabSize;
+    this.maxSlabs = (int) Math.min(Integer.MAX_VALUE, maxMemory / slabSize);
+    this.chunkSizes = chunkSizes(slabSize);
+    this.freeLists = new long[chunkSizes.length];
+    Arrays.fill(freeLists, NO_ADDRESS);
+  }
+
+  private static int[] chunkSizes(int slabSize) {
+    List<Integer> sizes = new ArrayList<>();
+    for (double size = MIN_CHUNK_SIZE; size < slabSize; size *= GROWTH_FACTOR) {
+      // aligned to 8 bytes
+      int aligned = ((int) Math.ceil(size) + 7) & ~7;
+      if (sizes.isEmpty() || aligned > sizes.get(sizes.size() - 1)) {
+        sizes.add(aligned);
+      }
+    }
+    if (sizes.get(sizes.size() - 1) < slabSize) {
+      sizes.add(slabSize);
+    }
+    return sizes.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * Allocates a chunk of at least {@code size} bytes
+   *
+   * @return the address of the chunk
+   * @throws ObjectStoreFullException if there is no free chunk large enough and no more slabs can be allocated
+   * @throws IllegalArgumentException if {@code size} exceeds the slab size
+   */
+  public synchronized long allocate(int size) throws ObjectStoreFullException {
+    int sizeClass = sizeClass(size);
+    if (freeLists[sizeClass] == NO_ADDRESS) {
+      carveSlab(sizeClass);
+    }
+
+    long address = freeLists[sizeClass];
+    freeLists[sizeClass] = slab(address).getLong(offset(address));
+    usedBytes += chunkSizes[sizeClass];
+    return address;
+  }
+
+  /**
+   * Returns the chunk at the given {@code address}, which was allocated for {@code size} bytes, to its free list
+   */
+  public synchronized void free(long address, int size) {
+    int sizeClass = sizeClass(size);
+    slab(address).putLong(offset(address), freeLists[sizeClass]);
+    freeLists[sizeClass] = address;
+    usedBytes -= chunkSizes[sizeClass];
+  }
+
+  private void carveSlab(int sizeClass) throws ObjectStoreFullException {
+    if (slabs.length >= maxSlabs) {
+      throw new ObjectStoreFullException(createStaticMessage(format(
+                                                                    "No off-heap memory left for a value of %d bytes. %d slabs of %d bytes are in use",
+                                                                    chunkSizes[sizeClass], slabs.length, slabSize)));
+    }
+
+    ByteBuffer slab = ByteBuffer.allocateDirect(slabSize);
+    int slabIndex = slabs.length;
+    ByteBuffer[] grown = Arrays.copyOf(slabs, slabIndex + 1);
+    grown[slabIndex] = slab;
+    slabs = grown;
+
+    int chunkSize = chunkSizes[sizeClass];
+    long next = freeLists[sizeClass];
+    for (int offset = (slabSize / chunkSize - 1) * chunkSize; offset >= 0; offset -= chunkSize) {
+      slab.putLong(offset, next);
+      next = address(slabIndex, offset);
+    }
+    freeLists[sizeClass] = next;
+  }
+
+  private int sizeClass(int size) {
+    if (size > slabSize) {
+      throw new IllegalArgumentException(format("Cannot allocate %d bytes, which exceeds the slab size of %d bytes", size,
+                                                slabSize));
+    }
+
+    int sizeClass = Arrays.binarySearch(chunkSizes, size);
+    return sizeClass >= 0 ? sizeClass : -sizeClass - 1;
+  }
+
+  /**
+   * @return a view of the slab which holds the given {@code address}, with its own position and limit
+   */
+  public ByteBuffer slab(long address) {
+    return slabs[(int) (address >>> 32)].duplicate();
+  }
+
+  public static int offset(long address) {
+    return (int) address;
+  }
+
+  private static long address(int slabIndex, int offset) {
+    return ((long) slabIndex << 32) | (offset & 0xFFFFFFFFL);
+  }
+
+  public int getSlabSize() {
+    return slabSize;
+  }
+
+  /**
+   * @return the number of bytes taken by allocated chunks
+   */
+  public synchronized long getUsedBytes() {
+    return usedBytes;
+  }
+
+  /**
+   * @return the number of bytes taken by slabs, whether their chunks are allocated or not
+   */
+  public synchronized long getReservedBytes() {
+    return (long) slabs.length * slabSize;
+  }
+}
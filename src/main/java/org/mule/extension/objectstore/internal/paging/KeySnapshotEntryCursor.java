@@ -0,0 +1,64 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.paging;
+
+import org.mule.extension.objectstore.api.ObjectStoreCursor;
+import org.mule.extension.objectstore.api.ObjectStoreEntry;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.api.store.ObjectStoreException;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * An {@link ObjectStoreCursor} for stores which can't provide one of their own. Only the keys are read upfront, values
+ * are fetched as each page is requested, so that no more than one page of values is held in memory at a time.
+ * <p>
+ * Keys which are removed after the snapshot was taken are skipped.
+ *
+ * @since 2.0
+ */
+public class KeySnapshotEntryCursor implements ObjectStoreCursor<ObjectStoreEntry> {
+
+  private final ObjectStore<Serializable> objectStore;
+  private Iterator<String> keys;
+
+  /**
+   * Creates a new instance
+   *
+   * @param objectStore the store to read the values from
+   * @param keys        the snapshot of keys to be read
+   * @param keyPrefix   only keys starting with this prefix are read. If {@code null}, all the keys are read
+   */
+  public KeySnapshotEntryCursor(ObjectStore<Serializable> objectStore, List<String> keys, String keyPrefix) {
+    this.objectStore = objectStore;
+    this.keys = keys.stream().filter(key -> keyPrefix == null || key.startsWith(keyPrefix)).iterator();
+  }
+
+  @Override
+  public List<ObjectStoreEntry> next(int maxItems) throws ObjectStoreException {
+    List<ObjectStoreEntry> page = new ArrayList<>(maxItems);
+    while (keys != null && keys.hasNext() && page.size() < maxItems) {
+      String key = keys.next();
+      try {
+        page.add(new ObjectStoreEntry(key, objectStore.retrieve(key)));
+      } catch (ObjectDoesNotExistException e) {
+        // removed after the snapshot was taken
+      }
+    }
+
+    return page;
+  }
+
+  @Override
+  public void close() {
+    keys = null;
+  }
+}
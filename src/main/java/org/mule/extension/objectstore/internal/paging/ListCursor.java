@@ -0,0 +1,46 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.paging;
+
+import org.mule.extension.objectstore.api.ObjectStoreCursor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link ObjectStoreCursor} over a snapshot which was already read into memory. Used for stores which can't provide
+ * a cursor of their own.
+ *
+ * @since 2.0
+ */
+public class ListCursor<T> implements ObjectStoreCursor<T> {
+
+  private List<T> items;
+  private int position = 0;
+
+  public ListCursor(List<T> items) {
+    this.items = items;
+  }
+
+  @Override
+  public List<T> next(int maxItems) {
+    if (items == null || position >= items.size()) {
+      return new ArrayList<>(0);
+    }
+
+    int end = Math.min(items.size(), position + maxItems);
+    List<T> page = new ArrayList<>(items.subList(position, end));
+    position = end;
+
+    return page;
+  }
+
+  @Override
+  public void close() {
+    items = null;
+  }
+}
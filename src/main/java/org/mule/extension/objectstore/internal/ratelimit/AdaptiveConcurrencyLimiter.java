@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.ratelimit;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import org.mule.extension.objectstore.internal.metrics.StoreMetrics;
+
+/**
+ * Limits how many calls to a store can be in flight at once, adapting the limit AIMD style: it grows by one for every
+ * limit's worth of successful calls, and is halved when the store reports it's throttling requests.
+ * <p>
+ * A burst of throttled calls which were all in flight at the time of the first one only halves the limit once.
+ *
+ * @since 2.0
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  private static final int MIN_LIMIT = 1;
+
+  private final int maxLimit;
+  private final long timeoutNanos;
+  private final StoreMetrics metrics;
+
+  private double limit;
+  private int inFlight = 0;
+  private long completions = 0;
+  private long nextDecreaseAt = 0;
+
+  /**
+   * Creates a new instance
+   *
+   * @param maxLimit      the initial and max number of concurrent calls
+   * @param timeoutMillis how long to wait for a call to be allowed
+   * @param metrics       where to publish the current limit and the rejected calls
+   */
+  public AdaptiveConcurrencyLimiter(int maxLimit, long timeoutMillis, StoreMetrics metrics) {
+    this.maxLimit = Math.max(MIN_LIMIT, maxLimit);
+    this.timeoutNanos = timeoutMillis * 1000000;
+    this.metrics = metrics;
+    this.limit = this.maxLimit;
+    metrics.setConcurrencyLimit(this.maxLimit);
+  }
+
+  /**
+   * Waits until a call can be performed. If {@code true} is returned, then {@link #release(boolean)} must be invoked
+   * once the call completes.
+   *
+   * @return whether the call can be performed. {@code false} if the timeout elapsed or the thread was interrupted
+   */
+  public synchronized boolean acquire() {
+    long deadline = nanoTime() + timeoutNanos;
+    while (inFlight >= (int) limit) {
+      long remaining = deadline - nanoTime();
+      if (remaining <= 0) {
+        metrics.recordClientThrottled();
+        return false;
+      }
+      try {
+        NANOSECONDS.timedWait(this, remaining);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+
+    inFlight++;
+    return true;
+  }
+
+  /**
+   * Signals the completion of a call allowed by {@link #acquire()}
+   *
+   * @param rateLimited whether the store rejected the call because of throttling
+   */
+  public synchronized void release(boolean rateLimited) {
+    inFlight--;
+    completions++;
+
+    if (rateLimited) {
+      if (completions >= nextDecreaseAt) {
+        limit = Math.max(MIN_LIMIT, limit / 2);
+        nextDecreaseAt = completions + inFlight + 1;
+      }
+    } else {
+      limit = Math.min(maxLimit, limit + 1 / limit);
+    }
+
+    metrics.setConcurrencyLimit((int) limit);
+    notifyAll();
+  }
+
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.ratelimit;
+
+import org.mule.extension.objectstore.internal.metrics.ObjectStoreMetrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+
+/**
+ * Holds one {@link AdaptiveConcurrencyLimiter} per store name.
+ * <p>
+ * Limiting is disabled unless the {@link #ENABLED_PROPERTY} system property is set to {@code true}. The initial and max
+ * limit and how long calls wait for it are set through the {@link #MAX_CONCURRENCY_PROPERTY} and
+ * {@link #TIMEOUT_PROPERTY} system properties.
+ *
+ * @since 2.0
+ */
+public class ConcurrencyLimiters {
+
+  public static final String ENABLED_PROPERTY = "mule.objectstore.adaptiveConcurrency";
+  public static final String MAX_CONCURRENCY_PROPERTY = "mule.objectstore.adaptiveConcurrency.max";
+  public static final String TIMEOUT_PROPERTY = "mule.objectstore.adaptiveConcurrency.timeoutMillis";
+
+  private static final int DEFAULT_MAX_CONCURRENCY = 64;
+  private static final long DEFAULT_TIMEOUT = 5000;
+
+  @Inject
+  private ObjectStoreMetrics metrics;
+
+  private final boolean enabled;
+  private final int maxConcurrency;
+  private final long timeoutMillis;
+  private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+  public ConcurrencyLimiters() {
+    this(Boolean.getBoolean(ENABLED_PROPERTY),
+         Integer.getInteger(MAX_CONCURRENCY_PROPERTY, DEFAULT_MAX_CONCURRENCY),
+         Long.getLong(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT));
+  }
+
+  public ConcurrencyLimiters(ObjectStoreMetrics metrics, boolean enabled, int maxConcurrency, long timeoutMillis) {
+    this(enabled, maxConcurrency, timeoutMillis);
+    this.metrics = metrics;
+  }
+
+  private ConcurrencyLimiters(boolean enabled, int maxConcurrency, long timeoutMillis) {
+    this.enabled = enabled;
+    this.maxConcurrency = maxConcurrency;
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  /**
+   * @return the limiter for the given store, or {@code null} if limiting is disabled
+   */
+  public AdaptiveConcurrencyLimiter forStore(String storeName) {
+    if (!enabled) {
+      return null;
+    }
+
+    AdaptiveConcurrencyLimiter limiter = limiters.get(storeName);
+    if (limiter != null) {
+      return limiter;
+    }
+
+    return limiters.computeIfAbsent(storeName,
+                                    name -> new AdaptiveConcurrencyLimiter(maxConcurrency, timeoutMillis,
+                                                                           metrics.forStore(name)));
+  }
+}
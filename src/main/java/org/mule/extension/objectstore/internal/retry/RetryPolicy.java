@@ -0,0 +1,100 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.retry;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How many times, and how often, a call to a store which is not available should be retried.
+ * <p>
+ * The wait before each retry is picked at random between zero and an exponentially growing backoff, capped at a max
+ * backoff. No retry is attempted once the deadline, counted from the first attempt, has elapsed.
+ *
+ * @since 2.0
+ */
+public final class RetryPolicy {
+
+  /**
+   * A policy which never retries
+   */
+  public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0, 0);
+
+  private static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 100;
+  private static final long DEFAULT_MAX_BACKOFF_MILLIS = 5000;
+
+  private final int maxAttempts;
+  private final long initialBackoffNanos;
+  private final long maxBackoffNanos;
+  private final long deadlineNanos;
+
+  private RetryPolicy(int maxAttempts, long initialBackoffNanos, long maxBackoffNanos, long deadlineNanos) {
+    this.maxAttempts = maxAttempts;
+    this.initialBackoffNanos = initialBackoffNanos;
+    this.maxBackoffNanos = maxBackoffNanos;
+    this.deadlineNanos = deadlineNanos;
+  }
+
+  /**
+   * Creates a new policy
+   *
+   * @param maxAttempts    the max number of attempts, the first one included. Values lower than 2 disable retries
+   * @param initialBackoff the backoff before the first retry. Defaults to 100 milliseconds if {@code null}
+   * @param maxBackoff     the max backoff between retries. Defaults to 5 seconds if {@code null}
+   * @param deadline       the max time to keep retrying for. Unbounded if {@code null} or not greater than zero
+   * @param unit           the {@link TimeUnit} which qualifies all the durations
+   */
+  public static RetryPolicy of(Integer maxAttempts, Long initialBackoff, Long maxBackoff, Long deadline, TimeUnit unit) {
+    if (maxAttempts == null || maxAttempts < 2) {
+      return NONE;
+    }
+
+    long initial = initialBackoff != null ? unit.toNanos(initialBackoff)
+        : TimeUnit.MILLISECONDS.toNanos(DEFAULT_INITIAL_BACKOFF_MILLIS);
+    long max = maxBackoff != null ? unit.toNanos(maxBackoff) : TimeUnit.MILLISECONDS.toNanos(DEFAULT_MAX_BACKOFF_MILLIS);
+
+    return new RetryPolicy(maxAttempts, Math.max(0, initial), Math.max(initial, max),
+                           deadline != null && deadline > 0 ? unit.toNanos(deadline) : 0);
+  }
+
+  /**
+   * @param attempt   the number of attempts performed so far
+   * @param startedAt the {@link System#nanoTime()} at which the first attempt started
+   * @param now       the current {@link System#nanoTime()}
+   * @return how long to wait before the next attempt, in nanoseconds, or a negative number if no retry should be
+   *         performed
+   */
+  public long nextBackoff(int attempt, long startedAt, long now) {
+    if (attempt >= maxAttempts) {
+      return -1;
+    }
+
+    long backoff = initialBackoffNanos << Math.min(attempt - 1, 30);
+    if (backoff < 0 || backoff > maxBackoffNanos) {
+      backoff = maxBackoffNanos;
+    }
+    backoff = backoff > 0 ? ThreadLocalRandom.current().nextLong(backoff + 1) : 0;
+
+    if (deadlineNanos > 0) {
+      long remaining = startedAt + deadlineNanos - now;
+      if (remaining <= 0) {
+        return -1;
+      }
+      backoff = Math.min(backoff, remaining);
+    }
+
+    return backoff;
+  }
+
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  public boolean isEnabled() {
+    return maxAttempts > 1;
+  }
+}
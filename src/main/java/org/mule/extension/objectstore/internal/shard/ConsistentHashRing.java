@@ -0,0 +1,83 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.shard;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Assigns keys to nodes through consistent hashing, so that adding a node only moves the keys which the new node takes
+ * over, about {@code 1 / nodes} of them, instead of reshuffling all of them.
+ * <p>
+ * Each node is placed on the ring at {@link #VIRTUAL_NODES} points derived from its id, which evens out the share of
+ * keys of each node. Keys and points are hashed with 64-bit FNV-1a, so assignments are stable across restarts and JVMs.
+ * <p>
+ * Instances are not thread safe.
+ *
+ * @param <T> the type of the nodes
+ * @since 2.0
+ */
+public class ConsistentHashRing<T> {
+
+  static final int VIRTUAL_NODES = 128;
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final TreeMap<Long, T> ring = new TreeMap<>();
+  private final List<T> nodes = new ArrayList<>();
+
+  /**
+   * Adds the given {@code node}
+   *
+   * @param id   identifies the node. Must be stable across restarts for keys to keep their node
+   * @param node the node
+   */
+  public void add(String id, T node) {
+    for (int i = 0; i < VIRTUAL_NODES; i++) {
+      ring.put(hash(id + "#" + i), node);
+    }
+    nodes.add(node);
+  }
+
+  /**
+   * @return the node which owns the given {@code key}
+   * @throws IllegalStateException if the ring has no nodes
+   */
+  public T get(String key) {
+    if (ring.isEmpty()) {
+      throw new IllegalStateException("The ring has no nodes");
+    }
+
+    Map.Entry<Long, T> owner = ring.ceilingEntry(hash(key));
+    return owner != null ? owner.getValue() : ring.firstEntry().getValue();
+  }
+
+  /**
+   * @return the nodes, in the order they were added
+   */
+  public List<T> getNodes() {
+    return nodes;
+  }
+
+  static long hash(String value) {
+    long hash = FNV_OFFSET_BASIS;
+    for (byte b : value.getBytes(UTF_8)) {
+      hash ^= b & 0xff;
+      hash *= FNV_PRIME;
+    }
+    // FNV-1a leaves similar inputs close to each other, spread them over the ring
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
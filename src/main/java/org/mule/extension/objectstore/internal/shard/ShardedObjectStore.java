@@ -0,0 +1,392 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.shard;
+
+import static java.lang.String.format;
+import static java.util.Collections.nCopies;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.slf4j.LoggerFactory.getLogger;
+import org.mule.extension.objectstore.api.BulkRetrieveObjectStore;
+import org.mule.extension.objectstore.api.UpsertObjectStore;
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.api.store.ObjectStoreException;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+
+/**
+ * A store which spreads its keys across several backing stores, its shards, through a {@link ConsistentHashRing}. Each
+ * key lives in a single shard, so the throughput, and any rate limit, of the shards add up.
+ * <p>
+ * Operations on a single key go to the shard which owns it. {@link #allKeys()}, {@link #retrieveAll()}, {@link #clear()}
+ * and {@link #retrieveMany(Collection)} fan out to every shard involved in parallel, on the given executor, and merge
+ * their results. The calling thread queries one of the shards itself, as well as any shard the executor has no room
+ * for.
+ * <p>
+ * When a shard is {@link #addShard(String, ObjectStore) added}, the keys it takes over are moved to it. While keys are
+ * being moved, reads and removals which miss the owning shard look for the key in the others too. Keys held by stores
+ * which are no longer part of the ring, such as dropped shards, are moved to their owners through
+ * {@link #drain(ObjectStore, Collection)}.
+ *
+ * @since 2.0
+ */
+public class ShardedObjectStore implements ObjectStore<Serializable>, UpsertObjectStore, BulkRetrieveObjectStore {
+
+  private static final Logger LOGGER = getLogger(ShardedObjectStore.class);
+
+  private final ExecutorService executor;
+  private final List<String> shardIds = new ArrayList<>();
+  private volatile ConsistentHashRing<ObjectStore<Serializable>> ring = new ConsistentHashRing<>();
+  private volatile boolean rebalancing = false;
+
+  /**
+   * @param shardIds the ids of the shards, which place them on the ring. Must be stable across restarts
+   * @param shards   the shards, in the same order as their ids
+   * @param executor where to run the calls which fan out to every shard
+   */
+  public ShardedObjectStore(List<String> shardIds, List<ObjectStore<Serializable>> shards, ExecutorService executor) {
+    if (shardIds.isEmpty() || shardIds.size() != shards.size()) {
+      throw new IllegalArgumentException("There must be at least one shard, and one id per shard");
+    }
+
+    this.executor = executor;
+    for (int i = 0; i < shards.size(); i++) {
+      this.shardIds.add(shardIds.get(i));
+      ring.add(shardIds.get(i), shards.get(i));
+    }
+  }
+
+  @Override
+  public boolean contains(String key) throws ObjectStoreException {
+    if (ring.get(key).contains(key)) {
+      return true;
+    }
+    if (rebalancing) {
+      for (ObjectStore<Serializable> shard : ring.getNodes()) {
+        if (shard.contains(key)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void store(String key, Serializable value) throws ObjectStoreException {
+    ring.get(key).store(key, value);
+  }
+
+  @Override
+  public void upsert(String key, Serializable value) throws ObjectStoreException {
+    upsert(ring.get(key), key, value);
+  }
+
+  @Override
+  public Serializable retrieve(String key) throws ObjectStoreException {
+    ObjectStore<Serializable> owner = ring.get(key);
+    try {
+      return owner.retrieve(key);
+    } catch (ObjectDoesNotExistException e) {
+      if (rebalancing) {
+        for (ObjectStore<Serializable> shard : ring.getNodes()) {
+          if (shard != owner && shard.contains(key)) {
+            return shard.retrieve(key);
+          }
+        }
+      }
+      throw e;
+    }
+  }
+
+  @Override
+  public Serializable remove(String key) throws ObjectStoreException {
+    ObjectStore<Serializable> owner = ring.get(key);
+    try {
+      return owner.remove(key);
+    } catch (ObjectDoesNotExistException e) {
+      if (rebalancing) {
+        for (ObjectStore<Serializable> shard : ring.getNodes()) {
+          if (shard != owner && shard.contains(key)) {
+            return shard.remove(key);
+          }
+        }
+      }
+      throw e;
+    }
+  }
+
+  @Override
+  public Map<String, Serializable> retrieveMany(Collection<String> keys) throws ObjectStoreException {
+    ConsistentHashRing<ObjectStore<Serializable>> current = ring;
+    Map<ObjectStore<Serializable>, List<String>> keysByShard = new IdentityHashMap<>();
+    for (String key : keys) {
+      keysByShard.computeIfAbsent(current.get(key), shard -> new ArrayList<>()).add(key);
+    }
+
+    Map<String, Serializable> values = new HashMap<>();
+    for (Map<String, Serializable> shardValues : fanOut(new ArrayList<>(keysByShard.keySet()),
+                                                         shard -> retrieveMany(shard, keysByShard.get(shard)))) {
+      values.putAll(shardValues);
+    }
+    return values;
+  }
+
+  @Override
+  public boolean isPersistent() {
+    return ring.getNodes().get(0).isPersistent();
+  }
+
+  @Override
+  public void clear() throws ObjectStoreException {
+    fanOut(ring.getNodes(), shard -> {
+      shard.clear();
+      return null;
+    });
+  }
+
+  @Override
+  public void open() throws ObjectStoreException {
+    for (ObjectStore<Serializable> shard : ring.getNodes()) {
+      shard.open();
+    }
+  }
+
+  @Override
+  public void close() throws ObjectStoreException {
+    for (ObjectStore<Serializable> shard : ring.getNodes()) {
+      shard.close();
+    }
+  }
+
+  @Override
+  public List<String> allKeys() throws ObjectStoreException {
+    List<String> keys = new ArrayList<>();
+    fanOut(ring.getNodes(), ObjectStore::allKeys).forEach(keys::addAll);
+    return keys;
+  }
+
+  @Override
+  public Map<String, Serializable> retrieveAll() throws ObjectStoreException {
+    Map<String, Serializable> values = new HashMap<>();
+    fanOut(ring.getNodes(), ObjectStore::retrieveAll).forEach(values::putAll);
+    return values;
+  }
+
+  /**
+   * Adds the given {@code shard}, and moves to it the keys which it now owns
+   *
+   * @param shardId the id of the shard, which places it on the ring. Must be stable across restarts
+   * @param shard   the shard to add
+   * @return the number of moved keys
+   */
+  public synchronized int addShard(String shardId, ObjectStore<Serializable> shard) throws ObjectStoreException {
+    ConsistentHashRing<ObjectStore<Serializable>> grown = new ConsistentHashRing<>();
+    List<ObjectStore<Serializable>> shards = ring.getNodes();
+    for (int i = 0; i < shards.size(); i++) {
+      grown.add(shardIds.get(i), shards.get(i));
+    }
+    grown.add(shardId, shard);
+
+    shardIds.add(shardId);
+    rebalancing = true;
+    ring = grown;
+    return rebalance();
+  }
+
+  /**
+   * Moves every key which is not in the shard which owns it to that shard. Needed when shards were added to a store
+   * which already held entries, for instance by raising its number of shards across a restart.
+   *
+   * @return the number of moved keys
+   */
+  public synchronized int rebalance() throws ObjectStoreException {
+    rebalancing = true;
+    try {
+      ConsistentHashRing<ObjectStore<Serializable>> current = ring;
+      int moved = 0;
+      for (ObjectStore<Serializable> shard : current.getNodes()) {
+        for (String key : shard.allKeys()) {
+          ObjectStore<Serializable> owner = current.get(key);
+          if (owner != shard && move(key, shard, owner)) {
+            moved++;
+          }
+        }
+      }
+      return moved;
+    } finally {
+      rebalancing = false;
+    }
+  }
+
+  /**
+   * Moves the given {@code keys} of {@code source}, a store which is not one of the shards, to the shards which own them.
+   * Needed when the shards replace a store which already held entries, or when shards were dropped.
+   *
+   * @return the number of moved keys
+   */
+  public synchronized int drain(ObjectStore<Serializable> source, Collection<String> keys) throws ObjectStoreException {
+    ConsistentHashRing<ObjectStore<Serializable>> current = ring;
+    int moved = 0;
+    for (String key : keys) {
+      if (move(key, source, current.get(key))) {
+        moved++;
+      }
+    }
+    return moved;
+  }
+
+  /**
+   * Moves the given {@code keys} of {@code source} to {@code target}. Needed when a sharded store goes back to a single
+   * store.
+   *
+   * @return the number of moved keys
+   */
+  public static int drain(ObjectStore<Serializable> source, Collection<String> keys, ObjectStore<Serializable> target)
+      throws ObjectStoreException {
+    int moved = 0;
+    for (String key : keys) {
+      if (move(key, source, target)) {
+        moved++;
+      }
+    }
+    return moved;
+  }
+
+  private static boolean move(String key, ObjectStore<Serializable> source, ObjectStore<Serializable> target)
+      throws ObjectStoreException {
+    Serializable value;
+    try {
+      value = source.retrieve(key);
+    } catch (ObjectDoesNotExistException e) {
+      // removed or expired meanwhile
+      return false;
+    }
+
+    try {
+      target.store(key, value);
+    } catch (ObjectAlreadyExistsException e) {
+      // written to its owner since the key was placed elsewhere, so that value is newer
+      LOGGER.debug(format("Key '%s' was already present on its shard, discarding its previous value", key));
+    }
+
+    try {
+      source.remove(key);
+    } catch (ObjectDoesNotExistException e) {
+      // removed or expired meanwhile
+    }
+    return true;
+  }
+
+  /**
+   * @return the shards, in the order they were added
+   */
+  public List<ObjectStore<Serializable>> getShards() {
+    return ring.getNodes();
+  }
+
+  private static void upsert(ObjectStore<Serializable> shard, String key, Serializable value) throws ObjectStoreException {
+    if (shard instanceof UpsertObjectStore) {
+      ((UpsertObjectStore) shard).upsert(key, value);
+      return;
+    }
+
+    try {
+      shard.store(key, value);
+    } catch (ObjectAlreadyExistsException e) {
+      try {
+        shard.remove(key);
+      } catch (ObjectDoesNotExistException notFound) {
+        // already gone, nothing to overwrite
+      }
+      shard.store(key, value);
+    }
+  }
+
+  private static Map<String, Serializable> retrieveMany(ObjectStore<Serializable> shard, List<String> keys)
+      throws ObjectStoreException {
+    if (shard instanceof BulkRetrieveObjectStore) {
+      return ((BulkRetrieveObjectStore) shard).retrieveMany(keys);
+    }
+
+    Map<String, Serializable> values = new HashMap<>();
+    for (String key : keys) {
+      try {
+        values.put(key, shard.retrieve(key));
+      } catch (ObjectDoesNotExistException e) {
+        // missing keys are not part of the result
+      }
+    }
+    return values;
+  }
+
+  private <R> List<R> fanOut(List<ObjectStore<Serializable>> shards, ShardCall<R> call) throws ObjectStoreException {
+    List<Future<R>> futures = new ArrayList<>(nCopies(shards.size(), null));
+    for (int i = 0; i < shards.size() - 1; i++) {
+      ObjectStore<Serializable> shard = shards.get(i);
+      try {
+        futures.set(i, executor.submit(() -> call.apply(shard)));
+      } catch (RejectedExecutionException e) {
+        // the executor is saturated, so the calling thread queries that shard too
+      }
+    }
+
+    List<R> results = new ArrayList<>(nCopies(shards.size(), null));
+    try {
+      for (int i = shards.size() - 1; i >= 0; i--) {
+        if (futures.get(i) == null) {
+          results.set(i, call.apply(shards.get(i)));
+        }
+      }
+      for (int i = 0; i < shards.size(); i++) {
+        if (futures.get(i) != null) {
+          results.set(i, futures.get(i).get());
+        }
+      }
+    } catch (ExecutionException e) {
+      cancel(futures);
+      if (e.getCause() instanceof ObjectStoreException) {
+        throw (ObjectStoreException) e.getCause();
+      }
+      throw new ObjectStoreException(createStaticMessage("Could not access a shard"), e.getCause());
+    } catch (InterruptedException e) {
+      cancel(futures);
+      Thread.currentThread().interrupt();
+      throw new ObjectStoreException(createStaticMessage("Interrupted while waiting for the shards"), e);
+    } catch (ObjectStoreException | RuntimeException e) {
+      cancel(futures);
+      throw e;
+    }
+    return results;
+  }
+
+  private static <R> void cancel(List<Future<R>> futures) {
+    for (Future<R> future : futures) {
+      if (future != null) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface ShardCall<R> {
+
+    R apply(ObjectStore<Serializable> shard) throws ObjectStoreException;
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.size;
+
+import static java.util.Collections.emptyList;
+import org.mule.extension.objectstore.api.VersionedValue;
+import org.mule.extension.objectstore.internal.expiry.ExpiringValue;
+import org.mule.runtime.api.metadata.TypedValue;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the estimated size of each entry of a store, in least recently used order, and decides which entries to evict
+ * so that their total size stays within a budget.
+ * <p>
+ * Only entries written while this tracker exists are accounted. Callers are expected to report every write, read and
+ * removal, and to remove the entries returned by {@link #written(String, long)} from the store.
+ *
+ * @since 2.0
+ */
+public class EntrySizeTracker {
+
+  /**
+   * The size assumed for values which cannot be serialized
+   */
+  static final long UNKNOWN_SIZE = 64;
+
+  private final long maxBytes;
+  private final Map<String, Long> sizes = new LinkedHashMap<>(16, 0.75f, true);
+  private long totalBytes = 0;
+
+  /**
+   * @param maxBytes the max total size of the entries. If lower or equal to zero, nothing is evicted
+   */
+  public EntrySizeTracker(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Records that the given {@code key} was written with a value of the given size, and picks the least recently used
+   * entries to evict if the total size exceeds the budget. The entry just written is never picked.
+   *
+   * @return the keys to evict, already discarded from this tracker
+   */
+  public synchronized List<String> written(String key, long size) {
+    Long previous = sizes.put(key, size);
+    totalBytes += size - (previous != null ? previous : 0);
+
+    if (maxBytes <= 0 || totalBytes <= maxBytes) {
+      return emptyList();
+    }
+
+    List<String> evicted = new ArrayList<>();
+    Iterator<Map.Entry<String, Long>> eldest = sizes.entrySet().iterator();
+    while (totalBytes > maxBytes && eldest.hasNext()) {
+      Map.Entry<String, Long> entry = eldest.next();
+      if (entry.getKey().equals(key)) {
+        break;
+      }
+      totalBytes -= entry.getValue();
+      evicted.add(entry.getKey());
+      eldest.remove();
+    }
+
+    return evicted;
+  }
+
+  /**
+   * Records that the given {@code key} was read
+   */
+  public synchronized void accessed(String key) {
+    sizes.get(key);
+  }
+
+  /**
+   * Records that the given {@code key} was removed
+   */
+  public synchronized void removed(String key) {
+    Long size = sizes.remove(key);
+    if (size != null) {
+      totalBytes -= size;
+    }
+  }
+
+  /**
+   * Records that all the entries were removed
+   */
+  public synchronized void cleared() {
+    sizes.clear();
+    totalBytes = 0;
+  }
+
+  /**
+   * @return the estimated total size of the tracked entries, in bytes
+   */
+  public synchronized long getTotalBytes() {
+    return totalBytes;
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * Estimates how many bytes the given {@code value} takes once serialized. Byte arrays, strings and numbers are
+   * estimated without serializing them. Typed, expiring and versioned values are estimated by their content.
+   *
+   * @param value a value
+   * @return its estimated size, in bytes
+   */
+  public static long estimate(Serializable value) {
+    if (value == null) {
+      return 0;
+    }
+    if (value instanceof TypedValue) {
+      Object content = ((TypedValue<?>) value).getValue();
+      return content instanceof Serializable ? estimate((Serializable) content) : UNKNOWN_SIZE;
+    }
+    if (value instanceof ExpiringValue) {
+      return estimate(((ExpiringValue) value).getValue()) + Long.BYTES;
+    }
+    if (value instanceof VersionedValue) {
+      return estimate(((VersionedValue) value).getValue()) + Long.BYTES;
+    }
+    if (value instanceof byte[]) {
+      return ((byte[]) value).length;
+    }
+    if (value instanceof String) {
+      return ((String) value).length();
+    }
+    if (value instanceof Number) {
+      return Long.BYTES;
+    }
+
+    CountingOutputStream counter = new CountingOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(counter)) {
+      out.writeObject(value);
+    } catch (IOException e) {
+      return UNKNOWN_SIZE;
+    }
+    return counter.count;
+  }
+
+  private static final class CountingOutputStream extends OutputStream {
+
+    private long count = 0;
+
+    @Override
+    public void write(int b) {
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      count += len;
+    }
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.tiered;
+
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import org.mule.extension.objectstore.api.UpsertObjectStore;
+import org.mule.extension.objectstore.internal.journal.JournalObjectStore;
+import org.mule.extension.objectstore.internal.metrics.StoreMetrics;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.api.store.ObjectStoreException;
+import org.mule.runtime.api.store.ObjectStoreFullException;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A store with a bounded, in heap memory tier in front of a {@link JournalObjectStore disk tier}.
+ * <p>
+ * The disk tier holds every entry, the memory tier only the most recently used ones. Writes go through to both tiers,
+ * and reads which miss the memory tier promote the entry into it, evicting the least recently used one if full. Writes
+ * to the same key are serialized, so both tiers see them in the same order. Like the near cache, promotions are
+ * discarded if any write happened while the entry was read from disk, so they never resurrect an overwritten value.
+ * <p>
+ * The disk tier is bounded in bytes. Once its live entries reach that size, writes are rejected until entries are
+ * removed.
+ *
+ * @since 2.0
+ */
+public class TieredObjectStore implements ObjectStore<Serializable>, UpsertObjectStore {
+
+  private static final int WRITE_STRIPES = 64;
+
+  private final String name;
+  private final JournalObjectStore disk;
+  private final long maxDiskBytes;
+  private final Long entryTtl;
+  private final StoreMetrics metrics;
+  private final Map<String, MemoryEntry> memory;
+  private final Object[] writeLocks = new Object[WRITE_STRIPES];
+  private long generation = 0;
+
+  /**
+   * @param name              the name of the store
+   * @param maxMemoryEntries  the max number of entries to keep in memory
+   * @param disk              the disk tier
+   * @param maxDiskBytes      the max number of bytes to be taken by the live entries of the disk tier, or 0 for no
+   *                          bounds
+   * @param entryTtl          for how long each entry is kept, in milliseconds, or {@code null} for no time bounds
+   * @param metrics           where to record the hits and misses of each tier
+   */
+  public TieredObjectStore(String name, int maxMemoryEntries, JournalObjectStore disk, long maxDiskBytes, Long entryTtl,
+                           StoreMetrics metrics) {
+    this.name = name;
+    this.disk = disk;
+    this.maxDiskBytes = maxDiskBytes;
+    this.entryTtl = entryTtl != null && entryTtl > 0 ? entryTtl : null;
+    this.metrics = metrics;
+    this.memory = new LinkedHashMap<String, MemoryEntry>(16, 0.75f, true) {
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, MemoryEntry> eldest) {
+        return size() > maxMemoryEntries;
+      }
+    };
+    for (int i = 0; i < WRITE_STRIPES; i++) {
+      writeLocks[i] = new Object();
+    }
+  }
+
+  @Override
+  public boolean contains(String key) throws ObjectStoreException {
+    return fromMemory(key) != null || disk.contains(key);
+  }
+
+  @Override
+  public void store(String key, Serializable value) throws ObjectStoreException {
+    synchronized (writeLock(key)) {
+      checkDiskBudget(key);
+      disk.store(key, value);
+      toMemory(key, value, currentTimeMillis());
+    }
+  }
+
+  @Override
+  public void upsert(String key, Serializable value) throws ObjectStoreException {
+    synchronized (writeLock(key)) {
+      checkDiskBudget(key);
+      disk.upsert(key, value);
+      toMemory(key, value, currentTimeMillis());
+    }
+  }
+
+  @Override
+  public Serializable retrieve(String key) throws ObjectStoreException {
+    Serializable value = fromMemory(key);
+    if (value != null) {
+      metrics.recordMemoryTierHit();
+      return value;
+    }
+
+    long observedGeneration = generation();
+    try {
+      value = disk.retrieve(key);
+    } catch (ObjectDoesNotExistException e) {
+      metrics.recordDiskTierMiss();
+      throw e;
+    }
+
+    metrics.recordDiskTierHit();
+    promote(key, value, disk.getStoredAt(key), observedGeneration);
+    return value;
+  }
+
+  @Override
+  public Serializable remove(String key) throws ObjectStoreException {
+    synchronized (writeLock(key)) {
+      try {
+        return disk.remove(key);
+      } finally {
+        // only once the disk tier no longer has it, so that concurrent promotions can't bring it back
+        invalidate(key);
+      }
+    }
+  }
+
+  @Override
+  public boolean isPersistent() {
+    return disk.isPersistent();
+  }
+
+  @Override
+  public void clear() throws ObjectStoreException {
+    disk.clear();
+    synchronized (memory) {
+      generation++;
+      memory.clear();
+    }
+  }
+
+  @Override
+  public void open() throws ObjectStoreException {
+    // the disk tier is opened by the manager
+  }
+
+  @Override
+  public void close() throws ObjectStoreException {
+    // entries are kept until the store is disposed through its manager
+  }
+
+  @Override
+  public List<String> allKeys() throws ObjectStoreException {
+    return disk.allKeys();
+  }
+
+  @Override
+  public Map<String, Serializable> retrieveAll() throws ObjectStoreException {
+    return disk.retrieveAll();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  JournalObjectStore getDisk() {
+    return disk;
+  }
+
+  /**
+   * @return the number of entries in the memory tier
+   */
+  public int getMemorySize() {
+    synchronized (memory) {
+      return memory.size();
+    }
+  }
+
+  private void checkDiskBudget(String key) throws ObjectStoreFullException {
+    if (maxDiskBytes > 0 && disk.getLiveBytes() >= maxDiskBytes) {
+      throw new ObjectStoreFullException(createStaticMessage(format(
+                                                                    "Cannot write key '%s'. The disk tier of ObjectStore '%s' reached its max size of %d bytes",
+                                                                    key, name, maxDiskBytes)));
+    }
+  }
+
+  private Serializable fromMemory(String key) {
+    synchronized (memory) {
+      MemoryEntry entry = memory.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (entryTtl != null && currentTimeMillis() - entry.storedAt >= entryTtl) {
+        memory.remove(key);
+        return null;
+      }
+      return entry.value;
+    }
+  }
+
+  private void toMemory(String key, Serializable value, long storedAt) {
+    synchronized (memory) {
+      generation++;
+      memory.put(key, new MemoryEntry(value, storedAt));
+    }
+  }
+
+  private void promote(String key, Serializable value, long storedAt, long observedGeneration) {
+    synchronized (memory) {
+      if (storedAt >= 0 && observedGeneration == generation) {
+        memory.put(key, new MemoryEntry(value, storedAt));
+      }
+    }
+  }
+
+  private void invalidate(String key) {
+    synchronized (memory) {
+      generation++;
+      memory.remove(key);
+    }
+  }
+
+  private long generation() {
+    synchronized (memory) {
+      return generation;
+    }
+  }
+
+  private Object writeLock(String key) {
+    return writeLocks[(key.hashCode() & Integer.MAX_VALUE) % WRITE_STRIPES];
+  }
+
+  private static final class MemoryEntry {
+
+    private final Serializable value;
+    private final long storedAt;
+
+    private MemoryEntry(Serializable value, long storedAt) {
+      this.value = value;
+      this.storedAt = storedAt;
+    }
+  }
+}
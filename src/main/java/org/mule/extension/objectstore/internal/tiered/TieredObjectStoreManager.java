@@ -0,0 +1,105 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.tiered;
+
+import static java.lang.String.format;
+import org.mule.extension.objectstore.internal.journal.JournalObjectStore;
+import org.mule.extension.objectstore.internal.journal.JournalObjectStoreManager;
+import org.mule.extension.objectstore.internal.metrics.ObjectStoreMetrics;
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.api.store.ObjectStoreException;
+import org.mule.runtime.api.store.ObjectStoreManager;
+import org.mule.runtime.api.store.ObjectStoreSettings;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An {@link ObjectStoreManager} which creates {@link TieredObjectStore tiered stores}, keeping their disk tiers in the
+ * stores of a {@link JournalObjectStoreManager}.
+ * <p>
+ * The max number of entries of each store bounds its memory tier rather than the whole store, and defaults to the one
+ * of this manager. The disk tier is bounded in bytes instead, and is expired on its own.
+ *
+ * @since 2.0
+ */
+public class TieredObjectStoreManager implements ObjectStoreManager {
+
+  private final JournalObjectStoreManager diskTier;
+  private final int defaultMemoryEntries;
+  private final long maxDiskBytes;
+  private final ObjectStoreMetrics metrics;
+  private final Map<String, TieredObjectStore> stores = new ConcurrentHashMap<>();
+
+  /**
+   * @param diskTier             creates the disk tier of each store
+   * @param defaultMemoryEntries the max number of entries to keep in memory, for stores which don't set their own
+   * @param maxDiskBytes         the max number of bytes to be taken by the disk tier of each store, or 0 for no bounds
+   * @param metrics              where to record the hits and misses of each tier
+   */
+  public TieredObjectStoreManager(JournalObjectStoreManager diskTier, int defaultMemoryEntries, long maxDiskBytes,
+                                  ObjectStoreMetrics metrics) {
+    this.diskTier = diskTier;
+    this.defaultMemoryEntries = defaultMemoryEntries;
+    this.maxDiskBytes = maxDiskBytes;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public <T extends ObjectStore<? extends Serializable>> T getObjectStore(String name) {
+    TieredObjectStore store = stores.get(name);
+    if (store == null) {
+      throw new NoSuchElementException(format("ObjectStore '%s' doesn't exist", name));
+    }
+    return (T) store;
+  }
+
+  @Override
+  public <T extends ObjectStore<? extends Serializable>> T createObjectStore(String name, ObjectStoreSettings settings) {
+    if (stores.containsKey(name)) {
+      throw new IllegalArgumentException(format("ObjectStore '%s' already exists", name));
+    }
+    return getOrCreateObjectStore(name, settings);
+  }
+
+  @Override
+  public <T extends ObjectStore<? extends Serializable>> T getOrCreateObjectStore(String name, ObjectStoreSettings settings) {
+    return (T) stores.computeIfAbsent(name, key -> create(key, settings));
+  }
+
+  private TieredObjectStore create(String name, ObjectStoreSettings settings) {
+    // the max entries only bound the memory tier, so they are left out of the settings of the disk tier
+    ObjectStoreSettings.Builder diskSettings = ObjectStoreSettings.builder()
+        .persistent(settings.isPersistent())
+        .expirationInterval(settings.getExpirationInterval());
+    settings.getEntryTTL().ifPresent(diskSettings::entryTtl);
+
+    JournalObjectStore disk = diskTier.getOrCreateObjectStore(name, diskSettings.build());
+    int memoryEntries = settings.getMaxEntries().filter(maxEntries -> maxEntries >= 0).orElse(defaultMemoryEntries);
+    return new TieredObjectStore(name, memoryEntries, disk, maxDiskBytes, settings.getEntryTTL().orElse(null),
+                                 metrics.forStore(name));
+  }
+
+  @Override
+  public void disposeStore(String name) throws ObjectStoreException {
+    TieredObjectStore store = stores.remove(name);
+    if (store != null) {
+      store.clear();
+    }
+    diskTier.disposeStore(name);
+  }
+
+  /**
+   * Disposes the disk tiers. Their entries are kept.
+   */
+  public void dispose() {
+    stores.clear();
+    diskTier.dispose();
+  }
+}
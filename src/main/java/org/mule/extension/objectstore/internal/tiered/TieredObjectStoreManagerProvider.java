@@ -0,0 +1,130 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.tiered;
+
+import static org.mule.runtime.api.connection.ConnectionValidationResult.success;
+import static org.mule.runtime.api.meta.ExpressionSupport.NOT_SUPPORTED;
+import org.mule.extension.objectstore.internal.journal.JournalObjectStoreManager;
+import org.mule.extension.objectstore.internal.metrics.ObjectStoreMetrics;
+import org.mule.runtime.api.connection.ConnectionException;
+import org.mule.runtime.api.connection.ConnectionProvider;
+import org.mule.runtime.api.connection.ConnectionValidationResult;
+import org.mule.runtime.api.lifecycle.Disposable;
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.api.scheduler.SchedulerService;
+import org.mule.runtime.api.serialization.ObjectSerializer;
+import org.mule.runtime.api.store.ObjectStoreManager;
+import org.mule.runtime.extension.api.annotation.Alias;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+
+import java.io.File;
+
+import javax.inject.Inject;
+
+/**
+ * A {@link ConnectionProvider} which returns an {@link ObjectStoreManager} of {@link TieredObjectStore tiered stores}:
+ * hot entries are served from a bounded in heap tier, while every entry is kept in a journal on local disk.
+ * <p>
+ * The {@code maxEntries} of each store bound its memory tier, and the {@link #maxDiskSize} its disk tier.
+ *
+ * @since 2.0
+ */
+@Alias("tiered")
+public class TieredObjectStoreManagerProvider implements ConnectionProvider<ObjectStoreManager>, Disposable {
+
+  private static final long MEGABYTE = 1024 * 1024;
+
+  @Inject
+  private ObjectSerializer objectSerializer;
+
+  @Inject
+  private SchedulerService schedulerService;
+
+  @Inject
+  private ObjectStoreMetrics metrics;
+
+  /**
+   * The directory in which to keep the disk tiers. Each store gets its own subdirectory.
+   */
+  @Parameter
+  @Expression(NOT_SUPPORTED)
+  private String directory;
+
+  /**
+   * The max number of entries to keep in the memory tier of stores which don't set their own {@code maxEntries}.
+   */
+  @Parameter
+  @Optional(defaultValue = "1000")
+  @Expression(NOT_SUPPORTED)
+  private int maxMemoryEntries;
+
+  /**
+   * The max size, in megabytes, of the disk tier of each store. Once reached, writes are rejected. 0 means unbounded.
+   */
+  @Parameter
+  @Optional(defaultValue = "1024")
+  @Expression(NOT_SUPPORTED)
+  private long maxDiskSize;
+
+  /**
+   * The size of each file of the disk tier, in megabytes. No single entry can be larger than a file.
+   */
+  @Parameter
+  @Optional(defaultValue = "64")
+  @Expression(NOT_SUPPORTED)
+  private int segmentSize;
+
+  /**
+   * How often, in seconds, to reclaim the disk space taken by overwritten and removed entries. 0 disables compaction.
+   */
+  @Parameter
+  @Optional(defaultValue = "60")
+  @Expression(NOT_SUPPORTED)
+  private long compactionInterval;
+
+  private TieredObjectStoreManager manager;
+  private Scheduler scheduler;
+
+  @Override
+  public synchronized ObjectStoreManager connect() throws ConnectionException {
+    if (manager == null) {
+      if (segmentSize <= 0 || segmentSize * MEGABYTE > Integer.MAX_VALUE) {
+        throw new ConnectionException("The segment size must be between 1 and 2047 megabytes");
+      }
+      scheduler = schedulerService.ioScheduler();
+      JournalObjectStoreManager diskTier =
+          new JournalObjectStoreManager(new File(directory), (int) (segmentSize * MEGABYTE), 0, compactionInterval * 1000,
+                                        objectSerializer.getInternalProtocol(), scheduler);
+      manager = new TieredObjectStoreManager(diskTier, maxMemoryEntries, maxDiskSize * MEGABYTE, metrics);
+    }
+    return manager;
+  }
+
+  @Override
+  public void disconnect(ObjectStoreManager connection) {
+    // stores outlive each connection, until the application stops
+  }
+
+  @Override
+  public ConnectionValidationResult validate(ObjectStoreManager connection) {
+    return success();
+  }
+
+  @Override
+  public synchronized void dispose() {
+    if (manager != null) {
+      manager.dispose();
+      manager = null;
+    }
+    if (scheduler != null) {
+      scheduler.stop();
+      scheduler = null;
+    }
+  }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.version;
+
+import static java.lang.System.currentTimeMillis;
+import org.mule.extension.objectstore.api.BulkRetrieveObjectStore;
+import org.mule.extension.objectstore.api.CursorObjectStore;
+import org.mule.extension.objectstore.api.ObjectStoreCursor;
+import org.mule.extension.objectstore.api.ObjectStoreEntry;
+import org.mule.extension.objectstore.api.UpsertObjectStore;
+import org.mule.extension.objectstore.api.VersionedObjectStore;
+import org.mule.extension.objectstore.api.VersionedValue;
+import org.mule.extension.objectstore.internal.paging.KeySnapshotEntryCursor;
+import org.mule.extension.objectstore.internal.paging.ListCursor;
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.api.store.ObjectStoreException;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adds versioning on top of a store which doesn't support it, by storing each value as a {@link VersionedValue}.
+ * Values read through this store are returned without their version, unless {@link #retrieveWithVersion(String)} is
+ * used. Values written to the underlying store by other means are considered to be on version {@code 0}.
+ * <p>
+ * New keys start on a version derived from the clock, which is greater than any version a removed key with the same
+ * name could have reached, so that a compare and set which read the removed value can't succeed on the new one.
+ * <p>
+ * Computing the next version requires reading the current one. Hence, writes and compare and set calls are only atomic
+ * if the caller holds the key lock.
+ *
+ * @since 2.0
+ */
+public class VersioningObjectStore
+    implements ObjectStore<Serializable>, VersionedObjectStore, UpsertObjectStore, BulkRetrieveObjectStore, CursorObjectStore {
+
+  // a version can't grow faster than one per nanosecond, so these are ahead of any version reached before
+  private static final long VERSIONS_PER_MILLISECOND = 1_000_000;
+
+  private final ObjectStore<Serializable> delegate;
+  private final AtomicLong lastInitialVersion = new AtomicLong();
+
+  public VersioningObjectStore(ObjectStore<Serializable> delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public VersionedValue retrieveWithVersion(String key) throws ObjectStoreException {
+    return asVersioned(delegate.retrieve(key));
+  }
+
+  @Override
+  public boolean compareAndSet(String key, Serializable value, Long expectedVersion) throws ObjectStoreException {
+    if (expectedVersion == null) {
+      try {
+        delegate.store(key, new VersionedValue(value, initialVersion()));
+        return true;
+      } catch (ObjectAlreadyExistsException e) {
+        return false;
+      }
+    }
+
+    VersionedValue current = retrieveCurrent(key);
+    if (current == null || current.getVersion() != expectedVersion) {
+      return false;
+    }
+
+    overwrite(key, new VersionedValue(value, expectedVersion + 1));
+    return true;
+  }
+
+  @Override
+  public void store(String key, Serializable value) throws ObjectStoreException {
+    delegate.store(key, new VersionedValue(value, initialVersion()));
+  }
+
+  @Override
+  public void upsert(String key, Serializable value) throws ObjectStoreException {
+    VersionedValue current = retrieveCurrent(key);
+    VersionedValue next = new VersionedValue(value, current != null ? current.getVersion() + 1 : initialVersion());
+    if (current == null && !(delegate instanceof UpsertObjectStore)) {
+      try {
+        delegate.store(key, next);
+        return;
+      } catch (ObjectAlreadyExistsException e) {
+        // stored concurrently by someone who doesn't honour the key lock. Overwrite it below
+      }
+    }
+
+    overwrite(key, next);
+  }
+
+  @Override
+  public Serializable retrieve(String key) throws ObjectStoreException {
+    return unwrap(delegate.retrieve(key));
+  }
+
+  @Override
+  public Map<String, Serializable> retrieveMany(Collection<String> keys) throws ObjectStoreException {
+    Map<String, Serializable> values = new HashMap<>();
+    if (delegate instanceof BulkRetrieveObjectStore) {
+      ((BulkRetrieveObjectStore) delegate).retrieveMany(keys).forEach((key, value) -> values.put(key, unwrap(value)));
+      return values;
+    }
+
+    for (String key : keys) {
+      try {
+        values.put(key, retrieve(key));
+      } catch (ObjectDoesNotExistException e) {
+        // missing keys are not part of the result
+      }
+    }
+
+    return values;
+  }
+
+  @Override
+  public Serializable remove(String key) throws ObjectStoreException {
+    return unwrap(delegate.remove(key));
+  }
+
+  @Override
+  public boolean contains(String key) throws ObjectStoreException {
+    return delegate.contains(key);
+  }
+
+  @Override
+  public boolean isPersistent() {
+    return delegate.isPersistent();
+  }
+
+  @Override
+  public void clear() throws ObjectStoreException {
+    delegate.clear();
+  }
+
+  @Override
+  public void open() throws ObjectStoreException {
+    delegate.open();
+  }
+
+  @Override
+  public void close() throws ObjectStoreException {
+    delegate.close();
+  }
+
+  @Override
+  public List<String> allKeys() throws ObjectStoreException {
+    return delegate.allKeys();
+  }
+
+  @Override
+  public Map<String, Serializable> retrieveAll() throws ObjectStoreException {
+    Map<String, Serializable> values = new HashMap<>();
+    delegate.retrieveAll().forEach((key, value) -> values.put(key, unwrap(value)));
+    return values;
+  }
+
+  @Override
+  public ObjectStoreCursor<String> openKeyCursor() throws ObjectStoreException {
+    if (delegate instanceof CursorObjectStore) {
+      return ((CursorObjectStore) delegate).openKeyCursor();
+    }
+
+    return new ListCursor<>(delegate.allKeys());
+  }
+
+  @Override
+  public ObjectStoreCursor<ObjectStoreEntry> openEntryCursor(String keyPrefix) throws ObjectStoreException {
+    ObjectStoreCursor<ObjectStoreEntry> cursor = delegate instanceof CursorObjectStore
+        ? ((CursorObjectStore) delegate).openEntryCursor(keyPrefix)
+        : new KeySnapshotEntryCursor(delegate, delegate.allKeys(), keyPrefix);
+
+    return new ObjectStoreCursor<ObjectStoreEntry>() {
+
+      @Override
+      public List<ObjectStoreEntry> next(int maxItems) throws ObjectStoreException {
+        List<ObjectStoreEntry> page = cursor.next(maxItems);
+        List<ObjectStoreEntry> unwrapped = new ArrayList<>(page.size());
+        page.forEach(entry -> unwrapped.add(new ObjectStoreEntry(entry.getKey(), unwrap(entry.getValue()))));
+        return unwrapped;
+      }
+
+      @Override
+      public void close() {
+        cursor.close();
+      }
+    };
+  }
+
+  /**
+   * @return the current value of the {@code key}, or {@code null} if there is none
+   */
+  private VersionedValue retrieveCurrent(String key) throws ObjectStoreException {
+    try {
+      return asVersioned(delegate.retrieve(key));
+    } catch (ObjectDoesNotExistException e) {
+      return null;
+    }
+  }
+
+  private void overwrite(String key, VersionedValue value) throws ObjectStoreException {
+    if (delegate instanceof UpsertObjectStore) {
+      ((UpsertObjectStore) delegate).upsert(key, value);
+      return;
+    }
+
+    try {
+      delegate.remove(key);
+    } catch (ObjectDoesNotExistException e) {
+      // nothing to overwrite
+    }
+    delegate.store(key, value);
+  }
+
+  private long initialVersion() {
+    long fromClock = currentTimeMillis() * VERSIONS_PER_MILLISECOND;
+    return lastInitialVersion.updateAndGet(last -> Math.max(last + 1, fromClock));
+  }
+
+  private static VersionedValue asVersioned(Serializable stored) {
+    return stored instanceof VersionedValue ? (VersionedValue) stored : new VersionedValue(stored, 0);
+  }
+
+  private static Serializable unwrap(Serializable stored) {
+    return stored instanceof VersionedValue ? ((VersionedValue) stored).getValue() : stored;
+  }
+}
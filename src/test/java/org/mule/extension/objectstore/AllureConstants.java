@@ -15,10 +15,14 @@ public interface AllureConstants {
     interface ObjectStoreStory {
 
       String STORE = "Store";
+      String STORE_ALL = "Store All";
       String RETRIEVE = "Retrieve";
+      String RETRIEVE_MANY = "Retrieve Many";
       String REMOVE = "Remove";
       String CONTAINS = "Contains";
       String CLEAR = "Clear";
+      String INCREMENT = "Increment";
+      String COMPARE_AND_SET = "Compare and Set";
       String RETRIEVE_ALL = "Retrieve All";
       String RETRIEVE_ALL_KEYS = "Retrieve All Keys";
       String IMPLICIT_STORE = "Use default partition as Implicit Store";
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.integration;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertThat;
+import static org.mule.extension.objectstore.AllureConstants.ObjectStoreFeature.OS_CONNECTOR;
+import static org.mule.extension.objectstore.AllureConstants.ObjectStoreFeature.ObjectStoreStory.COMPARE_AND_SET;
+import org.mule.extension.objectstore.api.VersionAttributes;
+import org.mule.runtime.api.message.Message;
+
+import io.qameta.allure.Description;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Story;
+import org.junit.Test;
+
+@Feature(OS_CONNECTOR)
+@Story(COMPARE_AND_SET)
+public class CompareAndSetTestCase extends AbstractObjectStoreTestCase {
+
+  @Override
+  protected String getConfigFile() {
+    return "versioning-config.xml";
+  }
+
+  @Test
+  @Description("A value is only created if the key doesn't exist yet")
+  public void createIfAbsent() throws Exception {
+    assertThat(compareAndSet(TEST_VALUE, null), is(true));
+    assertThat(compareAndSet("Some other value", null), is(false));
+
+    Message message = retrieveWithVersion();
+    assertThat(message.getPayload().getValue(), equalTo(TEST_VALUE));
+    assertThat(((VersionAttributes) message.getAttributes().getValue()).getVersion(), greaterThan(0L));
+  }
+
+  @Test
+  @Description("A value is only updated if nobody else did since it was read")
+  public void updateIfVersionMatches() throws Exception {
+    compareAndSet(TEST_VALUE, null);
+    long version = ((VersionAttributes) retrieveWithVersion().getAttributes().getValue()).getVersion();
+
+    assertThat(compareAndSet("First update", version), is(true));
+    assertThat(compareAndSet("Concurrent update", version), is(false));
+
+    Message message = retrieveWithVersion();
+    assertThat(message.getPayload().getValue(), equalTo("First update"));
+    assertThat(((VersionAttributes) message.getAttributes().getValue()).getVersion(), is(version + 1));
+  }
+
+  @Test
+  @Description("Verify that KEY_NOT_FOUND error is thrown when retrieving a missing key")
+  public void retrieveMissingKey() throws Exception {
+    assertThat(retrieveWithVersion().getPayload().getValue(), equalTo("KEY_NOT_FOUND"));
+  }
+
+  @Test
+  @Description("Stores which are not versioned reject compare and set")
+  public void unversionedStore() throws Exception {
+    assertThat(flowRunner("compareAndSetUnversioned").withVariable("key", KEY).withPayload(TEST_VALUE).run()
+        .getMessage().getPayload().getValue(), equalTo("NOT_VERSIONED"));
+  }
+
+  private boolean compareAndSet(Object value, Long expectedVersion) throws Exception {
+    return (Boolean) flowRunner("compareAndSet")
+        .withVariable("key", KEY)
+        .withVariable("version", expectedVersion)
+        .withPayload(value)
+        .run().getMessage().getPayload().getValue();
+  }
+
+  private Message retrieveWithVersion() throws Exception {
+    return flowRunner("retrieveWithVersion").withVariable("key", KEY).run().getMessage();
+  }
+}
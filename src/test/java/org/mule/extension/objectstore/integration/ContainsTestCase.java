@@ -39,4 +39,11 @@ public class ContainsTestCase extends ParameterizedObjectStoreTestCase {
     assertThat(event.getMessage().getPayload().getValue(), equalTo(true));
     assertThat(getObjectStore().contains(KEY), is(true));
   }
+
+  @Test
+  @Description("Checks the existence of a given key without acquiring the key lock")
+  public void containsUnlocked() throws Exception {
+    CoreEvent event = flowRunner("containsUnlocked").withPayload(TEST_VALUE).withVariable("key", KEY).run();
+    assertThat(event.getMessage().getPayload().getValue(), equalTo(true));
+  }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.integration;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mule.extension.objectstore.AllureConstants.ObjectStoreFeature.OS_CONNECTOR;
+import static org.mule.extension.objectstore.AllureConstants.ObjectStoreFeature.ObjectStoreStory.INCREMENT;
+
+import io.qameta.allure.Description;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Story;
+import org.junit.Test;
+
+@Feature(OS_CONNECTOR)
+@Story(INCREMENT)
+public class IncrementTestCase extends ParameterizedObjectStoreTestCase {
+
+  public IncrementTestCase(String name) {
+    super(name);
+  }
+
+  @Override
+  protected String doGetConfigFile() {
+    return "increment-config.xml";
+  }
+
+  @Test
+  @Description("A counter is created on first use and incremented afterwards")
+  public void increment() throws Exception {
+    assertThat(increment("increment"), is(1L));
+    assertThat(increment("increment"), is(2L));
+    assertThat(getObjectStore().retrieve(KEY), equalTo(2L));
+  }
+
+  @Test
+  @Description("A negative delta decrements the counter, starting from the initial value")
+  public void decrement() throws Exception {
+    assertThat(increment("decrementFromTen"), is(9L));
+    assertThat(increment("decrementFromTen"), is(8L));
+  }
+
+  @Test
+  @Description("Numbers stored by other operations can be incremented")
+  public void incrementStoredNumber() throws Exception {
+    getObjectStore().store(KEY, 41);
+    assertThat(increment("increment"), is(42L));
+  }
+
+  @Test
+  @Description("An expired counter starts over")
+  public void expiredCounterStartsOver() throws Exception {
+    assertThat(increment("incrementWithTtl"), is(1L));
+    assertThat(increment("incrementWithTtl"), is(2L));
+
+    Thread.sleep(200);
+
+    assertThat(increment("incrementWithTtl"), is(1L));
+  }
+
+  @Test
+  @Description("Values which are not numbers are left untouched")
+  public void notANumber() throws Exception {
+    getObjectStore().store(KEY, TEST_VALUE);
+
+    assertThat(flowRunner("incrementNotANumber").withVariable("key", KEY).run().getMessage().getPayload().getValue(),
+               equalTo("NOT_A_NUMBER"));
+    assertThat(getObjectStore().retrieve(KEY), equalTo(TEST_VALUE));
+  }
+
+  private Long increment(String flowName) throws Exception {
+    return (Long) flowRunner(flowName).withVariable("key", KEY).run().getMessage().getPayload().getValue();
+  }
+}
@@ -38,6 +38,16 @@ public class RetrieveAllKeysTestCase extends ParameterizedObjectStoreTestCase {
   @Test
   @Description("Retrieves all the keys in the store")
   public void retrieveAllKeys() throws Exception {
+    assertAllKeysRetrieved("retrieveAllKeys");
+  }
+
+  @Test
+  @Description("Retrieves all the keys in the store, one page at a time")
+  public void retrieveAllKeysPaged() throws Exception {
+    assertAllKeysRetrieved("retrieveAllKeysPaged");
+  }
+
+  private void assertAllKeysRetrieved(String flowName) throws Exception {
     Map<String, Serializable> values = new LinkedHashMap<>();
     values.put(KEY, TEST_VALUE);
     values.put(KEY + "a", TEST_VALUE + "a");
@@ -46,7 +56,7 @@ public class RetrieveAllKeysTestCase extends ParameterizedObjectStoreTestCase {
       getObjectStore().store(value.getKey(), value.getValue());
     }
 
-    List<String> retrieved = (List<String>) flowRunner("retrieveAllKeys").run().getMessage().getPayload().getValue();
+    List<String> retrieved = (List<String>) flowRunner(flowName).run().getMessage().getPayload().getValue();
     assertThat(retrieved, hasSize(values.size()));
     retrieved.forEach(key -> assertThat(values.containsKey(key), is(true)));
   }
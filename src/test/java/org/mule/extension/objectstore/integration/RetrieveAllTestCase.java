@@ -67,4 +67,35 @@ public class RetrieveAllTestCase extends ParameterizedObjectStoreTestCase {
         (Map<String, Serializable>) flowRunner("retrieveAll").run().getMessage().getPayload().getValue();
     assertThat(retrieved, equalTo(values));
   }
+
+  @Test
+  @Description("Retrieves the entire store one page at a time")
+  public void retrieveAllPaged() throws Exception {
+    Map<String, Serializable> values = new HashMap<>();
+    values.put(KEY, TEST_VALUE);
+    values.put(KEY + "a", TEST_VALUE + "a");
+
+    for (Map.Entry<String, Serializable> value : values.entrySet()) {
+      getObjectStore().store(value.getKey(), new TypedValue<>(value.getValue(), DataType.fromObject(value.getValue())));
+    }
+
+    Map<String, Serializable> retrieved =
+        (Map<String, Serializable>) flowRunner("retrieveAllPaged").run().getMessage().getPayload().getValue();
+    assertThat(retrieved, equalTo(values));
+  }
+
+  @Test
+  @Description("Retrieves only the entries which keys start with the given prefix")
+  public void retrieveAllPagedWithKeyPrefix() throws Exception {
+    getObjectStore().store(KEY, TEST_VALUE);
+    getObjectStore().store("other" + KEY, TEST_VALUE);
+
+    Map<String, Serializable> retrieved = (Map<String, Serializable>) flowRunner("retrieveAllPaged")
+        .withVariable("keyPrefix", "other")
+        .run().getMessage().getPayload().getValue();
+
+    Map<String, Serializable> expected = new HashMap<>();
+    expected.put("other" + KEY, TEST_VALUE);
+    assertThat(retrieved, equalTo(expected));
+  }
 }
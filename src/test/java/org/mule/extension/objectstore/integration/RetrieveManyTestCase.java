@@ -0,0 +1,99 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.integration;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.junit.Assert.assertThat;
+import static org.mule.extension.objectstore.AllureConstants.ObjectStoreFeature.OS_CONNECTOR;
+import static org.mule.extension.objectstore.AllureConstants.ObjectStoreFeature.ObjectStoreStory.RETRIEVE_MANY;
+import org.mule.runtime.api.metadata.TypedValue;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+import io.qameta.allure.Description;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Story;
+import org.junit.Test;
+
+@Feature(OS_CONNECTOR)
+@Story(RETRIEVE_MANY)
+public class RetrieveManyTestCase extends ParameterizedObjectStoreTestCase {
+
+  private static final String OTHER_KEY = "myOtherKey";
+  private static final String OTHER_VALUE = "I've been stored too";
+  private static final String NOT_EXISTING_KEY = "missaNotThereJarJar";
+  private static final String DEFAULT_VALUE = "default";
+
+  public RetrieveManyTestCase(String name) {
+    super(name);
+  }
+
+  @Override
+  protected String doGetConfigFile() {
+    return "retrieve-many-config.xml";
+  }
+
+  @Override
+  protected void doSetUp() throws Exception {
+    super.doSetUp();
+    getObjectStore().store(KEY, TEST_VALUE);
+    getObjectStore().store(OTHER_KEY, TypedValue.of(OTHER_VALUE));
+  }
+
+  @Test
+  @Description("Retrieve several values at once")
+  public void retrieveMany() throws Exception {
+    Map<String, Serializable> values = retrieveMany(asList(KEY, OTHER_KEY));
+
+    assertThat(values, is(aMapWithSize(2)));
+    assertThat(values.get(KEY), equalTo(TEST_VALUE));
+    assertThat(values.get(OTHER_KEY), equalTo(OTHER_VALUE));
+  }
+
+  @Test
+  @Description("Keys without a value are left out of the result")
+  public void retrieveManyWithUnexistingKey() throws Exception {
+    Map<String, Serializable> values = retrieveMany(asList(KEY, NOT_EXISTING_KEY));
+
+    assertThat(values, is(aMapWithSize(1)));
+    assertThat(values.get(KEY), equalTo(TEST_VALUE));
+  }
+
+  @Test
+  @Description("Keys without a value get their default, but such default is not stored")
+  public void retrieveManyWithDefaults() throws Exception {
+    Map<String, Serializable> values = (Map<String, Serializable>) flowRunner("retrieveManyWithDefaults")
+        .withVariable("keys", asList(KEY, NOT_EXISTING_KEY))
+        .withPayload(singletonMap(NOT_EXISTING_KEY, DEFAULT_VALUE))
+        .run().getMessage().getPayload().getValue();
+
+    assertThat(values.get(KEY), equalTo(TEST_VALUE));
+    assertThat(values.get(NOT_EXISTING_KEY), equalTo(DEFAULT_VALUE));
+    assertThat(getObjectStore().contains(NOT_EXISTING_KEY), is(false));
+  }
+
+  @Test
+  @Description("Verify that INVALID_KEY error is thrown when any of the keys is empty")
+  public void retrieveManyWithEmptyKey() throws Exception {
+    Object payload = flowRunner("retrieveMany")
+        .withVariable("keys", asList(KEY, ""))
+        .run().getMessage().getPayload().getValue();
+
+    assertThat(payload, equalTo("INVALID_KEY"));
+  }
+
+  private Map<String, Serializable> retrieveMany(List<String> keys) throws Exception {
+    return (Map<String, Serializable>) flowRunner("retrieveMany").withVariable("keys", keys).run().getMessage().getPayload()
+        .getValue();
+  }
+}
@@ -52,6 +52,13 @@ public class RetrieveTestCase extends ParameterizedObjectStoreTestCase {
     assertThat(doRetrieve(KEY), equalTo(TEST_VALUE));
   }
 
+  @Test
+  @Description("Retrieve a value without acquiring the key lock")
+  public void retrieveUnlocked() throws Exception {
+    CoreEvent event = flowRunner("retrieveUnlocked").withVariable("key", KEY).run();
+    assertThat(event.getMessage().getPayload().getValue(), equalTo(TEST_VALUE));
+  }
+
   @Test
   @Description("Verify that retrieving a value with an empty key throws INVALID_KEY error")
   public void retrieveEmptyKey() throws Exception {
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.integration;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mule.extension.objectstore.AllureConstants.ObjectStoreFeature.OS_CONNECTOR;
+import static org.mule.extension.objectstore.AllureConstants.ObjectStoreFeature.ObjectStoreStory.STORE_ALL;
+import static org.mule.extension.objectstore.api.StoreOutcome.INVALID_KEY;
+import static org.mule.extension.objectstore.api.StoreOutcome.KEY_ALREADY_EXISTS;
+import static org.mule.extension.objectstore.api.StoreOutcome.NULL_VALUE;
+import static org.mule.extension.objectstore.api.StoreOutcome.SKIPPED;
+import static org.mule.extension.objectstore.api.StoreOutcome.STORED;
+import org.mule.extension.objectstore.api.StoreOutcome;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.qameta.allure.Description;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Story;
+import org.junit.Test;
+
+@Feature(OS_CONNECTOR)
+@Story(STORE_ALL)
+public class StoreAllTestCase extends ParameterizedObjectStoreTestCase {
+
+  private static final String OTHER_KEY = "myOtherKey";
+  private static final String OTHER_VALUE = "I've been stored too";
+
+  public StoreAllTestCase(String name) {
+    super(name);
+  }
+
+  @Override
+  protected String doGetConfigFile() {
+    return "store-all-config.xml";
+  }
+
+  @Test
+  @Description("Store several values at once")
+  public void storeAll() throws Exception {
+    Map<String, Serializable> entries = new HashMap<>();
+    entries.put(KEY, TEST_VALUE);
+    entries.put(OTHER_KEY, OTHER_VALUE);
+
+    Map<String, StoreOutcome> outcomes = storeAll("storeAll", entries);
+
+    assertThat(outcomes.get(KEY), is(STORED));
+    assertThat(outcomes.get(OTHER_KEY), is(STORED));
+    retrieveAndCompare(KEY, TEST_VALUE);
+    retrieveAndCompare(OTHER_KEY, OTHER_VALUE);
+  }
+
+  @Test
+  @Description("Overwrite values for which a key already exists")
+  public void overwriteValues() throws Exception {
+    getObjectStore().store(KEY, "Some old value");
+
+    Map<String, Serializable> entries = new HashMap<>();
+    entries.put(KEY, TEST_VALUE);
+    entries.put(OTHER_KEY, OTHER_VALUE);
+
+    Map<String, StoreOutcome> outcomes = storeAll("storeAll", entries);
+
+    assertThat(outcomes.get(KEY), is(STORED));
+    retrieveAndCompare(KEY, TEST_VALUE);
+    retrieveAndCompare(OTHER_KEY, OTHER_VALUE);
+  }
+
+  @Test
+  @Description("An existing key doesn't prevent the rest of the batch from being stored")
+  public void failIfKeyAlreadyPresent() throws Exception {
+    getObjectStore().store(KEY, TEST_VALUE);
+
+    Map<String, Serializable> entries = new HashMap<>();
+    entries.put(KEY, "Some other value");
+    entries.put(OTHER_KEY, OTHER_VALUE);
+
+    Map<String, StoreOutcome> outcomes = storeAll("idempotentStoreAll", entries);
+
+    assertThat(outcomes.get(KEY), is(KEY_ALREADY_EXISTS));
+    assertThat(outcomes.get(OTHER_KEY), is(STORED));
+    assertThat(getObjectStore().retrieve(KEY), equalTo(TEST_VALUE));
+    retrieveAndCompare(OTHER_KEY, OTHER_VALUE);
+  }
+
+  @Test
+  @Description("Invalid keys and null values are reported without being stored")
+  public void invalidEntries() throws Exception {
+    Map<String, Serializable> entries = new HashMap<>();
+    entries.put("", TEST_VALUE);
+    entries.put(KEY, null);
+    entries.put(OTHER_KEY, OTHER_VALUE);
+
+    Map<String, StoreOutcome> outcomes = storeAll("storeAll", entries);
+
+    assertThat(outcomes.get(""), is(INVALID_KEY));
+    assertThat(outcomes.get(KEY), is(NULL_VALUE));
+    assertThat(outcomes.get(OTHER_KEY), is(STORED));
+    assertThat(getObjectStore().contains(KEY), is(false));
+  }
+
+  @Test
+  @Description("Null values are skipped when failOnNullValue is false")
+  public void skipNullValues() throws Exception {
+    Map<String, Serializable> entries = new HashMap<>();
+    entries.put(KEY, null);
+
+    Map<String, StoreOutcome> outcomes = storeAll("storeAllSkippingNulls", entries);
+
+    assertThat(outcomes.get(KEY), is(SKIPPED));
+    assertThat(getObjectStore().contains(KEY), is(false));
+  }
+
+  private Map<String, StoreOutcome> storeAll(String flowName, Map<String, Serializable> entries) throws Exception {
+    return (Map<String, StoreOutcome>) flowRunner(flowName).withPayload(entries).run().getMessage().getPayload().getValue();
+  }
+}
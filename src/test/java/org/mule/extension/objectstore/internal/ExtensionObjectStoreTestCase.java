@@ -6,21 +6,52 @@
  */
 package org.mule.extension.objectstore.internal;
 
+import static java.lang.System.currentTimeMillis;
 import static java.util.Optional.of;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static java.util.Arrays.asList;
+import static java.util.Collections.nCopies;
+import static org.hamcrest.Matchers.aMapWithSize;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.core.Is.is;
 import static org.junit.rules.ExpectedException.none;
+import static org.mockito.ArgumentCaptor.forClass;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
 import static org.mule.runtime.core.api.util.ClassUtils.setFieldValue;
+import org.mule.extension.objectstore.api.Compression;
+import org.mule.extension.objectstore.api.EvictionPolicy;
+import org.mule.extension.objectstore.api.ExpirationEngine;
 import org.mule.extension.objectstore.api.ExtensionObjectStore;
+import org.mule.extension.objectstore.api.InvalidationEvent;
+import org.mule.extension.objectstore.api.InvalidationTransport;
 import org.mule.extension.objectstore.api.PrivateObjectStore;
 import org.mule.extension.objectstore.api.TopLevelObjectStore;
+import org.mule.extension.objectstore.api.UpsertObjectStore;
+import org.mule.extension.objectstore.api.ValueTooLargeException;
+import org.mule.extension.objectstore.api.VersionedValue;
+import org.mule.extension.objectstore.internal.cache.InJvmInvalidationTransport;
+import org.mule.extension.objectstore.internal.expiry.ExpiredEntryReclaimer;
+import org.mule.extension.objectstore.internal.expiry.TimingWheelExpirationEngine;
+import org.mule.extension.objectstore.internal.metrics.ObjectStoreMetrics;
+import org.mule.extension.objectstore.internal.retry.RetryPolicy;
 import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.api.scheduler.SchedulerService;
+import org.mule.runtime.api.serialization.ObjectSerializer;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
 import org.mule.runtime.api.store.ObjectStore;
 import org.mule.runtime.api.store.ObjectStoreException;
 import org.mule.runtime.api.store.ObjectStoreManager;
@@ -28,13 +59,17 @@ import org.mule.runtime.core.api.extension.ExtensionManager;
 import org.mule.tck.core.util.store.InMemoryObjectStore;
 
 import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
@@ -57,11 +92,27 @@ public class ExtensionObjectStoreTestCase {
   @Mock
   private ExtensionManager extensionManager;
 
+  @Mock
+  private SchedulerService schedulerService;
+
+  @Mock
+  private ObjectSerializer objectSerializer;
+
   private ObjectStore<Serializable> delegate = new InMemoryObjectStore<>();
 
   @Spy
   private ObjectStoreRegistry registry = new ObjectStoreRegistry();
 
+  @Spy
+  private ObjectStoreMetrics metrics = new ObjectStoreMetrics();
+
+  @Spy
+  private TimingWheelExpirationEngine timingWheelEngine =
+      new TimingWheelExpirationEngine(mock(ScheduledExecutorService.class), 10);
+
+  @Spy
+  private ExpiredEntryReclaimer reclaimer = new ExpiredEntryReclaimer(mock(ScheduledExecutorService.class), 1000);
+
   @InjectMocks
   private ExtensionObjectStore privateObjectStore = new PrivateObjectStore();
 
@@ -133,12 +184,528 @@ public class ExtensionObjectStoreTestCase {
     globalObjectStore.start();
   }
 
+  @Test
+  public void retrieveManyFromStoreWithoutBulkRead() throws Exception {
+    privateObjectStore.start();
+    privateObjectStore.store(A_KEY, A_VALUE);
+
+    Map<String, Serializable> values = privateObjectStore.retrieveMany(asList(A_KEY, "missing"));
+    privateObjectStore.stop();
+
+    assertThat(values, is(aMapWithSize(1)));
+    assertThat(values.get(A_KEY), is(equalTo(A_VALUE)));
+  }
+
+  @Test
+  public void upsertOverwritesThroughFallback() throws Exception {
+    privateObjectStore.start();
+    privateObjectStore.upsert(A_KEY, A_VALUE);
+    privateObjectStore.upsert(A_KEY, "otherValue");
+    Serializable value = privateObjectStore.retrieve(A_KEY);
+    long fallbacks = metrics.forStore(privateObjectStore.getName()).getUpsertFallbackCount();
+    privateObjectStore.stop();
+
+    assertThat(value, is(equalTo("otherValue")));
+    assertThat(fallbacks, is(1L));
+  }
+
+  @Test
+  public void upsertUsesDelegateCapability() throws Exception {
+    ObjectStore<Serializable> upsertDelegate = mock(ObjectStore.class, withSettings().extraInterfaces(UpsertObjectStore.class));
+    when(runtimeObjectStoreManager.getOrCreateObjectStore(anyString(), any())).thenReturn(upsertDelegate);
+
+    privateObjectStore.start();
+    privateObjectStore.upsert(A_KEY, A_VALUE);
+    privateObjectStore.stop();
+
+    verify((UpsertObjectStore) upsertDelegate).upsert(A_KEY, A_VALUE);
+    verify(upsertDelegate, never()).store(anyString(), any());
+  }
+
+  @Test
+  public void nearCacheServesReads() throws Exception {
+    setFieldValue(privateObjectStore, "nearCacheMaxEntries", 10, true);
+    privateObjectStore.start();
+    privateObjectStore.store(A_KEY, A_VALUE);
+    privateObjectStore.retrieve(A_KEY);
+
+    delegate.remove(A_KEY);
+    Serializable value = privateObjectStore.retrieve(A_KEY);
+    boolean contains = privateObjectStore.contains(A_KEY);
+    long hits = metrics.forStore(privateObjectStore.getName()).getNearCacheHitCount();
+    privateObjectStore.stop();
+
+    assertThat(value, is(equalTo(A_VALUE)));
+    assertThat(contains, is(true));
+    assertThat(hits, is(2L));
+  }
+
+  @Test
+  public void nearCacheInvalidatedByWrites() throws Exception {
+    setFieldValue(privateObjectStore, "nearCacheMaxEntries", 10, true);
+    privateObjectStore.start();
+    privateObjectStore.store(A_KEY, A_VALUE);
+    privateObjectStore.retrieve(A_KEY);
+    privateObjectStore.remove(A_KEY);
+    boolean containsAfterRemove = privateObjectStore.contains(A_KEY);
+
+    privateObjectStore.store(A_KEY, A_VALUE);
+    privateObjectStore.retrieve(A_KEY);
+    privateObjectStore.upsert(A_KEY, "otherValue");
+    Serializable upserted = privateObjectStore.retrieve(A_KEY);
+
+    privateObjectStore.clear();
+    boolean containsAfterClear = privateObjectStore.contains(A_KEY);
+    privateObjectStore.stop();
+
+    assertThat(containsAfterRemove, is(false));
+    assertThat(upserted, is(equalTo("otherValue")));
+    assertThat(containsAfterClear, is(false));
+  }
+
+  @Test
+  public void nearCacheNeverOutlivesTheEntryTtlOfTheStore() throws Exception {
+    setFieldValue(privateObjectStore, "nearCacheMaxEntries", 10, true);
+    setFieldValue(privateObjectStore, "entryTtl", 1L, true);
+    setFieldValue(privateObjectStore, "entryTtlUnit", TimeUnit.MILLISECONDS, true);
+    privateObjectStore.start();
+    try {
+      privateObjectStore.store(A_KEY, A_VALUE);
+      privateObjectStore.retrieve(A_KEY);
+
+      // expired by the delegate store on its own
+      delegate.remove(A_KEY);
+      Thread.sleep(10);
+      assertThat(privateObjectStore.contains(A_KEY), is(false));
+
+      expectedException.expect(ObjectDoesNotExistException.class);
+      privateObjectStore.retrieve(A_KEY);
+    } finally {
+      privateObjectStore.stop();
+    }
+  }
+
+  @Test
+  public void nearCacheInvalidatedByTimingWheelExpiration() throws Exception {
+    setFieldValue(privateObjectStore, "persistent", false, true);
+    setFieldValue(privateObjectStore, "entryTtl", 1L, true);
+    setFieldValue(privateObjectStore, "nearCacheMaxEntries", 10, true);
+    privateObjectStore.setExpirationEngine(ExpirationEngine.TIMING_WHEEL);
+    privateObjectStore.start();
+    try {
+      privateObjectStore.store(A_KEY, A_VALUE);
+      privateObjectStore.retrieve(A_KEY);
+
+      timingWheelEngine.advance(currentTimeMillis() + 2000);
+      assertThat(privateObjectStore.contains(A_KEY), is(false));
+
+      expectedException.expect(ObjectDoesNotExistException.class);
+      privateObjectStore.retrieve(A_KEY);
+    } finally {
+      privateObjectStore.stop();
+    }
+  }
+
+  @Test
+  public void nearCacheInvalidatedByPeerStore() throws Exception {
+    final String osName = "SHARED_OS";
+    setFieldValue(privateObjectStore, PRIVATE_OS_ALIAS_PARAMETER, osName, true);
+    setFieldValue(privateObjectStore, "nearCacheMaxEntries", 10, true);
+    setFieldValue(globalObjectStore, TOP_OS_NAME_PARAMETER, osName, true);
+    setFieldValue(globalObjectStore, "nearCacheMaxEntries", 10, true);
+    // another deployment of the same application
+    setFieldValue(globalObjectStore, "registry", new ObjectStoreRegistry(), false);
+
+    privateObjectStore.start();
+    globalObjectStore.start();
+    try {
+      globalObjectStore.store(A_KEY, A_VALUE);
+      assertThat(privateObjectStore.retrieve(A_KEY), is(equalTo(A_VALUE)));
+
+      globalObjectStore.upsert(A_KEY, "otherValue");
+      assertThat(privateObjectStore.retrieve(A_KEY), is(equalTo("otherValue")));
+
+      globalObjectStore.clear();
+      assertThat(privateObjectStore.contains(A_KEY), is(false));
+    } finally {
+      globalObjectStore.stop();
+      privateObjectStore.stop();
+    }
+  }
+
+  @Test
+  public void nearCacheNotInvalidatedByOtherApplications() throws Exception {
+    final String osName = "SHARED_OS";
+    setFieldValue(privateObjectStore, PRIVATE_OS_ALIAS_PARAMETER, osName, true);
+    setFieldValue(privateObjectStore, "nearCacheMaxEntries", 10, true);
+    setFieldValue(globalObjectStore, TOP_OS_NAME_PARAMETER, osName, true);
+    setFieldValue(globalObjectStore, "appName", of("otherApplication"), true);
+    setFieldValue(globalObjectStore, "domainName", of("otherDomain"), true);
+
+    privateObjectStore.start();
+    globalObjectStore.start();
+    try {
+      privateObjectStore.store(A_KEY, A_VALUE);
+      assertThat(privateObjectStore.retrieve(A_KEY), is(equalTo(A_VALUE)));
+
+      // both share the same delegate here, which never happens across applications
+      globalObjectStore.upsert(A_KEY, "otherValue");
+      assertThat(privateObjectStore.retrieve(A_KEY), is(equalTo(A_VALUE)));
+    } finally {
+      globalObjectStore.stop();
+      privateObjectStore.stop();
+    }
+  }
+
+  @Test
+  public void invalidationsNotPublishedWithoutNearCache() throws Exception {
+    InvalidationTransport transport = InJvmInvalidationTransport.forContext("application");
+    Consumer<InvalidationEvent> listener = mock(Consumer.class);
+    transport.subscribe(privateObjectStore.getName(), "listener", listener);
+
+    privateObjectStore.start();
+    try {
+      privateObjectStore.store(A_KEY, A_VALUE);
+      privateObjectStore.remove(A_KEY);
+    } finally {
+      privateObjectStore.stop();
+      transport.unsubscribe(privateObjectStore.getName(), "listener");
+    }
+
+    verify(listener, never()).accept(any());
+  }
+
+  @Test
+  public void invalidationsPublishedThroughCustomTransport() throws Exception {
+    InvalidationTransport transport = mock(InvalidationTransport.class);
+    setFieldValue(privateObjectStore, "invalidationTransport", of(transport), true);
+    setFieldValue(privateObjectStore, "nearCacheMaxEntries", 10, true);
+
+    privateObjectStore.start();
+    privateObjectStore.store(A_KEY, A_VALUE);
+    privateObjectStore.stop();
+
+    verify(transport).subscribe(eq(privateObjectStore.getName()), anyString(), any());
+    ArgumentCaptor<InvalidationEvent> captor = forClass(InvalidationEvent.class);
+    verify(transport).publish(captor.capture());
+    assertThat(captor.getValue().getKey(), is(equalTo(A_KEY)));
+    verify(transport).unsubscribe(eq(privateObjectStore.getName()), anyString());
+  }
+
+  @Test
+  public void retryPolicyResolvedOnStart() throws Exception {
+    setFieldValue(privateObjectStore, "retryMaxAttempts", 3, true);
+    setFieldValue(privateObjectStore, "retryTimeUnit", TimeUnit.MILLISECONDS, true);
+    setFieldValue(globalObjectStore, TOP_OS_NAME_PARAMETER, "OTHER_OS", true);
+
+    privateObjectStore.start();
+    RetryPolicy withRetries = privateObjectStore.getRetryPolicy();
+    globalObjectStore.start();
+    RetryPolicy withoutRetries = globalObjectStore.getRetryPolicy();
+    privateObjectStore.stop();
+    globalObjectStore.stop();
+
+    assertThat(withRetries.getMaxAttempts(), is(3));
+    assertThat(withoutRetries.isEnabled(), is(false));
+  }
+
+  @Test
+  public void versionedStoreComparesAndSets() throws Exception {
+    setFieldValue(privateObjectStore, "versioned", true, true);
+    privateObjectStore.start();
+    try {
+      assertThat(privateObjectStore.compareAndSet(A_KEY, A_VALUE, null), is(true));
+      assertThat(privateObjectStore.compareAndSet(A_KEY, A_VALUE, null), is(false));
+
+      VersionedValue current = privateObjectStore.retrieveWithVersion(A_KEY);
+      assertThat(current.getValue(), is(equalTo(A_VALUE)));
+      long version = current.getVersion();
+
+      privateObjectStore.upsert(A_KEY, "otherValue");
+      assertThat(privateObjectStore.compareAndSet(A_KEY, "staleValue", version), is(false));
+      assertThat(privateObjectStore.compareAndSet(A_KEY, "newValue", version + 1), is(true));
+
+      assertThat(privateObjectStore.retrieve(A_KEY), is(equalTo("newValue")));
+      assertThat(privateObjectStore.retrieveWithVersion(A_KEY).getVersion(), is(version + 2));
+      assertThat(privateObjectStore.isCompareAndSetAtomic(), is(false));
+    } finally {
+      privateObjectStore.stop();
+    }
+  }
+
+  @Test
+  public void recreatedKeyRejectsStaleCompareAndSet() throws Exception {
+    setFieldValue(privateObjectStore, "versioned", true, true);
+    privateObjectStore.start();
+    try {
+      privateObjectStore.store(A_KEY, A_VALUE);
+      long staleVersion = privateObjectStore.retrieveWithVersion(A_KEY).getVersion();
+
+      privateObjectStore.remove(A_KEY);
+      privateObjectStore.store(A_KEY, "recreatedValue");
+
+      assertThat(privateObjectStore.compareAndSet(A_KEY, "staleValue", staleVersion), is(false));
+      assertThat(privateObjectStore.retrieve(A_KEY), is(equalTo("recreatedValue")));
+    } finally {
+      privateObjectStore.stop();
+    }
+  }
+
+  @Test
+  public void unversionedStoreRejectsCompareAndSet() throws Exception {
+    privateObjectStore.start();
+    try {
+      assertThat(privateObjectStore.isVersioningSupported(), is(false));
+      expectedException.expect(ObjectStoreException.class);
+      privateObjectStore.compareAndSet(A_KEY, A_VALUE, null);
+    } finally {
+      privateObjectStore.stop();
+    }
+  }
+
+  @Test
+  public void timingWheelEngineExpiresTransientStores() throws Exception {
+    setFieldValue(privateObjectStore, "persistent", false, true);
+    setFieldValue(privateObjectStore, "entryTtl", 1L, true);
+    privateObjectStore.setExpirationEngine(ExpirationEngine.TIMING_WHEEL);
+
+    privateObjectStore.start();
+    try {
+      privateObjectStore.store(A_KEY, A_VALUE);
+      assertThat(privateObjectStore.retrieve(A_KEY), is(equalTo(A_VALUE)));
+
+      timingWheelEngine.advance(currentTimeMillis() + 2000);
+      assertThat(privateObjectStore.contains(A_KEY), is(false));
+      assertThat(metrics.forStore(privateObjectStore.getName()).getExpiredEntryCount(), is(1L));
+      verify(runtimeObjectStoreManager, never()).getOrCreateObjectStore(anyString(), any());
+    } finally {
+      privateObjectStore.stop();
+    }
+  }
+
+  @Test
+  public void timingWheelEngineIgnoredForPersistentStores() throws Exception {
+    privateObjectStore.setExpirationEngine(ExpirationEngine.TIMING_WHEEL);
+
+    privateObjectStore.start();
+    privateObjectStore.stop();
+
+    verify(runtimeObjectStoreManager).getOrCreateObjectStore(eq(privateObjectStore.getName()), any());
+  }
+
+  @Test
+  public void maxBytesEvictsLeastRecentlyUsedEntries() throws Exception {
+    privateObjectStore.setPersistent(false);
+    privateObjectStore.setMaxBytes(10L);
+    privateObjectStore.start();
+    try {
+      privateObjectStore.store("first", "aaaa");
+      privateObjectStore.store("second", "bbbb");
+      privateObjectStore.retrieve("first");
+      privateObjectStore.store("third", "cccc");
+
+      assertThat(privateObjectStore.contains("first"), is(true));
+      assertThat(privateObjectStore.contains("second"), is(false));
+      assertThat(privateObjectStore.contains("third"), is(true));
+      assertThat(metrics.forStore(privateObjectStore.getName()).getSizeEvictionCount(), is(1L));
+      assertThat(metrics.forStore(privateObjectStore.getName()).getEstimatedBytes(), is(8L));
+    } finally {
+      privateObjectStore.stop();
+    }
+  }
+
+  @Test
+  public void maxBytesIgnoredOnPersistentStores() throws Exception {
+    privateObjectStore.setMaxBytes(10L);
+    privateObjectStore.start();
+    try {
+      privateObjectStore.store("first", "aaaa");
+      privateObjectStore.store("second", "bbbb");
+      privateObjectStore.store("third", "cccc");
+
+      assertThat(privateObjectStore.contains("first"), is(true));
+      assertThat(metrics.forStore(privateObjectStore.getName()).getSizeEvictionCount(), is(0L));
+    } finally {
+      privateObjectStore.stop();
+    }
+  }
+
+  @Test
+  public void valuesOverMaxValueSizeRejected() throws Exception {
+    privateObjectStore.setMaxValueSize(4L);
+    privateObjectStore.start();
+    try {
+      privateObjectStore.store(A_KEY, "aaaa");
+      expectedException.expect(ValueTooLargeException.class);
+      privateObjectStore.upsert(A_KEY, "aaaaa");
+    } finally {
+      assertThat(privateObjectStore.retrieve(A_KEY), is(equalTo("aaaa")));
+      privateObjectStore.stop();
+    }
+  }
+
+  @Test
+  public void shardedStoreSpreadsKeysAcrossShards() throws Exception {
+    ObjectStore<Serializable> firstShard = new InMemoryObjectStore<>();
+    ObjectStore<Serializable> secondShard = new InMemoryObjectStore<>();
+    Scheduler scheduler = mock(Scheduler.class);
+    when(schedulerService.ioScheduler()).thenReturn(scheduler);
+    when(runtimeObjectStoreManager.getOrCreateObjectStore(eq(privateObjectStore.getName() + "#shard-0"), any()))
+        .thenReturn(firstShard);
+    when(runtimeObjectStoreManager.getOrCreateObjectStore(eq(privateObjectStore.getName() + "#shard-1"), any()))
+        .thenReturn(secondShard);
+    when(runtimeObjectStoreManager.getOrCreateObjectStore(eq(privateObjectStore.getName() + "#shard-meta"), any()))
+        .thenReturn(new InMemoryObjectStore<>());
+    privateObjectStore.setShards(2);
+
+    privateObjectStore.start();
+    try {
+      for (int i = 0; i < 20; i++) {
+        privateObjectStore.store("key" + i, A_VALUE);
+      }
+
+      assertThat(firstShard.allKeys().size() + secondShard.allKeys().size(), is(20));
+      assertThat(firstShard.allKeys().isEmpty(), is(false));
+      assertThat(secondShard.allKeys().isEmpty(), is(false));
+      assertThat(privateObjectStore.retrieve("key7"), is(equalTo(A_VALUE)));
+      assertThat(delegate.contains("key7"), is(false));
+    } finally {
+      privateObjectStore.stop();
+    }
+    verify(scheduler).stop();
+  }
+
+  @Test
+  public void changingTheNumberOfShardsMovesExistingKeys() throws Exception {
+    ObjectStore<Serializable> firstShard = spy(new InMemoryObjectStore<>());
+    ObjectStore<Serializable> secondShard = new InMemoryObjectStore<>();
+    when(schedulerService.ioScheduler()).thenReturn(mock(Scheduler.class));
+    when(runtimeObjectStoreManager.getOrCreateObjectStore(eq(privateObjectStore.getName() + "#shard-0"), any()))
+        .thenReturn(firstShard);
+    when(runtimeObjectStoreManager.getOrCreateObjectStore(eq(privateObjectStore.getName() + "#shard-1"), any()))
+        .thenReturn(secondShard);
+    when(runtimeObjectStoreManager.getOrCreateObjectStore(eq(privateObjectStore.getName() + "#shard-meta"), any()))
+        .thenReturn(new InMemoryObjectStore<>());
+    for (int i = 0; i < 20; i++) {
+      delegate.store("key" + i, A_VALUE);
+    }
+
+    privateObjectStore.setShards(2);
+    privateObjectStore.start();
+    privateObjectStore.stop();
+    assertThat(firstShard.allKeys().size() + secondShard.allKeys().size(), is(20));
+    assertThat(delegate.contains("key7"), is(false));
+
+    reset(firstShard);
+    privateObjectStore.start();
+    try {
+      assertThat(privateObjectStore.allKeys().size(), is(20));
+      assertThat(privateObjectStore.retrieve("key7"), is(equalTo(A_VALUE)));
+      verify(firstShard, times(1)).allKeys();
+    } finally {
+      privateObjectStore.stop();
+    }
+
+    privateObjectStore.setShards(1);
+    privateObjectStore.start();
+    try {
+      assertThat(privateObjectStore.allKeys().size(), is(20));
+      assertThat(privateObjectStore.retrieve("key7"), is(equalTo(A_VALUE)));
+      assertThat(firstShard.allKeys().isEmpty(), is(true));
+      assertThat(secondShard.allKeys().isEmpty(), is(true));
+    } finally {
+      privateObjectStore.stop();
+    }
+  }
+
+  @Test
+  public void unshardedStoreKeepsKeysNamedLikeTheShardCount() throws Exception {
+    when(runtimeObjectStoreManager.getOrCreateObjectStore(eq(privateObjectStore.getName() + "#shard-meta"), any()))
+        .thenReturn(new InMemoryObjectStore<>());
+    delegate.store("#shard-count", 3);
+    delegate.store("count", 3);
+
+    privateObjectStore.start();
+    privateObjectStore.stop();
+    privateObjectStore.start();
+    try {
+      assertThat(privateObjectStore.retrieve("#shard-count"), is(equalTo(3)));
+      assertThat(privateObjectStore.retrieve("count"), is(equalTo(3)));
+      verify(runtimeObjectStoreManager, never()).getOrCreateObjectStore(eq(privateObjectStore.getName() + "#shard-0"), any());
+      verify(runtimeObjectStoreManager, times(2)).disposeStore(privateObjectStore.getName() + "#shard-meta");
+    } finally {
+      privateObjectStore.stop();
+    }
+  }
+
+  @Test
+  public void compactSerializerEncodesValues() throws Exception {
+    when(objectSerializer.getInternalProtocol()).thenReturn(mock(SerializationProtocol.class));
+    delegate.store("legacyKey", A_VALUE);
+    privateObjectStore.setSerializer("compact");
+
+    privateObjectStore.start();
+    try {
+      privateObjectStore.store(A_KEY, A_VALUE);
+
+      assertThat(delegate.retrieve(A_KEY), is(instanceOf(byte[].class)));
+      assertThat(privateObjectStore.retrieve(A_KEY), is(equalTo(A_VALUE)));
+      assertThat(privateObjectStore.retrieve("legacyKey"), is(equalTo(A_VALUE)));
+      assertThat(privateObjectStore.retrieveAll().get(A_KEY), is(equalTo(A_VALUE)));
+    } finally {
+      privateObjectStore.stop();
+    }
+  }
+
+  @Test
+  public void largeValuesAreCompressed() throws Exception {
+    when(objectSerializer.getInternalProtocol()).thenReturn(mock(SerializationProtocol.class));
+    String document = String.join(",", nCopies(100, A_VALUE));
+    privateObjectStore.setSerializer("COMPACT");
+    privateObjectStore.setCompression(Compression.DEFLATE);
+    privateObjectStore.setCompressionThreshold(64);
+
+    privateObjectStore.start();
+    try {
+      privateObjectStore.store(A_KEY, document);
+
+      assertThat(((byte[]) delegate.retrieve(A_KEY)).length, is(lessThan(document.length() / 4)));
+      assertThat(privateObjectStore.retrieve(A_KEY), is(equalTo(document)));
+      assertThat(metrics.forStore(privateObjectStore.getName()).getCompressedValueCount(), is(1L));
+    } finally {
+      privateObjectStore.stop();
+    }
+  }
+
+  @Test
+  public void unknownSerializer() throws Exception {
+    when(objectSerializer.getInternalProtocol()).thenReturn(mock(SerializationProtocol.class));
+    privateObjectStore.setSerializer("unknown");
+
+    expectedException.expect(IllegalArgumentException.class);
+    privateObjectStore.start();
+  }
+
+  @Test
+  public void stopDropsPendingExpirations() throws Exception {
+    privateObjectStore.start();
+    reclaimer.track(privateObjectStore.getName(), A_KEY, currentTimeMillis() + 1000, () -> {
+    });
+
+    privateObjectStore.stop();
+
+    assertThat(reclaimer.hasExpiringEntries(privateObjectStore.getName()), is(false));
+    assertThat(reclaimer.getPendingCount(), is(0));
+  }
+
   private void injectStubParameters(ObjectStore<Serializable> objectStore) throws IllegalAccessException, NoSuchFieldException {
     setFieldValue(objectStore, "persistent", true, true);
     setFieldValue(objectStore, "maxEntries", 10, true);
     setFieldValue(objectStore, "entryTtlUnit", TimeUnit.SECONDS, true);
     setFieldValue(objectStore, "expirationInterval", 1000L, true);
     setFieldValue(objectStore, "expirationIntervalUnit", TimeUnit.SECONDS, true);
+    setFieldValue(objectStore, "nearCacheEntryTtlUnit", TimeUnit.SECONDS, true);
+    setFieldValue(objectStore, "nearCacheEvictionPolicy", EvictionPolicy.LRU, true);
     setFieldValue(objectStore, "appName", of("application"), true);
     setFieldValue(objectStore, "domainName", of("domain"), true);
   }
@@ -12,7 +12,29 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mule.extension.objectstore.api.BulkRetrieveObjectStore;
+import org.mule.extension.objectstore.api.ExtensionObjectStore;
+import org.mule.extension.objectstore.api.CursorObjectStore;
+import org.mule.extension.objectstore.api.ObjectStoreCursor;
+import org.mule.extension.objectstore.api.StoreOutcome;
+import org.mule.extension.objectstore.api.CounterObjectStore;
+import org.mule.extension.objectstore.api.UpsertObjectStore;
+import org.mule.extension.objectstore.api.VersionAttributes;
+import org.mule.extension.objectstore.api.VersionedObjectStore;
+import org.mule.extension.objectstore.api.VersionedValue;
+import org.mule.extension.objectstore.internal.async.ObjectStoreAsyncExecutor;
+import org.mule.extension.objectstore.internal.expiry.ExpiredEntryReclaimer;
+import org.mule.extension.objectstore.internal.expiry.ExpiringValue;
+import org.mule.extension.objectstore.internal.lock.ObjectStoreLocks;
+import org.mule.extension.objectstore.internal.error.ObjectStoreErrors;
+import org.mule.extension.objectstore.internal.metrics.ObjectStoreMetrics;
+import org.mule.extension.objectstore.internal.metrics.StoreMetrics;
+import org.mule.extension.objectstore.internal.ratelimit.ConcurrencyLimiters;
+import org.mule.extension.objectstore.internal.retry.RetryPolicy;
 import org.mule.runtime.api.lock.LockFactory;
 import org.mule.runtime.api.metadata.TypedValue;
 import org.mule.runtime.api.store.ObjectAlreadyExistsException;
@@ -20,17 +42,54 @@ import org.mule.runtime.api.store.ObjectDoesNotExistException;
 import org.mule.runtime.api.store.ObjectStore;
 import org.mule.runtime.api.store.ObjectStoreException;
 import org.mule.runtime.api.store.ObjectStoreManager;
+import org.mule.runtime.api.store.ObjectStoreNotAvailableException;
 import org.mule.runtime.extension.api.exception.ModuleException;
+import org.mule.runtime.extension.api.runtime.operation.Result;
+import org.mule.runtime.extension.api.runtime.process.CompletionCallback;
+import org.mule.runtime.extension.api.runtime.streaming.PagingProvider;
+import org.mule.tck.core.util.store.InMemoryObjectStore;
 
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.locks.ReentrantLock;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mule.extension.objectstore.api.ReadConsistency.LOCKED;
+import static org.mule.extension.objectstore.api.ReadConsistency.UNLOCKED;
+import static org.mule.extension.objectstore.internal.lock.LockMode.RUNTIME;
+import static org.mule.extension.objectstore.internal.lock.LockMode.STRIPED;
+import static org.mule.extension.objectstore.internal.metrics.OperationType.CONTAINS;
+import static org.mule.extension.objectstore.internal.metrics.OperationType.RETRIEVE;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
 import static org.junit.rules.ExpectedException.none;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+import static org.mule.runtime.core.api.util.ClassUtils.setFieldValue;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ObjectStoreOperationsTestCase {
@@ -44,6 +103,21 @@ public class ObjectStoreOperationsTestCase {
   @Mock
   private LockFactory lockFactory;
 
+  @Spy
+  private ObjectStoreMetrics metrics = new ObjectStoreMetrics();
+
+  @Spy
+  private ObjectStoreLocks locks = new ObjectStoreLocks(RUNTIME);
+
+  @Spy
+  private ConcurrencyLimiters limiters = new ConcurrencyLimiters(metrics, false, 1, 0);
+
+  @Spy
+  private ObjectStoreAsyncExecutor asyncExecutor = new ObjectStoreAsyncExecutor(newSingleThreadExecutor(), 1);
+
+  @Spy
+  private ExpiredEntryReclaimer reclaimer = new ExpiredEntryReclaimer(mock(ScheduledExecutorService.class), 1000);
+
   @InjectMocks
   private ObjectStoreOperations objectStoreOperations;
 
@@ -59,7 +133,7 @@ public class ObjectStoreOperationsTestCase {
     expectedException.expect(ModuleException.class);
     expectedException.expectMessage(containsString("ObjectStore 'objectStoreStringRepresentation'"));
 
-    objectStoreOperations.retrieve("key", null, null);
+    objectStoreOperations.retrieve("key", null, null, LOCKED);
   }
 
   @Test
@@ -77,7 +151,7 @@ public class ObjectStoreOperationsTestCase {
 
     expectedException.expect(ModuleException.class);
     expectedException.expectMessage(containsString("Rate Limit"));
-    objectStoreOperations.retrieve("key", null, null);
+    objectStoreOperations.retrieve("key", null, null, LOCKED);
 
   }
 
@@ -95,6 +169,541 @@ public class ObjectStoreOperationsTestCase {
 
     expectedException.expect(ModuleException.class);
     expectedException.expectMessage(containsString("ObjectStore doesn't contain any value for key '123'"));
-    objectStoreOperations.store("123", TypedValue.of("value"), false, false, null);
+    objectStoreOperations.store("123", TypedValue.of("value"), false, false, null, SECONDS, null);
+  }
+
+  @Test
+  public void storeAllLocksKeysInNaturalOrder() throws ObjectStoreException {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+
+    ObjectStore objectStore = mock(ObjectStore.class);
+    when(objectStore.toString()).thenReturn("os");
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn(objectStore);
+
+    Map<String, Serializable> entries = new LinkedHashMap<>();
+    entries.put("c", "value");
+    entries.put("a", "value");
+    entries.put("b", "value");
+
+    objectStoreOperations.storeAll(entries, false, true, null);
+
+    InOrder inOrder = inOrder(lockFactory);
+    inOrder.verify(lockFactory).createLock("_objectStoreConnector_os_a");
+    inOrder.verify(lockFactory).createLock("_objectStoreConnector_os_b");
+    inOrder.verify(lockFactory).createLock("_objectStoreConnector_os_c");
+  }
+
+  @Test
+  public void storeAllReportsFailuresPerKey() throws ObjectStoreException {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+
+    ObjectStore objectStore = mock(ObjectStore.class);
+    when(objectStore.toString()).thenReturn("os");
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn(objectStore);
+    doThrow(new ObjectAlreadyExistsException()).when(objectStore).store(eq("existing"), any());
+    doThrow(new ObjectStoreException(new Exception("status code was 429"))).when(objectStore).store(eq("throttled"), any());
+
+    Map<String, Serializable> entries = new LinkedHashMap<>();
+    entries.put("existing", "value");
+    entries.put("throttled", "value");
+    entries.put("new", "value");
+
+    Map<String, StoreOutcome> outcomes = objectStoreOperations.storeAll(entries, true, true, null);
+
+    assertThat(outcomes.get("existing"), is(StoreOutcome.KEY_ALREADY_EXISTS));
+    assertThat(outcomes.get("throttled"), is(StoreOutcome.STORE_NOT_AVAILABLE));
+    assertThat(outcomes.get("new"), is(StoreOutcome.STORED));
+    verify(objectStore).store(eq("new"), any());
+  }
+
+  @Test
+  public void storeAllRetriesUnavailableEntries() throws ObjectStoreException {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+
+    ExtensionObjectStore objectStore = mock(ExtensionObjectStore.class);
+    when(objectStore.getName()).thenReturn("os");
+    when(objectStore.getRetryPolicy()).thenReturn(RetryPolicy.of(2, 1L, 1L, null, MILLISECONDS));
+    doThrow(new ObjectStoreNotAvailableException()).doNothing().when(objectStore).store(eq("flaky"), any());
+    doThrow(new ObjectStoreException(new Exception("status code was 429"))).when(objectStore).store(eq("throttled"), any());
+
+    Map<String, Serializable> entries = new LinkedHashMap<>();
+    entries.put("flaky", "value");
+    entries.put("throttled", "value");
+    entries.put("new", "value");
+
+    Map<String, StoreOutcome> outcomes = objectStoreOperations.storeAll(entries, true, true, objectStore);
+
+    assertThat(outcomes.get("flaky"), is(StoreOutcome.STORED));
+    assertThat(outcomes.get("throttled"), is(StoreOutcome.STORE_NOT_AVAILABLE));
+    assertThat(outcomes.get("new"), is(StoreOutcome.STORED));
+    verify(objectStore, times(2)).store(eq("flaky"), any());
+    verify(objectStore, times(2)).store(eq("throttled"), any());
+    assertThat(metrics.forStore("os").getRetryCount(), is(2L));
+    assertThat(metrics.forStore("os").getRetriesExhaustedCount(), is(1L));
+  }
+
+  @Test
+  public void retrieveManyUsesBulkReadWhenAvailable() throws ObjectStoreException {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+
+    ObjectStore objectStore = mock(ObjectStore.class, withSettings().extraInterfaces(BulkRetrieveObjectStore.class));
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn(objectStore);
+    Map<String, Serializable> stored = new HashMap<>();
+    stored.put("a", TypedValue.of("valueA"));
+    when(((BulkRetrieveObjectStore) objectStore).retrieveMany(any())).thenReturn(stored);
+
+    Map<String, Serializable> values = objectStoreOperations.retrieveMany(asList("a", "b"), null, null, LOCKED);
+
+    assertThat(values, is(aMapWithSize(1)));
+    assertThat(values.get("a"), is("valueA"));
+    verify(objectStore, never()).retrieve(anyString());
+  }
+
+  @Test
+  public void rateLimitExceededRetrieveMany() throws ObjectStoreException {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+
+    ObjectStore objectStore = mock(ObjectStore.class);
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn(objectStore);
+    when(objectStore.retrieve(any())).thenThrow(new ObjectStoreException(new Exception("status code was 429")));
+
+    expectedException.expect(ModuleException.class);
+    expectedException.expectMessage(containsString("Rate Limit"));
+    objectStoreOperations.retrieveMany(asList("a", "b"), null, null, LOCKED);
+  }
+
+  @Test
+  public void unlockedReadsSkipKeyLock() throws ObjectStoreException {
+    ObjectStore objectStore = mock(ObjectStore.class);
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn(objectStore);
+    when(objectStore.retrieve("key")).thenReturn("value");
+    when(objectStore.contains("key")).thenReturn(true);
+
+    assertThat(objectStoreOperations.retrieve("key", null, null, UNLOCKED).getOutput(), is("value"));
+    assertThat(objectStoreOperations.contains("key", null, UNLOCKED), is(true));
+    assertThat(objectStoreOperations.retrieveMany(asList("key"), null, null, UNLOCKED).get("key"), is("value"));
+
+    verify(lockFactory, never()).createLock(anyString());
+  }
+
+  @Test
+  public void overwriteWithUpsertCapableStore() throws ObjectStoreException {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+
+    ObjectStore objectStore = mock(ObjectStore.class, withSettings().extraInterfaces(UpsertObjectStore.class));
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn(objectStore);
+
+    TypedValue<Serializable> value = TypedValue.of("value");
+    objectStoreOperations.store("key", value, false, true, null, SECONDS, null);
+
+    verify((UpsertObjectStore) objectStore).upsert("key", value);
+    verify(objectStore, never()).store(anyString(), any());
+    verify(objectStore, never()).remove(anyString());
+  }
+
+  @Test
+  public void overwriteWithoutUpsertRecordsFallback() throws ObjectStoreException {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+
+    ObjectStore objectStore = mock(ObjectStore.class);
+    when(objectStore.toString()).thenReturn("os");
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn(objectStore);
+    doThrow(new ObjectAlreadyExistsException()).doNothing().when(objectStore).store(any(), any());
+
+    objectStoreOperations.store("key", TypedValue.of("value"), false, true, null, SECONDS, null);
+
+    verify(objectStore).remove("key");
+    assertThat(metrics.forStore("os").getUpsertFallbackCount(), is(1L));
+  }
+
+  @Test
+  public void retrieveAllKeysPagedFromSnapshot() throws ObjectStoreException {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+
+    ObjectStore objectStore = mock(ObjectStore.class);
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn(objectStore);
+    when(objectStore.allKeys()).thenReturn(asList("a", "b", "c"));
+
+    PagingProvider<ObjectStoreManager, String> provider = objectStoreOperations.retrieveAllKeysPaged(2, null);
+
+    assertThat(provider.getPage(null), contains("a", "b"));
+    assertThat(provider.getPage(null), contains("c"));
+    assertThat(provider.getPage(null), is(empty()));
+    verify(objectStore, times(1)).allKeys();
+    verify(lockFactory, times(3)).createLock(anyString());
+  }
+
+  @Test
+  public void retrieveAllKeysPagedFromCursor() throws Exception {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+
+    ObjectStore objectStore = mock(ObjectStore.class, withSettings().extraInterfaces(CursorObjectStore.class));
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn(objectStore);
+    ObjectStoreCursor<String> cursor = mock(ObjectStoreCursor.class);
+    when(((CursorObjectStore) objectStore).openKeyCursor()).thenReturn(cursor);
+    List<String> firstPage = asList("a", "b");
+    when(cursor.next(2)).thenReturn(firstPage);
+
+    PagingProvider<ObjectStoreManager, String> provider = objectStoreOperations.retrieveAllKeysPaged(2, null);
+
+    assertThat(provider.getPage(null), is(firstPage));
+    provider.close(null);
+    verify(cursor).close();
+    verify(objectStore, never()).allKeys();
+  }
+
+  @Test
+  public void stripedLocksBypassLockFactory() throws Exception {
+    ObjectStoreLocks striped = new ObjectStoreLocks(STRIPED);
+    setFieldValue(objectStoreOperations, "locks", striped, false);
+
+    ObjectStore objectStore = mock(ObjectStore.class);
+    when(objectStore.toString()).thenReturn("os");
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn(objectStore);
+    when(objectStore.contains("key")).thenReturn(true);
+
+    Map<String, Serializable> entries = new HashMap<>();
+    entries.put("a", "value");
+    entries.put("b", "value");
+
+    objectStoreOperations.contains("key", null, LOCKED);
+    objectStoreOperations.storeAll(entries, false, true, null);
+    objectStoreOperations.clear(null);
+
+    verify(lockFactory, never()).createLock(anyString());
+    assertThat(((ReentrantLock) striped.getKeyLock("os", "key")).isLocked(), is(false));
+  }
+
+  @Test
+  public void operationsAreMeasured() throws Exception {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+
+    ObjectStore objectStore = mock(ObjectStore.class);
+    when(objectStore.toString()).thenReturn("os");
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn(objectStore);
+    when(objectStore.contains("key")).thenReturn(true);
+    when(objectStore.retrieve("missing")).thenThrow(new ObjectDoesNotExistException());
+
+    objectStoreOperations.contains("key", null, LOCKED);
+    objectStoreOperations.contains("key", null, UNLOCKED);
+    try {
+      objectStoreOperations.retrieve("missing", null, null, LOCKED);
+    } catch (ModuleException e) {
+      // expected
+    }
+
+    StoreMetrics storeMetrics = metrics.forStore("os");
+    assertThat(storeMetrics.getOperationCount(CONTAINS), is(2L));
+    assertThat(storeMetrics.getOperationCount(RETRIEVE), is(1L));
+    assertThat(storeMetrics.getLockWait().getCount(), is(2L));
+    assertThat(storeMetrics.getBackendTime().getCount(), is(3L));
+    assertThat(storeMetrics.getErrorCount(ObjectStoreErrors.KEY_NOT_FOUND), is(1L));
+  }
+
+  @Test
+  public void rateLimitsShrinkAdaptiveConcurrency() throws Exception {
+    ConcurrencyLimiters enabled = new ConcurrencyLimiters(metrics, true, 8, 0);
+    setFieldValue(objectStoreOperations, "limiters", enabled, false);
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+
+    ObjectStore objectStore = mock(ObjectStore.class);
+    when(objectStore.toString()).thenReturn("os");
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn(objectStore);
+    when(objectStore.contains("key")).thenThrow(new ObjectStoreException(new Exception("status code was 429")));
+
+    try {
+      objectStoreOperations.contains("key", null, LOCKED);
+      fail("Expected the rate limited store to fail the operation");
+    } catch (ModuleException e) {
+      assertThat(e.getType(), is(ObjectStoreErrors.STORE_NOT_AVAILABLE));
+    }
+
+    assertThat(enabled.forStore("os").getLimit(), is(4));
+    assertThat(enabled.forStore("os").getInFlight(), is(0));
+    assertThat(metrics.forStore("os").getRateLimitedCount(), is(1L));
+  }
+
+  @Test
+  public void unavailableStoreIsRetriedWhileHoldingTheLock() throws Exception {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+
+    ExtensionObjectStore objectStore = mock(ExtensionObjectStore.class);
+    when(objectStore.getName()).thenReturn("os");
+    when(objectStore.getRetryPolicy()).thenReturn(RetryPolicy.of(3, 1L, 1L, null, MILLISECONDS));
+    when(objectStore.contains("key"))
+        .thenThrow(new ObjectStoreNotAvailableException())
+        .thenThrow(new ObjectStoreException(new Exception("status code was 429")))
+        .thenReturn(true);
+    when(objectStore.retrieve("key")).thenReturn("value");
+
+    assertThat(objectStoreOperations.contains("key", objectStore, LOCKED), is(true));
+    verify(lockFactory, times(1)).createLock(anyString());
+    assertThat(metrics.forStore("os").getRetryCount(), is(2L));
+  }
+
+  @Test
+  public void retriesExhausted() throws Exception {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+
+    ExtensionObjectStore objectStore = mock(ExtensionObjectStore.class);
+    when(objectStore.getName()).thenReturn("os");
+    when(objectStore.getRetryPolicy()).thenReturn(RetryPolicy.of(2, 1L, 1L, null, MILLISECONDS));
+    when(objectStore.contains("key")).thenThrow(new ObjectStoreNotAvailableException());
+
+    try {
+      objectStoreOperations.contains("key", objectStore, LOCKED);
+      fail("Expected the exhausted retries to fail the operation");
+    } catch (ModuleException e) {
+      assertThat(e.getType(), is(ObjectStoreErrors.STORE_NOT_AVAILABLE));
+    }
+
+    verify(objectStore, times(2)).contains("key");
+    assertThat(metrics.forStore("os").getRetryCount(), is(1L));
+    assertThat(metrics.forStore("os").getRetriesExhaustedCount(), is(1L));
+  }
+
+  @Test
+  public void asyncRetrieveCompletesCallback() throws Exception {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+
+    ObjectStore objectStore = mock(ObjectStore.class);
+    when(objectStore.toString()).thenReturn("os");
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn(objectStore);
+    when(objectStore.retrieve("key")).thenReturn("value");
+
+    CompletionCallback<Serializable, Void> callback = mock(CompletionCallback.class);
+    objectStoreOperations.retrieveAsync("key", null, null, LOCKED, callback);
+
+    ArgumentCaptor<Result> result = ArgumentCaptor.forClass(Result.class);
+    verify(callback, timeout(5000)).success(result.capture());
+    assertThat(result.getValue().getOutput(), is("value"));
+    verify(callback, never()).error(any());
+  }
+
+  @Test
+  public void asyncErrorsCompleteCallback() throws Exception {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+
+    ObjectStore objectStore = mock(ObjectStore.class);
+    when(objectStore.toString()).thenReturn("os");
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn(objectStore);
+    when(objectStore.remove("key")).thenThrow(new ObjectDoesNotExistException());
+
+    CompletionCallback<Void, Void> callback = mock(CompletionCallback.class);
+    objectStoreOperations.removeAsync("key", null, callback);
+
+    ArgumentCaptor<Throwable> error = ArgumentCaptor.forClass(Throwable.class);
+    verify(callback, timeout(5000)).error(error.capture());
+    assertThat(((ModuleException) error.getValue()).getType(), is(ObjectStoreErrors.KEY_NOT_FOUND));
+  }
+
+  @Test
+  public void asyncOperationsRejectedWhenSaturated() throws Exception {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+
+    CountDownLatch release = new CountDownLatch(1);
+    ObjectStore objectStore = mock(ObjectStore.class);
+    when(objectStore.toString()).thenReturn("os");
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn(objectStore);
+    when(objectStore.contains("key")).thenAnswer(invocation -> {
+      release.await();
+      return true;
+    });
+
+    CompletionCallback<Boolean, Void> pending = mock(CompletionCallback.class);
+    CompletionCallback<Boolean, Void> rejected = mock(CompletionCallback.class);
+    objectStoreOperations.containsAsync("key", null, LOCKED, pending);
+    objectStoreOperations.containsAsync("key", null, LOCKED, rejected);
+
+    ArgumentCaptor<Throwable> error = ArgumentCaptor.forClass(Throwable.class);
+    verify(rejected).error(error.capture());
+    assertThat(((ModuleException) error.getValue()).getType(), is(ObjectStoreErrors.STORE_NOT_AVAILABLE));
+    verify(objectStore, timeout(5000)).contains("key");
+
+    release.countDown();
+    verify(pending, timeout(5000)).success(any());
+  }
+
+  @Test
+  public void compareAndSetSkipsLockOnNativelyVersionedStore() throws Exception {
+    ObjectStore objectStore = mock(ObjectStore.class, withSettings().extraInterfaces(VersionedObjectStore.class));
+    when(objectStore.toString()).thenReturn("os");
+    when(((VersionedObjectStore) objectStore).compareAndSet(eq("key"), any(), eq(3L))).thenReturn(false);
+
+    boolean stored = objectStoreOperations.compareAndSet("key", new TypedValue<>("value", null), 3L, objectStore);
+
+    assertThat(stored, is(false));
+    verify(lockFactory, never()).createLock(anyString());
+    assertThat(metrics.forStore("os").getCompareAndSetConflictCount(), is(1L));
+  }
+
+  @Test
+  public void compareAndSetLocksKeyWhenVersionsAreEmulated() throws Exception {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+
+    ExtensionObjectStore objectStore = mock(ExtensionObjectStore.class);
+    when(objectStore.getName()).thenReturn("os");
+    when(objectStore.getRetryPolicy()).thenReturn(RetryPolicy.NONE);
+    when(objectStore.isCompareAndSetAtomic()).thenReturn(false);
+    when(objectStore.compareAndSet(eq("key"), any(), eq(null))).thenReturn(true);
+
+    assertThat(objectStoreOperations.compareAndSet("key", new TypedValue<>("value", null), null, objectStore), is(true));
+    verify(lockFactory).createLock(anyString());
+  }
+
+  @Test
+  public void retrieveWithVersionLocksKeyWhenVersionsAreEmulated() throws Exception {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+
+    ExtensionObjectStore objectStore = mock(ExtensionObjectStore.class);
+    when(objectStore.getName()).thenReturn("os");
+    when(objectStore.getRetryPolicy()).thenReturn(RetryPolicy.NONE);
+    when(objectStore.isCompareAndSetAtomic()).thenReturn(false);
+    when(objectStore.retrieveWithVersion("key")).thenReturn(new VersionedValue("value", 3L));
+
+    Result<Serializable, VersionAttributes> result = objectStoreOperations.retrieveWithVersion("key", objectStore);
+
+    assertThat(result.getOutput(), is("value"));
+    assertThat(result.getAttributes().get().getVersion(), is(3L));
+    verify(lockFactory).createLock(anyString());
+  }
+
+  @Test
+  public void compareAndSetRequiresVersionedStore() throws Exception {
+    ObjectStore objectStore = mock(ObjectStore.class);
+    when(objectStore.toString()).thenReturn("os");
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+
+    expectedException.expect(ModuleException.class);
+    expectedException.expectMessage(containsString("doesn't support versioning"));
+    objectStoreOperations.compareAndSet("key", new TypedValue<>("value", null), null, objectStore);
+  }
+
+  @Test
+  public void entriesStoredWithTtlExpire() throws Exception {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+    ObjectStore<Serializable> objectStore = new InMemoryObjectStore<>();
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn((ObjectStore) objectStore);
+
+    objectStoreOperations.store("short", TypedValue.of("value"), false, true, 1L, MILLISECONDS, null);
+    objectStoreOperations.store("long", TypedValue.of("value"), false, true, 1L, SECONDS, null);
+    objectStoreOperations.store("forever", TypedValue.of("value"), false, true, null, SECONDS, null);
+    Thread.sleep(10);
+
+    assertThat(objectStoreOperations.contains("short", null, LOCKED), is(false));
+    assertThat(objectStoreOperations.contains("long", null, LOCKED), is(true));
+    assertThat(objectStoreOperations.contains("forever", null, LOCKED), is(true));
+    assertThat(objectStoreOperations.retrieve("short", TypedValue.of("default"), null, LOCKED).getOutput(),
+               is("default"));
+    assertThat(objectStore.contains("short"), is(true));
+
+    assertThat(reclaimer.reclaimExpired(System.currentTimeMillis()), is(1));
+    assertThat(objectStore.contains("short"), is(false));
+    assertThat(objectStore.contains("long"), is(true));
+    assertThat(reclaimer.getPendingCount(), is(1));
+  }
+
+  @Test
+  public void entriesExpiredOutsideThisRunAreAbsentFromPersistentStores() throws Exception {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+    ObjectStore objectStore = mock(ObjectStore.class);
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn(objectStore);
+    when(objectStore.isPersistent()).thenReturn(true);
+    when(objectStore.contains("key")).thenReturn(true);
+    when(objectStore.retrieve("key")).thenReturn(new ExpiringValue("value", System.currentTimeMillis() - 1));
+
+    assertThat(reclaimer.getPendingCount(), is(0));
+    assertThat(objectStoreOperations.contains("key", null, LOCKED), is(false));
+  }
+
+  @Test
+  public void entriesExpiredByAnotherNodeAreAbsentFromClusteredStores() throws Exception {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+    doReturn(true).when(locks).isClustered();
+    ObjectStore<Serializable> objectStore = new InMemoryObjectStore<>();
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn((ObjectStore) objectStore);
+    objectStore.store("key", new ExpiringValue("value", System.currentTimeMillis() - 1));
+
+    assertThat(objectStoreOperations.contains("key", null, LOCKED), is(false));
+  }
+
+  @Test
+  public void countersTrackTheExpirationTheyWereStoredWith() throws Exception {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+    ObjectStore objectStore = mock(ObjectStore.class, withSettings().extraInterfaces(CounterObjectStore.class));
+    when(objectStore.toString()).thenReturn("os");
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn(objectStore);
+    // an older counter which went back to the value a new one starts from
+    when(((CounterObjectStore) objectStore).increment("key", 1L, 0L, 1000L)).thenReturn(1L);
+    when(objectStore.retrieve("key")).thenReturn(new ExpiringValue(1L, System.currentTimeMillis() - 1));
+
+    assertThat(objectStoreOperations.increment("key", 1L, 0L, 1L, SECONDS, null), is(1L));
+
+    assertThat(reclaimer.reclaimExpired(System.currentTimeMillis()), is(1));
+    verify(objectStore).remove("key");
+  }
+
+  @Test
+  public void countersExpiredByTheStoreAreNotTracked() throws Exception {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+    ObjectStore objectStore = mock(ObjectStore.class, withSettings().extraInterfaces(CounterObjectStore.class));
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn(objectStore);
+    when(((CounterObjectStore) objectStore).increment("key", 1L, 0L, 1000L)).thenReturn(1L);
+    when(objectStore.retrieve("key")).thenReturn(1L);
+
+    objectStoreOperations.increment("key", 1L, 0L, 1L, SECONDS, null);
+
+    assertThat(reclaimer.getPendingCount(), is(0));
+  }
+
+  @Test
+  public void overwrittenEntriesAreNotReclaimed() throws Exception {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+    ObjectStore<Serializable> objectStore = new InMemoryObjectStore<>();
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn((ObjectStore) objectStore);
+
+    objectStoreOperations.store("key", TypedValue.of("value"), false, true, 1L, MILLISECONDS, null);
+    objectStoreOperations.store("key", TypedValue.of("other"), false, true, null, SECONDS, null);
+    Thread.sleep(10);
+
+    reclaimer.reclaimExpired(System.currentTimeMillis());
+    assertThat(objectStoreOperations.retrieve("key", null, null, LOCKED).getOutput(), is("other"));
+  }
+
+  @Test
+  public void expiredEntriesAreAbsentForStoreAll() throws Exception {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+    ObjectStore<Serializable> objectStore = new InMemoryObjectStore<>();
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn((ObjectStore) objectStore);
+
+    objectStoreOperations.store("expired", TypedValue.of("value"), false, true, 1L, MILLISECONDS, null);
+    objectStoreOperations.store("live", TypedValue.of("value"), false, true, null, SECONDS, null);
+    Thread.sleep(10);
+
+    Map<String, Serializable> entries = new HashMap<>();
+    entries.put("expired", "other");
+    entries.put("live", "other");
+    Map<String, StoreOutcome> outcomes = objectStoreOperations.storeAll(entries, true, true, null);
+
+    assertThat(outcomes.get("expired"), is(StoreOutcome.STORED));
+    assertThat(outcomes.get("live"), is(StoreOutcome.KEY_ALREADY_EXISTS));
+    assertThat(objectStoreOperations.retrieve("expired", null, null, LOCKED).getOutput(), is("other"));
+    assertThat(metrics.forStore(objectStore.toString()).getUpsertFallbackCount(), is(0L));
+  }
+
+  @Test
+  public void failedStoresAreNotTrackedForExpiration() throws Exception {
+    when(lockFactory.createLock(anyString())).thenReturn(new ReentrantLock());
+    ObjectStore<Serializable> objectStore = new InMemoryObjectStore<>();
+    when(runtimeObjectStoreManager.getDefaultPartition()).thenReturn((ObjectStore) objectStore);
+
+    objectStoreOperations.store("key", TypedValue.of("value"), false, true, null, SECONDS, null);
+    try {
+      objectStoreOperations.store("key", TypedValue.of("other"), true, true, 1L, SECONDS, null);
+    } catch (ModuleException e) {
+      // the key already exists
+    }
+
+    assertThat(reclaimer.getPendingCount(), is(0));
   }
 }
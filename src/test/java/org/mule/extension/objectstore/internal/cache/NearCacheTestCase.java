@@ -0,0 +1,81 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.mule.extension.objectstore.api.EvictionPolicy.FIFO;
+import static org.mule.extension.objectstore.api.EvictionPolicy.LRU;
+import org.mule.extension.objectstore.internal.metrics.ObjectStoreMetrics;
+import org.mule.extension.objectstore.internal.metrics.StoreMetrics;
+
+import org.junit.Test;
+
+public class NearCacheTestCase {
+
+  private StoreMetrics metrics = new ObjectStoreMetrics().forStore("test");
+
+  @Test
+  public void lruKeepsRecentlyReadEntries() {
+    NearCache cache = new NearCache(2, 0, LRU, metrics);
+    cache.put("a", "A", cache.generation());
+    cache.put("b", "B", cache.generation());
+    cache.get("a");
+    cache.put("c", "C", cache.generation());
+
+    assertThat(cache.get("a"), is(equalTo("A")));
+    assertThat(cache.get("b"), is(nullValue()));
+    assertThat(metrics.getNearCacheEvictionCount(), is(1L));
+  }
+
+  @Test
+  public void fifoDiscardsOldestEntries() {
+    NearCache cache = new NearCache(2, 0, FIFO, metrics);
+    cache.put("a", "A", cache.generation());
+    cache.put("b", "B", cache.generation());
+    cache.get("a");
+    cache.put("c", "C", cache.generation());
+
+    assertThat(cache.get("a"), is(nullValue()));
+    assertThat(cache.get("b"), is(equalTo("B")));
+    assertThat(cache.get("c"), is(equalTo("C")));
+  }
+
+  @Test
+  public void expiredEntriesAreMisses() throws Exception {
+    NearCache cache = new NearCache(2, 1, LRU, metrics);
+    cache.put("a", "A", cache.generation());
+    Thread.sleep(10);
+
+    assertThat(cache.get("a"), is(nullValue()));
+    assertThat(cache.size(), is(0));
+  }
+
+  @Test
+  public void loadsStartedBeforeInvalidationAreDiscarded() {
+    NearCache cache = new NearCache(2, 0, LRU, metrics);
+    long generation = cache.generation();
+    cache.invalidate("a");
+    cache.put("a", "stale", generation);
+
+    assertThat(cache.get("a"), is(nullValue()));
+  }
+
+  @Test
+  public void countsHitsAndMisses() {
+    NearCache cache = new NearCache(2, 0, LRU, metrics);
+    cache.get("a");
+    cache.put("a", "A", cache.generation());
+    cache.get("a");
+    cache.get("a");
+
+    assertThat(metrics.getNearCacheHitCount(), is(2L));
+    assertThat(metrics.getNearCacheMissCount(), is(1L));
+  }
+}
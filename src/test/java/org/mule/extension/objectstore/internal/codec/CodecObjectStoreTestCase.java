@@ -0,0 +1,126 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.codec;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.nCopies;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import org.mule.extension.objectstore.api.Compression;
+import org.mule.extension.objectstore.api.ValueCodec;
+import org.mule.extension.objectstore.internal.metrics.ObjectStoreMetrics;
+import org.mule.extension.objectstore.internal.metrics.StoreMetrics;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.runtime.api.store.ObjectStoreException;
+import org.mule.tck.core.util.store.InMemoryObjectStore;
+
+import java.io.Serializable;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class CodecObjectStoreTestCase {
+
+  private ObjectStore<Serializable> delegate = new InMemoryObjectStore<>();
+  private ValueCodecs codecs = new ValueCodecs(mock(SerializationProtocol.class));
+  private CodecObjectStore store = new CodecObjectStore(delegate, codecs.get("compact"), codecs);
+
+  @Test
+  public void valuesAreEncoded() throws Exception {
+    store.store("key", "value");
+    store.upsert("otherKey", 42L);
+    store.upsert("otherKey", 43L);
+
+    assertThat(delegate.retrieve("key"), is(instanceOf(byte[].class)));
+    assertThat(store.retrieve("key"), is((Serializable) "value"));
+    assertThat(store.retrieve("otherKey"), is((Serializable) 43L));
+    assertThat(store.retrieveMany(asList("key", "missing")).size(), is(1));
+    assertThat(store.remove("key"), is((Serializable) "value"));
+    assertThat(store.contains("key"), is(false));
+  }
+
+  @Test
+  public void legacyValuesAreReadAsTheyAre() throws Exception {
+    byte[] raw = "raw".getBytes(UTF_8);
+    delegate.store("legacy", "value");
+    delegate.store("legacyBytes", raw);
+
+    Map<String, Serializable> values = store.retrieveAll();
+    assertThat(values.get("legacy"), is((Serializable) "value"));
+    assertThat(values.get("legacyBytes"), is((Serializable) raw));
+  }
+
+  @Test
+  public void valuesAreDecodedWithTheCodecWhichWroteThem() throws Exception {
+    store.store("key", "value");
+
+    assertThat(new CodecObjectStore(delegate, new UpperCaseCodec(), codecs).retrieve("key"), is((Serializable) "value"));
+  }
+
+  @Test(expected = ObjectStoreException.class)
+  public void unknownCodec() throws Exception {
+    ValueCodecs otherCodecs = new ValueCodecs(mock(SerializationProtocol.class));
+    new CodecObjectStore(delegate, new UpperCaseCodec(), otherCodecs).store("key", "value");
+
+    new CodecObjectStore(delegate, otherCodecs.get("compact"), otherCodecs).retrieve("key");
+  }
+
+  @Test
+  public void largeValuesAreCompressed() throws Exception {
+    StoreMetrics metrics = new ObjectStoreMetrics().forStore("store");
+    CodecObjectStore compressing =
+        new CodecObjectStore(delegate, codecs.get("compact"), codecs, Compressor.of(Compression.LZ4), 64, metrics);
+    String document = String.join(",", nCopies(100, "{\"name\": \"value\"}"));
+
+    compressing.store("small", "value");
+    compressing.store("large", document);
+
+    assertThat(((byte[]) delegate.retrieve("large")).length, lessThan(document.length() / 4));
+    assertThat(compressing.retrieve("large"), is((Serializable) document));
+    assertThat(compressing.retrieve("small"), is((Serializable) "value"));
+    assertThat(metrics.getCompressedValueCount(), is(1L));
+    assertThat(metrics.getUncompressedValueCount(), is(1L));
+    assertThat(metrics.getCompressionRatio(), greaterThan(4d));
+    assertThat(metrics.getDecompressionTime().getCount(), is(1L));
+  }
+
+  @Test
+  public void valuesAreDecompressedWithTheAlgorithmWhichWroteThem() throws Exception {
+    String document = String.join(",", nCopies(100, "{\"name\": \"value\"}"));
+    new CodecObjectStore(delegate, codecs.get("compact"), codecs, Compressor.of(Compression.DEFLATE), 64, null)
+        .store("deflated", document);
+    new CodecObjectStore(delegate, codecs.get("compact"), codecs, Compressor.of(Compression.LZ4), 64, null)
+        .store("lz4", document);
+
+    assertThat(store.retrieve("deflated"), is((Serializable) document));
+    assertThat(store.retrieve("lz4"), is((Serializable) document));
+  }
+
+  private static class UpperCaseCodec implements ValueCodec {
+
+    @Override
+    public String getName() {
+      return "UPPER";
+    }
+
+    @Override
+    public byte[] encode(Serializable value) {
+      return value.toString().toUpperCase().getBytes(UTF_8);
+    }
+
+    @Override
+    public Serializable decode(byte[] encoded) {
+      return new String(encoded, UTF_8);
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.codec;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.mule.extension.objectstore.api.VersionedValue;
+import org.mule.extension.objectstore.internal.expiry.ExpiringValue;
+import org.mule.runtime.api.metadata.DataType;
+import org.mule.runtime.api.metadata.MediaType;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompactValueCodecTestCase {
+
+  private static final String JSON = "{\"name\": \"Ñandú\"}";
+
+  private SerializationProtocol serializer = mock(SerializationProtocol.class);
+  private CompactValueCodec codec = new CompactValueCodec(serializer);
+
+  @Before
+  public void before() throws Exception {
+    when(serializer.serialize(any())).thenAnswer(invocation -> serialize(invocation.getArguments()[0]));
+    when(serializer.deserialize(any(byte[].class))).thenAnswer(invocation -> deserialize((byte[]) invocation.getArguments()[0]));
+  }
+
+  @Test
+  public void typedValue() throws Exception {
+    MediaType json = MediaType.parse("application/json; charset=UTF-8");
+    TypedValue<Serializable> value = new TypedValue<>(JSON, DataType.builder().type(String.class).mediaType(json).build());
+
+    TypedValue<?> decoded = (TypedValue<?>) codec.decode(codec.encode(value));
+    assertThat(decoded.getValue(), is(JSON));
+    assertThat(decoded.getDataType().getMediaType().toRfcString(), is(json.toRfcString()));
+    assertThat(decoded.getDataType().getType(), is((Object) String.class));
+  }
+
+  @Test
+  public void bytesAreWrittenRaw() throws Exception {
+    byte[] payload = JSON.getBytes(UTF_8);
+    TypedValue<Serializable> value = new TypedValue<>(payload, DataType.builder().type(byte[].class)
+        .mediaType(MediaType.APPLICATION_JSON).build());
+
+    byte[] encoded = codec.encode(value);
+    assertThat(encoded.length, lessThan(serialize(value).length));
+
+    TypedValue<?> decoded = (TypedValue<?>) codec.decode(encoded);
+    assertThat(Arrays.equals((byte[]) decoded.getValue(), payload), is(true));
+  }
+
+  @Test
+  public void scalars() throws Exception {
+    assertThat(codec.decode(codec.encode(null)), is(nullValue()));
+    assertThat(codec.decode(codec.encode(42L)), is((Serializable) 42L));
+    assertThat(codec.decode(codec.encode(42)), is((Serializable) 42));
+    assertThat(codec.decode(codec.encode(4.2)), is((Serializable) 4.2));
+    assertThat(codec.decode(codec.encode(true)), is((Serializable) true));
+    assertThat(codec.decode(codec.encode(JSON)), is((Serializable) JSON));
+  }
+
+  @Test
+  public void wrappers() throws Exception {
+    ExpiringValue value = new ExpiringValue(new VersionedValue(JSON, 3), 1000);
+
+    ExpiringValue decoded = (ExpiringValue) codec.decode(codec.encode(value));
+    assertThat(decoded.getExpiresAt(), is(1000L));
+    VersionedValue versioned = (VersionedValue) decoded.getValue();
+    assertThat(versioned.getVersion(), is(3L));
+    assertThat(versioned.getValue(), is((Serializable) JSON));
+  }
+
+  @Test
+  public void otherValuesAreSerialized() throws Exception {
+    ArrayList<String> value = new ArrayList<>(Arrays.asList("a", "b"));
+
+    Serializable decoded = codec.decode(codec.encode(value));
+    assertThat(decoded, is(instanceOf(ArrayList.class)));
+    assertThat(decoded, is((Serializable) value));
+  }
+
+  @Test(expected = IOException.class)
+  public void truncatedValue() throws Exception {
+    byte[] encoded = codec.encode(JSON);
+    codec.decode(Arrays.copyOf(encoded, encoded.length - 1));
+  }
+
+  private static byte[] serialize(Object value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(value);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return in.readObject();
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.codec;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class CompressorTestCase {
+
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> compressors() {
+    return asList(new Object[] {"DEFLATE", DeflateCompressor.INSTANCE}, new Object[] {"LZ4", Lz4Compressor.INSTANCE});
+  }
+
+  private final Compressor compressor;
+  private final Random random = new Random(42);
+
+  public CompressorTestCase(String name, Compressor compressor) {
+    this.compressor = compressor;
+  }
+
+  @Test
+  public void documentsShrink() throws Exception {
+    StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < 1000; i++) {
+      json.append("{\"id\": ").append(i).append(", \"name\": \"customer").append(random.nextInt(100)).append("\"},");
+    }
+    byte[] data = json.append("]").toString().getBytes(UTF_8);
+
+    byte[] compressed = compressor.compress(data);
+    assertThat(compressed.length, lessThan(data.length / 2));
+    assertThat(Arrays.equals(compressor.decompress(compressed, 0, compressed.length, data.length), data), is(true));
+  }
+
+  @Test
+  public void roundTrip() throws Exception {
+    for (int i = 0; i < 200; i++) {
+      byte[] data = new byte[random.nextInt(4096)];
+      // from incompressible to long runs of the same byte
+      int alphabet = 1 + i % 10 * 28;
+      for (int j = 0; j < data.length; j++) {
+        data[j] = (byte) random.nextInt(alphabet);
+      }
+      assertRoundTrip(data);
+    }
+  }
+
+  @Test
+  public void edgeCases() throws Exception {
+    assertRoundTrip(new byte[0]);
+    assertRoundTrip(new byte[] {1});
+    assertRoundTrip(new byte[100000]);
+  }
+
+  @Test
+  public void compressedDataWithinLargerArray() throws Exception {
+    byte[] data = "abcabcabcabcabcabcabcabcabcabcabcabc".getBytes(UTF_8);
+    byte[] compressed = compressor.compress(data);
+    byte[] framed = new byte[compressed.length + 10];
+    System.arraycopy(compressed, 0, framed, 7, compressed.length);
+
+    assertThat(Arrays.equals(compressor.decompress(framed, 7, compressed.length, data.length), data), is(true));
+  }
+
+  @Test(expected = IOException.class)
+  public void truncatedData() throws Exception {
+    byte[] data = new byte[10000];
+    random.nextBytes(data);
+    byte[] compressed = compressor.compress(data);
+    compressor.decompress(compressed, 0, compressed.length / 2, data.length);
+  }
+
+  private void assertRoundTrip(byte[] data) throws IOException {
+    byte[] compressed = compressor.compress(data);
+    assertThat(Arrays.equals(compressor.decompress(compressed, 0, compressed.length, data.length), data), is(true));
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.counter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.core.Is.is;
+import org.mule.extension.objectstore.internal.expiry.ExpiringValue;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.api.store.ObjectStoreException;
+
+import java.io.Serializable;
+
+import org.junit.Test;
+
+public class CountersTestCase {
+
+  @Test
+  public void createsFromInitialValue() throws Exception {
+    assertThat(Counters.next("key", null, 1, 0, null, 0), is((Serializable) 1L));
+    assertThat(Counters.next("key", null, -1, 10, null, 0), is((Serializable) 9L));
+  }
+
+  @Test
+  public void addsToStoredNumbers() throws Exception {
+    assertThat(Counters.next("key", 5, 2, 0, null, 0), is((Serializable) 7L));
+    assertThat(Counters.next("key", " 5 ", 2, 0, null, 0), is((Serializable) 7L));
+    assertThat(Counters.next("key", new TypedValue<>(5L, null), 2, 0, null, 0), is((Serializable) 7L));
+  }
+
+  @Test
+  public void ttlIsKeptUntilExpired() throws Exception {
+    Serializable created = Counters.next("key", null, 1, 0, 100L, 1000);
+    assertThat(created, instanceOf(ExpiringValue.class));
+    assertThat(((ExpiringValue) created).getExpiresAt(), is(1100L));
+
+    Serializable updated = Counters.next("key", created, 1, 0, 500L, 1050);
+    assertThat(Counters.valueOf(updated), is(2L));
+    assertThat(((ExpiringValue) updated).getExpiresAt(), is(1100L));
+
+    Serializable restarted = Counters.next("key", updated, 1, 0, 100L, 1100);
+    assertThat(Counters.valueOf(restarted), is(1L));
+    assertThat(((ExpiringValue) restarted).getExpiresAt(), is(1200L));
+  }
+
+  @Test(expected = ObjectStoreException.class)
+  public void notANumber() throws Exception {
+    Counters.next("key", "value", 1, 0, null, 0);
+  }
+}
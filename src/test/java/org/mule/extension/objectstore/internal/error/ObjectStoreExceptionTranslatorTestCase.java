@@ -0,0 +1,54 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.error;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mule.extension.objectstore.internal.error.ObjectStoreErrors.KEY_NOT_FOUND;
+import static org.mule.extension.objectstore.internal.error.ObjectStoreErrors.STORE_NOT_AVAILABLE;
+import static org.mule.extension.objectstore.internal.error.ObjectStoreErrors.VALUE_TOO_LARGE;
+import static org.mule.extension.objectstore.internal.error.ObjectStoreExceptionTranslator.isRateLimitExceeded;
+import static org.mule.extension.objectstore.internal.error.ObjectStoreExceptionTranslator.translate;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.mule.runtime.extension.api.error.MuleErrors.ANY;
+import org.mule.extension.objectstore.api.RateLimitExceededException;
+import org.mule.extension.objectstore.api.ValueTooLargeException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStoreException;
+import org.mule.runtime.api.store.ObjectStoreNotAvailableException;
+
+import org.junit.Test;
+
+public class ObjectStoreExceptionTranslatorTestCase {
+
+  @Test
+  public void typedRateLimit() {
+    assertThat(isRateLimitExceeded(new RateLimitExceededException(createStaticMessage("slow down"))), is(true));
+  }
+
+  @Test
+  public void rateLimitReportedInCause() {
+    ObjectStoreException e = new ObjectStoreException(new RuntimeException("Request failed, status code was 429"));
+
+    assertThat(isRateLimitExceeded(e), is(true));
+    assertThat(translate(e, "key").getType(), is(STORE_NOT_AVAILABLE));
+  }
+
+  @Test
+  public void otherErrors() {
+    assertThat(isRateLimitExceeded(new ObjectStoreException(createStaticMessage("boom"))), is(false));
+    assertThat(isRateLimitExceeded(new ObjectStoreException()), is(false));
+    assertThat(translate(new ObjectStoreNotAvailableException(), null).getType(), is(STORE_NOT_AVAILABLE));
+    assertThat(translate(new ObjectDoesNotExistException(), "key").getType(), is(KEY_NOT_FOUND));
+    assertThat(translate(new ObjectDoesNotExistException(), null).getType(), is(ANY));
+  }
+
+  @Test
+  public void valueTooLarge() {
+    assertThat(translate(new ValueTooLargeException(createStaticMessage("too large")), "key").getType(), is(VALUE_TOO_LARGE));
+  }
+}
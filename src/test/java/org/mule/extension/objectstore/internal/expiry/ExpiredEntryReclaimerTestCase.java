@@ -0,0 +1,120 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.expiry;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ExpiredEntryReclaimerTestCase {
+
+  private ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+  private ExpiredEntryReclaimer reclaimer = new ExpiredEntryReclaimer(scheduler, 1000);
+
+  @Test
+  public void reclaimsInExpirationOrder() {
+    List<String> reclaimed = new ArrayList<>();
+    reclaimer.track("store", "c", 30, () -> reclaimed.add("third"));
+    reclaimer.track("store", "a", 10, () -> reclaimed.add("first"));
+    reclaimer.track("store", "b", 20, () -> reclaimed.add("second"));
+
+    assertThat(reclaimer.reclaimExpired(25), is(2));
+    assertThat(reclaimed, contains("first", "second"));
+    assertThat(reclaimer.getPendingCount(), is(1));
+  }
+
+  @Test
+  public void failedReclaimDoesNotStopTheRest() {
+    List<String> reclaimed = new ArrayList<>();
+    reclaimer.track("store", "a", 10, () -> {
+      throw new IllegalStateException("store is gone");
+    });
+    reclaimer.track("store", "b", 20, () -> reclaimed.add("second"));
+
+    assertThat(reclaimer.reclaimExpired(100), is(1));
+    assertThat(reclaimed, contains("second"));
+    assertThat(reclaimer.getPendingCount(), is(1));
+    assertThat(reclaimer.hasExpiringEntries("store"), is(true));
+  }
+
+  @Test
+  public void scheduledOnFirstTrack() {
+    assertThat(reclaimer.hasExpiringEntries("store"), is(false));
+
+    reclaimer.track("store", "a", 10, () -> {
+    });
+    reclaimer.track("store", "b", 20, () -> {
+    });
+
+    assertThat(reclaimer.hasExpiringEntries("store"), is(true));
+    assertThat(reclaimer.hasExpiringEntries("otherStore"), is(false));
+    verify(scheduler, times(1)).scheduleWithFixedDelay(any(), eq(1000L), anyLong(), eq(TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void rewritingAKeyReplacesItsExpiration() {
+    List<String> reclaimed = new ArrayList<>();
+    reclaimer.track("store", "key", 10, () -> reclaimed.add("first"));
+    reclaimer.track("store", "key", 20, () -> reclaimed.add("second"));
+
+    assertThat(reclaimer.getPendingCount(), is(1));
+    assertThat(reclaimer.reclaimExpired(100), is(1));
+    assertThat(reclaimed, contains("second"));
+  }
+
+  @Test
+  public void untrackedKeysAreNotReclaimed() {
+    List<String> reclaimed = new ArrayList<>();
+    reclaimer.track("store", "key", 10, () -> reclaimed.add("key"));
+    reclaimer.untrack("store", "key");
+
+    assertThat(reclaimer.hasExpiringEntries("store"), is(false));
+    assertThat(reclaimer.reclaimExpired(100), is(0));
+    assertThat(reclaimed, is(empty()));
+  }
+
+  @Test
+  public void storeHasNoExpiringEntriesOnceAllAreReclaimed() {
+    reclaimer.track("store", "a", 10, () -> {
+    });
+    reclaimer.track("store", "b", 20, () -> {
+    });
+
+    reclaimer.reclaimExpired(15);
+    assertThat(reclaimer.hasExpiringEntries("store"), is(true));
+    reclaimer.reclaimExpired(25);
+    assertThat(reclaimer.hasExpiringEntries("store"), is(false));
+  }
+
+  @Test
+  public void untrackedStoresDropAllTheirExpirations() {
+    reclaimer.track("store", "a", 10, () -> {
+    });
+    reclaimer.track("otherStore", "a", 10, () -> {
+    });
+
+    reclaimer.untrackStore("store");
+
+    assertThat(reclaimer.hasExpiringEntries("store"), is(false));
+    assertThat(reclaimer.hasExpiringEntries("otherStore"), is(true));
+    assertThat(reclaimer.getPendingCount(), is(1));
+  }
+}
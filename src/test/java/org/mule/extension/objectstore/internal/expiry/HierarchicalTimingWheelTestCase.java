@@ -0,0 +1,91 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.expiry;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.Is.is;
+import org.mule.extension.objectstore.internal.expiry.HierarchicalTimingWheel.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class HierarchicalTimingWheelTestCase {
+
+  // ticks of 10ms, levels spanning 40ms, 160ms and 640ms
+  private HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(10, 4, 3, 0);
+  private List<String> fired = new ArrayList<>();
+
+  @Test
+  public void firesOnceDeadlineIsReached() {
+    wheel.schedule(25, (deadline, firedAt) -> fired.add("first"));
+    wheel.schedule(30, (deadline, firedAt) -> fired.add("second"));
+
+    assertThat(wheel.advance(20), is(0));
+    assertThat(wheel.advance(30), is(2));
+    assertThat(fired, contains("first", "second"));
+    assertThat(wheel.getPendingCount(), is(0));
+  }
+
+  @Test
+  public void cascadesFromHigherLevels() {
+    wheel.schedule(500, (deadline, firedAt) -> fired.add("far"));
+    wheel.schedule(90, (deadline, firedAt) -> fired.add("near"));
+
+    for (long now = 10; now < 500; now += 10) {
+      wheel.advance(now);
+      if (now < 90) {
+        assertThat(fired, is(empty()));
+      }
+    }
+    assertThat(fired, contains("near"));
+
+    wheel.advance(500);
+    assertThat(fired, contains("near", "far"));
+  }
+
+  @Test
+  public void deadlinesBeyondTheWheelSpanAreHeldUntilInRange() {
+    wheel.schedule(2000, (deadline, firedAt) -> fired.add("beyond"));
+
+    assertThat(wheel.advance(1990), is(0));
+    assertThat(wheel.advance(2000), is(1));
+    assertThat(fired, contains("beyond"));
+  }
+
+  @Test
+  public void firedTasksReceiveTheirLag() {
+    List<Long> lags = new ArrayList<>();
+    wheel.schedule(15, (deadline, firedAt) -> lags.add(firedAt - deadline));
+
+    wheel.advance(55);
+    assertThat(lags, contains(40L));
+  }
+
+  @Test
+  public void cancelledTimeoutsDoNotFire() {
+    Timeout timeout = wheel.schedule(300, (deadline, firedAt) -> fired.add("cancelled"));
+    wheel.schedule(300, (deadline, firedAt) -> fired.add("kept"));
+    timeout.cancel();
+
+    assertThat(wheel.advance(300), is(1));
+    assertThat(fired, contains("kept"));
+    assertThat(wheel.getPendingCount(), is(0));
+  }
+
+  @Test
+  public void pastDeadlinesFireOnNextTick() {
+    wheel.advance(100);
+    wheel.schedule(50, (deadline, firedAt) -> fired.add("late"));
+
+    assertThat(wheel.advance(110), is(1));
+    assertThat(fired, contains("late"));
+  }
+}
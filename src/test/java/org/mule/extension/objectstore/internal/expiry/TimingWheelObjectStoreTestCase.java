@@ -0,0 +1,110 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.expiry;
+
+import static java.lang.System.currentTimeMillis;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import org.mule.extension.objectstore.internal.metrics.ObjectStoreMetrics;
+import org.mule.extension.objectstore.internal.metrics.StoreMetrics;
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class TimingWheelObjectStoreTestCase {
+
+  private static final long TTL = 1000;
+
+  private ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+  private TimingWheelExpirationEngine engine = new TimingWheelExpirationEngine(scheduler, 10);
+  private StoreMetrics metrics = new ObjectStoreMetrics().forStore("store");
+
+  @Test
+  public void entriesExpireOnTheirOwn() throws Exception {
+    TimingWheelObjectStore store = engine.getOrCreateStore("store", null, TTL, metrics);
+    store.store("key", "value");
+
+    engine.advance(currentTimeMillis() + TTL / 2);
+    assertThat(store.contains("key"), is(true));
+
+    engine.advance(currentTimeMillis() + TTL + 500);
+    assertThat(store.contains("key"), is(false));
+    assertThat(metrics.getExpiredEntryCount(), is(1L));
+    assertThat(metrics.getExpirationLag().getCount(), is(1L));
+    verify(scheduler, times(1)).scheduleAtFixedRate(any(), eq(10L), anyLong(), eq(TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void overwrittenEntriesExpireOnce() throws Exception {
+    TimingWheelObjectStore store = engine.getOrCreateStore("store", null, TTL, metrics);
+    store.store("key", "value");
+    store.upsert("key", "otherValue");
+    assertThat(engine.getPendingCount(), is(2));
+
+    engine.advance(currentTimeMillis() + TTL + 500);
+    assertThat(store.contains("key"), is(false));
+    assertThat(metrics.getExpiredEntryCount(), is(1L));
+    assertThat(engine.getPendingCount(), is(0));
+  }
+
+  @Test
+  public void oldestEntriesEvictedOverMaxEntries() throws Exception {
+    TimingWheelObjectStore store = engine.getOrCreateStore("store", 2, null, metrics);
+    store.store("first", "value");
+    store.store("second", "value");
+    store.remove("second");
+    store.store("third", "value");
+    store.upsert("third", "otherValue");
+    store.store("fourth", "value");
+
+    assertThat(store.allKeys(), containsInAnyOrder("third", "fourth"));
+    assertThat(store.retrieve("third"), is("otherValue"));
+  }
+
+  @Test
+  public void expiredAndEvictedEntriesReportedToDropListeners() throws Exception {
+    List<String> dropped = new ArrayList<>();
+    TimingWheelObjectStore store = engine.getOrCreateStore("store", 1, TTL, metrics);
+    store.addDropListener(dropped::add);
+    store.store("first", "value");
+    store.store("second", "value");
+    store.remove("second");
+    store.store("third", "value");
+
+    engine.advance(currentTimeMillis() + TTL + 500);
+    assertThat(dropped, contains("first", "third"));
+  }
+
+  @Test(expected = ObjectAlreadyExistsException.class)
+  public void storeFailsIfPresent() throws Exception {
+    TimingWheelObjectStore store = engine.getOrCreateStore("store", null, TTL, metrics);
+    store.store("key", "value");
+    store.store("key", "otherValue");
+  }
+
+  @Test
+  public void storesOutliveTheirOwner() throws Exception {
+    TimingWheelObjectStore store = engine.getOrCreateStore("store", null, null, metrics);
+    store.store("key", "value");
+    store.close();
+
+    assertThat(engine.getOrCreateStore("store", null, null, metrics).retrieve("key"), is("value"));
+  }
+}
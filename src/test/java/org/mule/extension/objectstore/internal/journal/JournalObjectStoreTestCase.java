@@ -0,0 +1,118 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.journal;
+
+import static java.lang.System.currentTimeMillis;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JournalObjectStoreTestCase {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private SerializationProtocol serializer = mock(SerializationProtocol.class);
+  private Journal journal;
+
+  @Before
+  public void before() throws Exception {
+    when(serializer.serialize(any())).thenAnswer(invocation -> serialize(invocation.getArguments()[0]));
+    when(serializer.deserialize(any(byte[].class))).thenAnswer(invocation -> deserialize((byte[]) invocation.getArguments()[0]));
+  }
+
+  @Test
+  public void storeAndRetrieve() throws Exception {
+    JournalObjectStore store = store(null, null);
+    store.store("key", "value");
+    store.upsert("otherKey", 42);
+
+    assertThat(store.contains("key"), is(true));
+    assertThat(store.retrieve("key"), is("value"));
+    assertThat(store.retrieveAll().get("otherKey"), is(42));
+    assertThat(store(null, null).allKeys(), containsInAnyOrder("key", "otherKey"));
+  }
+
+  @Test(expected = ObjectAlreadyExistsException.class)
+  public void storeFailsIfPresent() throws Exception {
+    JournalObjectStore store = store(null, null);
+    store.store("key", "value");
+    store.store("key", "otherValue");
+  }
+
+  @Test(expected = ObjectDoesNotExistException.class)
+  public void removedEntriesAreGone() throws Exception {
+    JournalObjectStore store = store(null, null);
+    store.store("key", "value");
+    assertThat(store.remove("key"), is("value"));
+    store(null, null).retrieve("key");
+  }
+
+  @Test
+  public void expiredEntriesAreRemoved() throws Exception {
+    JournalObjectStore store = store(null, 1000L);
+    store.store("key", "value");
+
+    assertThat(store.expire(currentTimeMillis()), is(0));
+    assertThat(store.expire(currentTimeMillis() + 2000), is(1));
+    assertThat(store(null, null).contains("key"), is(false));
+  }
+
+  @Test
+  public void oldestEntriesEvictedOverMaxEntries() throws Exception {
+    JournalObjectStore store = store(2, null);
+    store.store("first", "value");
+    Thread.sleep(5);
+    store.store("second", "value");
+    Thread.sleep(5);
+    store.store("third", "value");
+
+    assertThat(store.expire(currentTimeMillis()), is(1));
+    assertThat(store.allKeys(), containsInAnyOrder("second", "third"));
+  }
+
+  private JournalObjectStore store(Integer maxEntries, Long entryTtl) throws Exception {
+    if (journal != null) {
+      // opening the store again stands for a restart, which closes the journal first
+      journal.close();
+    }
+    journal = new Journal(folder.getRoot(), 64 * 1024, 0);
+    return new JournalObjectStore("store", journal, serializer, maxEntries, entryTtl);
+  }
+
+  private static byte[] serialize(Object value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(value);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Serializable deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return (Serializable) in.readObject();
+    }
+  }
+}
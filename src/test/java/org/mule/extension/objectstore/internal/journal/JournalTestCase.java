@@ -0,0 +1,223 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.journal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.fail;
+import org.mule.extension.objectstore.api.ValueTooLargeException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JournalTestCase {
+
+  private static final int SEGMENT_SIZE = 1024;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Journal opened;
+
+  @Test
+  public void putAndGet() throws Exception {
+    Journal journal = open();
+    journal.put("key", bytes("value"), 1L);
+
+    Journal.Entry entry = journal.get("key");
+    assertThat(new String(entry.getValue(), UTF_8), is("value"));
+    assertThat(entry.getStoredAt(), is(1L));
+    assertThat(journal.putIfAbsent("key", bytes("otherValue"), 2L), is(false));
+    assertThat(journal.get("otherKey"), is(nullValue()));
+  }
+
+  @Test
+  public void entriesSurviveReopening() throws Exception {
+    Journal journal = open();
+    journal.put("key", bytes("value"), 1L);
+    journal.put("key", bytes("otherValue"), 2L);
+    journal.put("removed", bytes("value"), 3L);
+    journal.remove("removed");
+    journal.close();
+
+    Journal reopened = open();
+    assertThat(reopened.keys(), containsInAnyOrder("key"));
+    assertThat(new String(reopened.get("key").getValue(), UTF_8), is("otherValue"));
+
+    reopened.put("newKey", bytes("value"), 4L);
+    assertThat(open().keys(), containsInAnyOrder("key", "newKey"));
+  }
+
+  @Test
+  public void tornRecordIsDiscarded() throws Exception {
+    Journal journal = open();
+    journal.put("key", bytes("value"), 1L);
+    journal.put("torn", bytes("value"), 2L);
+    journal.close();
+
+    try (RandomAccessFile segment = new RandomAccessFile(new File(folder.getRoot(), "segment-0.log"), "rw")) {
+      int tornValueOffset = 2 * JournalSegment.HEADER_SIZE + "keyvalue".length() + "torn".length();
+      segment.seek(tornValueOffset);
+      segment.write(bytes("VALUE"));
+    }
+
+    Journal reopened = open();
+    assertThat(reopened.keys(), containsInAnyOrder("key"));
+    reopened.put("next", bytes("value"), 3L);
+    assertThat(open().keys(), containsInAnyOrder("key", "next"));
+  }
+
+  @Test
+  public void entriesRollOverSegments() throws Exception {
+    Journal journal = open();
+    for (int i = 0; i < 100; i++) {
+      journal.put("key" + i, bytes("value" + i), i);
+    }
+
+    Journal reopened = open();
+    assertThat(reopened.size(), is(100));
+    assertThat(new String(reopened.get("key42").getValue(), UTF_8), is("value42"));
+    assertThat(folder.getRoot().list().length, greaterThan(1));
+  }
+
+  @Test
+  public void compactionDropsGarbageSegments() throws Exception {
+    Journal journal = open();
+    for (int i = 0; i < 100; i++) {
+      journal.put("key" + (i % 5), bytes("value" + i), i);
+    }
+    journal.remove("key0");
+    long usedBytes = journal.getUsedBytes();
+
+    assertThat(journal.compact(), greaterThan(0));
+    assertThat(journal.getUsedBytes(), lessThan(usedBytes));
+
+    Journal reopened = open();
+    assertThat(reopened.keys(), containsInAnyOrder("key1", "key2", "key3", "key4"));
+    assertThat(new String(reopened.get("key4").getValue(), UTF_8), is("value99"));
+  }
+
+  @Test
+  public void clearDeletesEverything() throws Exception {
+    Journal journal = open();
+    journal.put("key", bytes("value"), 1L);
+    journal.clear();
+    journal.put("otherKey", bytes("value"), 2L);
+
+    assertThat(open().keys(), containsInAnyOrder("otherKey"));
+  }
+
+  @Test
+  public void concurrentWritersShareSyncs() throws Exception {
+    Journal journal = new Journal(folder.getRoot(), SEGMENT_SIZE * 64, 1);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> writes = new ArrayList<>();
+      for (int i = 0; i < 200; i++) {
+        String key = "key" + i;
+        writes.add(executor.submit(() -> {
+          journal.put(key, bytes("value"), 1L);
+          return null;
+        }));
+      }
+      for (Future<?> write : writes) {
+        write.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    journal.close();
+
+    assertThat(open().size(), is(200));
+  }
+
+  @Test
+  public void partiallyDeletedCompactionDoesNotResurrectRemovedKeys() throws Exception {
+    int recordSize = JournalSegment.encode(bytes("key"), bytes("value"), 0L).length;
+    AtomicBoolean crash = new AtomicBoolean();
+    Journal journal = new Journal(folder.getRoot(), recordSize, 0) {
+
+      @Override
+      boolean deleteFile(File file) {
+        boolean deleted = file.delete();
+        if (crash.get()) {
+          throw new IllegalStateException("Crashed after deleting " + file.getName());
+        }
+        return deleted;
+      }
+    };
+
+    // each record takes a segment of its own. Roll over enough of them for their ids to no longer iterate in order
+    for (int i = 0; i < 15; i++) {
+      journal.put("pad", bytes("value"), i);
+      journal.compact();
+    }
+    journal.put("key", bytes("value"), 15L);
+    journal.remove("key");
+    journal.put("pad", bytes("value"), 16L);
+
+    crash.set(true);
+    try {
+      journal.compact();
+      fail("The compaction should have crashed");
+    } catch (IllegalStateException e) {
+      // only the first segment was deleted
+    }
+    journal.close();
+
+    assertThat(new Journal(folder.getRoot(), recordSize, 0).keys(), containsInAnyOrder("pad"));
+  }
+
+  @Test
+  public void directoryCanOnlyBeOpenedOnce() throws Exception {
+    open();
+    try {
+      new Journal(folder.getRoot(), SEGMENT_SIZE, 0);
+      fail("The directory should be locked");
+    } catch (IOException e) {
+      assertThat(e.getMessage(), containsString("already open"));
+    }
+
+    opened.close();
+    assertThat(open().keys().isEmpty(), is(true));
+  }
+
+  @Test(expected = ValueTooLargeException.class)
+  public void recordsLargerThanSegmentRejected() throws Exception {
+    open().put("key", new byte[SEGMENT_SIZE], 1L);
+  }
+
+  private Journal open() throws Exception {
+    if (opened != null) {
+      // reopening stands for a restart, which closes the journal first
+      opened.close();
+    }
+    opened = new Journal(folder.getRoot(), SEGMENT_SIZE, 0);
+    return opened;
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(UTF_8);
+  }
+}
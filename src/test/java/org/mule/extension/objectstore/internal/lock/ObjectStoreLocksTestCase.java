@@ -0,0 +1,55 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.lock;
+
+import static java.util.Optional.of;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mule.extension.objectstore.internal.lock.LockMode.AUTO;
+import static org.mule.runtime.core.api.util.ClassUtils.setFieldValue;
+import org.mule.runtime.core.api.config.ClusterConfiguration;
+
+import org.junit.Test;
+
+public class ObjectStoreLocksTestCase {
+
+  @Test
+  public void runtimeLocksByDefault() {
+    assertThat(new ObjectStoreLocks().isStriped("store", () -> true), is(false));
+  }
+
+  @Test
+  public void autoOnlyStripesApplicationPrivateStores() {
+    ObjectStoreLocks locks = new ObjectStoreLocks(AUTO);
+
+    assertThat(locks.isStriped("applicationStore", () -> true), is(true));
+    assertThat(locks.isStriped("domainStore", () -> false), is(false));
+    assertThat(locks.getKeyLock("applicationStore", "key").tryLock(), is(true));
+  }
+
+  @Test
+  public void autoDoesNotStripeOnCluster() throws Exception {
+    ClusterConfiguration clusterConfiguration = mock(ClusterConfiguration.class);
+    when(clusterConfiguration.getClusterId()).thenReturn("cluster");
+    ObjectStoreLocks locks = new ObjectStoreLocks(AUTO);
+    setFieldValue(locks, "clusterConfiguration", of(clusterConfiguration), false);
+
+    assertThat(locks.isStriped("applicationStore", () -> true), is(false));
+  }
+
+  @Test
+  public void decisionIsKeptPerStore() {
+    ObjectStoreLocks locks = new ObjectStoreLocks(AUTO);
+
+    assertThat(locks.isStriped("store", () -> true), is(true));
+    assertThat(locks.isStriped("store", () -> {
+      throw new AssertionError("Already decided");
+    }), is(true));
+  }
+}
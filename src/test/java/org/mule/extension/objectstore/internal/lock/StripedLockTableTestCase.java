@@ -0,0 +1,70 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.lock;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.Is.is;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.Test;
+
+public class StripedLockTableTestCase {
+
+  @Test
+  public void sizeIsRoundedToPowerOfTwo() {
+    assertThat(new StripedLockTable(1).size(), is(1));
+    assertThat(new StripedLockTable(1000).size(), is(1024));
+    assertThat(new StripedLockTable(1024).size(), is(1024));
+  }
+
+  @Test
+  public void sameKeyAlwaysGetsSameLock() {
+    StripedLockTable table = new StripedLockTable(16);
+    assertThat(table.get("store", "key"), is(sameInstance(table.get("store", new String("key")))));
+  }
+
+  @Test
+  public void batchLocksAreDeduplicatedAndInStripeOrder() {
+    StripedLockTable table = new StripedLockTable(4);
+    List<String> keys = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      keys.add("key" + i);
+    }
+
+    List<Lock> locks = table.getAll("store", keys);
+
+    assertThat(locks, hasSize(4));
+    int previous = -1;
+    for (Lock lock : locks) {
+      int stripe = indexOf(table, lock, keys);
+      assertThat(previous, is(lessThan(stripe)));
+      previous = stripe;
+    }
+  }
+
+  @Test
+  public void batchWithSingleKey() {
+    StripedLockTable table = new StripedLockTable(16);
+    assertThat(table.getAll("store", asList("key")).get(0), is(sameInstance(table.get("store", "key"))));
+  }
+
+  private int indexOf(StripedLockTable table, Lock lock, List<String> keys) {
+    for (String key : keys) {
+      if (table.get("store", key) == lock) {
+        return table.stripeFor("store", key);
+      }
+    }
+    throw new AssertionError("lock not found");
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+
+import org.junit.Test;
+
+public class LatencyHistogramTestCase {
+
+  @Test
+  public void emptySnapshot() {
+    LatencySnapshot snapshot = new LatencyHistogram().snapshot();
+
+    assertThat(snapshot.getCount(), is(0L));
+    assertThat(snapshot.getP99(), is(0L));
+  }
+
+  @Test
+  public void percentilesAreBucketUpperBounds() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 99; i++) {
+      histogram.record(100);
+    }
+    histogram.record(1000000);
+
+    LatencySnapshot snapshot = histogram.snapshot();
+
+    assertThat(snapshot.getCount(), is(100L));
+    assertThat(snapshot.getP50(), is(127L));
+    assertThat(snapshot.getP99(), is(127L));
+    assertThat(snapshot.getMax(), is(1000000L));
+    assertThat(snapshot.getMean(), is((99 * 100L + 1000000L) / 100));
+  }
+
+  @Test
+  public void zeroAndNegativeDurations() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(0);
+    histogram.record(-5);
+
+    LatencySnapshot snapshot = histogram.snapshot();
+
+    assertThat(snapshot.getCount(), is(2L));
+    assertThat(snapshot.getP99(), is(1L));
+  }
+
+  @Test
+  public void hugeDurations() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(Long.MAX_VALUE);
+
+    assertThat(histogram.snapshot().getP50(), is(greaterThanOrEqualTo(Long.MAX_VALUE / 2)));
+  }
+}
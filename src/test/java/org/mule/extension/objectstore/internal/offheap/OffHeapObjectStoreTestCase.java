@@ -0,0 +1,169 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.offheap;
+
+import static java.lang.System.currentTimeMillis;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.mule.extension.objectstore.api.ValueTooLargeException;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class OffHeapObjectStoreTestCase {
+
+  private static final int SLAB_SIZE = 4096;
+
+  private SlabAllocator allocator = new SlabAllocator(16 * SLAB_SIZE, SLAB_SIZE);
+  private SerializationProtocol serializer = mock(SerializationProtocol.class);
+
+  @Before
+  public void before() throws Exception {
+    when(serializer.serialize(any())).thenAnswer(invocation -> serialize(invocation.getArguments()[0]));
+    when(serializer.deserialize(any(byte[].class))).thenAnswer(invocation -> deserialize((byte[]) invocation.getArguments()[0]));
+  }
+
+  @Test
+  public void storeAndRetrieve() throws Exception {
+    OffHeapObjectStore store = new OffHeapObjectStore("store", allocator, serializer, null, null);
+    store.store("key", "value");
+    store.store("otherKey", 42);
+
+    assertThat(store.contains("key"), is(true));
+    assertThat(store.retrieve("key"), is("value"));
+    assertThat(store.retrieve("otherKey"), is(42));
+    assertThat(store.allKeys(), containsInAnyOrder("key", "otherKey"));
+    assertThat(store.retrieveAll().get("otherKey"), is(42));
+  }
+
+  @Test
+  public void manyEntriesOutgrowTheInitialIndex() throws Exception {
+    OffHeapObjectStore store = new OffHeapObjectStore("store", allocator, serializer, null, null);
+    for (int i = 0; i < 2000; i++) {
+      store.store("key" + i, i);
+    }
+
+    assertThat(store.size(), is(2000));
+    for (int i = 0; i < 2000; i++) {
+      assertThat(store.retrieve("key" + i), is(i));
+    }
+  }
+
+  @Test
+  public void upsertReplacesAndFreesPreviousValue() throws Exception {
+    OffHeapObjectStore store = new OffHeapObjectStore("store", allocator, serializer, null, null);
+    store.store("key", "value");
+    long used = allocator.getUsedBytes();
+
+    store.upsert("key", "otherValue");
+    assertThat(store.retrieve("key"), is("otherValue"));
+    assertThat(allocator.getUsedBytes(), is(used));
+  }
+
+  @Test
+  public void removeFreesMemory() throws Exception {
+    OffHeapObjectStore store = new OffHeapObjectStore("store", allocator, serializer, null, null);
+    store.store("key", "value");
+
+    assertThat(store.remove("key"), is("value"));
+    assertThat(store.contains("key"), is(false));
+    assertThat(allocator.getUsedBytes(), is(0L));
+  }
+
+  @Test
+  public void clearFreesMemory() throws Exception {
+    OffHeapObjectStore store = new OffHeapObjectStore("store", allocator, serializer, null, null);
+    store.store("key", "value");
+    store.store("otherKey", "value");
+
+    store.clear();
+    assertThat(store.size(), is(0));
+    assertThat(allocator.getUsedBytes(), is(0L));
+  }
+
+  @Test(expected = ObjectAlreadyExistsException.class)
+  public void storeFailsIfPresent() throws Exception {
+    OffHeapObjectStore store = new OffHeapObjectStore("store", allocator, serializer, null, null);
+    store.store("key", "value");
+    store.store("key", "otherValue");
+  }
+
+  @Test(expected = ObjectDoesNotExistException.class)
+  public void retrieveFailsIfAbsent() throws Exception {
+    new OffHeapObjectStore("store", allocator, serializer, null, null).retrieve("key");
+  }
+
+  @Test(expected = ValueTooLargeException.class)
+  public void valuesLargerThanSlabRejected() throws Exception {
+    new OffHeapObjectStore("store", allocator, serializer, null, null).store("key", new byte[SLAB_SIZE]);
+  }
+
+  @Test
+  public void expiredEntriesAreRemoved() throws Exception {
+    OffHeapObjectStore store = new OffHeapObjectStore("store", allocator, serializer, null, 1000L);
+    store.store("key", "value");
+
+    assertThat(store.expire(currentTimeMillis()), is(0));
+    assertThat(store.expire(currentTimeMillis() + 2000), is(1));
+    assertThat(store.contains("key"), is(false));
+    assertThat(allocator.getUsedBytes(), is(0L));
+  }
+
+  @Test
+  public void oldestEntriesEvictedOverMaxEntries() throws Exception {
+    OffHeapObjectStore store = new OffHeapObjectStore("store", allocator, serializer, 2, null);
+    store.store("first", "value");
+    Thread.sleep(5);
+    store.store("second", "value");
+    Thread.sleep(5);
+    store.store("third", "value");
+
+    assertThat(store.expire(currentTimeMillis()), is(1));
+    assertThat(store.allKeys(), containsInAnyOrder("second", "third"));
+  }
+
+  @Test
+  public void entriesStoredWithinTheSameMillisecondEvictedOneByOne() throws Exception {
+    OffHeapObjectStore store = new OffHeapObjectStore("store", allocator, serializer, 10, null);
+    // most of them share a timestamp
+    for (int i = 0; i < 50; i++) {
+      store.store("key" + i, i);
+    }
+
+    assertThat(store.expire(currentTimeMillis()), is(40));
+    assertThat(store.size(), is(10));
+    assertThat(store.allKeys().size(), is(10));
+  }
+
+  private static byte[] serialize(Object value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(value);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Serializable deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return (Serializable) in.readObject();
+    }
+  }
+}
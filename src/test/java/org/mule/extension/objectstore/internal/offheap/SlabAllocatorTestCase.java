@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.offheap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import org.mule.runtime.api.store.ObjectStoreFullException;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class SlabAllocatorTestCase {
+
+  private static final int SLAB_SIZE = 1024;
+
+  private SlabAllocator allocator = new SlabAllocator(2 * SLAB_SIZE, SLAB_SIZE);
+
+  @Test
+  public void chunksDoNotOverlap() throws Exception {
+    long first = allocator.allocate(100);
+    long second = allocator.allocate(100);
+    assertThat(first, is(not(second)));
+
+    allocator.slab(first).putLong(SlabAllocator.offset(first), 1L);
+    allocator.slab(second).putLong(SlabAllocator.offset(second), 2L);
+    assertThat(allocator.slab(first).getLong(SlabAllocator.offset(first)), is(1L));
+    assertThat(allocator.getUsedBytes(), greaterThanOrEqualTo(200L));
+    assertThat(allocator.getReservedBytes(), is((long) SLAB_SIZE));
+  }
+
+  @Test
+  public void freedChunksAreReused() throws Exception {
+    long address = allocator.allocate(100);
+    allocator.free(address, 100);
+    assertThat(allocator.getUsedBytes(), is(0L));
+    assertThat(allocator.allocate(100), is(address));
+  }
+
+  @Test
+  public void chunksOfAllSizesAreWritable() throws Exception {
+    long address = allocator.allocate(SLAB_SIZE);
+    ByteBuffer slab = allocator.slab(address);
+    slab.position(SlabAllocator.offset(address));
+    slab.put(new byte[SLAB_SIZE]);
+    assertThat(allocator.getReservedBytes(), is((long) SLAB_SIZE));
+  }
+
+  @Test(expected = ObjectStoreFullException.class)
+  public void failsOnceMaxMemoryIsReached() throws Exception {
+    allocator.allocate(SLAB_SIZE);
+    allocator.allocate(SLAB_SIZE);
+    allocator.allocate(SLAB_SIZE);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void chunksLargerThanSlabRejected() throws Exception {
+    allocator.allocate(SLAB_SIZE + 1);
+  }
+}
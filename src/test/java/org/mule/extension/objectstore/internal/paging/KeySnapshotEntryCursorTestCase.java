@@ -0,0 +1,72 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.paging;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.core.Is.is;
+import org.mule.extension.objectstore.api.ObjectStoreEntry;
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.tck.core.util.store.InMemoryObjectStore;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class KeySnapshotEntryCursorTestCase {
+
+  private ObjectStore<Serializable> objectStore = new InMemoryObjectStore<>();
+
+  @Before
+  public void setUp() throws Exception {
+    objectStore.store("a1", "valueA1");
+    objectStore.store("a2", "valueA2");
+    objectStore.store("b1", "valueB1");
+  }
+
+  @Test
+  public void readsInPages() throws Exception {
+    KeySnapshotEntryCursor cursor = new KeySnapshotEntryCursor(objectStore, asList("a1", "a2", "b1"), null);
+
+    assertThat(cursor.next(2), hasSize(2));
+    List<ObjectStoreEntry> last = cursor.next(2);
+    assertThat(last, hasSize(1));
+    assertThat(last.get(0).getKey(), is(equalTo("b1")));
+    assertThat(last.get(0).getValue(), is(equalTo("valueB1")));
+    assertThat(cursor.next(2), is(empty()));
+  }
+
+  @Test
+  public void filtersByPrefix() throws Exception {
+    KeySnapshotEntryCursor cursor = new KeySnapshotEntryCursor(objectStore, asList("a1", "a2", "b1"), "b");
+
+    List<ObjectStoreEntry> page = cursor.next(10);
+    assertThat(page, hasSize(1));
+    assertThat(page.get(0).getKey(), is(equalTo("b1")));
+  }
+
+  @Test
+  public void skipsKeysRemovedAfterSnapshot() throws Exception {
+    KeySnapshotEntryCursor cursor = new KeySnapshotEntryCursor(objectStore, asList("a1", "a2", "b1"), null);
+    objectStore.remove("a2");
+
+    assertThat(cursor.next(10), hasSize(2));
+  }
+
+  @Test
+  public void closedCursorIsExhausted() throws Exception {
+    KeySnapshotEntryCursor cursor = new KeySnapshotEntryCursor(objectStore, asList("a1", "a2", "b1"), null);
+    cursor.close();
+
+    assertThat(cursor.next(10), is(empty()));
+  }
+}
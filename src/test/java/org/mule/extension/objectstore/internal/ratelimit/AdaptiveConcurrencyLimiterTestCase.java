@@ -0,0 +1,79 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.ratelimit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import org.mule.extension.objectstore.internal.metrics.ObjectStoreMetrics;
+import org.mule.extension.objectstore.internal.metrics.StoreMetrics;
+
+import org.junit.Test;
+
+public class AdaptiveConcurrencyLimiterTestCase {
+
+  private StoreMetrics metrics = new ObjectStoreMetrics().forStore("test");
+
+  @Test
+  public void rejectsCallsOverTheLimit() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 10, metrics);
+
+    assertThat(limiter.acquire(), is(true));
+    assertThat(limiter.acquire(), is(true));
+    assertThat(limiter.acquire(), is(false));
+    assertThat(metrics.getClientThrottledCount(), is(1L));
+
+    limiter.release(false);
+    assertThat(limiter.acquire(), is(true));
+  }
+
+  @Test
+  public void burstOfRateLimitsHalvesOnce() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(16, 10, metrics);
+    for (int i = 0; i < 4; i++) {
+      limiter.acquire();
+    }
+    for (int i = 0; i < 4; i++) {
+      limiter.release(true);
+    }
+
+    assertThat(limiter.getLimit(), is(8));
+    assertThat(metrics.getConcurrencyLimit(), is(8));
+
+    limiter.acquire();
+    limiter.release(true);
+    assertThat(limiter.getLimit(), is(4));
+  }
+
+  @Test
+  public void recoversAdditively() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 10, metrics);
+    limiter.acquire();
+    limiter.release(true);
+    assertThat(limiter.getLimit(), is(2));
+
+    for (int i = 0; i < 2; i++) {
+      limiter.acquire();
+      limiter.release(false);
+    }
+    assertThat(limiter.getLimit(), is(2));
+
+    for (int i = 0; i < 3; i++) {
+      limiter.acquire();
+      limiter.release(false);
+    }
+    assertThat(limiter.getLimit(), is(3));
+  }
+
+  @Test
+  public void neverGoesUnderOne() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 10, metrics);
+    limiter.acquire();
+    limiter.release(true);
+
+    assertThat(limiter.getLimit(), is(1));
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.retry;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.Is.is;
+
+import org.junit.Test;
+
+public class RetryPolicyTestCase {
+
+  @Test
+  public void noRetriesUnlessMoreThanOneAttempt() {
+    assertThat(RetryPolicy.of(null, 10L, 100L, null, MILLISECONDS), is(sameInstance(RetryPolicy.NONE)));
+    assertThat(RetryPolicy.of(1, 10L, 100L, null, MILLISECONDS), is(sameInstance(RetryPolicy.NONE)));
+    assertThat(RetryPolicy.NONE.nextBackoff(1, 0, 0), is(lessThan(0L)));
+  }
+
+  @Test
+  public void backoffIsJitteredAndCapped() {
+    RetryPolicy policy = RetryPolicy.of(10, 10L, 40L, null, MILLISECONDS);
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(policy.nextBackoff(1, 0, 0), is(lessThanOrEqualTo(MILLISECONDS.toNanos(10))));
+      assertThat(policy.nextBackoff(2, 0, 0), is(lessThanOrEqualTo(MILLISECONDS.toNanos(20))));
+      assertThat(policy.nextBackoff(9, 0, 0), is(lessThanOrEqualTo(MILLISECONDS.toNanos(40))));
+      assertThat(policy.nextBackoff(9, 0, 0), is(greaterThanOrEqualTo(0L)));
+    }
+  }
+
+  @Test
+  public void stopsAfterMaxAttempts() {
+    RetryPolicy policy = RetryPolicy.of(3, 10L, 40L, null, MILLISECONDS);
+
+    assertThat(policy.nextBackoff(2, 0, 0), is(greaterThanOrEqualTo(0L)));
+    assertThat(policy.nextBackoff(3, 0, 0), is(lessThan(0L)));
+  }
+
+  @Test
+  public void deadlineBoundsRetries() {
+    RetryPolicy policy = RetryPolicy.of(10, 100L, 100L, 50L, MILLISECONDS);
+    long startedAt = 0;
+
+    assertThat(policy.nextBackoff(1, startedAt, MILLISECONDS.toNanos(45)),
+               is(lessThanOrEqualTo(MILLISECONDS.toNanos(5))));
+    assertThat(policy.nextBackoff(1, startedAt, MILLISECONDS.toNanos(50)), is(lessThan(0L)));
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.shard;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ConsistentHashRingTestCase {
+
+  private static final int KEYS = 10000;
+
+  @Test
+  public void keysSpreadEvenly() {
+    ConsistentHashRing<String> ring = ring(4);
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < KEYS; i++) {
+      counts.merge(ring.get("key" + i), 1, Integer::sum);
+    }
+
+    assertThat(counts.size(), is(4));
+    counts.values().forEach(count -> assertThat(count, is(both(greaterThan(KEYS / 8)).and(lessThan(KEYS / 2)))));
+  }
+
+  @Test
+  public void addingNodeOnlyMovesKeysToIt() {
+    ConsistentHashRing<String> before = ring(4);
+    ConsistentHashRing<String> after = ring(5);
+
+    int moved = 0;
+    for (int i = 0; i < KEYS; i++) {
+      String owner = after.get("key" + i);
+      if (!owner.equals(before.get("key" + i))) {
+        assertThat(owner, is("shard-4"));
+        moved++;
+      }
+    }
+    assertThat(moved, is(both(greaterThan(KEYS / 10)).and(lessThan(KEYS / 3))));
+  }
+
+  @Test
+  public void assignmentIsStable() {
+    assertThat(ring(3).get("aKey"), is(ring(3).get("aKey")));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void emptyRingFails() {
+    new ConsistentHashRing<String>().get("aKey");
+  }
+
+  private static ConsistentHashRing<String> ring(int nodes) {
+    ConsistentHashRing<String> ring = new ConsistentHashRing<>();
+    for (int i = 0; i < nodes; i++) {
+      ring.add("shard-" + i, "shard-" + i);
+    }
+    return ring;
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.shard;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStore;
+import org.mule.tck.core.util.store.InMemoryObjectStore;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ShardedObjectStoreTestCase {
+
+  private static final int KEYS = 100;
+
+  private ExecutorService executor = Executors.newFixedThreadPool(4);
+  private ObjectStore<Serializable> first = new InMemoryObjectStore<>();
+  private ObjectStore<Serializable> second = new InMemoryObjectStore<>();
+  private ObjectStore<Serializable> third = new InMemoryObjectStore<>();
+
+  @After
+  public void after() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void keysSpreadAcrossShards() throws Exception {
+    ShardedObjectStore store = twoShards();
+    fill(store);
+
+    assertThat(first.allKeys().size(), greaterThan(0));
+    assertThat(second.allKeys().size(), greaterThan(0));
+    assertThat(first.allKeys().size() + second.allKeys().size(), is(KEYS));
+    assertThat(store.retrieve("key42"), is("value42"));
+    assertThat(store.contains("key42"), is(true));
+  }
+
+  @Test
+  public void fanOutMergesResults() throws Exception {
+    ShardedObjectStore store = twoShards();
+    fill(store);
+
+    assertThat(store.allKeys(), hasSize(KEYS));
+    assertThat(store.retrieveAll(), is(aMapWithSize(KEYS)));
+    assertThat(store.retrieveMany(asList("key1", "key2", "key99", "missing")), is(aMapWithSize(3)));
+
+    store.clear();
+    assertThat(store.allKeys(), hasSize(0));
+  }
+
+  @Test
+  public void fanOutRunsOnCallingThreadWhenExecutorRejects() throws Exception {
+    ExecutorService rejecting = mock(ExecutorService.class);
+    when(rejecting.submit(any(Callable.class))).thenThrow(new RejectedExecutionException("saturated"));
+    ShardedObjectStore store = new ShardedObjectStore(asList("first", "second", "third"), asList(first, second, third),
+                                                      rejecting);
+    fill(store);
+
+    assertThat(store.allKeys(), hasSize(KEYS));
+    assertThat(store.retrieveAll(), is(aMapWithSize(KEYS)));
+    assertThat(store.retrieveMany(asList("key1", "key2", "key99", "missing")), is(aMapWithSize(3)));
+
+    store.clear();
+    assertThat(store.allKeys(), hasSize(0));
+  }
+
+  @Test
+  public void upsertOverwrites() throws Exception {
+    ShardedObjectStore store = twoShards();
+    store.store("key", "value");
+    store.upsert("key", "otherValue");
+
+    assertThat(store.retrieve("key"), is("otherValue"));
+    assertThat(store.remove("key"), is("otherValue"));
+    assertThat(store.contains("key"), is(false));
+  }
+
+  @Test
+  public void addedShardTakesOverItsKeys() throws Exception {
+    ShardedObjectStore store = twoShards();
+    fill(store);
+
+    int moved = store.addShard("third", third);
+    assertThat(moved, is(third.allKeys().size()));
+    assertThat(moved, greaterThan(0));
+    assertThat(store.allKeys(), hasSize(KEYS));
+    for (int i = 0; i < KEYS; i++) {
+      assertThat(store.retrieve("key" + i), is("value" + i));
+    }
+  }
+
+  @Test
+  public void rebalanceMovesMisplacedKeys() throws Exception {
+    fill(twoShards());
+
+    ShardedObjectStore grown = new ShardedObjectStore(asList("first", "second", "third"), asList(first, second, third),
+                                                      executor);
+    assertThat(grown.rebalance(), is(third.allKeys().size()));
+    assertThat(grown.rebalance(), is(0));
+    assertThat(grown.retrieveAll(), is(aMapWithSize(KEYS)));
+  }
+
+  @Test(expected = ObjectDoesNotExistException.class)
+  public void missingKeyFails() throws Exception {
+    twoShards().retrieve("missing");
+  }
+
+  private ShardedObjectStore twoShards() {
+    List<ObjectStore<Serializable>> shards = new ArrayList<>(asList(first, second));
+    return new ShardedObjectStore(asList("first", "second"), shards, executor);
+  }
+
+  private static void fill(ShardedObjectStore store) throws Exception {
+    for (int i = 0; i < KEYS; i++) {
+      store.store("key" + i, "value" + i);
+    }
+  }
+}
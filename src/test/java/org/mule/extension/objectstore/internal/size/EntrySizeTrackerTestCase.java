@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.size;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.core.Is.is;
+import static org.mule.extension.objectstore.internal.size.EntrySizeTracker.estimate;
+import org.mule.extension.objectstore.api.VersionedValue;
+import org.mule.runtime.api.metadata.TypedValue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+public class EntrySizeTrackerTestCase {
+
+  private EntrySizeTracker tracker = new EntrySizeTracker(100);
+
+  @Test
+  public void evictsLeastRecentlyUsedOverBudget() {
+    assertThat(tracker.written("first", 40), is(empty()));
+    assertThat(tracker.written("second", 40), is(empty()));
+    tracker.accessed("first");
+
+    assertThat(tracker.written("third", 40), contains("second"));
+    assertThat(tracker.getTotalBytes(), is(80L));
+  }
+
+  @Test
+  public void evictsAsManyEntriesAsNeeded() {
+    tracker.written("first", 30);
+    tracker.written("second", 30);
+    tracker.written("third", 30);
+
+    assertThat(tracker.written("fourth", 80), contains("first", "second", "third"));
+    assertThat(tracker.getTotalBytes(), is(80L));
+  }
+
+  @Test
+  public void overwritesReplaceTheirPreviousSize() {
+    tracker.written("key", 60);
+    assertThat(tracker.written("key", 90), is(empty()));
+    assertThat(tracker.getTotalBytes(), is(90L));
+  }
+
+  @Test
+  public void removalsReleaseTheirSize() {
+    tracker.written("first", 60);
+    tracker.written("second", 30);
+    tracker.removed("first");
+
+    assertThat(tracker.getTotalBytes(), is(30L));
+    tracker.cleared();
+    assertThat(tracker.getTotalBytes(), is(0L));
+  }
+
+  @Test
+  public void estimates() {
+    assertThat(estimate(new byte[1024]), is(1024L));
+    assertThat(estimate("abc"), is(3L));
+    assertThat(estimate(TypedValue.of("abc")), is(3L));
+    assertThat(estimate(new VersionedValue("abc", 1)), is(3L + Long.BYTES));
+
+    ArrayList<String> list = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      list.add("value" + i);
+    }
+    assertThat(estimate(list), is(greaterThan(600L)));
+  }
+}
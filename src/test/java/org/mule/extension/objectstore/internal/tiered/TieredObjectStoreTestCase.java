@@ -0,0 +1,160 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.extension.objectstore.internal.tiered;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.mule.extension.objectstore.internal.journal.Journal;
+import org.mule.extension.objectstore.internal.journal.JournalObjectStore;
+import org.mule.extension.objectstore.internal.metrics.ObjectStoreMetrics;
+import org.mule.extension.objectstore.internal.metrics.StoreMetrics;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStoreException;
+import org.mule.runtime.api.store.ObjectStoreFullException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TieredObjectStoreTestCase {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private SerializationProtocol serializer = mock(SerializationProtocol.class);
+  private StoreMetrics metrics = new ObjectStoreMetrics().forStore("store");
+  private Journal journal;
+
+  @Before
+  public void before() throws Exception {
+    when(serializer.serialize(any())).thenAnswer(invocation -> serialize(invocation.getArguments()[0]));
+    when(serializer.deserialize(any(byte[].class))).thenAnswer(invocation -> deserialize((byte[]) invocation.getArguments()[0]));
+  }
+
+  @Test
+  public void writtenEntriesServedFromMemory() throws Exception {
+    TieredObjectStore store = store(2, 0);
+    store.store("key", "value");
+
+    assertThat(store.retrieve("key"), is("value"));
+    assertThat(metrics.getMemoryTierHitCount(), is(1L));
+    assertThat(metrics.getDiskTierHitCount(), is(0L));
+    assertThat(metrics.getMemoryTierHitRate(), is(1.0));
+  }
+
+  @Test
+  public void evictedEntriesPromotedFromDisk() throws Exception {
+    TieredObjectStore store = store(2, 0);
+    store.store("first", "value");
+    store.store("second", "value");
+    store.upsert("third", "value");
+    assertThat(store.getMemorySize(), is(2));
+
+    assertThat(store.retrieve("first"), is("value"));
+    assertThat(metrics.getDiskTierHitCount(), is(1L));
+    assertThat(store.retrieve("first"), is("value"));
+    assertThat(metrics.getMemoryTierHitCount(), is(1L));
+    assertThat(store.allKeys(), containsInAnyOrder("first", "second", "third"));
+  }
+
+  @Test
+  public void missesRecorded() throws Exception {
+    TieredObjectStore store = store(2, 0);
+    try {
+      store.retrieve("key");
+    } catch (ObjectDoesNotExistException e) {
+      // expected
+    }
+
+    assertThat(metrics.getDiskTierMissCount(), is(1L));
+    assertThat(metrics.getDiskTierHitRate(), is(0.0));
+  }
+
+  @Test
+  public void removeAffectsBothTiers() throws Exception {
+    TieredObjectStore store = store(2, 0);
+    store.store("key", "value");
+
+    assertThat(store.remove("key"), is("value"));
+    assertThat(store.contains("key"), is(false));
+    assertThat(store.getMemorySize(), is(0));
+  }
+
+  @Test
+  public void readRacingWithRemoveDoesNotResurrectTheEntry() throws Exception {
+    AtomicReference<TieredObjectStore> tiered = new AtomicReference<>();
+    JournalObjectStore disk =
+        new JournalObjectStore("store", new Journal(folder.getRoot(), 64 * 1024, 0), serializer, null, null) {
+
+          @Override
+          public Serializable remove(String key) throws ObjectStoreException {
+            // promotes the entry while it is being removed
+            tiered.get().retrieve(key);
+            return super.remove(key);
+          }
+        };
+    tiered.set(new TieredObjectStore("store", 1, disk, 0, null, metrics));
+    tiered.get().store("key", "value");
+    tiered.get().store("otherKey", "value");
+
+    assertThat(tiered.get().remove("key"), is("value"));
+    assertThat(tiered.get().contains("key"), is(false));
+    assertThat(metrics.getDiskTierHitCount(), is(1L));
+  }
+
+  @Test
+  public void entriesSurviveInDiskTier() throws Exception {
+    store(2, 0).store("key", "value");
+    assertThat(store(2, 0).retrieve("key"), is("value"));
+  }
+
+  @Test(expected = ObjectStoreFullException.class)
+  public void writesRejectedOverDiskBudget() throws Exception {
+    TieredObjectStore store = store(2, 60);
+    store.store("key", "value");
+    store.store("otherKey", "value");
+    store.store("yetAnotherKey", "value");
+  }
+
+  private TieredObjectStore store(int maxMemoryEntries, long maxDiskBytes) throws Exception {
+    if (journal != null) {
+      // opening the store again stands for a restart, which closes the journal first
+      journal.close();
+    }
+    journal = new Journal(folder.getRoot(), 64 * 1024, 0);
+    JournalObjectStore disk = new JournalObjectStore("store", journal, serializer, null, null);
+    return new TieredObjectStore("store", maxMemoryEntries, disk, maxDiskBytes, null, metrics);
+  }
+
+  private static byte[] serialize(Object value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(value);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Serializable deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return (Serializable) in.readObject();
+    }
+  }
+}